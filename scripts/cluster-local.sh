@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+#
+# 한 머신에서 클러스터 모드 인스턴스 여러 개를 띄운다. (Ctrl-C 로 모두 종료)
+#   node-1 : local + cluster 프로파일, 내장 레디스 기동 + 스키마/초기 데이터 생성
+#   node-N : cluster 프로파일, node-1 의 레디스와 파일 H2 를 함께 사용
+#
+# 사용법: scripts/cluster-local.sh [노드 수] [시작 포트]
+#   소유 노드 확인 : curl "localhost:8081/admin/cluster/owner?account_number=1000000000"
+#   다른 노드로 요청을 보내도 소유 노드에서 처리된다. (로그의 Cluster membership changed 참고)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+NODES="${1:-3}"
+BASE_PORT="${2:-8081}"
+PIDS=()
+
+trap 'kill "${PIDS[@]}" 2> /dev/null || true' EXIT
+
+sh ./gradlew -q bootJar
+JAR="$(ls build/libs/*.jar | grep -v plain | head -n 1)"
+rm -rf build/cluster-db
+
+wait_ready() {
+  until curl -sf -o /dev/null "http://localhost:$1/admin/cluster"; do
+    sleep 0.2
+  done
+}
+
+for ((i = 1; i <= NODES; i++)); do
+  port=$(( BASE_PORT + i - 1 ))
+  if (( i == 1 )); then
+    args=(--spring.profiles.active=local,cluster --spring.jpa.hibernate.ddl-auto=create --spring.sql.init.mode=always)
+  else
+    args=(--spring.profiles.active=cluster)
+  fi
+  java -jar "$JAR" "${args[@]}" --server.port="$port" --cluster.node-id="node-$i" \
+    > "build/cluster-node-$i.log" 2>&1 &
+  PIDS+=($!)
+  wait_ready "$port"
+  echo "node-$i ready on :$port"
+done
+
+sleep 2
+curl -s "http://localhost:${BASE_PORT}/admin/cluster"
+echo
+for account in 1000000000 1000000001 1000000002; do
+  curl -s "http://localhost:${BASE_PORT}/admin/cluster/owner?account_number=${account}"
+  echo
+done
+
+wait
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+#
+# 기동 가속 모드 비교 벤치마크 (cold / cds / aot / aot+cds)
+#   모든 모드가 같은 jar 클래스패스(build/cds/launch.args)와 기본 프로파일로 실행되므로
+#   동작은 동일하고 기동 방식만 다르다.
+#
+# 사용법: scripts/startup-aot-cds-benchmark.sh [반복 횟수]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+source scripts/startup-common.sh
+
+RUNS="${1:-5}"
+FIRST_REQUEST="/account?user_id=1"
+
+# 1. AOT 없이 빌드 + 학습 실행
+sh ./gradlew -q cdsArchive
+run_mode "cold"    "$FIRST_REQUEST" java @build/cds/launch.args
+run_mode "cds"     "$FIRST_REQUEST" java -XX:SharedArchiveFile=build/cds/app.jsa @build/cds/launch.args
+
+# 2. AOT 빌드 + 학습 실행 (launch.args 가 aot jar 를 포함하도록 다시 쓰여진다)
+sh ./gradlew -q -Paot cdsArchive
+run_mode "aot"     "$FIRST_REQUEST" java -Dspring.aot.enabled=true @build/cds/launch.args
+run_mode "aot+cds" "$FIRST_REQUEST" java -Dspring.aot.enabled=true \
+  -XX:SharedArchiveFile=build/cds/app-aot.jsa @build/cds/launch.args
+
+print_results
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+#
+# 기동 시간 벤치마크
+#   - time-to-first-request : 프로세스 시작부터 첫 요청이 200 으로 응답할 때까지 (ms)
+#   - boot RSS              : 첫 요청 직후의 VmRSS (MB)
+#
+# 사용법: scripts/startup-benchmark.sh [반복 횟수]
+#   no-redis   : spring.redis.enabled=false, 레디스 관련 빈 없음
+#   lazy-redis : local 프로파일, 레디스는 첫 사용 전까지 기동되지 않음
+#   with-redis : local 프로파일, 첫 요청이 /get-lock 이라 내장 레디스 기동 + 연결까지 포함
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+source scripts/startup-common.sh
+
+RUNS="${1:-5}"
+
+sh ./gradlew -q bootJar
+JAR="$(ls build/libs/*.jar | grep -v plain | head -n 1)"
+
+run_mode "no-redis"   "/account?user_id=1" java -jar "$JAR" --spring.profiles.active=default --spring.redis.enabled=false
+run_mode "lazy-redis" "/account?user_id=1" java -jar "$JAR" --spring.profiles.active=local
+run_mode "with-redis" "/get-lock"          java -jar "$JAR" --spring.profiles.active=local
+
+print_results
@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+#
+# 기동 벤치마크 스크립트들이 공유하는 함수 모음 (source 해서 사용)
+
+PORT="${PORT:-18080}"
+RUNS="${RUNS:-5}"
+RESULTS=()
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+  sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }'
+}
+
+# run_mode <이름> <첫 요청 경로> <실행 명령...>
+run_mode() {
+  local name="$1" path="$2"
+  shift 2
+
+  local ttfr_list="" rss_list=""
+  for ((i = 1; i <= RUNS; i++)); do
+    local start pid ttfr rss
+    start="$(now_ms)"
+    "$@" --server.port="$PORT" > "build/startup-${name}.log" 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "http://localhost:${PORT}${path}"; do
+      if ! kill -0 "$pid" 2> /dev/null; then
+        echo "[$name] process exited, see build/startup-${name}.log" >&2
+        return 1
+      fi
+      sleep 0.02
+    done
+
+    ttfr=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ { printf "%d", $2 / 1024 }' "/proc/${pid}/status")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+
+    ttfr_list+="${ttfr}"$'\n'
+    rss_list+="${rss}"$'\n'
+  done
+
+  RESULTS+=("$(printf '%-14s %10s %10s' "$name" \
+    "$(printf '%s' "$ttfr_list" | median)" \
+    "$(printf '%s' "$rss_list" | median)")")
+}
+
+print_results() {
+  printf '%-14s %10s %10s\n' "mode" "ttfr(ms)" "rss(MB)"
+  printf '%s\n' "${RESULTS[@]}"
+}
@@ -0,0 +1,83 @@
+package com.example.accountservicezerobase.binary;
+
+import com.example.accountservicezerobase.AccountServiceZeroBaseApplication;
+import com.example.accountservicezerobase.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 프로세스에 앱을 띄우고 잔액 사용을 REST(JSON) 와 바이너리 프로토콜로 비교한다.
+ * 요청당 할당량은 gc 프로파일러의 gc.alloc.rate.norm (클라이언트 + 서버 합산)으로 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BinaryProtocolBenchmark {
+    private static final int PIPELINE_DEPTH = 32;
+    private static final long AMOUNT = 100L;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest useRequest;
+    private BinaryTransactionClient binaryClient;
+    private String accountNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(AccountServiceZeroBaseApplication.class).run(
+                "--server.port=0",
+                "--binary.enabled=true",
+                "--binary.port=0",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN");
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(1L, Long.MAX_VALUE / 2)
+                .getAccountNumber();
+
+        int httpPort = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+        httpClient = HttpClient.newHttpClient();
+        useRequest = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + httpPort + "/transaction/use"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"userId\":1,\"accountNumber\":\"" + accountNumber + "\",\"amount\":" + AMOUNT + "}"))
+                .build();
+        binaryClient = new BinaryTransactionClient("127.0.0.1", context.getBean(BinaryTransactionServer.class).getPort());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        binaryClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public String rest() throws IOException, InterruptedException {
+        return httpClient.send(useRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public BinaryProtocol.Response binary() throws IOException {
+        return binaryClient.use(1L, accountNumber, AMOUNT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public void binaryPipelined(Blackhole blackhole) throws IOException {
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            binaryClient.sendUse(1L, accountNumber, AMOUNT);
+        }
+        binaryClient.flush();
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            blackhole.consume(binaryClient.receive());
+        }
+    }
+}
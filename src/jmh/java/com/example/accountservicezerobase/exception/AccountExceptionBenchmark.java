@@ -0,0 +1,48 @@
+package com.example.accountservicezerobase.exception;
+
+import com.example.accountservicezerobase.type.ErrorCode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 업무 거절이 몰릴 때(failure storm) 예외 비용
+ * - allocated    : 이전 방식. 던질 때마다 새 AccountException (스택 트레이스 채움)
+ * - preallocated : AccountException.of 공유 인스턴스 (스택 트레이스 없음)
+ * depth 는 컨트롤러/프록시/서비스를 거친 호출 깊이를 흉내 낸다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class AccountExceptionBenchmark {
+    @Param({"16", "96"})
+    public int depth;
+
+    @Benchmark
+    public ErrorCode allocated() {
+        try {
+            return call(depth, false);
+        } catch (AccountException e) {
+            return e.getErrorCode();
+        }
+    }
+
+    @Benchmark
+    public ErrorCode preallocated() {
+        try {
+            return call(depth, true);
+        } catch (AccountException e) {
+            return e.getErrorCode();
+        }
+    }
+
+    private static ErrorCode call(int remaining, boolean preallocated) {
+        if (remaining > 0) {
+            return call(remaining - 1, preallocated);
+        }
+        throw preallocated
+                ? AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE)
+                : new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+    }
+}
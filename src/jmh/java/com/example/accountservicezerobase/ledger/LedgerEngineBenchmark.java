@@ -0,0 +1,66 @@
+package com.example.accountservicezerobase.ledger;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 원장 엔진 단일 스레드(코어) 처리량
+ * WAL 기록은 포함하고, 요청마다 fsync 를 기다리지는 않는다. (그룹 커밋)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LedgerEngineBenchmark {
+    @Param({"1000", "1000000"})
+    public int accounts;
+
+    private Path directory;
+    private LedgerEngine engine;
+    private final LedgerEngine.Receipt receipt = new LedgerEngine.Receipt();
+    private int next;
+    private long transactionId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-bench");
+        engine = LedgerEngine.open(directory, accounts, 4 << 20, 1000,
+                LedgerEngine.MutationListener.NONE);
+        for (int i = 0; i < accounts; i++) {
+            engine.register(1_000_000_000L + i, i + 1, 1, Long.MAX_VALUE / 2, true, receipt);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        engine.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long debit() {
+        int slot = next++;
+        if (next == accounts) {
+            next = 0;
+        }
+        engine.debit(slot, 1, 100, 0, ++transactionId, 0, receipt);
+        return receipt.balance;
+    }
+
+    @Benchmark
+    public long slotLookupAndDebit() {
+        int index = next++;
+        if (next == accounts) {
+            next = 0;
+        }
+        int slot = engine.slotOf(1_000_000_000L + index);
+        engine.debit(slot, 1, 100, 0, ++transactionId, 0, receipt);
+        return receipt.balance;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.accountservicezerobase.sequencer;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.accountservicezerobase.type.TransactionType.USE;
+
+/**
+ * 파티션 수에 따른 sequencer 처리량
+ * writer 는 DB 대신 메모리 잔액만 바꾸므로, 링/스레드 전달 비용만 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class PartitionedSequencerBenchmark {
+    private static final int ACCOUNTS = 1024;
+    private static final String[] ACCOUNT_NUMBERS = new String[ACCOUNTS];
+    private static final TransactionDto RESULT = new TransactionDto();
+
+    static {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ACCOUNT_NUMBERS[i] = String.valueOf(1_000_000_000L + i);
+        }
+    }
+
+    @Param({"1", "2", "4", "8"})
+    public int partitions;
+
+    private PartitionedSequencer sequencer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long[] balances = new long[ACCOUNTS];
+        sequencer = new PartitionedSequencer(partitions, 4096, 256, TimeUnit.SECONDS.toNanos(1),
+                (partition, batch, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        BalanceCommand command = batch[i];
+                        int account = (int) (Long.parseLong(command.accountNumber) - 1_000_000_000L);
+                        balances[account] -= command.amount;
+                        command.future.complete(RESULT);
+                    }
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sequencer.close();
+    }
+
+    @Benchmark
+    public TransactionDto submitAndWait() {
+        String accountNumber = ACCOUNT_NUMBERS[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+        return sequencer.submit(USE, 1L, accountNumber, null, 100L).join();
+    }
+}
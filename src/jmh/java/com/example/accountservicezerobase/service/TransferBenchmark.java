@@ -0,0 +1,103 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.AccountServiceZeroBaseApplication;
+import com.example.accountservicezerobase.dto.TransferBatch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 같은 프로세스에 앱을 띄우고 적은 수의 계좌 사이에서 양방향 이체를 동시에 몰아 넣는다.
+ * 한 번 실행에 STORM_THREADS 개 스레드가 TRANSFERS_PER_THREAD 건씩 동시에 보낸다. (jmh threads 설정과 무관)
+ * 계좌 수가 적을수록 같은 계좌 쌍이 겹치고 A→B / B→A 가 동시에 일어난다.
+ * 잠금 순서가 어긋나면 lock timeout 으로 실패하므로, 예외 없이 끝나는지도 함께 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransferBenchmark {
+    private static final long[] USERS = {1L, 2L, 3L};
+    private static final long AMOUNT = 100L;
+    private static final int STORM_THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 16;
+    private static final int BATCH_SIZE = 4;
+
+    @Param({"2", "8", "24"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private ExecutorService executor;
+    private final List<String> accountNumbers = new ArrayList<>();
+    private final List<Long> owners = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AccountServiceZeroBaseApplication.class).run(
+                "--server.port=0",
+                "--profiling.sql.enabled=false",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN");
+        transactionService = context.getBean(TransactionService.class);
+        AccountService accountService = context.getBean(AccountService.class);
+        for (int i = 0; i < accounts; i++) {
+            long userId = USERS[i % USERS.length];
+            accountNumbers.add(accountService.createAccount(userId, Long.MAX_VALUE / 4).getAccountNumber());
+            owners.add(userId);
+        }
+        executor = Executors.newFixedThreadPool(STORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STORM_THREADS * TRANSFERS_PER_THREAD)
+    public void transferStorm() throws Exception {
+        storm(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int from = random.nextInt(accounts);
+            transactionService.transfer(owners.get(from), accountNumbers.get(from),
+                    accountNumbers.get(otherThan(from, random)), AMOUNT);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STORM_THREADS * TRANSFERS_PER_THREAD * BATCH_SIZE)
+    public void transferBatchStorm() throws Exception {
+        storm(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int from = random.nextInt(accounts);
+            List<TransferBatch.Item> items = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                items.add(new TransferBatch.Item(accountNumbers.get(otherThan(from, random)), AMOUNT));
+            }
+            transactionService.transferBatch(owners.get(from), accountNumbers.get(from), items);
+        });
+    }
+
+    private int otherThan(int from, ThreadLocalRandom random) {
+        return (from + 1 + random.nextInt(accounts - 1)) % accounts;
+    }
+
+    private void storm(Runnable transfer) throws Exception {
+        List<Future<?>> futures = new ArrayList<>(STORM_THREADS);
+        for (int i = 0; i < STORM_THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < TRANSFERS_PER_THREAD; j++) {
+                    transfer.run();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
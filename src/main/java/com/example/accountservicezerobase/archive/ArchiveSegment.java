@@ -0,0 +1,333 @@
+package com.example.accountservicezerobase.archive;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 보관(archive) 세그먼트 파일 하나.
+ * <pre>
+ * [block 0] ... [block n-1] [footer] [footer offset: long] [MAGIC: int]
+ * block  : blockRows 개의 거래를 직렬화하여 deflate 압축
+ * footer : 전체 건수, 거래일시 범위, (v3) 원본 거래 행 id 최댓값,
+ *          블록별 (offset, length, 건수, 거래일시 범위, (v3) 블록의 거래 ID 블룸 필터), 거래 ID 블룸 필터
+ * </pre>
+ * MAGIC 이 형식의 버전이다. 새 세그먼트는 항상 v3 로 쓰고, v1, v2 세그먼트도 읽는다.
+ * - v1 (TRAR) : 거래 ID, 계좌번호, 종류, 결과, 금액, 잔액, 거래일시
+ * - v2 (TRA2) : v1 + 연결 거래 ID(이체), 오류 코드 (없으면 null)
+ * - v3 (TRA3) : 행은 v2 와 같고, footer 에 원본 거래 행 id 최댓값(v1, v2 는 0 으로 읽는다)과 블록별 블룸 필터를 둔다.
+ * 한 번 쓰여진 세그먼트는 읽기 전용이며 수정되지 않는다.
+ */
+@Getter
+public class ArchiveSegment {
+    private static final int MAGIC_V1 = 0x54524152; // "TRAR"
+    private static final int MAGIC_V2 = 0x54524132; // "TRA2"
+    private static final int MAGIC_V3 = 0x54524133; // "TRA3"
+
+    private final Path path;
+    private final int formatVersion;
+    private final long rowCount;
+    private final long minTransactedAt;
+    private final long maxTransactedAt;
+    // 이 세그먼트에 넣은 원본 거래 행(transaction.id) 중 가장 큰 id. 모르면 0
+    private final long maxSourceId;
+    private final List<Block> blocks;
+    @Getter(AccessLevel.NONE)
+    private final BloomFilter transactionIds;
+
+    private ArchiveSegment(Path path, int formatVersion, long rowCount, long minTransactedAt, long maxTransactedAt,
+                           long maxSourceId, List<Block> blocks, BloomFilter transactionIds) {
+        this.path = path;
+        this.formatVersion = formatVersion;
+        this.rowCount = rowCount;
+        this.minTransactedAt = minTransactedAt;
+        this.maxTransactedAt = maxTransactedAt;
+        this.maxSourceId = maxSourceId;
+        this.blocks = blocks;
+        this.transactionIds = transactionIds;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Block {
+        private final long offset;
+        private final int length;
+        private final int rowCount;
+        private final long minTransactedAt;
+        private final long maxTransactedAt;
+        // v1, v2 세그먼트는 블록별 필터가 없으므로 null (모든 블록이 후보)
+        @Getter(AccessLevel.NONE)
+        private final BloomFilter transactionIds;
+
+        boolean overlaps(long from, long to) {
+            return minTransactedAt <= to && maxTransactedAt >= from;
+        }
+
+        boolean mightContain(String transactionId) {
+            return transactionIds == null || transactionIds.mightContain(transactionId);
+        }
+    }
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return minTransactedAt <= toEpochSecond(to) && maxTransactedAt >= toEpochSecond(from);
+    }
+
+    public boolean mightContain(String transactionId) {
+        return transactionIds.mightContain(transactionId);
+    }
+
+    /**
+     * 임시 파일에 쓰고 fsync 한 뒤 원자적으로 이름을 바꾼다.
+     * 중간에 죽더라도 반쯤 쓰인 세그먼트가 보이지 않는다.
+     */
+    public static ArchiveSegment write(Path target, List<TransactionDto> rows, long maxSourceId, int blockRows)
+            throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        List<Block> blocks = new ArrayList<>();
+        BloomFilter transactionIds = new BloomFilter(rows.size());
+        long minAt = Long.MAX_VALUE;
+        long maxAt = Long.MIN_VALUE;
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            long offset = 0;
+
+            for (int start = 0; start < rows.size(); start += blockRows) {
+                List<TransactionDto> blockRowList = rows.subList(start, Math.min(start + blockRows, rows.size()));
+                long blockMinAt = Long.MAX_VALUE;
+                long blockMaxAt = Long.MIN_VALUE;
+                BloomFilter blockTransactionIds = new BloomFilter(blockRowList.size());
+
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try (DataOutputStream blockOut = new DataOutputStream(new DeflaterOutputStream(compressed, deflater))) {
+                    for (TransactionDto row : blockRowList) {
+                        writeRow(blockOut, row);
+                        transactionIds.add(row.getTransactionId());
+                        blockTransactionIds.add(row.getTransactionId());
+
+                        long at = toEpochSecond(row.getTransactedAt());
+                        blockMinAt = Math.min(blockMinAt, at);
+                        blockMaxAt = Math.max(blockMaxAt, at);
+                    }
+                } finally {
+                    deflater.end();
+                }
+
+                byte[] bytes = compressed.toByteArray();
+                out.write(bytes);
+                blocks.add(new Block(offset, bytes.length, blockRowList.size(), blockMinAt, blockMaxAt,
+                        blockTransactionIds));
+                offset += bytes.length;
+                minAt = Math.min(minAt, blockMinAt);
+                maxAt = Math.max(maxAt, blockMaxAt);
+            }
+
+            out.writeLong(rows.size());
+            out.writeLong(minAt);
+            out.writeLong(maxAt);
+            out.writeLong(maxSourceId);
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                out.writeLong(block.getOffset());
+                out.writeInt(block.getLength());
+                out.writeInt(block.getRowCount());
+                out.writeLong(block.getMinTransactedAt());
+                out.writeLong(block.getMaxTransactedAt());
+                block.transactionIds.writeTo(out);
+            }
+            transactionIds.writeTo(out);
+            out.writeLong(offset);
+            out.writeInt(MAGIC_V3);
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        target.toFile().setReadOnly();
+
+        return new ArchiveSegment(target, 3, rows.size(), minAt, maxAt, maxSourceId,
+                Collections.unmodifiableList(blocks), transactionIds);
+    }
+
+    /**
+     * footer 만 읽어 인덱스를 메모리에 올린다. 블록은 필요할 때 읽는다.
+     */
+    public static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+            channel.read(trailer, size - trailer.capacity());
+            trailer.flip();
+            long footerOffset = trailer.getLong();
+            int magic = trailer.getInt();
+            int formatVersion = switch (magic) {
+                case MAGIC_V1 -> 1;
+                case MAGIC_V2 -> 2;
+                case MAGIC_V3 -> 3;
+                default -> throw new IOException("Not an archive segment: " + path);
+            };
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(footerOffset))));
+            long rowCount = in.readLong();
+            long minAt = in.readLong();
+            long maxAt = in.readLong();
+            long maxSourceId = formatVersion >= 3 ? in.readLong() : 0L;
+            int blockCount = in.readInt();
+            List<Block> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new Block(in.readLong(), in.readInt(), in.readInt(), in.readLong(), in.readLong(),
+                        formatVersion >= 3 ? BloomFilter.readFrom(in) : null));
+            }
+            BloomFilter transactionIds = BloomFilter.readFrom(in);
+
+            return new ArchiveSegment(path, formatVersion, rowCount, minAt, maxAt, maxSourceId,
+                    Collections.unmodifiableList(blocks), transactionIds);
+        }
+    }
+
+    public List<TransactionDto> readBlock(Block block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(block.getLength());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.getOffset() + buffer.position()) < 0) {
+                    throw new EOFException("Truncated archive block: " + path);
+                }
+            }
+        }
+
+        List<TransactionDto> rows = new ArrayList<>(block.getRowCount());
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(buffer.array())))) {
+            for (int i = 0; i < block.getRowCount(); i++) {
+                rows.add(readRow(in, formatVersion));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 세그먼트 블룸 필터를 통과하면, 블록별 블룸 필터도 통과한 블록만 풀어 거래 ID 를 찾는다.
+     */
+    public Optional<TransactionDto> find(String transactionId) throws IOException {
+        if (!transactionIds.mightContain(transactionId)) {
+            return Optional.empty();
+        }
+        for (Block block : blocks) {
+            if (!block.mightContain(transactionId)) {
+                continue;
+            }
+            for (TransactionDto row : readBlock(block)) {
+                if (transactionId.equals(row.getTransactionId())) {
+                    return Optional.of(row);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 원본 거래 행이 이 세그먼트에 들어갔는지. maxSourceId 보다 큰 id 는 블룸 필터도 보지 않는다.
+     * v1, v2 세그먼트는 id 범위를 모르므로 항상 찾아본다.
+     */
+    public boolean containsSource(long sourceId, String transactionId) throws IOException {
+        if (formatVersion >= 3 && sourceId > maxSourceId) {
+            return false;
+        }
+        return find(transactionId).isPresent();
+    }
+
+    /**
+     * 거래일시 범위가 겹치는 블록만 풀어서 조건에 맞는 거래를 돌려준다.
+     */
+    public List<TransactionDto> scan(String accountNumber, LocalDateTime from, LocalDateTime to) throws IOException {
+        long fromSecond = toEpochSecond(from);
+        long toSecond = toEpochSecond(to);
+        List<TransactionDto> result = new ArrayList<>();
+
+        for (Block block : blocks) {
+            if (!block.overlaps(fromSecond, toSecond)) {
+                continue;
+            }
+            for (TransactionDto row : readBlock(block)) {
+                if ((accountNumber == null || accountNumber.equals(row.getAccountNumber()))
+                        && !row.getTransactedAt().isBefore(from)
+                        && !row.getTransactedAt().isAfter(to)) {
+                    result.add(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void writeRow(DataOutputStream out, TransactionDto row) throws IOException {
+        out.writeUTF(row.getTransactionId());
+        out.writeUTF(row.getAccountNumber());
+        out.writeUTF(row.getTransactionType().name());
+        out.writeUTF(row.getTransactionResultType().name());
+        out.writeLong(row.getAmount());
+        out.writeLong(row.getBalanceSnapshot());
+        out.writeLong(toEpochSecond(row.getTransactedAt()));
+        out.writeInt(row.getTransactedAt().getNano());
+        writeNullableUTF(out, row.getLinkedTransactionId());
+        writeNullableUTF(out, row.getErrorCode() == null ? null : row.getErrorCode().name());
+    }
+
+    private static TransactionDto readRow(DataInputStream in, int formatVersion) throws IOException {
+        TransactionDto row = TransactionDto.builder()
+                .transactionId(in.readUTF())
+                .accountNumber(in.readUTF())
+                .transactionType(TransactionType.valueOf(in.readUTF()))
+                .transactionResultType(TransactionResultType.valueOf(in.readUTF()))
+                .amount(in.readLong())
+                .balanceSnapshot(in.readLong())
+                .transactedAt(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC))
+                .build();
+        if (formatVersion >= 2) {
+            row.setLinkedTransactionId(readNullableUTF(in));
+            String errorCode = readNullableUTF(in);
+            row.setErrorCode(errorCode == null ? null : ErrorCode.valueOf(errorCode));
+        }
+        return row;
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.accountservicezerobase.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 세그먼트에 거래 ID 가 없는 것을 블록을 풀지 않고 판단하기 위한 블룸 필터
+ * (원소당 10비트, 해시 7개 -> 오탐률 약 1%)
+ */
+class BloomFilter {
+    private static final int BITS_PER_ELEMENT = 10;
+    private static final int HASH_COUNT = 7;
+
+    private final long[] words;
+
+    BloomFilter(int expectedElements) {
+        this(new long[Math.max(1, (expectedElements * BITS_PER_ELEMENT + 63) / 64)]);
+    }
+
+    private BloomFilter(long[] words) {
+        this.words = words;
+    }
+
+    void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bitCount = (long) words.length * 64;
+        for (int i = 1; i <= HASH_COUNT; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bitCount = (long) words.length * 64;
+        for (int i = 1; i <= HASH_COUNT; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter readFrom(DataInput in) throws IOException {
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        return new BloomFilter(words);
+    }
+
+    // FNV-1a 64bit
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.accountservicezerobase.archive;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 로컬 디스크의 보관 세그먼트 목록.
+ * 세그먼트 인덱스(footer)만 메모리에 두고, 블록은 조회할 때 읽는다.
+ */
+@Slf4j
+@Component
+public class TransactionArchiveStore {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".arc";
+
+    private final Path directory;
+    private final int blockRows;
+
+    // 오래된 세그먼트부터 순서대로
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+
+    public TransactionArchiveStore(
+            @Value("${archive.directory:./archive}") String directory,
+            @Value("${archive.block-rows:1024}") int blockRows) {
+        this.directory = Paths.get(directory);
+        this.blockRows = blockRows;
+    }
+
+    @PostConstruct
+    public void loadSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.sorted(Comparator.comparing(Path::getFileName)).toList()) {
+                String fileName = path.getFileName().toString();
+                if (fileName.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(ArchiveSegment.open(path));
+                } else if (fileName.endsWith(".tmp")) {
+                    // 쓰다가 중단된 세그먼트. 원본 거래는 아직 삭제되지 않았다.
+                    Files.delete(path);
+                }
+            }
+        }
+        log.info("Loaded {} archive segments from {}", segments.size(), directory);
+    }
+
+    /**
+     * maxSourceId : rows 의 원본 거래 행 id 중 가장 큰 값
+     */
+    public synchronized ArchiveSegment append(List<TransactionDto> rows, long maxSourceId) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%013d-%05d%s", SEGMENT_PREFIX,
+                System.currentTimeMillis(), segments.size(), SEGMENT_SUFFIX));
+
+        ArchiveSegment segment = ArchiveSegment.write(target, rows, maxSourceId, blockRows);
+        segments.add(segment);
+        return segment;
+    }
+
+    public Optional<TransactionDto> findByTransactionId(String transactionId) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            try {
+                Optional<TransactionDto> found = segments.get(i).find(transactionId);
+                if (found.isPresent()) {
+                    return found;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 가장 최근에 쓴 세그먼트. 없으면 null
+     */
+    public ArchiveSegment getLastSegment() {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    /**
+     * accountNumber 가 null 이면 모든 계좌를 대상으로 한다.
+     */
+    public List<TransactionDto> scan(String accountNumber, LocalDateTime from, LocalDateTime to, int limit) {
+        List<TransactionDto> result = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            if (!segment.overlaps(from, to)) {
+                continue;
+            }
+            try {
+                for (TransactionDto row : segment.scan(accountNumber, from, to)) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    result.add(row);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 모든 보관 거래를 블록 단위로 읽어 순서대로 넘긴다. (전체를 메모리에 올리지 않는다)
+     */
+    public void forEach(Consumer<TransactionDto> action) {
+        for (ArchiveSegment segment : segments) {
+            try {
+                for (ArchiveSegment.Block block : segment.getBlocks()) {
+                    segment.readBlock(block).forEach(action);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public List<ArchiveSegment> getSegments() {
+        return List.copyOf(segments);
+    }
+}
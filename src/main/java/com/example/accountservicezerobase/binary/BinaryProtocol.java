@@ -0,0 +1,159 @@
+package com.example.accountservicezerobase.binary;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.type.TransactionResultType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 잔액 사용/취소용 길이 접두 바이너리 프레임
+ * 프레임: [int 본문 길이][본문], 문자열은 [byte 길이][ASCII], 정수는 big-endian
+ * <pre>
+ * 요청 USE    : byte op=1, long correlationId, long userId, str accountNumber, long amount
+ * 요청 CANCEL : byte op=2, long correlationId, str transactionId, str accountNumber, long amount
+ * 응답 OK     : byte status=0, long correlationId, str accountNumber, byte 결과(S/F/P),
+ *               str transactionId, long amount, long transactedAt(epoch millis)
+ * 응답 ERROR  : byte status=1, long correlationId, str errorCode
+ * </pre>
+ * 한 연결에 여러 요청을 응답 없이 이어 보낼 수 있고, 응답 순서는 보장하지 않는다. (correlationId 로 짝을 맞춘다)
+ */
+public final class BinaryProtocol {
+    public static final byte OP_USE = 1;
+    public static final byte OP_CANCEL = 2;
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+    public static final int LENGTH_BYTES = Integer.BYTES;
+    public static final int MAX_FRAME_BYTES = 1024;
+    public static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    public record Request(byte op, long correlationId, long userId, String transactionId,
+                          String accountNumber, long amount) {
+    }
+
+    public record Response(long correlationId, String errorCode, String accountNumber,
+                           TransactionResultType transactionResult, String transactionId,
+                           long amount, LocalDateTime transactedAt) {
+        public boolean isOk() {
+            return errorCode == null;
+        }
+    }
+
+    private BinaryProtocol() {
+    }
+
+    public static void writeUse(ByteBuffer buffer, long correlationId, long userId, String accountNumber, long amount) {
+        int start = beginFrame(buffer);
+        buffer.put(OP_USE).putLong(correlationId).putLong(userId);
+        putString(buffer, accountNumber);
+        buffer.putLong(amount);
+        endFrame(buffer, start);
+    }
+
+    public static void writeCancel(ByteBuffer buffer, long correlationId, String transactionId,
+                                   String accountNumber, long amount) {
+        int start = beginFrame(buffer);
+        buffer.put(OP_CANCEL).putLong(correlationId);
+        putString(buffer, transactionId);
+        putString(buffer, accountNumber);
+        buffer.putLong(amount);
+        endFrame(buffer, start);
+    }
+
+    public static void writeResponse(ByteBuffer buffer, long correlationId, TransactionDto transactionDto) {
+        int start = beginFrame(buffer);
+        buffer.put(STATUS_OK).putLong(correlationId);
+        putString(buffer, transactionDto.getAccountNumber());
+        buffer.put((byte) transactionDto.getTransactionResultType().name().charAt(0));
+        putString(buffer, transactionDto.getTransactionId());
+        buffer.putLong(transactionDto.getAmount());
+        buffer.putLong(transactionDto.getTransactedAt().atZone(ZONE).toInstant().toEpochMilli());
+        endFrame(buffer, start);
+    }
+
+    public static void writeError(ByteBuffer buffer, long correlationId, String errorCode) {
+        int start = beginFrame(buffer);
+        buffer.put(STATUS_ERROR).putLong(correlationId);
+        putString(buffer, errorCode);
+        endFrame(buffer, start);
+    }
+
+    /**
+     * buffer(읽기 모드)에 완전한 프레임이 있으면 본문 길이를, 없으면 -1 을 돌려준다. 위치는 바꾸지 않는다.
+     */
+    public static int completeFrameLength(ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_BYTES) {
+            return -1;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length <= 0 || length > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("Invalid frame length " + length);
+        }
+        return buffer.remaining() >= LENGTH_BYTES + length ? length : -1;
+    }
+
+    public static Request readRequest(ByteBuffer buffer) {
+        buffer.getInt();
+        byte op = buffer.get();
+        long correlationId = buffer.getLong();
+        if (op == OP_USE) {
+            long userId = buffer.getLong();
+            String accountNumber = getString(buffer);
+            return new Request(op, correlationId, userId, null, accountNumber, buffer.getLong());
+        }
+        if (op == OP_CANCEL) {
+            String transactionId = getString(buffer);
+            String accountNumber = getString(buffer);
+            return new Request(op, correlationId, 0L, transactionId, accountNumber, buffer.getLong());
+        }
+        throw new IllegalArgumentException("Unknown op " + op);
+    }
+
+    public static Response readResponse(ByteBuffer buffer) {
+        buffer.getInt();
+        byte status = buffer.get();
+        long correlationId = buffer.getLong();
+        if (status == STATUS_ERROR) {
+            return new Response(correlationId, getString(buffer), null, null, null, 0L, null);
+        }
+        String accountNumber = getString(buffer);
+        TransactionResultType transactionResult = TransactionResultType.valueOf(String.valueOf((char) buffer.get()));
+        String transactionId = getString(buffer);
+        long amount = buffer.getLong();
+        LocalDateTime transactedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZONE);
+        return new Response(correlationId, null, accountNumber, transactionResult, transactionId, amount, transactedAt);
+    }
+
+    private static int beginFrame(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + LENGTH_BYTES);
+        return start;
+    }
+
+    private static void endFrame(ByteBuffer buffer, int start) {
+        buffer.putInt(start, buffer.position() - start - LENGTH_BYTES);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        int length = value.length();
+        if (length > 255) {
+            throw new IllegalArgumentException("String too long: " + length);
+        }
+        buffer.put((byte) length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.get() & 0xFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
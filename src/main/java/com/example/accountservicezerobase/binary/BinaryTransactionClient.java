@@ -0,0 +1,88 @@
+package com.example.accountservicezerobase.binary;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * BinaryTransactionServer 용 blocking 클라이언트 (스레드 안전하지 않음)
+ * sendUse/sendCancel 로 요청을 쌓고 flush 로 한 번에 보낸 뒤, receive 로 응답을 도착 순서대로 읽는다.
+ */
+public class BinaryTransactionClient implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long nextCorrelationId;
+
+    public BinaryTransactionClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    public long sendUse(long userId, String accountNumber, long amount) throws IOException {
+        ensureCapacity();
+        long correlationId = nextCorrelationId++;
+        BinaryProtocol.writeUse(out, correlationId, userId, accountNumber, amount);
+        return correlationId;
+    }
+
+    public long sendCancel(String transactionId, String accountNumber, long amount) throws IOException {
+        ensureCapacity();
+        long correlationId = nextCorrelationId++;
+        BinaryProtocol.writeCancel(out, correlationId, transactionId, accountNumber, amount);
+        return correlationId;
+    }
+
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    public BinaryProtocol.Response receive() throws IOException {
+        while (true) {
+            in.flip();
+            int length = BinaryProtocol.completeFrameLength(in);
+            if (length >= 0) {
+                BinaryProtocol.Response response = BinaryProtocol.readResponse(in);
+                in.compact();
+                return response;
+            }
+            in.compact();
+            if (channel.read(in) < 0) {
+                throw new EOFException("Binary connection closed");
+            }
+        }
+    }
+
+    public BinaryProtocol.Response use(long userId, String accountNumber, long amount) throws IOException {
+        sendUse(userId, accountNumber, amount);
+        flush();
+        return receive();
+    }
+
+    public BinaryProtocol.Response cancel(String transactionId, String accountNumber, long amount) throws IOException {
+        sendCancel(transactionId, accountNumber, amount);
+        flush();
+        return receive();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureCapacity() throws IOException {
+        if (out.remaining() < BinaryProtocol.LENGTH_BYTES + BinaryProtocol.MAX_FRAME_BYTES) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.accountservicezerobase.binary;
+
+import com.example.accountservicezerobase.cluster.ClusterRouter;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.service.AsyncUseService;
+import com.example.accountservicezerobase.service.LedgerTransactionService;
+import com.example.accountservicezerobase.service.SequencedTransactionService;
+import com.example.accountservicezerobase.service.TransactionService;
+import com.example.accountservicezerobase.type.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 내부 호출용 바이너리 잔액 사용/취소 리스너 (프레임 형식은 BinaryProtocol)
+ * - selector 스레드 하나가 accept/read/write 를 맡고, 디코딩한 요청은 worker 풀에서 TransactionService 로 처리한다.
+ * - 연결마다 응답을 기다리지 않고 max-in-flight 개까지 요청을 받는다. (아직 다 쓰지 못한 응답 포함)
+ *   넘으면 그 연결의 읽기를 멈춘다.
+ * - 읽기/응답 버퍼는 direct buffer 풀에서 빌려 쓴다.
+ * 실패 거래 저장은 REST 와 같고, 원장 엔진/비동기 사용/클러스터 모드와는 함께 쓸 수 없다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "binary", name = "enabled", havingValue = "true")
+public class BinaryTransactionServer {
+    private static final int RESPONSE_BUFFER_BYTES = 256;
+    private static final long MIN_AMOUNT = 10L;
+    private static final long MAX_AMOUNT = 1_000_000_000L;
+    private static final int ACCOUNT_NUMBER_LENGTH = 10;
+
+    private final TransactionService transactionService;
+    private final boolean conflictingModeEnabled;
+    private final int port;
+    private final int workers;
+    private final int maxInFlight;
+    private final DirectBufferPool readBuffers;
+    private final DirectBufferPool responseBuffers;
+    // 응답이 생겨 관심 이벤트를 다시 계산해야 하는 연결 (selector 스레드가 처리)
+    private final Queue<Connection> updated = new ConcurrentLinkedQueue<>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workerPool;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    public BinaryTransactionServer(
+            TransactionService transactionService,
+            ObjectProvider<LedgerTransactionService> ledgerTransactionService,
+            ObjectProvider<AsyncUseService> asyncUseService,
+            ObjectProvider<SequencedTransactionService> sequencedTransactionService,
+            ObjectProvider<ClusterRouter> clusterRouter,
+            @Value("${binary.port:7070}") int port,
+            @Value("${binary.workers:8}") int workers,
+            @Value("${binary.max-in-flight:256}") int maxInFlight,
+            @Value("${binary.read-buffer-bytes:65536}") int readBufferBytes,
+            @Value("${binary.pooled-buffers:1024}") int pooledBuffers) {
+        this.transactionService = transactionService;
+        this.conflictingModeEnabled = ledgerTransactionService.getIfAvailable() != null
+                || asyncUseService.getIfAvailable() != null
+                || sequencedTransactionService.getIfAvailable() != null
+                || clusterRouter.getIfAvailable() != null;
+        this.port = port;
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.readBuffers = new DirectBufferPool(readBufferBytes, pooledBuffers / 16 + 1);
+        this.responseBuffers = new DirectBufferPool(RESPONSE_BUFFER_BYTES, pooledBuffers);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (conflictingModeEnabled) {
+            throw new IllegalStateException(
+                    "binary.enabled cannot be combined with ledger.engine, async-use, sequencer or cluster mode");
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "binary-worker-" + workerIndex.getAndIncrement()));
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "binary-selector");
+        selectorThread.start();
+        log.info("Binary transaction listener on port {}", getPort());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        selector.wakeup();
+        selectorThread.join();
+        workerPool.shutdown();
+        workerPool.awaitTermination(5, TimeUnit.SECONDS);
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection) {
+                connection.close();
+            }
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    private void selectLoop() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                log.error("Selector failed", e);
+                return;
+            }
+            Connection connection;
+            while ((connection = updated.poll()) != null) {
+                connection.updateInterest();
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Connection target = (Connection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        target.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        target.write();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Closing binary connection", e);
+                    target.close();
+                }
+            }
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        } catch (IOException e) {
+            log.warn("Failed to accept binary connection", e);
+        }
+    }
+
+    private void handle(Connection connection, BinaryProtocol.Request request) {
+        ByteBuffer response = responseBuffers.acquire();
+        try {
+            TransactionDto transactionDto = request.op() == BinaryProtocol.OP_USE ? use(request) : cancel(request);
+            BinaryProtocol.writeResponse(response, request.correlationId(), transactionDto);
+        } catch (AccountException e) {
+            response.clear();
+            BinaryProtocol.writeError(response, request.correlationId(), e.getErrorCode().name());
+        } catch (RuntimeException e) {
+            log.error("Binary request {} failed", request.correlationId(), e);
+            response.clear();
+            BinaryProtocol.writeError(response, request.correlationId(), BinaryProtocol.INTERNAL_ERROR);
+        }
+        response.flip();
+        connection.respond(response);
+    }
+
+    private TransactionDto use(BinaryProtocol.Request request) {
+        if (request.userId() < 1) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+        validate(request.accountNumber(), request.amount());
+        try {
+            return transactionService.useBalance(request.userId(), request.accountNumber(), request.amount());
+        } catch (AccountException e) {
+            transactionService.saveFailedUseTransaction(request.accountNumber(), request.amount(), e.getErrorCode());
+            throw e;
+        }
+    }
+
+    private TransactionDto cancel(BinaryProtocol.Request request) {
+        if (request.transactionId().isEmpty()) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+        validate(request.accountNumber(), request.amount());
+        try {
+            return transactionService.cancelBalance(
+                    request.transactionId(), request.accountNumber(), request.amount());
+        } catch (AccountException e) {
+            transactionService.saveFailedCancelTransaction(
+                    request.accountNumber(), request.amount(), e.getErrorCode());
+            throw e;
+        }
+    }
+
+    // REST 요청 DTO 의 Bean Validation 제약과 같다.
+    private static void validate(String accountNumber, long amount) {
+        if (accountNumber.length() != ACCOUNT_NUMBER_LENGTH || amount < MIN_AMOUNT || amount > MAX_AMOUNT) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer = readBuffers.acquire();
+        private final Queue<ByteBuffer> responses = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private SelectionKey key;
+        private volatile boolean closed;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            int length;
+            while ((length = BinaryProtocol.completeFrameLength(readBuffer)) >= 0) {
+                int limit = readBuffer.limit();
+                int end = readBuffer.position() + BinaryProtocol.LENGTH_BYTES + length;
+                readBuffer.limit(end);
+                BinaryProtocol.Request request = BinaryProtocol.readRequest(readBuffer);
+                readBuffer.limit(limit).position(end);
+
+                inFlight.incrementAndGet();
+                workerPool.execute(() -> handle(this, request));
+            }
+            readBuffer.compact();
+            updateInterest();
+        }
+
+        private void write() throws IOException {
+            ByteBuffer response;
+            while ((response = responses.peek()) != null) {
+                channel.write(response);
+                if (response.hasRemaining()) {
+                    break;
+                }
+                responses.poll();
+                responseBuffers.release(response);
+                inFlight.decrementAndGet();
+            }
+            updateInterest();
+        }
+
+        // worker 스레드에서 호출된다. in-flight 는 응답을 다 쓴 뒤에 줄인다.
+        private void respond(ByteBuffer response) {
+            responses.add(response);
+            if (closed) {
+                drain();
+                return;
+            }
+            updated.add(this);
+            selector.wakeup();
+        }
+
+        private void updateInterest() {
+            if (closed || !key.isValid()) {
+                return;
+            }
+            int ops = 0;
+            if (inFlight.get() < maxInFlight) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!responses.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close binary connection", e);
+            }
+            readBuffers.release(readBuffer);
+            drain();
+        }
+
+        private void drain() {
+            ByteBuffer response;
+            while ((response = responses.poll()) != null) {
+                responseBuffers.release(response);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.accountservicezerobase.binary;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 같은 크기의 direct buffer 재사용 풀
+ * 비어 있으면 새로 만들고, 반납 시 풀이 가득 차 있으면 버린다. (GC 가 회수)
+ */
+public class DirectBufferPool {
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> buffers;
+
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+
+    public int pooled() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.accountservicezerobase.cluster;
+
+import com.example.accountservicezerobase.dto.ErrorResponse;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 계좌 소유 노드 라우팅 (cluster.enabled)
+ * 노드 목록은 레디스에 TTL 과 함께 두고 heartbeat 로 갱신하며, 목록이 바뀌면 ring 을 다시 만든다.
+ * 자기 소유가 아닌 계좌의 요청은 소유 노드로 전달하고, 소유 계좌의 변경은 계좌별 로컬 락으로 직렬화한다.
+ * 소유 노드에 연결할 수 없으면 그 노드를 목록에서 빼고 소유 노드를 다시 정한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "cluster", name = "enabled", havingValue = "true")
+public class ClusterRouter {
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded-By";
+    private static final String MEMBERS_KEY = "cluster:members";
+    private static final int LOCK_STRIPES = 1024;
+
+    /**
+     * 노드 목록과 그 목록으로 만든 ring. 한 번에 바꿔서 서로 다른 시점의 둘을 섞어 읽지 않게 한다.
+     */
+    private record Membership(Map<String, String> members, ConsistentHashRing ring) {
+    }
+
+    private final ObjectProvider<RedissonClient> redissonClient;
+    private final LockProfiler lockProfiler;
+    private final OwnerAccountCache ownerAccountCache;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final String advertisedUrl;
+    private final int virtualNodes;
+    private final Duration memberTtl;
+    private final RestClient restClient;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    private volatile Membership membership;
+
+    public ClusterRouter(
+            ObjectProvider<RedissonClient> redissonClient,
+            LockProfiler lockProfiler,
+            OwnerAccountCache ownerAccountCache,
+            ObjectMapper objectMapper,
+            @Value("${cluster.node-id}") String nodeId,
+            @Value("${cluster.advertised-url}") String advertisedUrl,
+            @Value("${cluster.virtual-nodes:128}") int virtualNodes,
+            @Value("${cluster.member-ttl:5s}") Duration memberTtl,
+            @Value("${cluster.forward-timeout:2s}") Duration forwardTimeout) {
+        this.redissonClient = redissonClient;
+        this.lockProfiler = lockProfiler;
+        this.ownerAccountCache = ownerAccountCache;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId;
+        this.advertisedUrl = advertisedUrl;
+        this.virtualNodes = virtualNodes;
+        this.memberTtl = memberTtl;
+        this.membership = new Membership(Map.of(nodeId, advertisedUrl),
+                new ConsistentHashRing(List.of(nodeId), virtualNodes));
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) forwardTimeout.toMillis());
+        requestFactory.setReadTimeout((int) forwardTimeout.toMillis());
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void join() {
+        heartbeat();
+    }
+
+    /**
+     * 자기 자신을 TTL 과 함께 다시 등록하고, 살아 있는 노드 목록이 바뀌었으면 ring 을 다시 만든다.
+     * 가상 노드 덕분에 노드가 들고 나도 나머지 노드 사이의 소유권은 거의 그대로다.
+     * 더 이상 소유하지 않는 계좌는 소유 노드 캐시에서 버린다.
+     */
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:1000}")
+    public void heartbeat() {
+        RMapCache<String, String> memberMap = memberMap();
+        memberMap.fastPut(nodeId, advertisedUrl, memberTtl.toMillis(), TimeUnit.MILLISECONDS);
+        Map<String, String> current = memberMap.readAllMap();
+        if (!current.equals(membership.members())) {
+            membership = new Membership(Map.copyOf(current), new ConsistentHashRing(current.keySet(), virtualNodes));
+            ownerAccountCache.retainOwned(this::isOwner);
+            log.info("Cluster membership changed: {}", current.keySet());
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        memberMap().fastRemove(nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Map<String, String> getMembers() {
+        return membership.members();
+    }
+
+    public String ownerOf(String accountNumber) {
+        return membership.ring().ownerOf(accountNumber);
+    }
+
+    public boolean isOwner(String accountNumber) {
+        Membership current = membership;
+        String owner = current.ring().ownerOf(accountNumber);
+        return owner == null || owner.equals(nodeId) || !current.members().containsKey(owner);
+    }
+
+    /**
+     * 소유 노드로 요청을 그대로 전달한다.
+     * 소유 노드의 업무 오류는 같은 AccountException 으로, 그 밖의 오류는 같은 상태 코드로 돌려준다.
+     * 연결조차 못 했으면 요청이 가지 않았으므로 그 노드를 목록에서 빼고 소유 노드를 다시 정해 한 번 더 보낸다.
+     * 다시 정한 소유 노드가 이 노드이면 local 로 처리한다. 응답을 기다리다 끊긴 요청은 처리됐을 수 있으므로 다시 보내지 않는다.
+     * 잠깐 끊겼던 노드는 다음 heartbeat 에 다시 들어온다. 그 사이 두 노드가 같은 계좌를 바꿔도 계좌 version 확인이 막는다.
+     */
+    public <T> T forward(String path, Object body, Class<T> responseType, String accountNumber, Supplier<T> local) {
+        Membership current = membership;
+        String owner = current.ring().ownerOf(accountNumber);
+        try {
+            return send(current.members().get(owner), path, body, responseType);
+        } catch (ResourceAccessException e) {
+            if (!notConnected(e)) {
+                throw e;
+            }
+            log.warn("Cluster member {} is unreachable, removing it: {}", owner, e.getMessage());
+            memberMap().fastRemove(owner);
+            heartbeat();
+        }
+        Membership next = membership;
+        String nextOwner = next.ring().ownerOf(accountNumber);
+        if (nextOwner.equals(nodeId) || !next.members().containsKey(nextOwner)) {
+            return local.get();
+        }
+        return send(next.members().get(nextOwner), path, body, responseType);
+    }
+
+    // 연결 단계에서 실패해 요청이 소유 노드에 닿지 않았는지. HttpURLConnection 은 연결 시간 초과도 SocketTimeoutException 으로 알린다.
+    private static boolean notConnected(ResourceAccessException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                || cause instanceof SocketTimeoutException
+                && String.valueOf(cause.getMessage()).toLowerCase().contains("connect timed out");
+    }
+
+    private <T> T send(String ownerUrl, String path, Object body, Class<T> responseType) {
+        return restClient.post()
+                .uri(ownerUrl + path)
+                .header(FORWARDED_HEADER, nodeId)
+                .body(body)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (request, response) -> {
+                    byte[] errorBody = response.getBody().readAllBytes();
+                    ErrorCode errorCode = readErrorCode(errorBody);
+                    if (errorCode != null) {
+                        throw AccountException.of(errorCode);
+                    }
+                    throw new ResponseStatusException(response.getStatusCode(),
+                            new String(errorBody, StandardCharsets.UTF_8));
+                })
+                .body(responseType);
+    }
+
+    private ErrorCode readErrorCode(byte[] errorBody) {
+        try {
+            return objectMapper.readValue(errorBody, ErrorResponse.class).getErrorCode();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 같은 계좌의 변경은 이 노드 안에서 한 번에 하나씩 실행한다.
+     */
+    public <T> T executeLocally(String accountNumber, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(accountNumber.hashCode(), LOCK_STRIPES)];
+        long lockStartedAt = System.nanoTime();
+        lock.lock();
+        LockProfiler.Hold hold = lockProfiler.acquired("local-lock", accountNumber, System.nanoTime() - lockStartedAt);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+            hold.release();
+        }
+    }
+
+    private RMapCache<String, String> memberMap() {
+        return redissonClient.getObject().getMapCache(MEMBERS_KEY, StringCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.accountservicezerobase.cluster;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.AccountUser;
+import com.example.accountservicezerobase.type.AccountStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 소유 노드의 계좌 상태 캐시 (cluster.enabled)
+ * 커밋된 상태만 넣으므로 version 이 같으면 DB 행과 같다. 쓰는 쪽은 version 조건부 update 로 확인하고, 0 건이면 버리고 DB 에서 다시 읽는다.
+ * 소유권이 바뀌면 ClusterRouter 가 더 이상 소유하지 않는 계좌를 버린다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cluster", name = "enabled", havingValue = "true")
+public class OwnerAccountCache {
+    public record Entry(Long id, Long userId, String accountNumber, AccountStatus accountStatus,
+                        long balance, long heldAmount, long version) {
+        static Entry from(Account account) {
+            return new Entry(account.getId(), account.getAccountUser().getId(), account.getAccountNumber(),
+                    account.getAccountStatus(), account.getBalance(), account.getHeldAmount(), account.getVersion());
+        }
+
+        public long availableBalance() {
+            return balance - heldAmount;
+        }
+
+        /**
+         * 거래에 연결할 계좌. 영속 상태가 아니므로 다시 읽지 않고 id 로만 참조된다.
+         */
+        public Account toAccount() {
+            return Account.builder()
+                    .id(id)
+                    .accountUser(AccountUser.builder().id(userId).build())
+                    .accountNumber(accountNumber)
+                    .accountStatus(accountStatus)
+                    .balance(balance)
+                    .heldAmount(heldAmount)
+                    .version(version)
+                    .build();
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    public OwnerAccountCache(@Value("${cluster.account-cache-size:100000}") int cacheSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OwnerAccountCache.Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public synchronized Entry get(String accountNumber) {
+        return entries.get(accountNumber);
+    }
+
+    /**
+     * 지금 계좌 상태를 트랜잭션이 커밋된 뒤에 넣는다. 그 전까지는 이전 상태를 버려 둔다.
+     */
+    public void putAfterCommit(Account account) {
+        Entry entry = Entry.from(account);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(entry);
+            return;
+        }
+        evict(entry.accountNumber());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(entry);
+            }
+        });
+    }
+
+    private synchronized void put(Entry entry) {
+        entries.put(entry.accountNumber(), entry);
+    }
+
+    public synchronized void evict(String accountNumber) {
+        entries.remove(accountNumber);
+    }
+
+    /**
+     * 이 노드가 소유하지 않게 된 계좌를 버린다.
+     */
+    public synchronized void retainOwned(Predicate<String> owned) {
+        entries.keySet().removeIf(owned.negate());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.accountservicezerobase.config;
+
+import com.example.accountservicezerobase.binary.BinaryTransactionServer;
+import com.example.accountservicezerobase.cluster.ClusterRouter;
+import com.example.accountservicezerobase.outbox.OutboxRelay;
+import com.example.accountservicezerobase.profiling.RequestCostFilter;
+import com.example.accountservicezerobase.profiling.SqlProfiler;
+import com.example.accountservicezerobase.service.AsyncUseService;
+import com.example.accountservicezerobase.service.HoldService;
+import com.example.accountservicezerobase.service.LedgerTransactionService;
+import com.example.accountservicezerobase.service.SequencedTransactionService;
+import com.example.accountservicezerobase.service.WarmupService;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AOT 로 빌드하면 @ConditionalOnProperty 가 빌드 시점에 평가되어 빈 구성이 고정된다.
+ * -Dspring.aot.enabled=true 로 실행할 때 모드 설정 값이 빌드 때와 다르면 조용히 무시되지 않도록 기동을 멈춘다.
+ */
+@Component
+public class AotModeGuard implements SmartInitializingSingleton {
+    /**
+     * 모드 설정 -> 그 설정이 켜져야 등록되는 빈
+     */
+    static final Map<String, Class<?>> MODE_BEANS = Map.ofEntries(
+            Map.entry("spring.redis.enabled", RedisRepositoryConfig.class),
+            Map.entry("ledger.engine.enabled", LedgerTransactionService.class),
+            Map.entry("sequencer.enabled", SequencedTransactionService.class),
+            Map.entry("outbox.enabled", OutboxRelay.class),
+            Map.entry("async-use.enabled", AsyncUseService.class),
+            Map.entry("cluster.enabled", ClusterRouter.class),
+            Map.entry("warmup.enabled", WarmupService.class),
+            Map.entry("binary.enabled", BinaryTransactionServer.class),
+            Map.entry("datasource.routing.enabled", ReplicaRoutingConfiguration.class),
+            Map.entry("limiter.enabled", ConcurrencyLimitConfiguration.class),
+            Map.entry("sharding.enabled", ShardingConfiguration.class),
+            Map.entry("profiling.sql.enabled", SqlProfiler.class),
+            Map.entry("profiling.request-cost.enabled", RequestCostFilter.class),
+            Map.entry("hold.enabled", HoldService.class)
+    );
+
+    private final Environment environment;
+    private final ListableBeanFactory beanFactory;
+
+    public AotModeGuard(Environment environment, ListableBeanFactory beanFactory) {
+        this.environment = environment;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        List<String> mismatches = mismatches(environment, beanFactory);
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("AOT build was made with different mode flags, rebuild with -Paot: "
+                    + String.join(", ", mismatches));
+        }
+    }
+
+    static List<String> mismatches(Environment environment, ListableBeanFactory beanFactory) {
+        List<String> mismatches = new ArrayList<>();
+        MODE_BEANS.forEach((property, beanType) -> {
+            // spring.redis.enabled 만 설정이 없을 때 켜진다. (matchIfMissing)
+            boolean enabled = environment.getProperty(property, Boolean.class,
+                    property.equals("spring.redis.enabled"));
+            boolean registered = beanFactory.getBeanNamesForType(beanType, true, false).length > 0;
+            if (enabled != registered) {
+                mismatches.add(property + "=" + enabled + " (built with " + registered + ")");
+            }
+        });
+        mismatches.sort(null);
+        return mismatches;
+    }
+}
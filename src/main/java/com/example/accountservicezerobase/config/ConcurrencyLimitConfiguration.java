@@ -0,0 +1,62 @@
+package com.example.accountservicezerobase.config;
+
+import com.example.accountservicezerobase.limiter.AdaptiveConcurrencyLimiter;
+import com.example.accountservicezerobase.limiter.ConcurrencyLimitInterceptor;
+import com.example.accountservicezerobase.limiter.GradientLimit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * limiter.enabled 이면 limiter.controllers 의 컨트롤러마다 따로 동시 처리 한도를 둔다.
+ * 지표: concurrency.limit, concurrency.in-flight, concurrency.accepted, concurrency.shed (endpoint 태그)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "limiter", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfiguration implements WebMvcConfigurer {
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+
+    public ConcurrencyLimitConfiguration(
+            MeterRegistry meterRegistry,
+            @Value("${limiter.controllers}") List<String> controllers,
+            @Value("${limiter.initial-limit:20}") int initialLimit,
+            @Value("${limiter.min-limit:4}") int minLimit,
+            @Value("${limiter.max-limit:500}") int maxLimit,
+            @Value("${limiter.tolerance:1.5}") double tolerance,
+            @Value("${limiter.smoothing:0.5}") double smoothing,
+            @Value("${limiter.window:50}") int window) {
+        for (String controller : controllers) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(controller,
+                    new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing, window));
+            limiters.put(controller, limiter);
+
+            Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("endpoint", controller)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("endpoint", controller)
+                    .register(meterRegistry);
+            FunctionCounter.builder("concurrency.accepted", limiter, AdaptiveConcurrencyLimiter::getAccepted)
+                    .tag("endpoint", controller)
+                    .register(meterRegistry);
+            FunctionCounter.builder("concurrency.shed", limiter, AdaptiveConcurrencyLimiter::getShed)
+                    .tag("endpoint", controller)
+                    .description("Requests rejected with 503 by the concurrency limiter")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(limiters));
+    }
+}
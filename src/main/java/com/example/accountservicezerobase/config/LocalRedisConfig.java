@@ -1,29 +1,25 @@
 package com.example.accountservicezerobase.config;
 
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import redis.embedded.RedisServer;
 
+/**
+ * local 프로파일에서만 내장 레디스를 사용한다.
+ * 서버는 RedissonClient 가 처음 만들어질 때 함께 기동된다.
+ */
+@Profile("local")
 @Configuration
 public class LocalRedisConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
-    private RedisServer redisServer;
-
-    @PostConstruct
-    public void startRedis() {
-        redisServer = new RedisServer(redisPort);
-        redisServer.start();
-    }
-
-    @PreDestroy
-    public void stopRedis() {
-        if (redisServer != null) {
-            redisServer.stop();
-        }
+    @Lazy
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public RedisServer embeddedRedisServer() {
+        return new RedisServer(redisPort);
     }
 }
-
@@ -3,11 +3,20 @@ package com.example.accountservicezerobase.config;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import redis.embedded.RedisServer;
 
+/**
+ * spring.redis.enabled=false 이면 레디스를 아예 사용하지 않는다.
+ * 클라이언트는 처음 사용될 때 연결된다. (ObjectProvider 로 주입받을 것)
+ */
 @Configuration
+@ConditionalOnProperty(prefix = "spring.redis", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class RedisRepositoryConfig {
     @Value("${spring.redis.host}")
     private String redisHost;
@@ -15,12 +24,20 @@ public class RedisRepositoryConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
-    @Bean
-    public RedissonClient redissonClient() {
+    @Lazy
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient redissonClient(ObjectProvider<RedisServer> embeddedRedisServer) {
+        // local 프로파일이면 내장 레디스를 먼저 띄운다.
+        // 서버 빈은 @Lazy 라서 여기서 꺼내야 만들어지고(initMethod = start), 그 뒤에 클라이언트가 연결한다.
+        // local 이 아니면 빈이 없으므로 @DependsOn 대신 getIfAvailable() 로 꺼낸다.
+        RedisServer redisServer = embeddedRedisServer.getIfAvailable();
+        if (redisServer != null && !redisServer.isActive()) {
+            throw new IllegalStateException("embedded redis is not running on port " + redisPort);
+        }
+
         Config config = new Config();
         config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort);
 
         return Redisson.create(config);
     }
 }
-
@@ -0,0 +1,76 @@
+package com.example.accountservicezerobase.config;
+
+import com.example.accountservicezerobase.datasource.ReplicaRoutingDataSource;
+import com.example.accountservicezerobase.datasource.ReplicaSelection;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * datasource.routing.enabled 이면 spring.datasource 를 primary 로, replica-urls 를 replica 로 묶은
+ * 라우팅 DataSource 를 기본 DataSource 로 등록한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    public ReplicaRoutingConfiguration(ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties dataSourceProperties,
+            @Value("${datasource.routing.replica-urls}") List<String> replicaUrls,
+            @Value("${datasource.routing.replica-username:${spring.datasource.username}}") String replicaUsername,
+            @Value("${datasource.routing.replica-password:${spring.datasource.password}}") String replicaPassword,
+            @Value("${datasource.routing.replica-pool-size:10}") int replicaPoolSize,
+            @Value("${datasource.routing.selection:ROUND_ROBIN}") ReplicaSelection selection,
+            @Value("${datasource.routing.advance-position-statement:}") String advancePositionStatement,
+            @Value("${datasource.routing.primary-position-query}") String primaryPositionQuery,
+            @Value("${datasource.routing.replica-position-query}") String replicaPositionQuery,
+            @Value("${datasource.routing.check-timeout-seconds:1}") int checkTimeoutSeconds) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, selection, advancePositionStatement,
+                primaryPositionQuery, replicaPositionQuery, checkTimeoutSeconds);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval-ms:1000}")
+    public void checkReplicas() {
+        replicaRoutingDataSource.getObject().checkHealth();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.accountservicezerobase.config;
+
+import com.example.accountservicezerobase.profiling.SqlProfiler;
+import com.example.accountservicezerobase.shard.ShardDirectory;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import com.example.accountservicezerobase.shard.ShardRoutingDataSource;
+import com.example.accountservicezerobase.shard.ShardSchemaInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * sharding.enabled 이면 sharding.urls 의 DB 들을 shard-0, shard-1, ... 로 묶은 라우팅 DataSource 를 기본 DataSource 로 등록한다.
+ * 첫 번째 샤드는 샤드 범위 목록과 샤드를 정하지 않은 작업(스케줄러 등)이 쓰는 기본 샤드다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+    public ShardingConfiguration(
+            @Value("${datasource.routing.enabled:false}") boolean replicaRoutingEnabled,
+            @Value("${ledger.engine.enabled:false}") boolean ledgerEnabled,
+            @Value("${sequencer.enabled:false}") boolean sequencerEnabled,
+            @Value("${async-use.enabled:false}") boolean asyncUseEnabled,
+            @Value("${cluster.enabled:false}") boolean clusterEnabled) {
+        // 계좌 상태를 메모리에 들고 있거나 DB 를 직접 읽는 경로는 샤드를 모른다.
+        if (replicaRoutingEnabled || ledgerEnabled || sequencerEnabled || asyncUseEnabled || clusterEnabled) {
+            throw new IllegalStateException("sharding.enabled cannot be combined with datasource.routing, "
+                    + "ledger.engine, sequencer, async-use or cluster mode");
+        }
+    }
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource shardRoutingDataSource(
+            @Value("${sharding.urls}") List<String> urls,
+            @Value("${sharding.username:${spring.datasource.username}}") String username,
+            @Value("${sharding.password:${spring.datasource.password:}}") String password,
+            @Value("${sharding.pool-size:10}") int poolSize,
+            ObjectProvider<SqlProfiler> sqlProfiler) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + i);
+            shard.setJdbcUrl(urls.get(i).trim());
+            shard.setUsername(username);
+            shard.setPassword(password);
+            shard.setMaximumPoolSize(poolSize);
+            SqlProfiler profiler = sqlProfiler.getIfAvailable();
+            shards.put(shard.getPoolName(), profiler != null ? profiler.wrap(shard) : shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(
+            ShardRoutingDataSource shardRoutingDataSource,
+            @Value("${sharding.first-account-number:1000000000}") long firstAccountNumber,
+            @Value("${sharding.block-size:100000000}") long blockSize) {
+        List<String> shards = shardRoutingDataSource.getShardNames();
+        return new ShardDirectory(shardRoutingDataSource.getShard(shards.get(0)), shards,
+                firstAccountNumber, blockSize);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(
+            ShardDirectory shardDirectory,
+            @Value("${sharding.fan-out-threads:8}") int fanOutThreads) {
+        return new ShardRouter(shardDirectory, fanOutThreads);
+    }
+
+    /**
+     * hibernate 가 DDL 스크립트를 쓴 뒤(EntityManagerFactory 생성 후)에 나머지 샤드를 초기화한다.
+     */
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(
+            EntityManagerFactory entityManagerFactory,
+            ShardRoutingDataSource shardRoutingDataSource,
+            @Value("${sharding.schema-script}") Resource schemaScript,
+            @Value("${sharding.broadcast-scripts}") Resource[] broadcastScripts,
+            @Value("${sharding.id-stride:1000000000000}") long idStride) throws IOException, SQLException {
+        ShardSchemaInitializer initializer = new ShardSchemaInitializer(
+                shardRoutingDataSource, schemaScript, List.of(broadcastScripts), idStride);
+        initializer.initialize();
+        return initializer;
+    }
+}
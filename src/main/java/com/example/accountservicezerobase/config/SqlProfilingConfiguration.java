@@ -0,0 +1,43 @@
+package com.example.accountservicezerobase.config;
+
+import com.example.accountservicezerobase.profiling.SqlProfileInterceptor;
+import com.example.accountservicezerobase.profiling.SqlProfiler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * profiling.sql.enabled 이면 기본 DataSource("dataSource" 빈)의 JDBC 호출 시간을 SqlProfiler 로 모은다.
+ * 샤딩 모드에는 "dataSource" 빈이 없어서 ShardingConfiguration 이 샤드 풀마다 감싼다.
+ * 조회: GET /admin/sql-profile
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "profiling.sql", name = "enabled", havingValue = "true")
+public class SqlProfilingConfiguration implements WebMvcConfigurer {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // BeanPostProcessor 는 다른 빈보다 먼저 만들어지므로 SqlProfiler 는 감쌀 때 가져온다.
+    @Bean
+    public static BeanPostProcessor sqlProfilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && DATA_SOURCE_BEAN.equals(beanName)) {
+                    return sqlProfiler.getObject().wrap(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlProfileInterceptor());
+    }
+}
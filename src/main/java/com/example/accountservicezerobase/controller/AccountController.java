@@ -5,9 +5,11 @@ import com.example.accountservicezerobase.dto.AccountInfo;
 import com.example.accountservicezerobase.dto.CreateAccount;
 import com.example.accountservicezerobase.dto.DeleteAccount;
 import com.example.accountservicezerobase.service.AccountService;
+import com.example.accountservicezerobase.service.LedgerTransactionService;
 import com.example.accountservicezerobase.service.RedisTestService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,6 +20,7 @@ import java.util.stream.Collectors;
 public class AccountController {
     private final AccountService accountService;
     private final RedisTestService redisTestService;
+    private final ObjectProvider<LedgerTransactionService> ledgerTransactionService;
 
     @GetMapping("/account")
     public List<AccountInfo> getAccountByUserId(
@@ -47,6 +50,9 @@ public class AccountController {
     public DeleteAccount.Response createAccount(
             @RequestBody @Valid DeleteAccount.Request request
     ) {
+        // 원장 엔진이 켜져 있으면 DB 잔액이 늦게 반영될 수 있으므로 엔진 기준으로 먼저 해지한다.
+        ledgerTransactionService.ifAvailable(ledger ->
+                ledger.unregister(request.getUserId(), request.getAccountNumber()));
         return DeleteAccount.Response.from(
                 accountService.deleteAccount(
                         request.getUserId(),
@@ -0,0 +1,35 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.cluster.ClusterRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 클러스터 노드 목록 / 계좌 소유 노드 조회
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cluster", name = "enabled", havingValue = "true")
+public class ClusterController {
+    private final ClusterRouter clusterRouter;
+
+    @GetMapping("/admin/cluster")
+    public Map<String, Object> getCluster() {
+        return Map.of(
+                "nodeId", clusterRouter.getNodeId(),
+                "members", clusterRouter.getMembers());
+    }
+
+    @GetMapping("/admin/cluster/owner")
+    public Map<String, String> getOwner(
+            @RequestParam("account_number") String accountNumber) {
+        return Map.of(
+                "accountNumber", accountNumber,
+                "owner", String.valueOf(clusterRouter.ownerOf(accountNumber)));
+    }
+}
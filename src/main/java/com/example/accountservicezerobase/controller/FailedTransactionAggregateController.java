@@ -0,0 +1,30 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.dto.FailedTransactionAggregateDto;
+import com.example.accountservicezerobase.service.FailedTransactionCompactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 실패 거래 시간 단위 집계 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class FailedTransactionAggregateController {
+    private final FailedTransactionCompactionService failedTransactionCompactionService;
+
+    @GetMapping("/transaction/failure-aggregate")
+    public List<FailedTransactionAggregateDto> getFailedTransactionAggregates(
+            @RequestParam("account_number") String accountNumber,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return failedTransactionCompactionService.getAggregates(accountNumber, from, to);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.cluster.ClusterRouter;
+import com.example.accountservicezerobase.dto.CaptureHold;
+import com.example.accountservicezerobase.dto.HoldDto;
+import com.example.accountservicezerobase.dto.PlaceHold;
+import com.example.accountservicezerobase.dto.ReleaseHold;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.service.AsyncUseService;
+import com.example.accountservicezerobase.service.HoldService;
+import com.example.accountservicezerobase.service.LedgerTransactionService;
+import com.example.accountservicezerobase.service.SequencedTransactionService;
+import com.example.accountservicezerobase.type.ErrorCode;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 승인(hold) 컨트롤러 (hold.enabled)
+ * 1. 승인: 금액을 묶는다
+ * 2. 매입: 묶인 금액 이하를 잔액 사용 거래로 확정한다
+ * 3. 해제: 묶인 금액을 푼다
+ * 4. 승인 확인
+ * 승인은 DB 잔액을 직접 바꾸므로 원장 엔진 / 비동기 사용 / sequencer 모드에서는 받지 않는다.
+ * 클러스터 모드에서는 잔액 사용/취소와 같이 소유 노드로 전달하고, 소유 노드에서는 계좌별 로컬 락 안에서 바꾼다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hold", name = "enabled", havingValue = "true")
+public class HoldController {
+    private final HoldService holdService;
+    private final ObjectProvider<LedgerTransactionService> ledgerTransactionService;
+    private final ObjectProvider<AsyncUseService> asyncUseService;
+    private final ObjectProvider<SequencedTransactionService> sequencedTransactionService;
+    private final ObjectProvider<ClusterRouter> clusterRouter;
+
+    @PostMapping("/hold")
+    public PlaceHold.Response hold(
+            @Valid @RequestBody PlaceHold.Request request,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy
+    ) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        if (router != null && forwardedBy == null && !router.isOwner(request.getAccountNumber())) {
+            return router.forward("/hold", request, PlaceHold.Response.class, request.getAccountNumber(),
+                    () -> hold(request, router.getNodeId()));
+        }
+        validateHoldEnabled();
+        return PlaceHold.Response.from(onOwner(request.getAccountNumber(), () -> holdService.hold(
+                request.getUserId(),
+                request.getAccountNumber(),
+                request.getAmount(),
+                request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : null)));
+    }
+
+    @PostMapping("/hold/capture")
+    public CaptureHold.Response capture(
+            @Valid @RequestBody CaptureHold.Request request,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy
+    ) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        if (router != null && forwardedBy == null && !router.isOwner(request.getAccountNumber())) {
+            return router.forward("/hold/capture", request, CaptureHold.Response.class, request.getAccountNumber(),
+                    () -> capture(request, router.getNodeId()));
+        }
+        validateHoldEnabled();
+        return CaptureHold.Response.from(request.getHoldId(), onOwner(request.getAccountNumber(),
+                () -> holdService.capture(
+                        request.getHoldId(),
+                        request.getAccountNumber(),
+                        request.getAmount())));
+    }
+
+    @PostMapping("/hold/release")
+    public ReleaseHold.Response release(
+            @Valid @RequestBody ReleaseHold.Request request,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy
+    ) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        if (router != null && forwardedBy == null && !router.isOwner(request.getAccountNumber())) {
+            return router.forward("/hold/release", request, ReleaseHold.Response.class, request.getAccountNumber(),
+                    () -> release(request, router.getNodeId()));
+        }
+        validateHoldEnabled();
+        return ReleaseHold.Response.from(onOwner(request.getAccountNumber(), () -> holdService.release(
+                request.getHoldId(),
+                request.getAccountNumber())));
+    }
+
+    @GetMapping("/hold/{holdId}")
+    public HoldDto queryHold(@PathVariable String holdId) {
+        return holdService.queryHold(holdId);
+    }
+
+    private void validateHoldEnabled() {
+        if (ledgerTransactionService.getIfAvailable() != null || asyncUseService.getIfAvailable() != null
+                || sequencedTransactionService.getIfAvailable() != null) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    // 클러스터 모드면 같은 계좌의 변경을 이 노드 안에서 직렬화한다.
+    private <T> T onOwner(String accountNumber, Supplier<T> action) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        return router != null ? router.executeLocally(accountNumber, action) : action.get();
+    }
+}
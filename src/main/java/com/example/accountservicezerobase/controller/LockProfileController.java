@@ -0,0 +1,26 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.dto.LockProfileReport;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 락 대기/점유 시간과 경합이 심한 계좌 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class LockProfileController {
+    private final LockProfiler lockProfiler;
+
+    @GetMapping("/admin/lock-profile")
+    public LockProfileReport getLockProfile(
+            @RequestParam(value = "top", defaultValue = "20") int top) {
+        return lockProfiler.report(top);
+    }
+
+    @DeleteMapping("/admin/lock-profile")
+    public void resetLockProfile() {
+        lockProfiler.reset();
+    }
+}
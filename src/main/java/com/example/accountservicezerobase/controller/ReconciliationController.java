@@ -0,0 +1,31 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.domain.ReconciliationMismatch;
+import com.example.accountservicezerobase.dto.ReconciliationReport;
+import com.example.accountservicezerobase.repository.ReconciliationMismatchRepository;
+import com.example.accountservicezerobase.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 원장 대사 수동 실행 / 불일치 조회 (야간 정기 실행은 스케줄러가 담당)
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReconciliationController {
+    private final ReconciliationService reconciliationService;
+    private final ReconciliationMismatchRepository reconciliationMismatchRepository;
+
+    @PostMapping("/admin/reconciliation")
+    public ReconciliationReport reconcile() {
+        return reconciliationService.reconcile();
+    }
+
+    @GetMapping("/admin/reconciliation/{runId}/mismatches")
+    public List<ReconciliationMismatch> getMismatches(
+            @PathVariable String runId) {
+        return reconciliationMismatchRepository.findByRunId(runId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.datasource.ReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * replica 건강 상태 / 복제 위치 / 사용 중 커넥션 조회
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaController {
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @GetMapping("/admin/datasource/replicas")
+    public List<Map<String, Object>> getReplicas() {
+        return replicaRoutingDataSource.getReplicas().stream()
+                .map(replica -> Map.<String, Object>of(
+                        "name", replica.getName(),
+                        "healthy", replica.isHealthy(),
+                        "position", replica.getPosition(),
+                        "activeConnections", replica.getActiveConnections()))
+                .toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.dto.CancelBalance;
+import com.example.accountservicezerobase.dto.UseBalance;
+import com.example.accountservicezerobase.service.SequencedTransactionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 파티션 sequencer 로 처리하는 잔액 사용/취소 (sequencer.enabled)
+ * 실패 거래는 writer 가 같은 묶음에 함께 기록한다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "sequencer", name = "enabled", havingValue = "true")
+public class SequencedTransactionController {
+    private final SequencedTransactionService sequencedTransactionService;
+
+    @PostMapping("/transaction/sequenced/use")
+    public CompletableFuture<UseBalance.Response> useBalance(
+            @Valid @RequestBody UseBalance.Request request
+    ) {
+        return sequencedTransactionService.useBalance(
+                        request.getUserId(), request.getAccountNumber(), request.getAmount())
+                .thenApply(UseBalance.Response::from);
+    }
+
+    @PostMapping("/transaction/sequenced/cancel")
+    public CompletableFuture<CancelBalance.Response> cancelBalance(
+            @Valid @RequestBody CancelBalance.Request request
+    ) {
+        return sequencedTransactionService.cancelBalance(
+                        request.getTransactionId(), request.getAccountNumber(), request.getAmount())
+                .thenApply(CancelBalance.Response::from);
+    }
+}
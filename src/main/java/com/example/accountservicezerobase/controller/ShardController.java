@@ -0,0 +1,48 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.dto.ShardMoveReport;
+import com.example.accountservicezerobase.shard.ShardDirectory;
+import com.example.accountservicezerobase.shard.ShardMover;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 샤드 범위 조회 / 계좌번호 범위 이동(재샤딩)
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardController {
+    private final ShardDirectory shardDirectory;
+    private final ShardMover shardMover;
+
+    @GetMapping("/admin/shards")
+    public Map<String, Object> getShards() {
+        return Map.of(
+                "shards", shardDirectory.getShards(),
+                "ranges", shardDirectory.getRanges(),
+                "moving", shardDirectory.getFrozen());
+    }
+
+    @GetMapping("/admin/shards/owner")
+    public Map<String, String> getOwner(
+            @RequestParam("account_number") String accountNumber) {
+        return Map.of(
+                "accountNumber", accountNumber,
+                "shard", shardDirectory.shardOf(accountNumber));
+    }
+
+    @PostMapping("/admin/shards/move")
+    public ShardMoveReport move(
+            @RequestParam("from") long from,
+            @RequestParam("to") long to,
+            @RequestParam("target") String target) {
+        return shardMover.move(from, to, target);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.dto.SpendRollupDto;
+import com.example.accountservicezerobase.service.SpendRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 계좌별 일/월 거래 합계 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class SpendRollupController {
+    private final SpendRollupService spendRollupService;
+
+    @GetMapping("/rollup/daily")
+    public List<SpendRollupDto> getDailyRollups(
+            @RequestParam("account_number") String accountNumber,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return spendRollupService.getDailyRollups(accountNumber, from, to);
+    }
+
+    @GetMapping("/rollup/monthly")
+    public List<SpendRollupDto> getMonthlyRollups(
+            @RequestParam("account_number") String accountNumber,
+            @RequestParam("from") @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam("to") @DateTimeFormat(pattern = "yyyy-MM") YearMonth to
+    ) {
+        return spendRollupService.getMonthlyRollups(accountNumber, from, to);
+    }
+
+    @PostMapping("/admin/rollup/rebuild")
+    public long rebuildRollups() {
+        return spendRollupService.rebuild();
+    }
+}
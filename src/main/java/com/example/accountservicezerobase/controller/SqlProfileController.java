@@ -0,0 +1,40 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.dto.SqlProfileReport;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.SqlProfiler;
+import com.example.accountservicezerobase.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 엔드포인트 / 서비스 메서드 / SQL 모양별 실행 시간 조회와 표본 비율 변경
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "profiling.sql", name = "enabled", havingValue = "true")
+public class SqlProfileController {
+    private final SqlProfiler sqlProfiler;
+
+    @GetMapping("/admin/sql-profile")
+    public SqlProfileReport getSqlProfile(
+            @RequestParam(value = "top", defaultValue = "50") int top) {
+        return sqlProfiler.report(top);
+    }
+
+    @PutMapping("/admin/sql-profile/sample-rate")
+    public SqlProfileReport setSampleRate(
+            @RequestParam("rate") double rate) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+        sqlProfiler.setSampleRate(rate);
+        return sqlProfiler.report(0);
+    }
+
+    @DeleteMapping("/admin/sql-profile")
+    public void resetSqlProfile() {
+        sqlProfiler.reset();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.archive.TransactionArchiveStore;
+import com.example.accountservicezerobase.dto.QueryTransactionResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 보관된(취소 기간이 지난) 거래의 기간 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class TransactionArchiveController {
+    private final TransactionArchiveStore transactionArchiveStore;
+
+    @GetMapping("/transaction/archive")
+    public List<QueryTransactionResponse> scanArchivedTransactions(
+            @RequestParam(value = "account_number", required = false) String accountNumber,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit
+    ) {
+        return transactionArchiveStore.scan(accountNumber, from, to, limit)
+                .stream().map(QueryTransactionResponse::from)
+                .collect(Collectors.toList());
+    }
+}
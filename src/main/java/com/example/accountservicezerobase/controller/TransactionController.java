@@ -1,21 +1,37 @@
 package com.example.accountservicezerobase.controller;
 
+import com.example.accountservicezerobase.cluster.ClusterRouter;
 import com.example.accountservicezerobase.dto.CancelBalance;
 import com.example.accountservicezerobase.dto.QueryTransactionResponse;
 import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.dto.Transfer;
+import com.example.accountservicezerobase.dto.TransferBatch;
 import com.example.accountservicezerobase.dto.UseBalance;
 import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.service.AsyncUseService;
+import com.example.accountservicezerobase.service.LedgerTransactionService;
+import com.example.accountservicezerobase.service.SequencedTransactionService;
 import com.example.accountservicezerobase.service.TransactionService;
+import com.example.accountservicezerobase.type.ErrorCode;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.function.Supplier;
+
 /**
  * 잔액 관련 컨트롤러
  * 1. 잔액 사용
  * 2. 잔액 사용 취소
  * 3. 거래확인
+ * 4. 계좌 간 이체 (일괄 이체 포함)
+ * 원장 엔진(ledger.engine.enabled)이 켜져 있으면 잔액 변경은 엔진으로 보낸다.
+ * 비동기 사용(async-use.enabled)이 켜져 있으면 잔액 사용은 접수만 하고 P 상태로 응답한다.
+ * 클러스터 모드(cluster.enabled)에서는 계좌 소유 노드가 아니면 소유 노드로 전달한다. 소유 노드가 죽어 이 노드가 새 소유 노드가 되면 여기서 처리한다.
+ * 이체는 DB 잔액을 직접 바꾸므로 원장 엔진 / 비동기 사용 / sequencer 모드에서는 받지 않는다.
+ * sequencer 모드(sequencer.enabled)에서는 잔액 사용/취소도 /transaction/sequenced/* 로만 받는다.
  */
 
 @Slf4j
@@ -23,20 +39,31 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final ObjectProvider<LedgerTransactionService> ledgerTransactionService;
+    private final ObjectProvider<AsyncUseService> asyncUseService;
+    private final ObjectProvider<SequencedTransactionService> sequencedTransactionService;
+    private final ObjectProvider<ClusterRouter> clusterRouter;
 
     @PostMapping("/transaction/use")
     public UseBalance.Response useBalance(
-            @Valid @RequestBody UseBalance.Request request
+            @Valid @RequestBody UseBalance.Request request,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy
     ) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        if (router != null && forwardedBy == null && !router.isOwner(request.getAccountNumber())) {
+            return router.forward("/transaction/use", request, UseBalance.Response.class,
+                    request.getAccountNumber(), () -> useBalance(request, router.getNodeId()));
+        }
         try {
-            return UseBalance.Response.from(transactionService.useBalance(
-                    request.getUserId(), request.getAccountNumber(), request.getAmount()));
+            return UseBalance.Response.from(
+                    use(request.getUserId(), request.getAccountNumber(), request.getAmount()));
         } catch (AccountException e) {
-            log.error("Failed to use balance");
+            log.debug("Failed to use balance: {}", e.getErrorCode());
 
             transactionService.saveFailedUseTransaction(
                     request.getAccountNumber(),
-                    request.getAmount()
+                    request.getAmount(),
+                    e.getErrorCode()
             );
 
             throw e;
@@ -45,17 +72,84 @@ public class TransactionController {
 
     @PostMapping("/transaction/cancel")
     public CancelBalance.Response cancelBalance(
-            @Valid @RequestBody CancelBalance.Request request
+            @Valid @RequestBody CancelBalance.Request request,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy
     ) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        if (router != null && forwardedBy == null && !router.isOwner(request.getAccountNumber())) {
+            return router.forward("/transaction/cancel", request, CancelBalance.Response.class,
+                    request.getAccountNumber(), () -> cancelBalance(request, router.getNodeId()));
+        }
         try {
-            return CancelBalance.Response.from(transactionService.cancelBalance(
-                    request.getTransactionId(), request.getAccountNumber(), request.getAmount()));
+            return CancelBalance.Response.from(
+                    cancel(request.getTransactionId(), request.getAccountNumber(), request.getAmount()));
         } catch (AccountException e) {
-            log.error("Failed to use balance");
+            log.debug("Failed to cancel balance: {}", e.getErrorCode());
 
             transactionService.saveFailedCancelTransaction(
                     request.getAccountNumber(),
-                    request.getAmount()
+                    request.getAmount(),
+                    e.getErrorCode()
+            );
+
+            throw e;
+        }
+    }
+
+    @PostMapping("/transaction/transfer")
+    public Transfer.Response transfer(
+            @Valid @RequestBody Transfer.Request request,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy
+    ) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        if (router != null && forwardedBy == null && !router.isOwner(request.getFromAccountNumber())) {
+            return router.forward("/transaction/transfer", request, Transfer.Response.class,
+                    request.getFromAccountNumber(), () -> transfer(request, router.getNodeId()));
+        }
+        try {
+            validateTransferEnabled();
+            return Transfer.Response.from(onOwner(request.getFromAccountNumber(), () -> transactionService.transfer(
+                    request.getUserId(),
+                    request.getFromAccountNumber(),
+                    request.getToAccountNumber(),
+                    request.getAmount())));
+        } catch (AccountException e) {
+            log.debug("Failed to transfer: {}", e.getErrorCode());
+
+            transactionService.saveFailedTransferTransaction(
+                    request.getFromAccountNumber(),
+                    request.getAmount(),
+                    e.getErrorCode()
+            );
+
+            throw e;
+        }
+    }
+
+    @PostMapping("/transaction/transfer/batch")
+    public TransferBatch.Response transferBatch(
+            @Valid @RequestBody TransferBatch.Request request,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy
+    ) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        if (router != null && forwardedBy == null && !router.isOwner(request.getFromAccountNumber())) {
+            return router.forward("/transaction/transfer/batch", request, TransferBatch.Response.class,
+                    request.getFromAccountNumber(), () -> transferBatch(request, router.getNodeId()));
+        }
+        try {
+            validateTransferEnabled();
+            return TransferBatch.Response.from(request.getFromAccountNumber(),
+                    onOwner(request.getFromAccountNumber(), () -> transactionService.transferBatch(
+                            request.getUserId(),
+                            request.getFromAccountNumber(),
+                            request.getTransfers())));
+        } catch (AccountException e) {
+            log.debug("Failed to transfer batch: {}", e.getErrorCode());
+
+            transactionService.saveFailedTransferTransaction(
+                    request.getFromAccountNumber(),
+                    request.totalAmount(),
+                    e.getErrorCode()
             );
 
             throw e;
@@ -66,7 +160,65 @@ public class TransactionController {
     public QueryTransactionResponse queryTransactionResponse(
             @PathVariable String transactionId
     ) {
-        return QueryTransactionResponse.from(transactionService.queryTransaction(transactionId));
+        return QueryTransactionResponse.from(ledgerTransactionService.stream()
+                .flatMap(ledger -> ledger.findPending(transactionId).stream())
+                .findFirst()
+                .or(() -> asyncUseService.stream()
+                        .flatMap(asyncUse -> asyncUse.findPending(transactionId).stream())
+                        .findFirst())
+                .orElseGet(() -> transactionService.queryTransaction(transactionId)));
+    }
+
+    private TransactionDto use(Long userId, String accountNumber, Long amount) {
+        return onOwner(accountNumber, () -> useOnOwner(userId, accountNumber, amount));
+    }
+
+    private TransactionDto useOnOwner(Long userId, String accountNumber, Long amount) {
+        validateNotSequenced();
+        LedgerTransactionService ledger = ledgerTransactionService.getIfAvailable();
+        if (ledger != null) {
+            return ledger.useBalance(userId, accountNumber, amount);
+        }
+        AsyncUseService asyncUse = asyncUseService.getIfAvailable();
+        if (asyncUse != null) {
+            return asyncUse.useBalance(userId, accountNumber, amount);
+        }
+        return transactionService.useBalance(userId, accountNumber, amount);
+    }
+
+    private TransactionDto cancel(String transactionId, String accountNumber, Long amount) {
+        return onOwner(accountNumber, () -> cancelOnOwner(transactionId, accountNumber, amount));
     }
-}
 
+    private TransactionDto cancelOnOwner(String transactionId, String accountNumber, Long amount) {
+        validateNotSequenced();
+        LedgerTransactionService ledger = ledgerTransactionService.getIfAvailable();
+        if (ledger != null) {
+            return ledger.cancelBalance(transactionId, accountNumber, amount);
+        }
+        TransactionDto transactionDto = transactionService.cancelBalance(transactionId, accountNumber, amount);
+        // 비동기 사용 모드에서는 레디스 잔액에도 되돌린다.
+        asyncUseService.ifAvailable(asyncUse -> asyncUse.credit(accountNumber, amount));
+        return transactionDto;
+    }
+
+    private void validateTransferEnabled() {
+        if (ledgerTransactionService.getIfAvailable() != null || asyncUseService.getIfAvailable() != null) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+        validateNotSequenced();
+    }
+
+    // sequencer writer 가 잔액을 캐시에 들고 있으므로 다른 경로로 잔액을 바꾸지 않는다.
+    private void validateNotSequenced() {
+        if (sequencedTransactionService.getIfAvailable() != null) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    // 클러스터 모드면 같은 계좌의 변경을 이 노드 안에서 직렬화한다.
+    private <T> T onOwner(String accountNumber, Supplier<T> action) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        return router != null ? router.executeLocally(accountNumber, action) : action.get();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.dto.WarmupReport;
+import com.example.accountservicezerobase.service.WarmupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 기동 시 예열 결과 조회
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "warmup", name = "enabled", havingValue = "true")
+public class WarmupController {
+    private final WarmupService warmupService;
+
+    @GetMapping("/admin/warmup")
+    public ResponseEntity<WarmupReport> getWarmupReport() {
+        return ResponseEntity.of(warmupService.getLastReport());
+    }
+}
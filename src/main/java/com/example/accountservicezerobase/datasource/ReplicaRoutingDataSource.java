@@ -0,0 +1,200 @@
+package com.example.accountservicezerobase.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * readOnly 트랜잭션은 건강한 replica 중 하나로, 나머지는 primary 로 보낸다.
+ * 트랜잭션 시작 시점에는 readOnly 표시가 아직 없으므로 LazyConnectionDataSourceProxy 로 감싸서 써야 한다.
+ * replica 의 건강 상태와 복제 위치는 checkHealth() 가 position-query 로 갱신한다.
+ * 복제 위치는 쓰기마다 움직여야 한다. advance 문이 있으면 쓰기 응답마다 primary 에서 위치를 올린 뒤 읽는다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    public static final String PRIMARY = "primary";
+
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        // 첫 확인 전까지는 primary 에서 읽는다.
+        private volatile boolean healthy;
+        private volatile long position;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        public int getActiveConnections() {
+            if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+                return hikari.getHikariPoolMXBean().getActiveConnections();
+            }
+            return 0;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaSelection selection;
+    private final String advancePositionStatement;
+    private final String primaryPositionQuery;
+    private final String replicaPositionQuery;
+    private final int checkTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources,
+                                    ReplicaSelection selection, String advancePositionStatement,
+                                    String primaryPositionQuery, String replicaPositionQuery,
+                                    int checkTimeoutSeconds) {
+        this.primary = primary;
+        this.selection = selection;
+        this.advancePositionStatement = advancePositionStatement;
+        this.primaryPositionQuery = primaryPositionQuery;
+        this.replicaPositionQuery = replicaPositionQuery;
+        this.checkTimeoutSeconds = checkTimeoutSeconds;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaDataSources.forEach((name, dataSource) -> {
+            replicas.add(new Replica(name, dataSource));
+            targets.put(name, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        Replica replica = select(ReplicationContext.getMinPosition());
+        return replica != null ? replica.name : PRIMARY;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 쓰기 응답에 실어 보낼 primary 의 복제 위치
+     * 쓰기가 커밋된 뒤 부르므로, advance 문으로 올린 위치까지 복제된 replica 에는 그 쓰기도 반영되어 있다.
+     * (거래가 없는 쓰기 - 계좌 생성/해지, 승인 - 도 위치를 움직인다)
+     */
+    public long primaryPosition() throws SQLException {
+        if (advancePositionStatement == null || advancePositionStatement.isBlank()) {
+            return queryPosition(primary, primaryPositionQuery);
+        }
+        try (Connection connection = primary.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(checkTimeoutSeconds);
+                statement.executeUpdate(advancePositionStatement);
+                long position;
+                try (ResultSet resultSet = statement.executeQuery(primaryPositionQuery)) {
+                    resultSet.next();
+                    position = resultSet.getLong(1);
+                }
+                connection.commit();
+                return position;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try {
+                replica.position = queryPosition(replica.dataSource, replicaPositionQuery);
+                if (!replica.healthy) {
+                    log.info("Replica {} is back", replica.name);
+                }
+                replica.healthy = true;
+            } catch (SQLException | RuntimeException e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} failed its health check", replica.name, e);
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Replica select(Long minPosition) {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Replica selected = null;
+        int selectedLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy || (minPosition != null && replica.position < minPosition)) {
+                continue;
+            }
+            if (selection == ReplicaSelection.ROUND_ROBIN) {
+                return replica;
+            }
+            int load = replica.getActiveConnections();
+            if (load < selectedLoad) {
+                selected = replica;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    private long queryPosition(DataSource dataSource, String query) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(checkTimeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery(query)) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.accountservicezerobase.datasource;
+
+public enum ReplicaSelection {
+    ROUND_ROBIN,
+    // 사용 중인 커넥션이 가장 적은 replica (HikariDataSource 만 집계, 나머지는 0 으로 본다)
+    LEAST_LOADED
+}
@@ -0,0 +1,27 @@
+package com.example.accountservicezerobase.datasource;
+
+/**
+ * read-your-writes 용 최소 복제 위치 (요청 스레드 단위)
+ * 쓰기 응답의 X-Replication-Position 값을 읽기 요청에 그대로 실어 보내면,
+ * 그 위치까지 반영된 replica 만 고르고 없으면 primary 에서 읽는다.
+ */
+public final class ReplicationContext {
+    public static final String HEADER = "X-Replication-Position";
+
+    private static final ThreadLocal<Long> MIN_POSITION = new ThreadLocal<>();
+
+    private ReplicationContext() {
+    }
+
+    public static void setMinPosition(Long position) {
+        MIN_POSITION.set(position);
+    }
+
+    public static Long getMinPosition() {
+        return MIN_POSITION.get();
+    }
+
+    public static void clear() {
+        MIN_POSITION.remove();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.accountservicezerobase.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.sql.SQLException;
+
+/**
+ * 쓰기 요청(GET 이외)의 응답 헤더에 커밋 이후 primary 복제 위치를 싣는다.
+ */
+@Slf4j
+@RestControllerAdvice
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicationPositionAdvice implements ResponseBodyAdvice<Object> {
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (HttpMethod.GET.equals(request.getMethod()) || HttpMethod.HEAD.equals(request.getMethod())) {
+            return body;
+        }
+        try {
+            response.getHeaders().set(ReplicationContext.HEADER,
+                    String.valueOf(replicaRoutingDataSource.primaryPosition()));
+        } catch (SQLException e) {
+            log.warn("Failed to read primary replication position", e);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.accountservicezerobase.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 요청의 X-Replication-Position 을 ReplicationContext 에 옮긴다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicationPositionFilter extends OncePerRequestFilter {
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String position = request.getHeader(ReplicationContext.HEADER);
+        if (position == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            ReplicationContext.setMinPosition(Long.parseLong(position.trim()));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + ReplicationContext.HEADER);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicationContext.clear();
+        }
+    }
+}
@@ -30,6 +30,13 @@ public class Account {
     @Enumerated(EnumType.STRING)
     private AccountStatus accountStatus;
     private Long balance;
+    // 승인(hold)으로 묶인 금액. 쓸 수 있는 잔액은 balance - heldAmount
+    @Builder.Default
+    private Long heldAmount = 0L;
+
+    // 동시 변경 감지 (낙관적 락). 충돌 시 RetryOnConflict 가 다시 시도한다.
+    @Version
+    private Long version;
 
     private LocalDateTime registeredAt;
     private LocalDateTime unRegisteredAt;
@@ -39,9 +46,13 @@ public class Account {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    public long getAvailableBalance() {
+        return balance - heldAmount;
+    }
+
     public void useBalance(Long amount) {
-        if (amount > balance) {
-            throw  new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        if (amount > getAvailableBalance()) {
+            throw  AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
 
         balance -= amount;
@@ -49,10 +60,22 @@ public class Account {
 
     public void cancelBalance(Long amount) {
         if (amount < 0) {
-            throw  new AccountException(ErrorCode.INVALID_REQUEST);
+            throw  AccountException.of(ErrorCode.INVALID_REQUEST);
         }
 
         balance += amount;
     }
+
+    /**
+     * 승인 금액(heldAmount)을 풀고 그중 amount 만 잔액에서 뺀다.
+     */
+    public void captureHold(Long amount, Long heldAmount) {
+        if (amount > heldAmount || heldAmount > this.heldAmount) {
+            throw  AccountException.of(ErrorCode.AMOUNT_EXCEED_HOLD);
+        }
+
+        this.heldAmount -= heldAmount;
+        balance -= amount;
+    }
 }
 
@@ -0,0 +1,47 @@
+package com.example.accountservicezerobase.domain;
+
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 계좌 / 거래종류 / 거래결과 별 일별 거래 합계와 건수
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {
+        "account_id", "rollup_date", "transaction_type", "transaction_result_type"}))
+@EntityListeners(AuditingEntityListener.class)
+public class DailySpendRollup {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @ManyToOne
+    private Account account;
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+    @Enumerated(EnumType.STRING)
+    private TransactionResultType transactionResultType;
+
+    private Long totalAmount;
+    private Long transactionCount;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.example.accountservicezerobase.domain;
+
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * 오래된 실패 거래(F)를 계좌 / 거래종류 / 실패사유 / 시간 단위로 합친 집계
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(columnList = "account_id, hour_bucket"))
+@EntityListeners(AuditingEntityListener.class)
+public class FailedTransactionAggregate {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @ManyToOne
+    private Account account;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+    @Enumerated(EnumType.STRING)
+    private ErrorCode errorCode;
+
+    private LocalDateTime hourBucket;
+
+    private Long failedCount;
+    private Long totalAmount;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public void add(long count, long amount) {
+        failedCount += count;
+        totalAmount += amount;
+    }
+}
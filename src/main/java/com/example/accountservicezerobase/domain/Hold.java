@@ -0,0 +1,50 @@
+package com.example.accountservicezerobase.domain;
+
+import com.example.accountservicezerobase.type.HoldStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * 승인(hold): 계좌의 금액을 묶어 두었다가 나중에 매입(capture)하거나 해제(release)한다.
+ * 묶인 금액은 Account.heldAmount 에 합산된다. 상태는 HELD 에서 한 번만 바뀐다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = {
+        @Index(columnList = "hold_id", unique = true),
+        @Index(columnList = "hold_status, id")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class Hold {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String holdId;
+
+    @ManyToOne
+    private Account account;
+    private Long amount;
+
+    @Enumerated(EnumType.STRING)
+    private HoldStatus holdStatus;
+    private LocalDateTime expiresAt;
+
+    // 매입 거래의 transactionId
+    private String transactionId;
+    private LocalDateTime closedAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.example.accountservicezerobase.domain;
+
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * 외부로 내보낼 거래 이벤트 (transactional outbox)
+ * 거래(Transaction)와 같은 트랜잭션에서 저장되고, relay 가 발행한 뒤 삭제한다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String transactionId;
+    // 재샤딩 때 ShardMover 가 계좌와 함께 옮길 수 있도록 account_id 를 둔다.
+    private Long accountId;
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+    @Enumerated(EnumType.STRING)
+    private TransactionResultType transactionResultType;
+    @Enumerated(EnumType.STRING)
+    private ErrorCode errorCode;
+
+    private Long amount;
+    private Long balanceSnapshot;
+    private LocalDateTime transactedAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,42 @@
+package com.example.accountservicezerobase.domain;
+
+import com.example.accountservicezerobase.type.ReconciliationMismatchType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * 원장 대사(reconciliation) 결과 불일치 리포트
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(columnList = "run_id"))
+@EntityListeners(AuditingEntityListener.class)
+public class ReconciliationMismatch {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String runId;
+
+    private Long accountId;
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    private ReconciliationMismatchType mismatchType;
+    // SNAPSHOT_SEQUENCE 인 경우 어긋난 거래
+    private String transactionId;
+
+    private Long expected;
+    private Long actual;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
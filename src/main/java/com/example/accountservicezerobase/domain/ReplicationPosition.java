@@ -0,0 +1,22 @@
+package com.example.accountservicezerobase.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+/**
+ * read-your-writes 용 복제 위치 (행 하나)
+ * 쓰기 요청이 커밋된 뒤 ReplicationPositionAdvice 가 1 씩 올린다. replica 는 이 행이 복제된 만큼 따라왔다고 본다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class ReplicationPosition {
+    @Id
+    private Long id;
+
+    private Long position;
+}
@@ -1,5 +1,6 @@
 package com.example.accountservicezerobase.domain;
 
+import com.example.accountservicezerobase.type.ErrorCode;
 import com.example.accountservicezerobase.type.TransactionResultType;
 import com.example.accountservicezerobase.type.TransactionType;
 import jakarta.persistence.*;
@@ -26,6 +27,9 @@ public class Transaction {
     private TransactionType transactionType;
     @Enumerated(EnumType.STRING)
     private TransactionResultType transactionResultType;
+    // 실패 거래(F)의 실패 사유
+    @Enumerated(EnumType.STRING)
+    private ErrorCode errorCode;
 
     @ManyToOne
     private Account account;
@@ -33,6 +37,8 @@ public class Transaction {
     private Long balanceSnapshot;
 
     private String transactionId;
+    // 이체(TRANSFER_OUT / TRANSFER_IN) 상대편 거래의 transactionId
+    private String linkedTransactionId;
     private LocalDateTime transactedAt;
 
 
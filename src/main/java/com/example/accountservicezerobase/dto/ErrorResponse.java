@@ -0,0 +1,12 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.type.ErrorCode;
+import lombok.*;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorResponse {
+    private ErrorCode errorCode;
+    private String errorMessage;
+}
@@ -0,0 +1,33 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.domain.FailedTransactionAggregate;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FailedTransactionAggregateDto {
+    private String accountNumber;
+    private TransactionType transactionType;
+    private ErrorCode errorCode;
+    private LocalDateTime hourBucket;
+    private Long failedCount;
+    private Long totalAmount;
+
+    public static FailedTransactionAggregateDto fromEntity(FailedTransactionAggregate aggregate) {
+        return FailedTransactionAggregateDto.builder()
+                .accountNumber(aggregate.getAccount().getAccountNumber())
+                .transactionType(aggregate.getTransactionType())
+                .errorCode(aggregate.getErrorCode())
+                .hourBucket(aggregate.getHourBucket())
+                .failedCount(aggregate.getFailedCount())
+                .totalAmount(aggregate.getTotalAmount())
+                .build();
+    }
+}
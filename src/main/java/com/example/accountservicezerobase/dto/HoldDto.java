@@ -0,0 +1,34 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.domain.Hold;
+import com.example.accountservicezerobase.type.HoldStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldDto {
+    private String holdId;
+    private String accountNumber;
+    private Long amount;
+    private HoldStatus holdStatus;
+    private LocalDateTime expiresAt;
+    private String transactionId;
+    private LocalDateTime closedAt;
+
+    public static HoldDto fromEntity(Hold hold) {
+        return HoldDto.builder()
+                .holdId(hold.getHoldId())
+                .accountNumber(hold.getAccount().getAccountNumber())
+                .amount(hold.getAmount())
+                .holdStatus(hold.getHoldStatus())
+                .expiresAt(hold.getExpiresAt())
+                .transactionId(hold.getTransactionId())
+                .closedAt(hold.getClosedAt())
+                .build();
+    }
+}
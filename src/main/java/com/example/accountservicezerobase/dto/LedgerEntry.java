@@ -0,0 +1,23 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 대사/집계용 거래 projection (엔티티를 만들지 않는다)
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerEntry {
+    private Long accountId;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    private Long balanceSnapshot;
+    private String transactionId;
+    private LocalDateTime transactedAt;
+}
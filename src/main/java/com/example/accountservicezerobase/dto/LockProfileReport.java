@@ -0,0 +1,55 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.profiling.SpaceSavingSketch;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LockProfileReport {
+    private Map<String, KindSummary> kinds;
+    private List<HotKey> mostContended;
+    private List<HotKey> mostRequested;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class KindSummary {
+        private Long count;
+        private Long contendedCount;
+        private Long avgWaitMicros;
+        private Long maxWaitMicros;
+        private Long avgHoldMicros;
+        private Long maxHoldMicros;
+    }
+
+    /**
+     * estimate 는 실제 값 이상, estimate - error 는 실제 값 이하
+     * (contended 는 마이크로초 대기 합, requested 는 요청 횟수)
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class HotKey {
+        private String key;
+        private Long estimate;
+        private Long error;
+
+        public static HotKey of(SpaceSavingSketch.Entry entry, long divisor) {
+            return HotKey.builder()
+                    .key(entry.key())
+                    .estimate(entry.estimate() / divisor)
+                    .error(entry.error() / divisor)
+                    .build();
+        }
+    }
+}
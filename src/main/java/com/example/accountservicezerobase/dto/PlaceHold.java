@@ -0,0 +1,54 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.type.HoldStatus;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+public class PlaceHold {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Request {
+        @NotNull
+        @Min(1)
+        private Long userId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String accountNumber;
+
+        @NotNull
+        @Min(10)
+        @Max(1000000000)
+        private Long amount;
+
+        // 없으면 hold.default-ttl
+        @Min(1)
+        private Long ttlSeconds;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber;
+        private String holdId;
+        private HoldStatus holdStatus;
+        private Long amount;
+        private LocalDateTime expiresAt;
+
+        public static Response from(HoldDto holdDto) {
+            return Response.builder()
+                    .accountNumber(holdDto.getAccountNumber())
+                    .holdId(holdDto.getHoldId())
+                    .holdStatus(holdDto.getHoldStatus())
+                    .amount(holdDto.getAmount())
+                    .expiresAt(holdDto.getExpiresAt())
+                    .build();
+        }
+    }
+}
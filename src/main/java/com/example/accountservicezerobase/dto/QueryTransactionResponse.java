@@ -1,5 +1,6 @@
 package com.example.accountservicezerobase.dto;
 
+import com.example.accountservicezerobase.type.ErrorCode;
 import com.example.accountservicezerobase.type.TransactionResultType;
 import com.example.accountservicezerobase.type.TransactionType;
 import lombok.*;
@@ -15,7 +16,9 @@ public class QueryTransactionResponse {
     private String accountNumber;
     private TransactionType transactionType;
     private TransactionResultType transactionResult;
+    private ErrorCode errorCode;
     private String transactionId;
+    private String linkedTransactionId;
     private Long amount;
     private LocalDateTime transactedAt;
 
@@ -24,7 +27,9 @@ public class QueryTransactionResponse {
                 .accountNumber(transactionDto.getAccountNumber())
                 .transactionType(transactionDto.getTransactionType())
                 .transactionResult(transactionDto.getTransactionResultType())
+                .errorCode(transactionDto.getErrorCode())
                 .transactionId(transactionDto.getTransactionId())
+                .linkedTransactionId(transactionDto.getLinkedTransactionId())
                 .amount(transactionDto.getAmount())
                 .transactedAt(transactionDto.getTransactedAt())
                 .build();
@@ -0,0 +1,34 @@
+package com.example.accountservicezerobase.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReport {
+    private String runId;
+    private LocalDateTime startedAt;
+    private Long elapsedMillis;
+    private Long accounts;
+    private Long transactions;
+    private Long mismatches;
+    private List<WorkerThroughput> workers;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class WorkerThroughput {
+        private String worker;
+        private Long ranges;
+        private Long transactions;
+        private Long busyMillis;
+        private Double transactionsPerSecond;
+    }
+}
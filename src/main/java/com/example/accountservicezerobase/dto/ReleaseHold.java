@@ -0,0 +1,45 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.type.HoldStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+public class ReleaseHold {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Request {
+        @NotBlank
+        private String holdId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String accountNumber;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber;
+        private String holdId;
+        private HoldStatus holdStatus;
+        private Long amount;
+        private LocalDateTime releasedAt;
+
+        public static Response from(HoldDto holdDto) {
+            return Response.builder()
+                    .accountNumber(holdDto.getAccountNumber())
+                    .holdId(holdDto.getHoldId())
+                    .holdStatus(holdDto.getHoldStatus())
+                    .amount(holdDto.getAmount())
+                    .releasedAt(holdDto.getClosedAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.accountservicezerobase.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardMoveReport {
+    // 옮긴 계좌번호 범위 (양 끝 포함)
+    private Long from;
+    private Long to;
+    private String source;
+    private String target;
+    private Integer chunks;
+    private Long accounts;
+    // 계좌와 함께 옮긴 거래 / 집계 행 수
+    private Long childRows;
+    private Long elapsedMillis;
+}
@@ -0,0 +1,46 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.domain.DailySpendRollup;
+import com.example.accountservicezerobase.domain.MonthlySpendRollup;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendRollupDto {
+    private String accountNumber;
+    // 일별이면 해당 일, 월별이면 해당 월의 1일
+    private LocalDate periodStart;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private Long totalAmount;
+    private Long transactionCount;
+
+    public static SpendRollupDto fromEntity(DailySpendRollup rollup) {
+        return SpendRollupDto.builder()
+                .accountNumber(rollup.getAccount().getAccountNumber())
+                .periodStart(rollup.getRollupDate())
+                .transactionType(rollup.getTransactionType())
+                .transactionResultType(rollup.getTransactionResultType())
+                .totalAmount(rollup.getTotalAmount())
+                .transactionCount(rollup.getTransactionCount())
+                .build();
+    }
+
+    public static SpendRollupDto fromEntity(MonthlySpendRollup rollup) {
+        return SpendRollupDto.builder()
+                .accountNumber(rollup.getAccount().getAccountNumber())
+                .periodStart(rollup.getRollupMonth())
+                .transactionType(rollup.getTransactionType())
+                .transactionResultType(rollup.getTransactionResultType())
+                .totalAmount(rollup.getTotalAmount())
+                .transactionCount(rollup.getTransactionCount())
+                .build();
+    }
+}
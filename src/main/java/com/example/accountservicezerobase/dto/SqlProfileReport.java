@@ -0,0 +1,38 @@
+package com.example.accountservicezerobase.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * sampled / totalMicros / avgMicros / maxMicros 는 표본 문 기준 (전체 추정은 sampled / sampleRate)
+ * slow 는 표본 여부와 상관없이 slowThresholdMillis 를 넘은 문의 수
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SqlProfileReport {
+    private Double sampleRate;
+    private Long slowThresholdMillis;
+    private Long executed;
+    private Long dropped;
+    private List<Statement> statements;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Statement {
+        private String endpoint;
+        private String caller;
+        private String fingerprint;
+        private Long sampled;
+        private Long totalMicros;
+        private Long avgMicros;
+        private Long maxMicros;
+        private Long slow;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.accountservicezerobase.dto;
 
 import com.example.accountservicezerobase.domain.Account;
 import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.type.ErrorCode;
 import com.example.accountservicezerobase.type.TransactionResultType;
 import com.example.accountservicezerobase.type.TransactionType;
 import lombok.*;
@@ -17,10 +18,12 @@ public class TransactionDto {
     private String accountNumber;
     private TransactionType transactionType;
     private TransactionResultType transactionResultType;
+    private ErrorCode errorCode;
     private Account account;
     private Long amount;
     private Long balanceSnapshot;
     private String transactionId;
+    private String linkedTransactionId;
     private LocalDateTime transactedAt;
 
     public static TransactionDto fromEntity(Transaction transaction) {
@@ -28,9 +31,11 @@ public class TransactionDto {
                 .accountNumber(transaction.getAccount().getAccountNumber())
                 .transactionType(transaction.getTransactionType())
                 .transactionResultType(transaction.getTransactionResultType())
+                .errorCode(transaction.getErrorCode())
                 .amount(transaction.getAmount())
                 .balanceSnapshot(transaction.getBalanceSnapshot())
                 .transactionId(transaction.getTransactionId())
+                .linkedTransactionId(transaction.getLinkedTransactionId())
                 .transactedAt(transaction.getTransactedAt())
                 .build();
     }
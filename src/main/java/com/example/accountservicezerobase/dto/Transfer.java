@@ -0,0 +1,60 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.type.TransactionResultType;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+public class Transfer {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Request {
+        @NotNull
+        @Min(1)
+        private Long userId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String fromAccountNumber;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String toAccountNumber;
+
+        @NotNull
+        @Min(10)
+        @Max(1000000000)
+        private Long amount;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String fromAccountNumber;
+        private String toAccountNumber;
+        private TransactionResultType transactionResult;
+        // 출금 거래 id. 입금 거래 id 는 linkedTransactionId
+        private String transactionId;
+        private String linkedTransactionId;
+        private Long amount;
+        private LocalDateTime transactedAt;
+
+        public static Response from(TransferDto transferDto) {
+            TransactionDto debit = transferDto.getDebit();
+            return Response.builder()
+                    .fromAccountNumber(debit.getAccountNumber())
+                    .toAccountNumber(transferDto.getCredit().getAccountNumber())
+                    .transactionResult(debit.getTransactionResultType())
+                    .transactionId(debit.getTransactionId())
+                    .linkedTransactionId(debit.getLinkedTransactionId())
+                    .amount(debit.getAmount())
+                    .transactedAt(debit.getTransactedAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.accountservicezerobase.dto;
+
+import com.example.accountservicezerobase.type.TransactionResultType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 한 계좌에서 여러 계좌로 보내는 일괄 이체 (급여 지급 등). 전부 성공하거나 전부 실패한다.
+ */
+public class TransferBatch {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Request {
+        @NotNull
+        @Min(1)
+        private Long userId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String fromAccountNumber;
+
+        @NotNull
+        @Size(min = 1, max = 1000)
+        private List<@Valid Item> transfers;
+
+        public long totalAmount() {
+            return transfers.stream().mapToLong(Item::getAmount).sum();
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String toAccountNumber;
+
+        @NotNull
+        @Min(10)
+        @Max(1000000000)
+        private Long amount;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String fromAccountNumber;
+        private TransactionResultType transactionResult;
+        private Long totalAmount;
+        private List<Transfer.Response> transfers;
+
+        public static Response from(String fromAccountNumber, List<TransferDto> transferDtos) {
+            return Response.builder()
+                    .fromAccountNumber(fromAccountNumber)
+                    .transactionResult(TransactionResultType.S)
+                    .totalAmount(transferDtos.stream()
+                            .mapToLong(transferDto -> transferDto.getDebit().getAmount())
+                            .sum())
+                    .transfers(transferDtos.stream()
+                            .map(Transfer.Response::from)
+                            .toList())
+                    .build();
+        }
+    }
+}
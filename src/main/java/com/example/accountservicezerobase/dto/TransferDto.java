@@ -0,0 +1,16 @@
+package com.example.accountservicezerobase.dto;
+
+import lombok.*;
+
+/**
+ * 이체 한 건: 보내는 계좌의 출금(TRANSFER_OUT)과 받는 계좌의 입금(TRANSFER_IN) 거래
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferDto {
+    private TransactionDto debit;
+    private TransactionDto credit;
+}
@@ -0,0 +1,26 @@
+package com.example.accountservicezerobase.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WarmupReport {
+    private LocalDateTime startedAt;
+    private Long elapsedMillis;
+    private Long budgetMillis;
+    private Integer preloadedAccounts;
+    private Integer preloadedUsers;
+    private Integer iterations;
+    private Integer failures;
+    // 처음/마지막 window 회 합성 거래의 p99 (마이크로초)
+    private Integer window;
+    private Long firstWindowP99Micros;
+    private Long lastWindowP99Micros;
+    // firstWindowP99 / lastWindowP99
+    private Double p99Improvement;
+}
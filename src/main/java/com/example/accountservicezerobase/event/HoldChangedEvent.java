@@ -0,0 +1,29 @@
+package com.example.accountservicezerobase.event;
+
+import com.example.accountservicezerobase.domain.Hold;
+import com.example.accountservicezerobase.type.HoldStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 승인이 만들어지거나(HELD) 닫힐 때(CAPTURED, RELEASED, EXPIRED) 발행된다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class HoldChangedEvent {
+    private final Long id;
+    private final String accountNumber;
+    private final HoldStatus holdStatus;
+    private final LocalDateTime expiresAt;
+
+    public static HoldChangedEvent of(Hold hold, HoldStatus holdStatus) {
+        return HoldChangedEvent.builder()
+                .id(hold.getId())
+                .accountNumber(hold.getAccount().getAccountNumber())
+                .holdStatus(holdStatus)
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.accountservicezerobase.event;
+
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 거래(Transaction)가 저장될 때마다 발행된다.
+ * 같은 DB 트랜잭션 안에서 처리해야 하면 @EventListener,
+ * 커밋된 뒤에만 처리해야 하면 @TransactionalEventListener 로 받는다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class TransactionSavedEvent {
+    private final Long id;
+    private final Long accountId;
+    private final String accountNumber;
+    private final String transactionId;
+    private final TransactionType transactionType;
+    private final TransactionResultType transactionResultType;
+    private final ErrorCode errorCode;
+    private final Long amount;
+    private final Long balanceSnapshot;
+    private final LocalDateTime transactedAt;
+
+    public static TransactionSavedEvent from(Transaction transaction) {
+        return TransactionSavedEvent.builder()
+                .id(transaction.getId())
+                .accountId(transaction.getAccount().getId())
+                .accountNumber(transaction.getAccount().getAccountNumber())
+                .transactionId(transaction.getTransactionId())
+                .transactionType(transaction.getTransactionType())
+                .transactionResultType(transaction.getTransactionResultType())
+                .errorCode(transaction.getErrorCode())
+                .amount(transaction.getAmount())
+                .balanceSnapshot(transaction.getBalanceSnapshot())
+                .transactedAt(transaction.getTransactedAt())
+                .build();
+    }
+}
@@ -3,12 +3,24 @@ package com.example.accountservicezerobase.exception;
 import com.example.accountservicezerobase.type.ErrorCode;
 import lombok.*;
 
+/**
+ * 업무 규칙 위반(잔액 부족, 계좌 없음 등)은 예상된 실패이므로
+ * AccountException.of 로 ErrorCode 별로 미리 만들어 둔 스택 트레이스 없는 인스턴스를 던진다.
+ * 공유 인스턴스이므로 값을 바꾸거나 cause/suppressed 를 붙이지 않는다.
+ */
 @Getter
-@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class AccountException extends RuntimeException{
+    private static final AccountException[] PREALLOCATED = new AccountException[ErrorCode.values().length];
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            PREALLOCATED[errorCode.ordinal()] = new AccountException(errorCode, false);
+        }
+    }
+
     private ErrorCode errorCode;
     private String errorMessage;
 
@@ -16,4 +28,14 @@ public class AccountException extends RuntimeException{
         this.errorCode = errorCode;
         this.errorMessage = errorCode.getDescription();
     }
-}
\ No newline at end of file
+
+    private AccountException(ErrorCode errorCode, boolean writableStackTrace) {
+        super(errorCode.getDescription(), null, false, writableStackTrace);
+        this.errorCode = errorCode;
+        this.errorMessage = errorCode.getDescription();
+    }
+
+    public static AccountException of(ErrorCode errorCode) {
+        return PREALLOCATED[errorCode.ordinal()];
+    }
+}
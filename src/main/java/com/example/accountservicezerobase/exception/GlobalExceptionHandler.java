@@ -0,0 +1,67 @@
+package com.example.accountservicezerobase.exception;
+
+import com.example.accountservicezerobase.dto.ErrorResponse;
+import com.example.accountservicezerobase.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 오류 응답은 모두 { errorCode, errorMessage } 한 가지 모양으로 내려간다.
+ * 응답 객체는 ErrorCode 별로 미리 만들어 두고 재사용한다. (업무 거절은 로그를 남기지 않는다)
+ */
+@Slf4j
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+    private static final Map<ErrorCode, ResponseEntity<ErrorResponse>> RESPONSES = new EnumMap<>(ErrorCode.class);
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            RESPONSES.put(errorCode, ResponseEntity.status(statusOf(errorCode))
+                    .body(new ErrorResponse(errorCode, errorCode.getDescription())));
+        }
+    }
+
+    public static HttpStatus statusOf(ErrorCode errorCode) {
+        return switch (errorCode) {
+            case USER_NOT_FOUND, ACCOUNT_NOT_FOUND, TRANSACTION_NOT_FOUND, HOLD_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case SEQUENCER_BUSY, CONCURRENCY_LIMIT_EXCEEDED, ACCOUNT_MOVING -> HttpStatus.SERVICE_UNAVAILABLE;
+            case CONCURRENT_UPDATE_RETRY_EXHAUSTED -> HttpStatus.CONFLICT;
+            case INVALID_REQUEST, AMOUNT_EXCEED_BALANCE, USER_ACCOUNT_UN_MATCH, CANCEL_MUST_FULLY,
+                 TOO_OLD_ORDER_TO_CANCEL, TRANSACTION_ACCOUNT_UN_MATCH, ACCOUNT_ALREADY_UNREGISTERED,
+                 BALANCE_NOT_EMPTY, MAX_ACCOUNT_PER_USER_10, TRANSFER_CANNOT_BE_CANCELED, HOLD_ACCOUNT_UN_MATCH,
+                 HOLD_NOT_ACTIVE, AMOUNT_EXCEED_HOLD -> HttpStatus.BAD_REQUEST;
+        };
+    }
+
+    public static ResponseEntity<ErrorResponse> responseOf(ErrorCode errorCode) {
+        return RESPONSES.get(errorCode);
+    }
+
+    @ExceptionHandler(AccountException.class)
+    public ResponseEntity<ErrorResponse> handleAccountException(AccountException e) {
+        return responseOf(e.getErrorCode());
+    }
+
+    @ExceptionHandler({
+            MethodArgumentNotValidException.class,
+            HttpMessageNotReadableException.class,
+            MethodArgumentTypeMismatchException.class,
+            MissingServletRequestParameterException.class,
+            MissingRequestHeaderException.class
+    })
+    public ResponseEntity<ErrorResponse> handleInvalidRequest(Exception e) {
+        log.debug("Invalid request: {}", e.getMessage());
+        return responseOf(ErrorCode.INVALID_REQUEST);
+    }
+}
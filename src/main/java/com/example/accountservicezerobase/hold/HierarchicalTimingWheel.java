@@ -0,0 +1,184 @@
+package com.example.accountservicezerobase.hold;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 계층형 timing wheel. 만료 시각이 된 key 를 advance() 로 꺼낸다.
+ * 단계 n 의 한 칸은 tick * wheelSize^n 이고, 먼 만료는 윗 단계에 두었다가 그 칸이 돌아오면 아랫 단계로 내린다(cascade).
+ * 등록 / 취소는 O(1), advance 는 지나간 tick 수 + 만료된 key 수에 비례한다. (전체 key 를 훑지 않는다)
+ * 만료는 tick 단위로 내림해서 판단하므로 최대 한 tick 늦게 나올 수 있다.
+ * 스레드 안전하지 않다. 한 스레드에서 쓰거나 밖에서 동기화한다.
+ */
+public class HierarchicalTimingWheel<K> {
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+        private Entry<K> prev;
+        private Entry<K> next;
+        private int level;
+        private int slot;
+
+        private Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    // 이미 지난 만료를 넣는 곳 (다음 advance 에서 꺼낸다)
+    private static final int DUE = -1;
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Entry<K>[][] slots;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private Entry<K> due;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1 || levels < 1
+                || (long) Integer.numberOfTrailingZeros(wheelSize) * levels >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("tickMillis > 0, wheelSize = 2^n, levels >= 1");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.slots = new Entry[levels][wheelSize];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * 이미 있는 key 면 만료 시각을 바꾼다.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        Entry<K> entry = new Entry<>(key, Math.floorDiv(deadlineMillis, tickMillis));
+        entries.put(key, entry);
+        if (entry.deadlineTick <= currentTick) {
+            push(entry, DUE, 0);
+        } else {
+            place(entry);
+        }
+    }
+
+    public boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * nowMillis 까지 시간을 진행하고 만료된 key 를 만료 순서(tick 단위)대로 돌려준다.
+     */
+    public List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        for (Entry<K> entry = due; entry != null; entry = entry.next) {
+            expired.add(entry.key);
+            entries.remove(entry.key);
+        }
+        due = null;
+
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            int slot = (int) (currentTick & mask);
+            Entry<K> entry = slots[0][slot];
+            slots[0][slot] = null;
+            while (entry != null) {
+                Entry<K> next = entry.next;
+                if (entry.deadlineTick > currentTick) {
+                    // 단계가 하나뿐일 때 범위 밖의 만료는 가장 먼 칸에서 한 바퀴씩 기다린다.
+                    place(entry);
+                } else {
+                    expired.add(entry.key);
+                    entries.remove(entry.key);
+                }
+                entry = next;
+            }
+            if (entries.isEmpty()) {
+                // 남은 것이 없으면 빈 tick 을 돌 필요가 없다.
+                currentTick = targetTick;
+            }
+        }
+        return expired;
+    }
+
+    // 윗 단계의 칸이 시작되는 tick 이면 그 칸의 key 를 다시 배치한다. (모두 지금 칸 안의 만료이므로 아래로 내려간다)
+    private void cascade() {
+        for (int level = slots.length - 1; level >= 1; level--) {
+            int shift = bits * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            int slot = (int) ((currentTick >>> shift) & mask);
+            Entry<K> entry = slots[level][slot];
+            slots[level][slot] = null;
+            while (entry != null) {
+                Entry<K> next = entry.next;
+                place(entry);
+                entry = next;
+            }
+        }
+    }
+
+    // 만료가 지금 tick 이면 level 0 의 지금 칸에 들어가서 이번 tick 에 나온다. (cascade 중에만 생긴다)
+    private void place(Entry<K> entry) {
+        int top = slots.length - 1;
+        for (int level = 0; level <= top; level++) {
+            int shift = bits * level;
+            long block = entry.deadlineTick >> shift;
+            long currentBlock = currentTick >> shift;
+            if (block - currentBlock <= mask) {
+                push(entry, level, (int) (block & mask));
+                return;
+            }
+        }
+        // 가장 윗 단계보다 먼 만료는 가장 먼 칸에 두었다가 그 칸이 돌아오면 다시 배치한다.
+        push(entry, top, (int) (((currentTick >> (bits * top)) + mask) & mask));
+    }
+
+    private void push(Entry<K> entry, int level, int slot) {
+        Entry<K> head = level == DUE ? due : slots[level][slot];
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        if (level == DUE) {
+            due = entry;
+        } else {
+            slots[level][slot] = entry;
+        }
+    }
+
+    private void unlink(Entry<K> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (entry.level == DUE) {
+            due = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.accountservicezerobase.hold;
+
+/**
+ * timing wheel 의 key. 만료 처리할 샤드를 고르려고 계좌번호를 함께 둔다.
+ */
+public record HoldKey(Long id, String accountNumber) {
+}
@@ -0,0 +1,9 @@
+package com.example.accountservicezerobase.hold;
+
+import java.time.LocalDateTime;
+
+/**
+ * 기동 시 timing wheel 을 다시 채울 때 읽는 HELD 승인
+ */
+public record PendingHold(Long id, String accountNumber, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,328 @@
+package com.example.accountservicezerobase.ledger;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * 메모리 원장 엔진
+ * 계좌마다 조밀한 슬롯 번호를 주고, 잔액 등은 슬롯을 인덱스로 하는 primitive 배열에 둔다.
+ * 모든 변경은 WAL 에 먼저 기록되고, 주기적으로 스냅샷을 남겨 복구 시간을 줄인다.
+ * 변경 메서드는 엔진 락(this) 안에서 실행되며, 결과는 호출자가 넘긴 Receipt 에 채운다.
+ */
+public class LedgerEngine implements Closeable {
+    public static final byte OP_REGISTER = 1;
+    public static final byte OP_DEBIT = 2;
+    public static final byte OP_CREDIT = 3;
+    public static final byte OP_UNREGISTER = 4;
+
+    public static final int OK = 0;
+    public static final int ACCOUNT_NOT_FOUND = 1;
+    public static final int USER_ACCOUNT_UN_MATCH = 2;
+    public static final int ACCOUNT_ALREADY_UNREGISTERED = 3;
+    public static final int AMOUNT_EXCEED_BALANCE = 4;
+    public static final int INVALID_REQUEST = 5;
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final int SNAPSHOT_MAGIC = 0x4C444752; // "LDGR"
+
+    /**
+     * 변경이 일어날 때마다 엔진 락 안에서 호출된다. (seq 순서 보장)
+     */
+    public interface MutationListener {
+        MutationListener NONE = (seq, op, slot, amount, balance, x, y, time) -> {
+        };
+
+        void onMutation(long seq, byte op, int slot, long amount, long balance, long x, long y, long time);
+    }
+
+    /**
+     * 호출자가 재사용하는 결과 객체
+     */
+    public static class Receipt {
+        public long seq;
+        public long balance;
+    }
+
+    private final Path directory;
+    private final WriteAheadLog wal;
+    private MutationListener listener = MutationListener.NONE;
+
+    private int size;
+    private long[] accountNumbers;
+    private long[] accountIds;
+    private long[] ownerUserIds;
+    private long[] balances;
+    private boolean[] active;
+    private final LongIntHashMap slots;
+    private long seq;
+    private long snapshotSeq;
+
+    private LedgerEngine(Path directory, int capacity, int walBufferBytes, long walSyncIntervalMicros,
+                         MutationListener recoveryListener) throws IOException {
+        this.directory = directory;
+        this.accountNumbers = new long[capacity];
+        this.accountIds = new long[capacity];
+        this.ownerUserIds = new long[capacity];
+        this.balances = new long[capacity];
+        this.active = new boolean[capacity];
+        this.slots = new LongIntHashMap(capacity);
+
+        Files.createDirectories(directory);
+        loadSnapshot();
+        long lastSeq = WriteAheadLog.replay(directory, (recordSeq, op, slot, amount, balance, x, y, time) -> {
+            if (recordSeq > snapshotSeq) {
+                apply(recordSeq, op, slot, amount, balance, x, y, time);
+            }
+            recoveryListener.onMutation(recordSeq, op, slot, amount, balance, x, y, time);
+        });
+        this.seq = Math.max(snapshotSeq, lastSeq);
+        this.wal = new WriteAheadLog(directory, seq + 1, walBufferBytes, walSyncIntervalMicros);
+    }
+
+    /**
+     * 스냅샷 + WAL 로 상태를 복구한 엔진을 연다.
+     * 보존된 WAL 레코드는 모두 recoveryListener 에 다시 전달된다. (projection 재반영용)
+     */
+    public static LedgerEngine open(Path directory, int capacity, int walBufferBytes, long walSyncIntervalMicros,
+                                    MutationListener recoveryListener) throws IOException {
+        return new LedgerEngine(directory, capacity, walBufferBytes, walSyncIntervalMicros, recoveryListener);
+    }
+
+    public synchronized void setListener(MutationListener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized int slotOf(long accountNumber) {
+        return slots.get(accountNumber);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long balance(int slot) {
+        return balances[slot];
+    }
+
+    public synchronized long accountId(int slot) {
+        return accountIds[slot];
+    }
+
+    public synchronized long accountNumber(int slot) {
+        return accountNumbers[slot];
+    }
+
+    public synchronized long ownerUserId(int slot) {
+        return ownerUserIds[slot];
+    }
+
+    public synchronized boolean isActive(int slot) {
+        return active[slot];
+    }
+
+    public long lastSeq() {
+        synchronized (this) {
+            return seq;
+        }
+    }
+
+    public long snapshotSeq() {
+        synchronized (this) {
+            return snapshotSeq;
+        }
+    }
+
+    /**
+     * 이미 등록된 계좌면 기존 슬롯을 돌려준다.
+     */
+    public synchronized int register(long accountNumber, long accountId, long ownerUserId, long balance,
+                                     boolean inUse, Receipt receipt) {
+        int slot = slots.get(accountNumber);
+        if (slot >= 0) {
+            receipt.seq = seq;
+            receipt.balance = balances[slot];
+            return slot;
+        }
+        slot = size;
+        long next = ++seq;
+        // REGISTER: amount=잔액, balance=소유자, x=계좌번호, y=계좌 id, time=사용 여부(1/0)
+        wal.append(next, OP_REGISTER, slot, balance, ownerUserId, accountNumber, accountId, inUse ? 1 : 0);
+        apply(next, OP_REGISTER, slot, balance, ownerUserId, accountNumber, accountId, inUse ? 1 : 0);
+        listener.onMutation(next, OP_REGISTER, slot, balance, ownerUserId, accountNumber, accountId, inUse ? 1 : 0);
+        receipt.seq = next;
+        receipt.balance = balance;
+        return slot;
+    }
+
+    /**
+     * 잔액 사용. 성공하면 OK, 실패하면 실패 코드
+     * DEBIT/CREDIT: x,y = 거래 ID(128bit), time = 거래 시각(epoch ms), balance = 반영 후 잔액
+     */
+    public synchronized int debit(int slot, long userId, long amount, long transactionIdHigh,
+                                  long transactionIdLow, long time, Receipt receipt) {
+        if (slot < 0 || slot >= size) {
+            return ACCOUNT_NOT_FOUND;
+        }
+        // 음수 사용은 입금이 되므로 검증을 건너뛴 호출도 막는다.
+        if (amount < 0) {
+            return INVALID_REQUEST;
+        }
+        if (ownerUserIds[slot] != userId) {
+            return USER_ACCOUNT_UN_MATCH;
+        }
+        if (!active[slot]) {
+            return ACCOUNT_ALREADY_UNREGISTERED;
+        }
+        if (amount > balances[slot]) {
+            return AMOUNT_EXCEED_BALANCE;
+        }
+        long next = ++seq;
+        long balance = balances[slot] - amount;
+        wal.append(next, OP_DEBIT, slot, amount, balance, transactionIdHigh, transactionIdLow, time);
+        balances[slot] = balance;
+        listener.onMutation(next, OP_DEBIT, slot, amount, balance, transactionIdHigh, transactionIdLow, time);
+        receipt.seq = next;
+        receipt.balance = balance;
+        return OK;
+    }
+
+    public synchronized int credit(int slot, long amount, long transactionIdHigh,
+                                   long transactionIdLow, long time, Receipt receipt) {
+        if (slot < 0 || slot >= size) {
+            return ACCOUNT_NOT_FOUND;
+        }
+        if (amount < 0) {
+            return INVALID_REQUEST;
+        }
+        long next = ++seq;
+        long balance = balances[slot] + amount;
+        wal.append(next, OP_CREDIT, slot, amount, balance, transactionIdHigh, transactionIdLow, time);
+        balances[slot] = balance;
+        listener.onMutation(next, OP_CREDIT, slot, amount, balance, transactionIdHigh, transactionIdLow, time);
+        receipt.seq = next;
+        receipt.balance = balance;
+        return OK;
+    }
+
+    public synchronized void unregister(int slot, Receipt receipt) {
+        long next = ++seq;
+        wal.append(next, OP_UNREGISTER, slot, 0, balances[slot], 0, 0, 0);
+        active[slot] = false;
+        listener.onMutation(next, OP_UNREGISTER, slot, 0, balances[slot], 0, 0, 0);
+        receipt.seq = next;
+        receipt.balance = balances[slot];
+    }
+
+    public void awaitDurable(long seq) {
+        wal.awaitDurable(seq);
+    }
+
+    /**
+     * 엔진 락 안에서 배열을 복사하고 WAL 파일을 넘긴 뒤, 락 밖에서 스냅샷 파일을 쓴다.
+     * 스냅샷 이전 WAL 은 keepWalAfterSeq(= projection 까지 끝난 seq) 를 넘는 것만 남긴다.
+     */
+    public void snapshot(long keepWalAfterSeq) throws IOException {
+        int count;
+        long at;
+        long[] numbers;
+        long[] ids;
+        long[] owners;
+        long[] amounts;
+        boolean[] flags;
+        synchronized (this) {
+            count = size;
+            at = seq;
+            numbers = Arrays.copyOf(accountNumbers, count);
+            ids = Arrays.copyOf(accountIds, count);
+            owners = Arrays.copyOf(ownerUserIds, count);
+            amounts = Arrays.copyOf(balances, count);
+            flags = Arrays.copyOf(active, count);
+            wal.roll(at + 1);
+        }
+
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(at);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(numbers[i]);
+                out.writeLong(ids[i]);
+                out.writeLong(owners[i]);
+                out.writeLong(amounts[i]);
+                out.writeBoolean(flags[i]);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        synchronized (this) {
+            snapshotSeq = at;
+        }
+        wal.deleteUpTo(Math.min(at, keepWalAfterSeq));
+    }
+
+    @Override
+    public void close() throws IOException {
+        wal.close();
+    }
+
+    private void loadSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a ledger snapshot: " + path);
+            }
+            snapshotSeq = in.readLong();
+            int count = in.readInt();
+            for (int slot = 0; slot < count; slot++) {
+                long accountNumber = in.readLong();
+                long accountId = in.readLong();
+                long owner = in.readLong();
+                long balance = in.readLong();
+                boolean flag = in.readBoolean();
+                apply(snapshotSeq, OP_REGISTER, slot, balance, owner, accountNumber, accountId, flag ? 1 : 0);
+            }
+        }
+    }
+
+    private void apply(long recordSeq, byte op, int slot, long amount, long balance, long x, long y, long time) {
+        switch (op) {
+            case OP_REGISTER -> {
+                ensureCapacity(slot + 1);
+                accountNumbers[slot] = x;
+                accountIds[slot] = y;
+                ownerUserIds[slot] = balance;
+                balances[slot] = amount;
+                active[slot] = time != 0;
+                slots.put(x, slot);
+                size = Math.max(size, slot + 1);
+            }
+            case OP_DEBIT, OP_CREDIT -> balances[slot] = balance;
+            case OP_UNREGISTER -> active[slot] = false;
+            default -> throw new IllegalStateException("Unknown ledger op " + op + " at seq " + recordSeq);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= balances.length) {
+            return;
+        }
+        int capacity = Math.max(required, balances.length * 2);
+        accountNumbers = Arrays.copyOf(accountNumbers, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+        ownerUserIds = Arrays.copyOf(ownerUserIds, capacity);
+        balances = Arrays.copyOf(balances, capacity);
+        active = Arrays.copyOf(active, capacity);
+    }
+}
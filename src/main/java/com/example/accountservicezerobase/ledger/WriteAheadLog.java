@@ -0,0 +1,251 @@
+package com.example.accountservicezerobase.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 원장 엔진의 write-ahead log.
+ * 고정 길이 레코드를 메모리 버퍼(이중 버퍼)에 쌓고, 전용 스레드가 주기적으로 파일에 쓰고 fsync 한다. (group commit)
+ * 파일은 시작 seq 별로 나뉜다. (wal-00000000000000000001.log)
+ * <pre>
+ * record: seq(8) op(1) slot(4) amount(8) balance(8) x(8) y(8) time(8)
+ * </pre>
+ */
+public class WriteAheadLog implements Closeable {
+    public static final int RECORD_SIZE = 8 + 1 + 4 + 8 + 8 + 8 + 8 + 8;
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    public interface RecordConsumer {
+        void accept(long seq, byte op, int slot, long amount, long balance, long x, long y, long time);
+    }
+
+    private final Path directory;
+    private final long syncIntervalMicros;
+
+    private FileChannel channel;
+    private ByteBuffer active;
+    private ByteBuffer flushing;
+    private long lastAppendedSeq;
+    private volatile long durableSeq;
+    private boolean syncing;
+    private volatile boolean closed;
+    private final Thread syncThread;
+
+    public WriteAheadLog(Path directory, long startSeq, int bufferBytes, long syncIntervalMicros) throws IOException {
+        this.directory = directory;
+        this.syncIntervalMicros = syncIntervalMicros;
+        this.active = ByteBuffer.allocateDirect(bufferBytes - bufferBytes % RECORD_SIZE);
+        this.flushing = ByteBuffer.allocateDirect(active.capacity());
+        this.lastAppendedSeq = startSeq - 1;
+        this.durableSeq = startSeq - 1;
+        this.channel = openFile(startSeq);
+
+        this.syncThread = new Thread(this::syncLoop, "ledger-wal-sync");
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    public synchronized void append(long seq, byte op, int slot, long amount, long balance,
+                                    long x, long y, long time) {
+        while (active.remaining() < RECORD_SIZE) {
+            // 버퍼가 가득 차면 sync 스레드가 비울 때까지 기다린다. (backpressure)
+            notifyAll();
+            waitUninterruptibly();
+        }
+        active.putLong(seq).put(op).putInt(slot).putLong(amount).putLong(balance)
+                .putLong(x).putLong(y).putLong(time);
+        lastAppendedSeq = seq;
+    }
+
+    public long getDurableSeq() {
+        return durableSeq;
+    }
+
+    /**
+     * seq 까지 fsync 될 때까지 기다린다.
+     */
+    public void awaitDurable(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        synchronized (this) {
+            while (durableSeq < seq && !closed) {
+                waitUninterruptibly();
+            }
+        }
+    }
+
+    /**
+     * 지금까지 쌓인 레코드를 즉시 기록한다.
+     */
+    public void sync() {
+        ByteBuffer toWrite;
+        long upTo;
+        synchronized (this) {
+            while (syncing) {
+                waitUninterruptibly();
+            }
+            if (active.position() == 0) {
+                return;
+            }
+            toWrite = active;
+            active = flushing;
+            flushing = toWrite;
+            upTo = lastAppendedSeq;
+            syncing = true;
+            notifyAll();
+        }
+
+        try {
+            toWrite.flip();
+            while (toWrite.hasRemaining()) {
+                channel.write(toWrite);
+            }
+            channel.force(false);
+            toWrite.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (this) {
+                syncing = false;
+                if (toWrite.position() == 0) {
+                    durableSeq = upTo;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 스냅샷 직후 호출한다. 버퍼를 비우고 nextSeq 부터는 새 파일에 기록한다.
+     */
+    public synchronized void roll(long nextSeq) throws IOException {
+        while (syncing) {
+            waitUninterruptibly();
+        }
+        active.flip();
+        while (active.hasRemaining()) {
+            channel.write(active);
+        }
+        active.clear();
+        channel.force(false);
+        channel.close();
+        durableSeq = lastAppendedSeq;
+        channel = openFile(nextSeq);
+        notifyAll();
+    }
+
+    /**
+     * 시작 seq 가 다음 파일 기준으로 keepAfterSeq 이하인 파일만 지운다.
+     * (해당 파일의 모든 레코드가 keepAfterSeq 이하)
+     */
+    public void deleteUpTo(long keepAfterSeq) throws IOException {
+        List<Long> starts = listStartSeqs(directory);
+        for (int i = 0; i + 1 < starts.size(); i++) {
+            if (starts.get(i + 1) - 1 <= keepAfterSeq) {
+                Files.deleteIfExists(directory.resolve(fileName(starts.get(i))));
+            }
+        }
+    }
+
+    /**
+     * 모든 WAL 파일을 seq 순서대로 읽는다. 마지막 레코드가 잘려 있으면 무시한다.
+     * 반환값은 마지막 seq (없으면 0)
+     */
+    public static long replay(Path directory, RecordConsumer consumer) throws IOException {
+        long lastSeq = 0;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (long start : listStartSeqs(directory)) {
+            try (FileChannel file = FileChannel.open(directory.resolve(fileName(start)), StandardOpenOption.READ)) {
+                while (true) {
+                    record.clear();
+                    while (record.hasRemaining() && file.read(record) >= 0) {
+                        // 끝까지 읽는다
+                    }
+                    if (record.hasRemaining()) {
+                        break;
+                    }
+                    record.flip();
+                    long seq = record.getLong();
+                    consumer.accept(seq, record.get(), record.getInt(), record.getLong(), record.getLong(),
+                            record.getLong(), record.getLong(), record.getLong());
+                    lastSeq = seq;
+                }
+            }
+        }
+        return lastSeq;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        // 기록 중에 interrupt 하면 채널이 닫히므로, 다음 주기에 스스로 끝나기를 기다린다.
+        try {
+            syncThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        channel.close();
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    private void syncLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(syncIntervalMicros / 1000, (int) (syncIntervalMicros % 1000) * 1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!closed) {
+                sync();
+            }
+        }
+    }
+
+    private FileChannel openFile(long startSeq) throws IOException {
+        Files.createDirectories(directory);
+        return FileChannel.open(directory.resolve(fileName(startSeq)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static List<Long> listStartSeqs(Path directory) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return starts;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .forEach(starts::add);
+        }
+        return starts;
+    }
+
+    private static String fileName(long startSeq) {
+        return String.format("%s%020d%s", PREFIX, startSeq, SUFFIX);
+    }
+
+    private void waitUninterruptibly() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
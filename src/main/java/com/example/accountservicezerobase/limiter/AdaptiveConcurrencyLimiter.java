@@ -0,0 +1,64 @@
+package com.example.accountservicezerobase.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 한 endpoint 묶음의 동시 처리 한도. 한도를 넘는 요청은 기다리지 않고 바로 거절한다.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final String name;
+    private final GradientLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+
+    public AdaptiveConcurrencyLimiter(String name, GradientLimit limit) {
+        this.name = name;
+        this.limit = limit;
+    }
+
+    /**
+     * 자리가 있으면 true. true 를 받은 호출자는 끝난 뒤 반드시 release 한다.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                shed.incrementAndGet();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 처리 시간을 한도 계산에 반영한다. 표본으로 쓰지 않을 요청(서버 오류 등)은 rttNanos 에 0 을 넘긴다.
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        limit.onSample(rttNanos, current);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getShed() {
+        return shed.get();
+    }
+}
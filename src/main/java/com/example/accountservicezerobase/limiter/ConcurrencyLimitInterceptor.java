@@ -0,0 +1,58 @@
+package com.example.accountservicezerobase.limiter;
+
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.ErrorCode;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * 컨트롤러 클래스별 limiter 로 요청을 받거나 바로 503(CONCURRENCY_LIMIT_EXCEEDED)으로 거절한다.
+ * 비동기 응답은 async dispatch 가 끝날 때 release 한다.
+ * 5xx 응답은 지연 표본에서 뺀다.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String STARTED_AT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters;
+
+    public ConcurrencyLimitInterceptor(Map<String, AdaptiveConcurrencyLimiter> limiters) {
+        this.limiters = limiters;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.get(handlerMethod.getBeanType().getSimpleName());
+        if (limiter == null) {
+            return true;
+        }
+        if (!limiter.tryAcquire()) {
+            throw AccountException.of(ErrorCode.CONCURRENCY_LIMIT_EXCEEDED);
+        }
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(STARTED_AT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        AdaptiveConcurrencyLimiter limiter = (AdaptiveConcurrencyLimiter) request.getAttribute(LIMITER_ATTRIBUTE);
+        if (limiter == null) {
+            return;
+        }
+        request.removeAttribute(LIMITER_ATTRIBUTE);
+        boolean sample = ex == null && response.getStatus() < 500;
+        long startedAt = (Long) request.getAttribute(STARTED_AT_ATTRIBUTE);
+        limiter.release(sample ? System.nanoTime() - startedAt : 0L);
+    }
+}
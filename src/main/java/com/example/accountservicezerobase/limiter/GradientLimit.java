@@ -0,0 +1,69 @@
+package com.example.accountservicezerobase.limiter;
+
+/**
+ * 지연 시간 기울기(gradient)로 동시 처리 한도를 조정한다.
+ * window 개의 표본마다 평균 응답 시간(avgRtt)을 구해서
+ * - baseline : 가장 낮은 avgRtt (부하 없을 때의 응답 시간)
+ *   부하가 적은 창이나 한도가 minLimit 까지 내려간 창에서는 그 창의 avgRtt 로 바꾼다. (서비스 자체가 느려진 경우를 따라간다)
+ * - gradient = clamp(tolerance * baseline / avgRtt, 0.5, 1.0)
+ * - newLimit = limit * gradient + sqrt(limit)
+ * 응답이 baseline 의 tolerance 배를 넘으면 한도가 줄고, 그 안이면 sqrt(limit) 씩 늘어난다.
+ * 창 안에서 사용 중인 요청이 한도의 절반도 안 되면 조정하지 않는다. (부하 없이 한도만 커지는 것을 막는다)
+ */
+public class GradientLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int window;
+
+    private double limit;
+    private double baseline = Double.MAX_VALUE;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit,
+                         double tolerance, double smoothing, int window) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.window = window;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (++windowSamples < window) {
+            return;
+        }
+
+        double avgRtt = (double) windowRttSum / windowSamples;
+        boolean applicationLimited = windowMaxInFlight < limit / 2;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        if (applicationLimited || limit <= minLimit) {
+            baseline = avgRtt;
+        } else {
+            baseline = Math.min(baseline, avgRtt);
+        }
+        if (applicationLimited) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baseline / avgRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.accountservicezerobase.outbox;
+
+import com.example.accountservicezerobase.domain.OutboxEvent;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 거래가 저장될 때 같은 트랜잭션 안에서 outbox 행을 남긴다.
+ * 거래가 롤백되면 outbox 행도 함께 롤백된다.
+ * 트랜잭션 밖에서 발행되면 거래와 따로 커밋되어 유실될 수 있으므로 예외로 막는다. (MANDATORY)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "outbox", name = "enabled", havingValue = "true")
+public class OutboxEventWriter {
+    private final OutboxEventRepository outboxEventRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionSaved(TransactionSavedEvent event) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .transactionId(event.getTransactionId())
+                .accountId(event.getAccountId())
+                .accountNumber(event.getAccountNumber())
+                .transactionType(event.getTransactionType())
+                .transactionResultType(event.getTransactionResultType())
+                .errorCode(event.getErrorCode())
+                .amount(event.getAmount())
+                .balanceSnapshot(event.getBalanceSnapshot())
+                .transactedAt(event.getTransactedAt())
+                .build());
+    }
+}
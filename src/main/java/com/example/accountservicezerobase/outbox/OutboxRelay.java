@@ -0,0 +1,195 @@
+package com.example.accountservicezerobase.outbox;
+
+import com.example.accountservicezerobase.domain.OutboxEvent;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import com.example.accountservicezerobase.repository.OutboxEventRepository;
+import com.example.accountservicezerobase.shard.ShardContext;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RLock;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * outbox 를 묶음으로 읽어 Redis Stream 에 발행하고, 발행이 끝난 행을 삭제한다.
+ * 발행 후 삭제 전에 죽으면 다음 실행에서 같은 이벤트를 다시 보낸다. (at-least-once)
+ * 소비자는 outboxId 또는 transactionId 로 중복을 걸러야 한다.
+ * 여러 인스턴스 중 하나만 relay 하도록 Redisson 락을 잡는다.
+ * 샤딩 중이면 outbox 행은 거래와 같은 샤드에 있으므로 락을 쥔 채 샤드를 차례로 돈다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+    private static final String LOCK_NAME = "outbox-relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectProvider<RedissonClient> redissonClient;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final LockProfiler lockProfiler;
+    private final String streamName;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final Timer batchTimer;
+    // 가장 오래된 미발행 이벤트의 나이 (밀리초)
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            ObjectProvider<RedissonClient> redissonClient,
+            ObjectProvider<ShardRouter> shardRouter,
+            LockProfiler lockProfiler,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.stream:account-transactions}") String streamName,
+            @Value("${outbox.relay.batch-size:500}") int batchSize,
+            @Value("${outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.redissonClient = redissonClient;
+        this.shardRouter = shardRouter;
+        this.lockProfiler = lockProfiler;
+        this.streamName = streamName;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Outbox events published to the stream")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("outbox.relay.failures")
+                .description("Relay runs that stopped on an error")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to publish one batch to the stream")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void scheduledRelay() {
+        relay();
+    }
+
+    /**
+     * 발행한 이벤트 수를 돌려준다. 다른 인스턴스가 relay 중이면 0
+     */
+    public long relay() {
+        RedissonClient client = redissonClient.getIfAvailable();
+        if (client == null) {
+            log.debug("Redis is disabled, outbox relay skipped");
+            return 0L;
+        }
+        RLock lock = client.getLock(LOCK_NAME);
+        long lockStartedAt = System.nanoTime();
+        if (!lock.tryLock()) {
+            return 0L;
+        }
+        LockProfiler.Hold hold = lockProfiler.acquired("redis-lock", LOCK_NAME, System.nanoTime() - lockStartedAt);
+
+        long published = 0L;
+        long lag = 0L;
+        try {
+            // 샤딩하지 않으면 샤드를 정하지 않은(null) 기본 DataSource 하나만 돈다.
+            ShardRouter router = shardRouter.getIfAvailable();
+            List<String> shards = router != null
+                    ? router.getDirectory().getShards()
+                    : Collections.singletonList(null);
+            for (String shard : shards) {
+                long[] result = {0L, 0L};
+                try {
+                    ShardContext.run(shard, () -> relayShard(client, result));
+                } catch (RuntimeException e) {
+                    failureCounter.increment();
+                    log.warn("Outbox relay stopped on {} after {} events", shard, result[0], e);
+                }
+                published += result[0];
+                lag = Math.max(lag, result[1]);
+            }
+            lagMillis.set(lag);
+        } finally {
+            lock.unlock();
+            hold.release();
+        }
+        return published;
+    }
+
+    /**
+     * 현재 샤드의 outbox 를 최대 maxBatchesPerRun 묶음까지 발행한다.
+     * result[0] 에 발행한 수, result[1] 에 남은 가장 오래된 이벤트의 나이(밀리초)를 쌓는다.
+     */
+    private void relayShard(RedissonClient client, long[] result) {
+        long lastId = 0L;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<OutboxEvent> events = outboxEventRepository
+                    .findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                result[1] = 0L;
+                return;
+            }
+            result[1] = Math.max(0L, Duration.between(
+                    events.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+            batchTimer.record(() -> publish(client, events));
+            outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+
+            publishedCounter.increment(events.size());
+            result[0] += events.size();
+            lastId = events.get(events.size() - 1).getId();
+            if (events.size() < batchSize) {
+                result[1] = 0L;
+                return;
+            }
+        }
+    }
+
+    private void publish(RedissonClient client, List<OutboxEvent> events) {
+        RBatch batch = client.createBatch(BatchOptions.defaults());
+        RStreamAsync<String, String> stream = batch.getStream(streamName, StringCodec.INSTANCE);
+        for (OutboxEvent event : events) {
+            stream.addAsync(StreamAddArgs.entries(toFields(event)));
+        }
+        batch.execute();
+    }
+
+    private static Map<String, String> toFields(OutboxEvent event) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("outboxId", String.valueOf(event.getId()));
+        fields.put("transactionId", event.getTransactionId());
+        fields.put("accountNumber", event.getAccountNumber());
+        fields.put("transactionType", event.getTransactionType().name());
+        fields.put("transactionResultType", event.getTransactionResultType().name());
+        if (event.getErrorCode() != null) {
+            fields.put("errorCode", event.getErrorCode().name());
+        }
+        fields.put("amount", String.valueOf(event.getAmount()));
+        fields.put("balanceSnapshot", String.valueOf(event.getBalanceSnapshot()));
+        fields.put("transactedAt", String.valueOf(event.getTransactedAt()));
+        return fields;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.accountservicezerobase.profiling;
+
+import com.example.accountservicezerobase.dto.LockProfileReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 락 키별 대기(wait) / 점유(hold) 시간 수집
+ * 종류(kind)별 합계는 그대로 두고, 키별 정보는 Space-Saving sketch 로 상위 키만 메모리 한도 안에서 유지한다.
+ * - requested : 락 요청 횟수
+ * - contended : 대기 시간이 contended-threshold 이상인 요청의 대기 시간 합 (나노초)
+ * 거래마다 기록하므로 sketch 는 스레드 id 로 고른 stripe 에 나눠 쌓고, 보고서를 만들 때 합친다.
+ * 메모리는 stripe 수(코어 수 이상인 2의 거듭제곱) x sketch-capacity 로 묶인다.
+ */
+@Component
+public class LockProfiler {
+    /**
+     * 락을 잡은 뒤 release() 를 부르면 점유 시간이 기록된다.
+     */
+    public final class Hold {
+        private final String kind;
+        private final String key;
+        private final long waitNanos;
+        private final long acquiredAt = System.nanoTime();
+
+        private Hold(String kind, String key, long waitNanos) {
+            this.kind = kind;
+            this.key = key;
+            this.waitNanos = waitNanos;
+        }
+
+        public void release() {
+            record(kind, key, waitNanos, System.nanoTime() - acquiredAt);
+        }
+    }
+
+    private static final class KindStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder totalHoldNanos = new LongAdder();
+        private final LongAccumulator maxHoldNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder contended = new LongAdder();
+    }
+
+    private static final class Stripe {
+        private final SpaceSavingSketch requested;
+        private final SpaceSavingSketch contended;
+
+        private Stripe(int sketchCapacity) {
+            this.requested = new SpaceSavingSketch(sketchCapacity);
+            this.contended = new SpaceSavingSketch(sketchCapacity);
+        }
+    }
+
+    private final long contendedThresholdNanos;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final Map<String, KindStats> kinds = new ConcurrentHashMap<>();
+
+    public LockProfiler(
+            @Value("${profiling.lock.sketch-capacity:256}") int sketchCapacity,
+            @Value("${profiling.lock.contended-threshold:1ms}") Duration contendedThreshold) {
+        this.contendedThresholdNanos = contendedThreshold.toNanos();
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(sketchCapacity);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    public Hold acquired(String kind, String key, long waitNanos) {
+        return new Hold(kind, key, waitNanos);
+    }
+
+    public void record(String kind, String key, long waitNanos, long holdNanos) {
+        KindStats stats = kinds.computeIfAbsent(kind, ignored -> new KindStats());
+        stats.count.increment();
+        stats.totalWaitNanos.add(waitNanos);
+        stats.maxWaitNanos.accumulate(waitNanos);
+        stats.totalHoldNanos.add(holdNanos);
+        stats.maxHoldNanos.accumulate(holdNanos);
+
+        String sketchKey = kind + ":" + key;
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        stripe.requested.add(sketchKey, 1);
+        if (waitNanos >= contendedThresholdNanos) {
+            stats.contended.increment();
+            stripe.contended.add(sketchKey, waitNanos);
+        }
+    }
+
+    public LockProfileReport report(int top) {
+        Map<String, LockProfileReport.KindSummary> summaries = new TreeMap<>();
+        kinds.forEach((kind, stats) -> {
+            long count = stats.count.sum();
+            summaries.put(kind, LockProfileReport.KindSummary.builder()
+                    .count(count)
+                    .contendedCount(stats.contended.sum())
+                    .avgWaitMicros(count == 0 ? 0 : stats.totalWaitNanos.sum() / count / 1000)
+                    .maxWaitMicros(stats.maxWaitNanos.get() / 1000)
+                    .avgHoldMicros(count == 0 ? 0 : stats.totalHoldNanos.sum() / count / 1000)
+                    .maxHoldMicros(stats.maxHoldNanos.get() / 1000)
+                    .build());
+        });
+
+        return LockProfileReport.builder()
+                .kinds(summaries)
+                .mostContended(SpaceSavingSketch.mergeTop(sketches(stripe -> stripe.contended), top).stream()
+                        .map(entry -> LockProfileReport.HotKey.of(entry, 1000))
+                        .toList())
+                .mostRequested(SpaceSavingSketch.mergeTop(sketches(stripe -> stripe.requested), top).stream()
+                        .map(entry -> LockProfileReport.HotKey.of(entry, 1))
+                        .toList())
+                .build();
+    }
+
+    public void reset() {
+        kinds.clear();
+        for (Stripe stripe : stripes) {
+            stripe.requested.clear();
+            stripe.contended.clear();
+        }
+    }
+
+    private List<SpaceSavingSketch> sketches(Function<Stripe, SpaceSavingSketch> sketch) {
+        return Arrays.stream(stripes).map(sketch).toList();
+    }
+}
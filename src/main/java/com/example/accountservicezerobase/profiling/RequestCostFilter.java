@@ -0,0 +1,151 @@
+package com.example.accountservicezerobase.profiling;
+
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.type.TransactionType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나가 요청 스레드에서 할당한 바이트와 쓴 CPU 시간을 ThreadMXBean 으로 잰다.
+ * sample-rate 비율의 요청만 재고, 엔드포인트와 거래 종류(TransactionType)별 히스토그램으로 남긴다.
+ * - request.allocation : 할당 바이트
+ * - request.cpu : CPU 시간
+ * 거래 종류는 요청 스레드에서 발행된 TransactionSavedEvent 로 정한다. 거래가 없으면 NONE
+ * 다른 스레드(비동기 처리, 샤드 fan-out, 원장 엔진)에서 쓴 비용은 들어가지 않는다.
+ * debug-headers 이면 X-Request-Cost 헤더가 있는 요청은 항상 재고 결과를 응답 헤더로 돌려준다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "profiling.request-cost", name = "enabled", havingValue = "true")
+public class RequestCostFilter extends OncePerRequestFilter {
+    public static final String DEBUG_HEADER = "X-Request-Cost";
+    public static final String ALLOCATED_BYTES_HEADER = "X-Request-Allocated-Bytes";
+    public static final String CPU_MICROS_HEADER = "X-Request-Cpu-Micros";
+    private static final String NONE = "NONE";
+    private static final String UNMAPPED = "UNMAPPED";
+
+    private static final ThreadLocal<TransactionType[]> TRANSACTION_TYPE = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final double sampleRate;
+    private final boolean debugHeaders;
+
+    public RequestCostFilter(
+            MeterRegistry meterRegistry,
+            @Value("${profiling.request-cost.sample-rate:0.05}") double sampleRate,
+            @Value("${profiling.request-cost.debug-headers:false}") boolean debugHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+        this.debugHeaders = debugHeaders;
+        this.threadMXBean = supportedThreadMXBean();
+    }
+
+    private static com.sun.management.ThreadMXBean supportedThreadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+                || !bean.isThreadAllocatedMemorySupported() || !bean.isCurrentThreadCpuTimeSupported()) {
+            log.warn("Thread allocation / CPU time is not supported by this JVM, request cost is not measured");
+            return null;
+        }
+        if (!bean.isThreadAllocatedMemoryEnabled()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+        }
+        if (!bean.isThreadCpuTimeEnabled()) {
+            bean.setThreadCpuTimeEnabled(true);
+        }
+        return bean;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean debug = debugHeaders && request.getHeader(DEBUG_HEADER) != null;
+        if (threadMXBean == null || !(debug || sampled())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper debugResponse = debug ? new ContentCachingResponseWrapper(response) : null;
+        TransactionType[] transactionType = new TransactionType[1];
+        TRANSACTION_TYPE.set(transactionType);
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        long cpuBefore = threadMXBean.getCurrentThreadCpuTime();
+        try {
+            filterChain.doFilter(request, debugResponse != null ? debugResponse : response);
+        } finally {
+            long cpuNanos = threadMXBean.getCurrentThreadCpuTime() - cpuBefore;
+            long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            TRANSACTION_TYPE.remove();
+
+            // 비동기로 넘어간 요청은 요청 스레드의 비용만으로는 의미가 없다.
+            if (!request.isAsyncStarted()) {
+                record(endpoint(request), transactionType[0], allocatedBytes, cpuNanos);
+            }
+            if (debugResponse != null) {
+                debugResponse.setHeader(ALLOCATED_BYTES_HEADER, String.valueOf(allocatedBytes));
+                debugResponse.setHeader(CPU_MICROS_HEADER, String.valueOf(cpuNanos / 1000));
+                debugResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private void record(String endpoint, TransactionType transactionType, long allocatedBytes, long cpuNanos) {
+        String type = transactionType != null ? transactionType.name() : NONE;
+        DistributionSummary.builder("request.allocation")
+                .baseUnit("bytes")
+                .tag("endpoint", endpoint)
+                .tag("transactionType", type)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(64.0 * 1024 * 1024)
+                .register(meterRegistry)
+                .record(allocatedBytes);
+        Timer.builder("request.cpu")
+                .tag("endpoint", endpoint)
+                .tag("transactionType", type)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(meterRegistry)
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : UNMAPPED);
+    }
+
+    /**
+     * 재는 중인 요청 스레드에서 거래가 저장되면 그 거래 종류로 묶는다. (마지막 거래 기준)
+     */
+    @EventListener
+    public void onTransactionSaved(TransactionSavedEvent event) {
+        TransactionType[] transactionType = TRANSACTION_TYPE.get();
+        if (transactionType != null) {
+            transactionType[0] = event.getTransactionType();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.accountservicezerobase.profiling;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.function.Supplier;
+
+/**
+ * 행 잠금을 거는 호출(계좌 UPDATE flush, select ... for update)에서 막혀 있던 시간과 처음 잠근 시각을 잰다.
+ * OptimisticLockRetryAspect 가 시도마다 start() 로 열고 end() 로 닫는다.
+ * 열려 있지 않은 스레드에서는 잠금 호출만 실행한다.
+ */
+public final class RowLockTimer {
+    private static final ThreadLocal<RowLockTimer> CURRENT = new ThreadLocal<>();
+
+    private final RowLockTimer outer;
+    private boolean requested;
+    private boolean acquired;
+    private long waitNanos;
+    private long acquiredAt;
+
+    private RowLockTimer(RowLockTimer outer) {
+        this.outer = outer;
+    }
+
+    public static RowLockTimer start() {
+        RowLockTimer timer = new RowLockTimer(CURRENT.get());
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    public static <T> T lock(Supplier<T> lockCall) {
+        RowLockTimer timer = CURRENT.get();
+        if (timer == null) {
+            return lockCall.get();
+        }
+        timer.requested = true;
+        long startedAt = System.nanoTime();
+        T result;
+        try {
+            result = lockCall.get();
+        } finally {
+            timer.waitNanos += System.nanoTime() - startedAt;
+        }
+        if (!timer.acquired) {
+            timer.acquired = true;
+            timer.acquiredAt = System.nanoTime();
+        }
+        return result;
+    }
+
+    /**
+     * 쌓인 UPDATE 를 보내면서 그 행 잠금을 기다린 시간을 잰다.
+     */
+    public static void flush(JpaRepository<?, ?> repository) {
+        lock(() -> {
+            repository.flush();
+            return null;
+        });
+    }
+
+    public void end() {
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(outer);
+        }
+    }
+
+    public boolean isRequested() {
+        return requested;
+    }
+
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    /**
+     * 처음 잠근 뒤 now 까지. 잠그지 못했으면 0
+     */
+    public long holdNanos(long now) {
+        return acquired ? now - acquiredAt : 0L;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.accountservicezerobase.profiling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy hitter sketch
+ * 최대 capacity 개의 키만 세고, 가득 차면 가장 작은 카운터를 새 키에 넘겨준다.
+ * 실제 값 w 인 키의 추정치는 [w, w + error] 범위이고, 전체 합의 1/capacity 보다 큰 키는 반드시 남는다.
+ * 대기 시간처럼 1 이 아닌 가중치도 더하므로 Stream-Summary 의 bucket 대신 위치를 기억하는 최소 힙으로 카운터를 둔다.
+ * 한 번 더하기는 O(log capacity) 다.
+ */
+public class SpaceSavingSketch {
+    public record Entry(String key, long estimate, long error) {
+    }
+
+    private static final class Counter {
+        private String key;
+        private long count;
+        private long error;
+        // heap 안의 위치
+        private int index;
+    }
+
+    // floor : 가득 찼을 때 가장 작은 카운터. 이 sketch 에 없는 키도 최대 floor 만큼 셌을 수 있다.
+    private record Snapshot(Map<String, Entry> entries, long floor) {
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public synchronized void add(String key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter == null && counters.size() < capacity) {
+            counter = new Counter();
+            counter.key = key;
+            counter.count = weight;
+            counter.index = counters.size();
+            counters.put(key, counter);
+            siftUp(counter);
+            return;
+        }
+        if (counter == null) {
+            // 가장 작은 카운터를 떼어 내고, 그 값을 새 키의 오차로 물려준다.
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counters.put(key, counter);
+        }
+        counter.count += weight;
+        siftDown(counter);
+    }
+
+    public synchronized List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> entries.add(new Entry(key, counter.count, counter.error)));
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed());
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    public synchronized void clear() {
+        counters.clear();
+        Arrays.fill(heap, null);
+    }
+
+    /**
+     * 여러 sketch 를 합쳐 상위 k 개를 돌려준다.
+     * 가득 찬 sketch 에 없는 키는 그 sketch 의 최소 카운터만큼을 추정치와 오차에 함께 더하므로 [w, w + error] 범위가 그대로 유지된다.
+     */
+    public static List<Entry> mergeTop(List<SpaceSavingSketch> sketches, int k) {
+        List<Snapshot> snapshots = new ArrayList<>(sketches.size());
+        Set<String> keys = new HashSet<>();
+        for (SpaceSavingSketch sketch : sketches) {
+            Snapshot snapshot = sketch.snapshot();
+            snapshots.add(snapshot);
+            keys.addAll(snapshot.entries().keySet());
+        }
+
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            long estimate = 0;
+            long error = 0;
+            for (Snapshot snapshot : snapshots) {
+                Entry entry = snapshot.entries().get(key);
+                if (entry != null) {
+                    estimate += entry.estimate();
+                    error += entry.error();
+                } else {
+                    estimate += snapshot.floor();
+                    error += snapshot.floor();
+                }
+            }
+            entries.add(new Entry(key, estimate, error));
+        }
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed());
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    private synchronized Snapshot snapshot() {
+        Map<String, Entry> entries = new HashMap<>(counters.size() * 2);
+        counters.forEach((key, counter) -> entries.put(key, new Entry(key, counter.count, counter.error)));
+        return new Snapshot(entries, counters.size() < capacity ? 0L : heap[0].count);
+    }
+
+    // 새 카운터는 맨 끝에서 부모보다 작은 동안 올린다.
+    private void siftUp(Counter counter) {
+        int index = counter.index;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    // 있던 카운터는 커지기만 하므로 자식 쪽으로만 내려보내면 된다.
+    private void siftDown(Counter counter) {
+        int size = counters.size();
+        int index = counter.index;
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= counter.count) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+}
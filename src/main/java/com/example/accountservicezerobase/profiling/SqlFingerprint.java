@@ -0,0 +1,46 @@
+package com.example.accountservicezerobase.profiling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 에서 값(문자열/숫자 리터럴)과 공백 차이를 지워서 같은 모양의 쿼리를 하나로 묶는다.
+ * in (?, ?, ...) 와 여러 행 values (...), (...) 는 길이와 상관없이 하나로 줄인다.
+ * hibernate 는 같은 SQL 문자열을 계속 쓰므로 결과를 cache-size 개까지 기억한다.
+ */
+public class SqlFingerprint {
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/|--[^\\n]*", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin \\(\\?(?:, ?\\?)*\\)");
+    private static final Pattern VALUES_ROWS = Pattern.compile("\\bvalues (\\([^()]*\\))(?:, ?\\([^()]*\\))+");
+
+    private final int cacheSize;
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    public SqlFingerprint(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public String of(String sql) {
+        String fingerprint = cache.get(sql);
+        if (fingerprint == null) {
+            fingerprint = normalize(sql);
+            if (cache.size() < cacheSize) {
+                cache.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    public static String normalize(String sql) {
+        String normalized = COMMENT.matcher(sql).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase();
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        return VALUES_ROWS.matcher(normalized).replaceAll("values $1");
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.accountservicezerobase.profiling;
+
+import com.example.accountservicezerobase.dto.SqlProfileReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JDBC 문 실행 시간 수집
+ * 모든 문의 시간을 재지만 (System.nanoTime 두 번) 집계와 호출 위치 추적(StackWalker)은
+ * sample-rate 비율의 문과 slow-threshold 를 넘은 문에만 한다.
+ * 집계 키는 (엔드포인트, 호출한 서비스 메서드, SQL fingerprint) 이고 max-entries 개까지만 둔다.
+ * 느린 문은 값이 빠진 fingerprint 로 남긴다. (계좌번호 등이 로그에 남지 않게)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "profiling.sql", name = "enabled", havingValue = "true")
+public class SqlProfiler {
+    private static final String NO_ENDPOINT = "-";
+    private static final String BASE_PACKAGE = "com.example.accountservicezerobase.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+
+    private record Key(String endpoint, String caller, String fingerprint) {
+    }
+
+    private static final class Stats {
+        private final LongAdder sampled = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder slow = new LongAdder();
+    }
+
+    private final SqlFingerprint fingerprint;
+    private final long slowThresholdNanos;
+    private final int maxEntries;
+    private final Map<Key, Stats> entries = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile double sampleRate;
+
+    public SqlProfiler(
+            @Value("${profiling.sql.sample-rate:0.01}") double sampleRate,
+            @Value("${profiling.sql.slow-threshold:200ms}") Duration slowThreshold,
+            @Value("${profiling.sql.max-entries:1000}") int maxEntries,
+            @Value("${profiling.sql.fingerprint-cache-size:4096}") int fingerprintCacheSize) {
+        setSampleRate(sampleRate);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxEntries = maxEntries;
+        this.fingerprint = new SqlFingerprint(fingerprintCacheSize);
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        return dataSource instanceof ProfilingDataSource ? dataSource : new ProfilingDataSource(dataSource, this);
+    }
+
+    /**
+     * 요청을 처리하는 동안 이 스레드의 문을 endpoint 로 묶는다. (SqlProfileInterceptor)
+     */
+    public static void enterEndpoint(String endpoint) {
+        ENDPOINT.set(endpoint);
+    }
+
+    public static void exitEndpoint() {
+        ENDPOINT.remove();
+    }
+
+    /**
+     * 문을 실행하기 직전에 부른다. 표본이면 true
+     */
+    boolean sample() {
+        executed.increment();
+        double rate = sampleRate;
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    void record(String sql, long elapsedNanos, boolean sampled) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!sampled && !slow) {
+            return;
+        }
+        String endpoint = ENDPOINT.get();
+        Key key = new Key(endpoint != null ? endpoint : NO_ENDPOINT, caller(), fingerprint.of(sql));
+        if (slow) {
+            log.warn("Slow SQL {}ms [{} {}] {}", elapsedNanos / 1_000_000, key.endpoint(), key.caller(),
+                    key.fingerprint());
+        }
+
+        Stats stats = entries.get(key);
+        if (stats == null) {
+            if (entries.size() >= maxEntries) {
+                dropped.increment();
+                return;
+            }
+            stats = entries.computeIfAbsent(key, ignored -> new Stats());
+        }
+        if (sampled) {
+            stats.sampled.increment();
+            stats.totalNanos.add(elapsedNanos);
+            stats.maxNanos.accumulate(elapsedNanos);
+        }
+        if (slow) {
+            stats.slow.increment();
+        }
+    }
+
+    /**
+     * 이 애플리케이션의 클래스 중 문을 실행시킨 가장 안쪽 메서드 (보통 서비스 메서드)
+     * repository 는 인터페이스라 스택에는 Spring Data 프레임만 남으므로 건너뛰게 된다.
+     */
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(BASE_PACKAGE)
+                        && !frame.getClassName().startsWith(SqlProfiler.class.getName())
+                        && !frame.getClassName().startsWith(ProfilingDataSource.class.getName())
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName())
+                .orElse(NO_ENDPOINT));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0.0 && sampleRate <= 1.0)) {
+            throw new IllegalArgumentException("sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public SqlProfileReport report(int top) {
+        List<SqlProfileReport.Statement> statements = new ArrayList<>();
+        entries.forEach((key, stats) -> {
+            long sampled = stats.sampled.sum();
+            statements.add(SqlProfileReport.Statement.builder()
+                    .endpoint(key.endpoint())
+                    .caller(key.caller())
+                    .fingerprint(key.fingerprint())
+                    .sampled(sampled)
+                    .totalMicros(stats.totalNanos.sum() / 1000)
+                    .avgMicros(sampled == 0 ? 0 : stats.totalNanos.sum() / sampled / 1000)
+                    .maxMicros(stats.maxNanos.get() / 1000)
+                    .slow(stats.slow.sum())
+                    .build());
+        });
+        statements.sort(Comparator.comparing(SqlProfileReport.Statement::getTotalMicros).reversed()
+                .thenComparing(Comparator.comparing(SqlProfileReport.Statement::getSlow).reversed()));
+
+        return SqlProfileReport.builder()
+                .sampleRate(sampleRate)
+                .slowThresholdMillis(slowThresholdNanos / 1_000_000)
+                .executed(executed.sum())
+                .dropped(dropped.sum())
+                .statements(statements.subList(0, Math.max(0, Math.min(top, statements.size()))))
+                .build();
+    }
+
+    public void reset() {
+        entries.clear();
+        executed.reset();
+        dropped.reset();
+    }
+}
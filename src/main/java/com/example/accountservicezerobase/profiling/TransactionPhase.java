@@ -0,0 +1,16 @@
+package com.example.accountservicezerobase.profiling;
+
+/**
+ * useBalance / cancelBalance 의 구간. 선언 순서가 실행 순서다.
+ * LOCK_ACQUISITION 은 계좌 UPDATE(버전 확인, 행 잠금)를 보내는 구간이다.
+ */
+public enum TransactionPhase {
+    USER_LOOKUP,
+    TRANSACTION_LOOKUP,
+    ACCOUNT_LOOKUP,
+    VALIDATION,
+    BALANCE_MUTATION,
+    LOCK_ACQUISITION,
+    TRANSACTION_INSERT,
+    COMMIT
+}
@@ -0,0 +1,95 @@
+package com.example.accountservicezerobase.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JFR 녹화 파일의 TransactionPhaseEvent 를 거래 종류 / 구간별 지연 분포로 요약한다.
+ * share 는 그 거래 종류의 모든 구간 시간 합 중 이 구간이 차지하는 비율이다.
+ * 결과(results)는 거래마다 한 번씩(첫 구간 이벤트 기준) 센다.
+ * ./gradlew jfrPhases -Precording=recording.jfr
+ */
+public class TransactionPhaseAnalyzer {
+    public record PhaseSummary(String transactionType, TransactionPhase phase, long count, long totalMicros,
+                               long p50Micros, long p95Micros, long p99Micros, long maxMicros, double share) {
+    }
+
+    public record Summary(List<PhaseSummary> phases, Map<String, Map<String, Long>> results) {
+    }
+
+    private static final TransactionPhase[] FIRST_PHASES = {
+            TransactionPhase.USER_LOOKUP, TransactionPhase.TRANSACTION_LOOKUP};
+
+    public static Summary analyze(Path recording) throws IOException {
+        Map<String, Map<TransactionPhase, List<Long>>> durations = new TreeMap<>();
+        Map<String, Map<String, Long>> results = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (!TransactionPhaseEvent.NAME.equals(event.getEventType().getName())) {
+                    continue;
+                }
+                String transactionType = event.getString("transactionType");
+                TransactionPhase phase = TransactionPhase.valueOf(event.getString("phase"));
+                durations.computeIfAbsent(transactionType, ignored -> new TreeMap<>())
+                        .computeIfAbsent(phase, ignored -> new ArrayList<>())
+                        .add(event.getDuration().toNanos() / 1000);
+                if (Arrays.asList(FIRST_PHASES).contains(phase)) {
+                    results.computeIfAbsent(transactionType, ignored -> new TreeMap<>())
+                            .merge(event.getString("result"), 1L, Long::sum);
+                }
+            }
+        }
+
+        List<PhaseSummary> phases = new ArrayList<>();
+        durations.forEach((transactionType, byPhase) -> {
+            long typeTotal = byPhase.values().stream()
+                    .flatMap(List::stream)
+                    .mapToLong(Long::longValue)
+                    .sum();
+            byPhase.forEach((phase, micros) -> {
+                long[] sorted = micros.stream().mapToLong(Long::longValue).sorted().toArray();
+                long total = Arrays.stream(sorted).sum();
+                phases.add(new PhaseSummary(transactionType, phase, sorted.length, total,
+                        percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                        sorted[sorted.length - 1], typeTotal == 0 ? 0.0 : (double) total / typeTotal));
+            });
+        });
+        phases.sort(Comparator.comparing(PhaseSummary::transactionType).thenComparing(PhaseSummary::phase));
+        return new Summary(phases, results);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    public static String format(Summary summary) {
+        StringBuilder out = new StringBuilder(String.format("%-8s %-20s %8s %10s %10s %10s %10s %7s%n",
+                "type", "phase", "count", "p50(us)", "p95(us)", "p99(us)", "max(us)", "share"));
+        for (PhaseSummary phase : summary.phases()) {
+            out.append(String.format("%-8s %-20s %8d %10d %10d %10d %10d %6.1f%%%n",
+                    phase.transactionType(), phase.phase(), phase.count(), phase.p50Micros(), phase.p95Micros(),
+                    phase.p99Micros(), phase.maxMicros(), phase.share() * 100));
+        }
+        summary.results().forEach((transactionType, counts) ->
+                out.append(String.format("%-8s results %s%n", transactionType, counts)));
+        return out.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: TransactionPhaseAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        System.out.print(format(analyze(Path.of(args[0]))));
+    }
+}
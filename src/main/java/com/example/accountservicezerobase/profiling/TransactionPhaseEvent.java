@@ -0,0 +1,34 @@
+package com.example.accountservicezerobase.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 거래 처리 구간 하나의 JFR 이벤트 (duration = 구간 시간)
+ */
+@Name(TransactionPhaseEvent.NAME)
+@Label("Transaction Phase")
+@Category({"Account Service", "Transaction"})
+@Description("One phase of useBalance / cancelBalance")
+@StackTrace(false)
+public class TransactionPhaseEvent extends Event {
+    public static final String NAME = "com.example.accountservicezerobase.TransactionPhase";
+
+    @Label("Transaction Type")
+    String transactionType;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Account Hash")
+    @Description("Hash of the account number (the number itself is not recorded)")
+    long accountHash;
+
+    @Label("Result")
+    @Description("S, the error code, or ROLLED_BACK")
+    String result;
+}
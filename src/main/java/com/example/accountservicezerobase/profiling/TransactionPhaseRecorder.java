@@ -0,0 +1,124 @@
+package com.example.accountservicezerobase.profiling;
+
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.TransactionType;
+import jdk.jfr.EventType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 거래 처리 구간마다 TransactionPhaseEvent 를 남긴다.
+ * JFR 녹화에서 이벤트가 꺼져 있으면 아무것도 하지 않는 DISABLED 를 돌려준다.
+ * 결과(성공/오류 코드/롤백)는 끝나야 알 수 있으므로 이벤트를 모아 두었다가 한꺼번에 commit 한다.
+ * 트랜잭션 안이면 커밋 구간(COMMIT)까지 재고 afterCompletion 에서, 아니면 end() 에서 commit 한다.
+ */
+public class TransactionPhaseRecorder implements TransactionSynchronization {
+    private static final EventType EVENT_TYPE = EventType.getEventType(TransactionPhaseEvent.class);
+    private static final TransactionPhaseRecorder DISABLED = new TransactionPhaseRecorder(null, 0L);
+    private static final String SUCCEEDED = "S";
+    private static final String ROLLED_BACK = "ROLLED_BACK";
+
+    private final String transactionType;
+    private final long accountHash;
+    private final List<TransactionPhaseEvent> events = new ArrayList<>(TransactionPhase.values().length);
+    private TransactionPhaseEvent current;
+    private String result = SUCCEEDED;
+    private boolean synchronizedWithTransaction;
+
+    private TransactionPhaseRecorder(String transactionType, long accountHash) {
+        this.transactionType = transactionType;
+        this.accountHash = accountHash;
+    }
+
+    public static TransactionPhaseRecorder start(TransactionType transactionType, String accountNumber,
+                                                 TransactionPhase firstPhase) {
+        if (!EVENT_TYPE.isEnabled()) {
+            return DISABLED;
+        }
+        TransactionPhaseRecorder recorder = new TransactionPhaseRecorder(
+                transactionType.name(), accountHash(accountNumber));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(recorder);
+            recorder.synchronizedWithTransaction = true;
+        }
+        recorder.begin(firstPhase);
+        return recorder;
+    }
+
+    public boolean isRecording() {
+        return this != DISABLED;
+    }
+
+    public void next(TransactionPhase phase) {
+        if (isRecording()) {
+            finishCurrent();
+            begin(phase);
+        }
+    }
+
+    public void failed(RuntimeException e) {
+        if (isRecording()) {
+            result = e instanceof AccountException accountException
+                    ? accountException.getErrorCode().name()
+                    : e.getClass().getSimpleName();
+        }
+    }
+
+    public void end() {
+        if (isRecording()) {
+            finishCurrent();
+            if (!synchronizedWithTransaction) {
+                commitEvents();
+            }
+        }
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        begin(TransactionPhase.COMMIT);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        finishCurrent();
+        if (status != STATUS_COMMITTED && SUCCEEDED.equals(result)) {
+            result = ROLLED_BACK;
+        }
+        commitEvents();
+    }
+
+    private void begin(TransactionPhase phase) {
+        current = new TransactionPhaseEvent();
+        current.transactionType = transactionType;
+        current.phase = phase.name();
+        current.accountHash = accountHash;
+        current.begin();
+    }
+
+    private void finishCurrent() {
+        if (current != null) {
+            current.end();
+            events.add(current);
+            current = null;
+        }
+    }
+
+    private void commitEvents() {
+        for (TransactionPhaseEvent event : events) {
+            event.result = result;
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+        events.clear();
+    }
+
+    // 계좌번호는 남기지 않고 같은 계좌끼리 묶을 수 있는 값만 남긴다.
+    static long accountHash(String accountNumber) {
+        long hash = (accountNumber != null ? accountNumber.hashCode() : 0) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+}
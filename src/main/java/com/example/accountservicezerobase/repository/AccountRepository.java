@@ -2,7 +2,14 @@ package com.example.accountservicezerobase.repository;
 
 import com.example.accountservicezerobase.domain.Account;
 import com.example.accountservicezerobase.domain.AccountUser;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,5 +23,43 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    // 이체처럼 여러 계좌를 함께 바꿀 때 쓴다. 여러 개를 잠글 때는 계좌번호 순서로 잠가야 한다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+
+    @Query("select max(a.accountNumber) from Account a where a.accountNumber between :from and :to")
+    Optional<String> findMaxAccountNumberBetween(@Param("from") String from, @Param("to") String to);
+
     List<Account> findByAccountUser(AccountUser accountUser);
+
+    @Query("select min(a.id) from Account a")
+    Long findMinId();
+
+    @Query("select max(a.id) from Account a")
+    Long findMaxId();
+
+    @Modifying
+    @Query("update Account a set a.balance = :balance, a.version = a.version + 1 where a.id = :id")
+    int updateBalance(@Param("id") Long id, @Param("balance") Long balance);
+
+    // 읽었던 version 그대로일 때만 잔액에 더한다. 그 사이 다른 경로가 바꿨으면 0 을 돌려준다.
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :delta, a.version = a.version + 1"
+            + " where a.id = :id and a.version = :version")
+    int addBalance(@Param("id") Long id, @Param("delta") long delta, @Param("version") Long version);
+
+    // 사용자의 사용 중 계좌이고 쓸 수 있는 잔액이 충분할 때만 묶는다. 먼저 읽지 않으므로 충돌 재시도가 없다.
+    @Modifying
+    @Query("update Account a set a.heldAmount = a.heldAmount + :amount, a.version = a.version + 1"
+            + " where a.accountNumber = :accountNumber and a.accountUser.id = :userId"
+            + " and a.accountStatus = com.example.accountservicezerobase.type.AccountStatus.IN_USE"
+            + " and a.balance - a.heldAmount >= :amount")
+    int hold(@Param("userId") Long userId, @Param("accountNumber") String accountNumber, @Param("amount") Long amount);
+
+    @Modifying
+    @Query("update Account a set a.heldAmount = a.heldAmount - :amount, a.version = a.version + 1"
+            + " where a.id = :id and a.heldAmount >= :amount")
+    int releaseHold(@Param("id") Long id, @Param("amount") Long amount);
 }
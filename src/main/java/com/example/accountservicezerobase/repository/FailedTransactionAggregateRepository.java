@@ -0,0 +1,21 @@
+package com.example.accountservicezerobase.repository;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.FailedTransactionAggregate;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FailedTransactionAggregateRepository extends JpaRepository<FailedTransactionAggregate, Long> {
+    Optional<FailedTransactionAggregate> findByAccountAndTransactionTypeAndErrorCodeAndHourBucket(
+            Account account, TransactionType transactionType, ErrorCode errorCode, LocalDateTime hourBucket);
+
+    List<FailedTransactionAggregate> findByAccountAndHourBucketBetweenOrderByHourBucketAsc(
+            Account account, LocalDateTime from, LocalDateTime to);
+}
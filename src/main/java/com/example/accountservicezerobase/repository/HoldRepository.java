@@ -0,0 +1,34 @@
+package com.example.accountservicezerobase.repository;
+
+import com.example.accountservicezerobase.domain.Hold;
+import com.example.accountservicezerobase.hold.PendingHold;
+import com.example.accountservicezerobase.type.HoldStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+    Optional<Hold> findByHoldId(String holdId);
+
+    // HELD 일 때만 바꾼다. 매입 / 해제 / 만료가 동시에 와도 하나만 1 을 돌려받는다.
+    @Modifying
+    @Query("update Hold h set h.holdStatus = :holdStatus, h.transactionId = :transactionId, h.closedAt = :closedAt"
+            + " where h.id = :id and h.holdStatus = com.example.accountservicezerobase.type.HoldStatus.HELD")
+    int close(@Param("id") Long id,
+              @Param("holdStatus") HoldStatus holdStatus,
+              @Param("transactionId") String transactionId,
+              @Param("closedAt") LocalDateTime closedAt);
+
+    @Query("select new com.example.accountservicezerobase.hold.PendingHold(h.id, h.account.accountNumber, h.expiresAt)"
+            + " from Hold h where h.holdStatus = com.example.accountservicezerobase.type.HoldStatus.HELD"
+            + " and h.id > :afterId order by h.id")
+    List<PendingHold> findPendingAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
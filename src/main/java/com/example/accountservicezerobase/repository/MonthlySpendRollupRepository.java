@@ -0,0 +1,37 @@
+package com.example.accountservicezerobase.repository;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.MonthlySpendRollup;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MonthlySpendRollupRepository extends JpaRepository<MonthlySpendRollup, Long> {
+    List<MonthlySpendRollup> findByAccountAndRollupMonthBetweenOrderByRollupMonthAsc(
+            Account account, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("update MonthlySpendRollup r " +
+            "set r.totalAmount = r.totalAmount + :amount, " +
+            "r.transactionCount = r.transactionCount + :count, " +
+            "r.updatedAt = :now " +
+            "where r.account.id = :accountId and r.rollupMonth = :rollupMonth " +
+            "and r.transactionType = :transactionType " +
+            "and r.transactionResultType = :transactionResultType")
+    int addTo(@Param("accountId") Long accountId,
+              @Param("rollupMonth") LocalDate rollupMonth,
+              @Param("transactionType") TransactionType transactionType,
+              @Param("transactionResultType") TransactionResultType transactionResultType,
+              @Param("amount") long amount,
+              @Param("count") long count,
+              @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+package com.example.accountservicezerobase.repository;
+
+import com.example.accountservicezerobase.domain.ReconciliationMismatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+    List<ReconciliationMismatch> findByRunId(String runId);
+}
@@ -1,12 +1,33 @@
 package com.example.accountservicezerobase.repository;
 
 import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    @Query("select max(t.id) from Transaction t")
+    Long findMaxId();
+
+    @EntityGraph(attributePaths = "account")
+    List<Transaction> findByTransactedAtBeforeAndIdGreaterThanOrderByIdAsc(
+            LocalDateTime transactedAt, Long id, Pageable pageable);
+
+    List<Transaction> findByTransactionResultTypeAndTransactedAtBeforeOrderByIdAsc(
+            TransactionResultType transactionResultType, LocalDateTime transactedAt, Pageable pageable);
+
+    @Query("select t.account.accountNumber from Transaction t where t.transactedAt >= :since " +
+            "group by t.account.accountNumber order by max(t.transactedAt) desc")
+    List<String> findRecentlyActiveAccountNumbers(@Param("since") LocalDateTime since, Pageable pageable);
 }
@@ -0,0 +1,113 @@
+package com.example.accountservicezerobase.retry;
+
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import com.example.accountservicezerobase.profiling.RowLockTimer;
+import com.example.accountservicezerobase.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @RetryOnConflict 메서드를 지수 백오프 + full jitter 로 최대 max-attempts 번까지 실행한다.
+ * 트랜잭션 advisor 보다 바깥에서 돌아야 하므로 우선순위를 높게 둔다.
+ * 모두 실패하면 CONCURRENT_UPDATE_RETRY_EXHAUSTED 로 알린다.
+ * accountArg 가 있으면 db-row 락으로 기록한다.
+ * - 대기 : 충돌로 다시 시도하는 데 쓴 시간 + 마지막 시도에서 행 잠금 호출(RowLockTimer)에 막혀 있던 시간
+ * - 점유 : 마지막 시도에서 처음 잠근 뒤 커밋이 끝날 때까지
+ * 잠금 호출 전에 끝난 시도(검증 실패 등)는 행을 잠그지 않았으므로 남기지 않는다.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticLockRetryAspect {
+    private static final String LOCK_KIND = "db-row";
+
+    private final MeterRegistry meterRegistry;
+    private final LockProfiler lockProfiler;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public OptimisticLockRetryAspect(
+            MeterRegistry meterRegistry,
+            LockProfiler lockProfiler,
+            @Value("${retry.optimistic.max-attempts:5}") int maxAttempts,
+            @Value("${retry.optimistic.initial-backoff:5ms}") Duration initialBackoff,
+            @Value("${retry.optimistic.max-backoff:200ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.lockProfiler = lockProfiler;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        String operation = retryOnConflict.value();
+        counter("account.optimistic.calls", operation).increment();
+
+        long startedAt = System.nanoTime();
+        long attemptStartedAt = startedAt;
+        for (int attempt = 1; ; attempt++) {
+            RowLockTimer rowLock = RowLockTimer.start();
+            try {
+                Object result = joinPoint.proceed();
+                profile(joinPoint, retryOnConflict, attemptStartedAt - startedAt, rowLock);
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                counter("account.optimistic.conflicts", operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter("account.optimistic.exhausted", operation).increment();
+                    log.warn("Gave up {} after {} conflicting attempts", operation, attempt);
+                    profile(joinPoint, retryOnConflict, attemptStartedAt - startedAt, rowLock);
+                    throw AccountException.of(ErrorCode.CONCURRENT_UPDATE_RETRY_EXHAUSTED);
+                }
+                counter("account.optimistic.retries", operation).increment();
+            } catch (RuntimeException e) {
+                profile(joinPoint, retryOnConflict, attemptStartedAt - startedAt, rowLock);
+                throw e;
+            } finally {
+                rowLock.end();
+            }
+            backoff(attempt);
+            attemptStartedAt = System.nanoTime();
+        }
+    }
+
+    private void profile(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict,
+                         long retriedNanos, RowLockTimer rowLock) {
+        int accountArg = retryOnConflict.accountArg();
+        if (accountArg < 0 || !rowLock.isRequested()) {
+            return;
+        }
+        lockProfiler.record(LOCK_KIND, String.valueOf(joinPoint.getArgs()[accountArg]),
+                retriedNanos + rowLock.getWaitNanos(), rowLock.holdNanos(System.nanoTime()));
+    }
+
+    // full jitter: [0, min(max, initial * 2^(attempt-1))) 사이에서 고른다.
+    private void backoff(int attempt) throws InterruptedException {
+        long cap = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        if (cap <= 0) {
+            return;
+        }
+        long sleepNanos = ThreadLocalRandom.current().nextLong(cap);
+        Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+}
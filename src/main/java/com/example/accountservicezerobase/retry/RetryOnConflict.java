@@ -0,0 +1,25 @@
+package com.example.accountservicezerobase.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 충돌(OptimisticLockingFailureException)이 나면 트랜잭션을 처음부터 다시 실행한다.
+ * 재시도는 트랜잭션 바깥에서 일어나므로 @Transactional 메서드에 함께 붙인다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+    /**
+     * 지표 태그로 쓰는 작업 이름
+     */
+    String value();
+
+    /**
+     * 계좌번호 인자의 위치. 지정하면 대기/점유 시간을 db-row 락으로 LockProfiler 에 남긴다.
+     * 행 잠금을 거는 호출은 메서드 안에서 RowLockTimer 로 감싸야 대기 시간으로 잡힌다.
+     */
+    int accountArg() default -1;
+}
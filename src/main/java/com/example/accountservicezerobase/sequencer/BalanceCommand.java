@@ -0,0 +1,28 @@
+package com.example.accountservicezerobase.sequencer;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.type.TransactionType;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 링 버퍼의 한 칸. 미리 만들어 두고 재사용한다.
+ * published 가 기록된 뒤에만 writer 스레드가 나머지 필드를 읽는다.
+ */
+public final class BalanceCommand {
+    volatile long published = -1;
+
+    public TransactionType transactionType;
+    public long userId;
+    public String accountNumber;
+    // 취소할 거래 ID (CANCEL)
+    public String transactionId;
+    public long amount;
+    public CompletableFuture<TransactionDto> future;
+
+    void clear() {
+        accountNumber = null;
+        transactionId = null;
+        future = null;
+    }
+}
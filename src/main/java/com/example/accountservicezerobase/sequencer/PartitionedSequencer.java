@@ -0,0 +1,137 @@
+package com.example.accountservicezerobase.sequencer;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 계좌번호 해시로 요청을 N 개 파티션에 나누고, 파티션마다 writer 스레드 하나가 순서대로 처리한다.
+ * 같은 계좌의 요청은 항상 같은 writer 가 처리하므로 계좌 단위 락이 필요 없다.
+ * 링이 가득 차면 timeout 까지 기다렸다가 SEQUENCER_BUSY 로 거절한다.
+ */
+@Slf4j
+public class PartitionedSequencer implements Closeable {
+    /**
+     * writer 스레드에서 호출된다. 묶음 안의 모든 future 를 완료해야 한다.
+     */
+    public interface BatchHandler {
+        void handle(int partition, BalanceCommand[] batch, int count);
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int IDLE_SPINS = 100;
+
+    private final SequencerRing[] rings;
+    private final Thread[] writers;
+    private final long publishTimeoutNanos;
+    private volatile boolean running = true;
+
+    public PartitionedSequencer(int partitions, int ringCapacity, int maxBatch,
+                                long publishTimeoutNanos, BatchHandler handler) {
+        this.rings = new SequencerRing[partitions];
+        this.writers = new Thread[partitions];
+        this.publishTimeoutNanos = publishTimeoutNanos;
+        for (int i = 0; i < partitions; i++) {
+            rings[i] = new SequencerRing(ringCapacity);
+            int partition = i;
+            writers[i] = new Thread(() -> writeLoop(partition, maxBatch, handler), "sequencer-writer-" + i);
+            writers[i].setDaemon(true);
+            writers[i].start();
+        }
+    }
+
+    public int partitionOf(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), rings.length);
+    }
+
+    public int partitions() {
+        return rings.length;
+    }
+
+    public int backlog(int partition) {
+        return rings[partition].size();
+    }
+
+    public CompletableFuture<TransactionDto> submit(TransactionType transactionType, long userId,
+                                                    String accountNumber, String transactionId, long amount) {
+        CompletableFuture<TransactionDto> future = new CompletableFuture<>();
+        SequencerRing ring = rings[partitionOf(accountNumber)];
+        long deadline = 0;
+        int spins = 0;
+        while (!ring.tryPublish(transactionType, userId, accountNumber, transactionId, amount, future)) {
+            if (!running) {
+                throw AccountException.of(ErrorCode.SEQUENCER_BUSY);
+            }
+            if (deadline == 0) {
+                deadline = System.nanoTime() + publishTimeoutNanos;
+            } else if (System.nanoTime() - deadline > 0) {
+                throw AccountException.of(ErrorCode.SEQUENCER_BUSY);
+            }
+            if (++spins < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        return future;
+    }
+
+    private void writeLoop(int partition, int maxBatch, BatchHandler handler) {
+        SequencerRing ring = rings[partition];
+        BalanceCommand[] batch = new BalanceCommand[maxBatch];
+        int idle = 0;
+        while (running || ring.size() > 0) {
+            int count = ring.drain(batch);
+            if (count == 0) {
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            try {
+                handler.handle(partition, batch, count);
+            } catch (Throwable t) {
+                log.error("Sequencer partition {} failed a batch of {}", partition, count, t);
+                for (int i = 0; i < count; i++) {
+                    batch[i].future.completeExceptionally(t);
+                }
+            }
+            ring.release(batch, count);
+        }
+    }
+
+    /**
+     * 새 요청을 거절하고, 이미 받은 요청을 모두 처리한 뒤 writer 를 멈춘다.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        // 종료 직전에 들어온 요청
+        for (SequencerRing ring : rings) {
+            BalanceCommand[] batch = new BalanceCommand[Math.max(ring.size(), 1)];
+            int count = ring.drain(batch);
+            for (int i = 0; i < count; i++) {
+                batch[i].future.completeExceptionally(AccountException.of(ErrorCode.SEQUENCER_BUSY));
+            }
+            ring.release(batch, count);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.accountservicezerobase.sequencer;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.type.TransactionType;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 여러 생산자, 하나의 소비자(writer) 링 버퍼
+ * 생산자는 tail 을 CAS 로 한 칸씩 확보해 채운 뒤 published 로 공개하고,
+ * writer 는 공개된 칸을 head 부터 연속으로 읽은 다음 head 를 옮겨 칸을 돌려준다.
+ */
+final class SequencerRing {
+    private final BalanceCommand[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // writer 만 쓴다. 생산자는 남은 칸 계산에만 읽는다.
+    private volatile long head;
+
+    SequencerRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.slots = new BalanceCommand[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new BalanceCommand();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 빈 칸이 없으면 false
+     */
+    boolean tryPublish(TransactionType transactionType, long userId, String accountNumber,
+                       String transactionId, long amount, CompletableFuture<TransactionDto> future) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= slots.length) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        BalanceCommand command = slots[(int) sequence & mask];
+        command.transactionType = transactionType;
+        command.userId = userId;
+        command.accountNumber = accountNumber;
+        command.transactionId = transactionId;
+        command.amount = amount;
+        command.future = future;
+        command.published = sequence;
+        return true;
+    }
+
+    /**
+     * 공개된 칸을 최대 batch.length 개까지 순서대로 담는다. (writer 전용)
+     */
+    int drain(BalanceCommand[] batch) {
+        long next = head;
+        int count = 0;
+        while (count < batch.length) {
+            BalanceCommand command = slots[(int) (next + count) & mask];
+            if (command.published != next + count) {
+                break;
+            }
+            batch[count++] = command;
+        }
+        return count;
+    }
+
+    /**
+     * drain 한 칸을 비우고 생산자에게 돌려준다. (writer 전용)
+     */
+    void release(BalanceCommand[] batch, int count) {
+        for (int i = 0; i < count; i++) {
+            batch[i].clear();
+            batch[i] = null;
+        }
+        head += count;
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+}
@@ -4,11 +4,17 @@ import com.example.accountservicezerobase.domain.Account;
 import com.example.accountservicezerobase.domain.AccountUser;
 import com.example.accountservicezerobase.dto.AccountDto;
 import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.RowLockTimer;
 import com.example.accountservicezerobase.repository.AccountRepository;
 import com.example.accountservicezerobase.repository.AccountUserRepository;
+import com.example.accountservicezerobase.retry.RetryOnConflict;
+import com.example.accountservicezerobase.shard.ShardRange;
+import com.example.accountservicezerobase.shard.ShardRouted;
+import com.example.accountservicezerobase.shard.ShardRouter;
 import com.example.accountservicezerobase.type.AccountStatus;
 import com.example.accountservicezerobase.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,22 +27,28 @@ import java.util.stream.Collectors;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final ObjectProvider<ShardRouter> shardRouter;
 
     /**
      * 사용자가 있는 지 조회
      * 계좌번호를 생성하고
      * 계좌번호 저장하고, 그 정보를 넘긴다.
+     * 샤딩 시에는 사용자의 home 샤드에, 그 샤드의 계좌번호 블록에서 발급한다.
      */
+    @ShardRouted(userArg = 0)
     @Transactional
     public AccountDto createAccount(Long userId, Long initialBalance) {
         AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+                .orElseThrow(() -> AccountException.of(ErrorCode.USER_NOT_FOUND));
 
-        validateCreateAccount(accountUser);
+        ShardRouter router = shardRouter.getIfAvailable();
+        validateCreateAccount(accountUser, router);
 
-        String newAccountNumber = accountRepository.findFirstByOrderByIdDesc()
+        String newAccountNumber = router == null
+                ? accountRepository.findFirstByOrderByIdDesc()
                 .map(account -> (Integer.parseInt(account.getAccountNumber())) + 1 + "")
-                .orElse("1000000000");
+                .orElse("1000000000")
+                : nextAccountNumber(router.currentAllocationBlock());
 
         return AccountDto.fromEntity(accountRepository.save(
                 Account.builder()
@@ -49,12 +61,25 @@ public class AccountService {
         ));
     }
 
-    private void validateCreateAccount(AccountUser accountUser) {
-        if (accountRepository.countByAccountUser(accountUser) == 10) {
-            throw new AccountException(ErrorCode.MAX_ACCOUNT_PER_USER_10);
+    private String nextAccountNumber(ShardRange block) {
+        return accountRepository.findMaxAccountNumberBetween(String.valueOf(block.from()), String.valueOf(block.to()))
+                .map(accountNumber -> Long.parseLong(accountNumber) + 1 + "")
+                .orElse(String.valueOf(block.from()));
+    }
+
+    private void validateCreateAccount(AccountUser accountUser, ShardRouter router) {
+        // 재샤딩으로 옮겨진 계좌는 다른 샤드에 있을 수 있다.
+        int count = router == null
+                ? accountRepository.countByAccountUser(accountUser)
+                : router.onAllShards(() -> accountRepository.countByAccountUser(accountUser)).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (count >= 10) {
+            throw AccountException.of(ErrorCode.MAX_ACCOUNT_PER_USER_10);
         }
     }
 
+    @ShardRouted
     @Transactional
     public Account getAccount(Long id) {
         if (id < 0) {
@@ -63,12 +88,14 @@ public class AccountService {
         return accountRepository.findById(id).get();
     }
 
+    @RetryOnConflict(value = "deleteAccount", accountArg = 1)
+    @ShardRouted(accountArg = 1)
     @Transactional
     public AccountDto deleteAccount(Long userId, String accountNumber) {
         AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+                .orElseThrow(() -> AccountException.of(ErrorCode.USER_NOT_FOUND));
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
 
         validateDeleteAccount(accountUser, account);
 
@@ -76,30 +103,38 @@ public class AccountService {
         account.setUnRegisteredAt(LocalDateTime.now());
 
         accountRepository.save(account);
+        RowLockTimer.flush(accountRepository);
 
         return AccountDto.fromEntity(account);
     }
 
     private void validateDeleteAccount(AccountUser accountUser, Account account) {
         if (accountUser.getId() != account.getAccountUser().getId()) {
-            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+            throw AccountException.of(ErrorCode.USER_ACCOUNT_UN_MATCH);
         }
         if (account.getAccountStatus() == AccountStatus.UNREGISTERED) {
-            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
         if (account.getBalance() > 0) {
-            throw new AccountException(ErrorCode.BALANCE_NOT_EMPTY);
+            throw AccountException.of(ErrorCode.BALANCE_NOT_EMPTY);
         }
     }
 
-    @Transactional
+    /**
+     * 샤딩 시에는 모든 샤드에서 병렬로 조회해서 합친다.
+     * 옮기는 중이라 두 샤드에 있는 계좌는 지금 주인인 샤드의 것만 남긴다.
+     */
+    @ShardRouted
+    @Transactional(readOnly = true)
     public List<AccountDto> getAccountByUserId(Long userId) {
         AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+                .orElseThrow(() -> AccountException.of(ErrorCode.USER_NOT_FOUND));
 
         List<Account> accountUserList = accountRepository.findByAccountUser(accountUser);
+        ShardRouter router = shardRouter.getIfAvailable();
 
         return accountUserList.stream()
+                .filter(account -> router == null || router.isOwnedByCurrentShard(account.getAccountNumber()))
                 .map(AccountDto::fromEntity)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,243 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.RMap;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.accountservicezerobase.service.AsyncUseService.REFUNDED_KEY;
+import static com.example.accountservicezerobase.service.AsyncUseService.STATUS_KEY;
+import static com.example.accountservicezerobase.service.AsyncUseService.STREAM_KEY;
+import static com.example.accountservicezerobase.type.TransactionResultType.F;
+import static com.example.accountservicezerobase.type.TransactionResultType.S;
+import static com.example.accountservicezerobase.type.TransactionType.USE;
+
+/**
+ * 접수된 사용 요청을 consumer group 으로 읽어 묶음 단위로 저장한다.
+ * 저장(커밋)된 뒤에만 ack 하므로, 도중에 죽은 consumer 의 요청은 pending 으로 남고
+ * 일정 시간 이상 처리되지 않은 pending 은 다른 worker 가 가져와(claim) 다시 저장한다.
+ * 같은 요청이 두 번 저장되지 않도록 거래 ID 로 확인한다.
+ * 예약 금액 환불은 커밋 뒤 ack 전에 하고 거래 ID 로 한 번만 적용되므로,
+ * 그 사이에 죽어도 reclaim 이 이미 저장된 실패 거래의 환불을 다시 시도해 잃지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "async-use", name = "enabled", havingValue = "true")
+public class AsyncUsePersister {
+    private static final String GROUP = "persisters";
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final AsyncUseService asyncUseService;
+    private final ObjectProvider<RedissonClient> redissonClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int workers;
+    private final int batchSize;
+    private final Duration pollTimeout;
+    private final Duration reclaimIdle;
+    private final Duration reclaimInterval;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+    private RStream<String, String> stream;
+    private RMap<String, String> statuses;
+    private RMap<String, String> refunded;
+
+    private record Refund(String transactionId, String accountNumber, long amount) {
+    }
+
+    public AsyncUsePersister(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            ApplicationEventPublisher applicationEventPublisher,
+            AsyncUseService asyncUseService,
+            ObjectProvider<RedissonClient> redissonClient,
+            PlatformTransactionManager transactionManager,
+            @Value("${async-use.workers:2}") int workers,
+            @Value("${async-use.batch-size:100}") int batchSize,
+            @Value("${async-use.poll-timeout:1s}") Duration pollTimeout,
+            @Value("${async-use.reclaim-idle:30s}") Duration reclaimIdle,
+            @Value("${async-use.reclaim-interval:10s}") Duration reclaimInterval) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.asyncUseService = asyncUseService;
+        this.redissonClient = redissonClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollTimeout = pollTimeout;
+        this.reclaimIdle = reclaimIdle;
+        this.reclaimInterval = reclaimInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        RedissonClient client = redissonClient.getObject();
+        stream = client.getStream(STREAM_KEY, StringCodec.INSTANCE);
+        statuses = client.getMap(STATUS_KEY, StringCodec.INSTANCE);
+        refunded = client.getMap(REFUNDED_KEY, StringCodec.INSTANCE);
+        try {
+            stream.createGroup(GROUP, StreamMessageId.ALL);
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+
+        String instance = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < workers; i++) {
+            String consumer = "persister-" + instance + "-" + i;
+            Thread thread = new Thread(() -> consume(consumer), consumer);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(pollTimeout.toMillis() * 2);
+        }
+    }
+
+    private void consume(String consumer) {
+        long nextReclaim = System.nanoTime() + reclaimInterval.toNanos();
+        while (running) {
+            try {
+                Map<StreamMessageId, Map<String, String>> entries = stream.readGroup(GROUP, consumer,
+                        StreamReadGroupArgs.neverDelivered().count(batchSize).timeout(pollTimeout));
+                if (entries != null && !entries.isEmpty()) {
+                    persist(entries);
+                }
+                if (System.nanoTime() - nextReclaim > 0) {
+                    reclaim(consumer);
+                    nextReclaim = System.nanoTime() + reclaimInterval.toNanos();
+                }
+            } catch (RuntimeException e) {
+                // ack 하지 않았으므로 reclaim 으로 다시 처리된다.
+                log.warn("Async use consumer {} failed", consumer, e);
+            }
+        }
+    }
+
+    /**
+     * reclaim-idle 이상 ack 되지 않은 요청을 가져와 저장한다.
+     */
+    void reclaim(String consumer) {
+        List<PendingEntry> pending = stream.listPending(GROUP, StreamMessageId.MIN, StreamMessageId.MAX,
+                reclaimIdle.toMillis(), TimeUnit.MILLISECONDS, batchSize);
+        if (pending.isEmpty()) {
+            return;
+        }
+        StreamMessageId[] ids = pending.stream().map(PendingEntry::getId).toArray(StreamMessageId[]::new);
+        Map<StreamMessageId, Map<String, String>> claimed = stream.claim(GROUP, consumer,
+                reclaimIdle.toMillis(), TimeUnit.MILLISECONDS, ids);
+        if (!claimed.isEmpty()) {
+            log.info("Consumer {} reclaimed {} pending use requests", consumer, claimed.size());
+            persist(claimed);
+        }
+    }
+
+    /**
+     * 묶음 하나를 한 트랜잭션으로 저장한 뒤 ack 하고 접수 상태를 지운다.
+     * DB 기준으로 사용할 수 없는 요청은 실패 거래로 남기고 예약한 금액을 되돌린다.
+     * 이미 저장된 요청이 실패 거래면 지난번 환불이 ack 전에 끊겼을 수 있으므로 다시 되돌린다. (거래 ID 당 한 번)
+     */
+    void persist(Map<StreamMessageId, Map<String, String>> entries) {
+        List<Refund> refunds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Map<String, String> entry : entries.values()) {
+                String transactionId = entry.get("transactionId");
+                String accountNumber = entry.get("accountNumber");
+                long amount = Long.parseLong(entry.get("amount"));
+                Optional<Transaction> persisted = transactionRepository.findByTransactionId(transactionId);
+                if (persisted.isPresent()) {
+                    if (persisted.get().getTransactionResultType() == F) {
+                        refunds.add(new Refund(transactionId, accountNumber, amount));
+                    }
+                    continue;
+                }
+                LocalDateTime requestedAt = LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(Long.parseLong(entry.get("requestedAt"))), ZONE);
+
+                Optional<Account> account = accountRepository.findByAccountNumber(accountNumber);
+                if (account.isEmpty()) {
+                    // 거래를 남길 계좌가 없으므로 예약 금액만 되돌린다.
+                    log.error("Dropping use request {} for missing account {}", transactionId, accountNumber);
+                    refunds.add(new Refund(transactionId, accountNumber, amount));
+                    continue;
+                }
+                ErrorCode errorCode = null;
+                try {
+                    if (account.get().getAccountStatus() != AccountStatus.IN_USE) {
+                        throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+                    }
+                    account.get().useBalance(amount);
+                } catch (AccountException e) {
+                    errorCode = e.getErrorCode();
+                    refunds.add(new Refund(transactionId, accountNumber, amount));
+                }
+
+                Transaction transaction = transactionRepository.save(Transaction.builder()
+                        .transactionType(USE)
+                        .transactionResultType(errorCode == null ? S : F)
+                        .errorCode(errorCode)
+                        .account(account.get())
+                        .amount(amount)
+                        .balanceSnapshot(account.get().getBalance())
+                        .transactionId(transactionId)
+                        .transactedAt(requestedAt)
+                        .build());
+                applicationEventPublisher.publishEvent(TransactionSavedEvent.from(transaction));
+            }
+        });
+
+        refunds.forEach(refund -> asyncUseService.refund(
+                refund.transactionId(), refund.accountNumber(), refund.amount()));
+        StreamMessageId[] ids = entries.keySet().toArray(StreamMessageId[]::new);
+        stream.ack(GROUP, ids);
+        stream.remove(ids);
+        String[] transactionIds = entries.values().stream()
+                .map(entry -> entry.get("transactionId"))
+                .toArray(String[]::new);
+        statuses.fastRemove(transactionIds);
+        // ack 한 요청은 다시 처리되지 않으므로 환불 기록도 지운다.
+        if (!refunds.isEmpty()) {
+            refunded.fastRemove(refunds.stream().map(Refund::transactionId).toArray(String[]::new));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.example.accountservicezerobase.type.TransactionResultType.P;
+import static com.example.accountservicezerobase.type.TransactionType.USE;
+
+/**
+ * 접수 후 저장(accept-then-persist) 방식의 잔액 사용 (async-use.enabled)
+ * 레디스에 둔 잔액에서 먼저 차감(예약)하고 요청을 Redis Stream 에 넣은 뒤 바로 응답한다.
+ * 실제 저장은 AsyncUsePersister 가 consumer group 으로 나눠 묶음 단위로 한다.
+ * 저장될 때까지 거래 조회는 P(접수) 상태를 돌려준다.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "async-use", name = "enabled", havingValue = "true")
+public class AsyncUseService {
+    public static final String STREAM_KEY = "transaction-use-requests";
+    public static final String STATUS_KEY = "transaction-use-status";
+    // 예약 금액을 이미 되돌린 거래 ID (ack 전에 죽어 다시 처리돼도 한 번만 되돌린다)
+    public static final String REFUNDED_KEY = "transaction-use-refunded";
+    private static final String BALANCE_KEY_PREFIX = "balance:";
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    // 잔액 키가 없으면 DB 잔액으로 채운 뒤 예약, 스트림 추가, 접수 상태 기록을 한 번에 한다.
+    private static final String RESERVE_SCRIPT =
+            "local balance = redis.call('get', KEYS[1]) " +
+            "if not balance then balance = ARGV[2]; redis.call('set', KEYS[1], balance) end " +
+            "if tonumber(balance) < tonumber(ARGV[1]) then return -1 end " +
+            "local remaining = redis.call('decrby', KEYS[1], ARGV[1]) " +
+            "redis.call('xadd', KEYS[2], '*', 'transactionId', ARGV[3], 'userId', ARGV[4], " +
+            "'accountNumber', ARGV[5], 'amount', ARGV[1], 'requestedAt', ARGV[6]) " +
+            "redis.call('hset', KEYS[3], ARGV[3], ARGV[5] .. '|' .. ARGV[1] .. '|' .. remaining .. '|' .. ARGV[6]) " +
+            "return remaining";
+
+    // 잔액 키가 있을 때만 되돌린다. (없으면 다음 예약 때 DB 잔액으로 채워진다)
+    private static final String CREDIT_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 1 then return redis.call('incrby', KEYS[1], ARGV[1]) end " +
+            "return -1";
+
+    // 거래 ID 로 처음 되돌릴 때만 잔액 키에 더한다. 잔액 키가 없어도 되돌린 것으로 기록한다.
+    private static final String REFUND_SCRIPT =
+            "if redis.call('hsetnx', KEYS[2], ARGV[2], '1') == 0 then return 0 end " +
+            "if redis.call('exists', KEYS[1]) == 1 then redis.call('incrby', KEYS[1], ARGV[1]) end " +
+            "return 1";
+
+    private final AccountRepository accountRepository;
+    private final ObjectProvider<RedissonClient> redissonClient;
+
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+        if (!Objects.equals(account.getAccountUser().getId(), userId)) {
+            throw AccountException.of(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+
+        String transactionId = UUID.randomUUID().toString().replace("-", "");
+        long requestedAt = System.currentTimeMillis();
+        Long remaining = script().eval(RScript.Mode.READ_WRITE, RESERVE_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(balanceKey(accountNumber), STREAM_KEY, STATUS_KEY),
+                String.valueOf(amount), String.valueOf(account.getBalance()), transactionId,
+                String.valueOf(userId), accountNumber, String.valueOf(requestedAt));
+        if (remaining < 0) {
+            throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+
+        return pendingTransaction(transactionId, accountNumber, amount, remaining, requestedAt);
+    }
+
+    /**
+     * 아직 저장되지 않은 접수 건
+     */
+    public Optional<TransactionDto> findPending(String transactionId) {
+        String status = client().<String, String>getMap(STATUS_KEY, StringCodec.INSTANCE).get(transactionId);
+        if (status == null) {
+            return Optional.empty();
+        }
+        String[] fields = status.split("\\|");
+        return Optional.of(pendingTransaction(transactionId, fields[0], Long.parseLong(fields[1]),
+                Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+    }
+
+    /**
+     * 취소되었거나 저장에 실패한 금액을 레디스 잔액에 되돌린다.
+     */
+    public void credit(String accountNumber, Long amount) {
+        script().eval(RScript.Mode.READ_WRITE, CREDIT_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(balanceKey(accountNumber)), String.valueOf(amount));
+    }
+
+    /**
+     * 저장하지 못한 접수 건의 예약 금액을 거래 ID 당 한 번만 되돌린다.
+     */
+    public void refund(String transactionId, String accountNumber, long amount) {
+        script().eval(RScript.Mode.READ_WRITE, REFUND_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(balanceKey(accountNumber), REFUNDED_KEY), String.valueOf(amount), transactionId);
+    }
+
+    private static TransactionDto pendingTransaction(String transactionId, String accountNumber, long amount,
+                                                     long balanceSnapshot, long requestedAt) {
+        return TransactionDto.builder()
+                .accountNumber(accountNumber)
+                .transactionType(USE)
+                .transactionResultType(P)
+                .amount(amount)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionId)
+                .transactedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(requestedAt), ZONE))
+                .build();
+    }
+
+    private static String balanceKey(String accountNumber) {
+        return BALANCE_KEY_PREFIX + accountNumber;
+    }
+
+    private RScript script() {
+        return client().getScript(StringCodec.INSTANCE);
+    }
+
+    private RedissonClient client() {
+        return redissonClient.getObject();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.FailedTransactionAggregate;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.dto.FailedTransactionAggregateDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.FailedTransactionAggregateRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.accountservicezerobase.type.TransactionResultType.F;
+
+/**
+ * 오래된 실패 거래(F)를 시간 단위 집계로 접고 원본을 삭제한다.
+ * 배치 하나(집계 반영 + 원본 삭제)가 한 트랜잭션이므로
+ * 중간에 중단되어도 다시 실행하면 남은 거래부터 이어서 처리한다.
+ * rollup 재계산과 겹치지 않도록 실행 내내 TransactionMaintenanceLock 을 쥔다.
+ */
+@Slf4j
+@Service
+public class FailedTransactionCompactionService {
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final FailedTransactionAggregateRepository failedTransactionAggregateRepository;
+    private final TransactionMaintenanceLock maintenanceLock;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration minAge;
+    private final int batchSize;
+
+    public FailedTransactionCompactionService(
+            TransactionRepository transactionRepository,
+            AccountRepository accountRepository,
+            FailedTransactionAggregateRepository failedTransactionAggregateRepository,
+            TransactionMaintenanceLock maintenanceLock,
+            PlatformTransactionManager transactionManager,
+            @Value("${compaction.min-age:P21D}") Duration minAge,
+            @Value("${compaction.batch-size:1000}") int batchSize) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.failedTransactionAggregateRepository = failedTransactionAggregateRepository;
+        this.maintenanceLock = maintenanceLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    private record AggregateKey(
+            Long accountId,
+            TransactionType transactionType,
+            ErrorCode errorCode,
+            LocalDateTime hourBucket) {
+    }
+
+    @Scheduled(cron = "${compaction.cron:0 0 4 * * *}")
+    public void scheduledCompaction() {
+        compactFailedTransactions();
+    }
+
+    public long compactFailedTransactions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        long compacted = 0L;
+
+        maintenanceLock.lock();
+        try {
+            while (true) {
+                Integer batch = transactionTemplate.execute(status -> compactBatch(cutoff));
+                compacted += batch;
+                if (batch < batchSize) {
+                    break;
+                }
+            }
+        } finally {
+            maintenanceLock.unlock();
+        }
+
+        log.info("Compacted {} failed transactions older than {}", compacted, cutoff);
+        return compacted;
+    }
+
+    private int compactBatch(LocalDateTime cutoff) {
+        List<Transaction> failedTransactions = transactionRepository
+                .findByTransactionResultTypeAndTransactedAtBeforeOrderByIdAsc(
+                        F, cutoff, PageRequest.of(0, batchSize));
+        if (failedTransactions.isEmpty()) {
+            return 0;
+        }
+
+        Map<AggregateKey, long[]> sums = new HashMap<>();
+        Map<Long, Account> accounts = new HashMap<>();
+        for (Transaction transaction : failedTransactions) {
+            Account account = transaction.getAccount();
+            accounts.put(account.getId(), account);
+
+            long[] sum = sums.computeIfAbsent(new AggregateKey(
+                    account.getId(),
+                    transaction.getTransactionType(),
+                    transaction.getErrorCode(),
+                    transaction.getTransactedAt().truncatedTo(ChronoUnit.HOURS)
+            ), key -> new long[2]);
+            sum[0] += 1;
+            sum[1] += transaction.getAmount();
+        }
+
+        sums.forEach((key, sum) -> {
+            Account account = accounts.get(key.accountId());
+            FailedTransactionAggregate aggregate = failedTransactionAggregateRepository
+                    .findByAccountAndTransactionTypeAndErrorCodeAndHourBucket(
+                            account, key.transactionType(), key.errorCode(), key.hourBucket())
+                    .orElseGet(() -> FailedTransactionAggregate.builder()
+                            .account(account)
+                            .transactionType(key.transactionType())
+                            .errorCode(key.errorCode())
+                            .hourBucket(key.hourBucket())
+                            .failedCount(0L)
+                            .totalAmount(0L)
+                            .build());
+            aggregate.add(sum[0], sum[1]);
+            failedTransactionAggregateRepository.save(aggregate);
+        });
+
+        transactionRepository.deleteAllInBatch(failedTransactions);
+
+        return failedTransactions.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<FailedTransactionAggregateDto> getAggregates(
+            String accountNumber, LocalDateTime from, LocalDateTime to) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        return failedTransactionAggregateRepository
+                .findByAccountAndHourBucketBetweenOrderByHourBucketAsc(account, from, to)
+                .stream()
+                .map(FailedTransactionAggregateDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.event.HoldChangedEvent;
+import com.example.accountservicezerobase.hold.HierarchicalTimingWheel;
+import com.example.accountservicezerobase.hold.HoldKey;
+import com.example.accountservicezerobase.hold.PendingHold;
+import com.example.accountservicezerobase.repository.HoldRepository;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * HELD 승인의 만료를 메모리의 계층형 timing wheel 로 관리한다.
+ * DB 를 주기적으로 훑지 않고, 만료 시각이 된 승인만 HoldService.expire() 로 해제한다.
+ * 승인이 커밋되면 등록하고 매입 / 해제되면 지운다. (HoldChangedEvent)
+ * 기동하면 DB 의 HELD 승인을 id 순서로 나눠 읽어 다시 채운다. 내려가 있던 동안 지난 만료는 첫 tick 에 처리된다.
+ * 만료 처리에 실패하면 retry-delay 뒤에 다시 시도한다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "hold", name = "enabled", havingValue = "true")
+public class HoldExpiryService {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final HoldService holdService;
+    private final HoldRepository holdRepository;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final HierarchicalTimingWheel<HoldKey> wheel;
+    private final int recoveryBatchSize;
+    private final Duration retryDelay;
+
+    public HoldExpiryService(
+            HoldService holdService,
+            HoldRepository holdRepository,
+            ObjectProvider<ShardRouter> shardRouter,
+            MeterRegistry meterRegistry,
+            @Value("${hold.wheel.tick-ms:100}") long tickMillis,
+            @Value("${hold.wheel.size:512}") int wheelSize,
+            @Value("${hold.wheel.levels:3}") int levels,
+            @Value("${hold.recovery-batch-size:10000}") int recoveryBatchSize,
+            @Value("${hold.retry-delay:1s}") Duration retryDelay) {
+        this.holdService = holdService;
+        this.holdRepository = holdRepository;
+        this.shardRouter = shardRouter;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, levels, System.currentTimeMillis());
+        this.recoveryBatchSize = recoveryBatchSize;
+        this.retryDelay = retryDelay;
+        Gauge.builder("hold.pending", this, HoldExpiryService::pending)
+                .description("expiry timers waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldChanged(HoldChangedEvent event) {
+        HoldKey key = new HoldKey(event.getId(), event.getAccountNumber());
+        synchronized (this) {
+            switch (event.getHoldStatus()) {
+                case HELD -> wheel.schedule(key, toMillis(event.getExpiresAt()));
+                case CAPTURED, RELEASED, EXPIRED -> wheel.cancel(key);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        ShardRouter router = shardRouter.getIfAvailable();
+        List<Integer> recovered = router != null ? router.onAllShards(this::recoverShard) : List.of(recoverShard());
+        log.info("Recovered {} pending holds into the timing wheel", recovered.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private int recoverShard() {
+        int recovered = 0;
+        long afterId = 0L;
+        List<PendingHold> pendingHolds;
+        do {
+            pendingHolds = holdRepository.findPendingAfter(afterId, PageRequest.ofSize(recoveryBatchSize));
+            synchronized (this) {
+                for (PendingHold pendingHold : pendingHolds) {
+                    wheel.schedule(new HoldKey(pendingHold.id(), pendingHold.accountNumber()),
+                            toMillis(pendingHold.expiresAt()));
+                }
+            }
+            if (!pendingHolds.isEmpty()) {
+                afterId = pendingHolds.get(pendingHolds.size() - 1).id();
+            }
+            recovered += pendingHolds.size();
+        } while (pendingHolds.size() == recoveryBatchSize);
+        return recovered;
+    }
+
+    @Scheduled(fixedDelayString = "${hold.wheel.tick-ms:100}")
+    public void tick() {
+        List<HoldKey> expired;
+        synchronized (this) {
+            expired = wheel.advance(System.currentTimeMillis());
+        }
+        for (HoldKey key : expired) {
+            try {
+                holdService.expire(key.id(), key.accountNumber());
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire hold {}, retrying in {}", key.id(), retryDelay, e);
+                synchronized (this) {
+                    wheel.schedule(key, System.currentTimeMillis() + retryDelay.toMillis());
+                }
+            }
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+}
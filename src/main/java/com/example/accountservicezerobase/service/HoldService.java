@@ -0,0 +1,201 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.Hold;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.dto.HoldDto;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.event.HoldChangedEvent;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.RowLockTimer;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.HoldRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.retry.RetryOnConflict;
+import com.example.accountservicezerobase.shard.ShardRouted;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.HoldStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+import static com.example.accountservicezerobase.type.TransactionResultType.S;
+import static com.example.accountservicezerobase.type.TransactionType.USE;
+
+/**
+ * 승인(hold) / 매입(capture) / 해제(release)
+ * 승인은 계좌 한 줄의 조건부 update(쓸 수 있는 잔액 >= 금액)로 금액을 묶으므로 읽고-쓰기 충돌 재시도가 없다.
+ * 매입은 묶인 금액을 풀고 잔액을 빼는 잔액 사용(USE) 거래로 남는다. 취소하면 일반 사용 거래처럼 되돌린다.
+ * 만료는 HoldExpiryService 의 timing wheel 이 expire() 를 불러 처리한다.
+ */
+@Service
+@ConditionalOnProperty(prefix = "hold", name = "enabled", havingValue = "true")
+public class HoldService {
+    private final HoldRepository holdRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public HoldService(
+            HoldRepository holdRepository,
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            ApplicationEventPublisher applicationEventPublisher,
+            @Value("${hold.default-ttl:7d}") Duration defaultTtl,
+            @Value("${hold.max-ttl:30d}") Duration maxTtl) {
+        this.holdRepository = holdRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    @ShardRouted(accountArg = 1)
+    @Transactional
+    public HoldDto hold(Long userId, String accountNumber, Long amount, Duration ttl) {
+        Duration holdTtl = ttl != null ? ttl : defaultTtl;
+        if (holdTtl.compareTo(maxTtl) > 0) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+        // 조건부 update 를 먼저 보내고, 바뀐 줄이 없을 때만 계좌를 읽어 실패 이유를 가린다.
+        if (accountRepository.hold(userId, accountNumber, amount) == 0) {
+            throw AccountException.of(holdFailure(userId, accountNumber));
+        }
+        // 행 잠금을 쥔 뒤에 읽으므로 방금 묶은 금액이 보인다.
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+        Hold hold = holdRepository.save(Hold.builder()
+                .holdId(UUID.randomUUID().toString().replace("-", ""))
+                .account(account)
+                .amount(amount)
+                .holdStatus(HoldStatus.HELD)
+                .expiresAt(LocalDateTime.now().plus(holdTtl))
+                .build());
+        applicationEventPublisher.publishEvent(HoldChangedEvent.of(hold, HoldStatus.HELD));
+
+        return HoldDto.fromEntity(hold);
+    }
+
+    private ErrorCode holdFailure(Long userId, String accountNumber) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+        if (!Objects.equals(account.getAccountUser().getId(), userId)) {
+            return ErrorCode.USER_ACCOUNT_UN_MATCH;
+        }
+        return account.getAccountStatus() != AccountStatus.IN_USE
+                ? ErrorCode.ACCOUNT_ALREADY_UNREGISTERED
+                : ErrorCode.AMOUNT_EXCEED_BALANCE;
+    }
+
+    /**
+     * 승인 금액 이하를 매입한다. 남는 금액은 해제된다.
+     * 계좌 잔액은 낙관적 락으로 바꾸므로 같은 계좌의 다른 승인과 겹치면 다시 시도한다.
+     */
+    @RetryOnConflict(value = "captureHold", accountArg = 1)
+    @ShardRouted(accountArg = 1)
+    @Transactional
+    public TransactionDto capture(String holdId, String accountNumber, Long amount) {
+        Hold hold = findActiveHold(holdId, accountNumber);
+        if (amount > hold.getAmount()) {
+            throw AccountException.of(ErrorCode.AMOUNT_EXCEED_HOLD);
+        }
+
+        String transactionId = UUID.randomUUID().toString().replace("-", "");
+        LocalDateTime now = LocalDateTime.now();
+        close(hold, HoldStatus.CAPTURED, transactionId, now);
+
+        Account account = hold.getAccount();
+        account.captureHold(amount, hold.getAmount());
+        RowLockTimer.flush(accountRepository);
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .transactionType(USE)
+                .transactionResultType(S)
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(account.getBalance())
+                .transactionId(transactionId)
+                .transactedAt(now)
+                .build());
+        applicationEventPublisher.publishEvent(TransactionSavedEvent.from(transaction));
+
+        return TransactionDto.fromEntity(transaction);
+    }
+
+    @ShardRouted(accountArg = 1)
+    @Transactional
+    public HoldDto release(String holdId, String accountNumber) {
+        Hold hold = findActiveHold(holdId, accountNumber);
+        LocalDateTime now = LocalDateTime.now();
+        close(hold, HoldStatus.RELEASED, null, now);
+        releaseHeldAmount(hold);
+
+        HoldDto holdDto = HoldDto.fromEntity(hold);
+        holdDto.setHoldStatus(HoldStatus.RELEASED);
+        holdDto.setClosedAt(now);
+        return holdDto;
+    }
+
+    /**
+     * 만료 시각이 지난 HELD 승인을 해제한다. 이미 닫혔거나 아직 만료 전이면 false
+     */
+    @ShardRouted(accountArg = 1)
+    @Transactional
+    public boolean expire(Long id, String accountNumber) {
+        Hold hold = holdRepository.findById(id).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (hold == null || hold.getHoldStatus() != HoldStatus.HELD || hold.getExpiresAt().isAfter(now)
+                || holdRepository.close(hold.getId(), HoldStatus.EXPIRED, null, now) == 0) {
+            return false;
+        }
+        releaseHeldAmount(hold);
+        applicationEventPublisher.publishEvent(HoldChangedEvent.of(hold, HoldStatus.EXPIRED));
+        return true;
+    }
+
+    @ShardRouted
+    @Transactional(readOnly = true)
+    public HoldDto queryHold(String holdId) {
+        return holdRepository.findByHoldId(holdId)
+                .map(HoldDto::fromEntity)
+                .orElseThrow(() -> AccountException.of(ErrorCode.HOLD_NOT_FOUND));
+    }
+
+    private Hold findActiveHold(String holdId, String accountNumber) {
+        Hold hold = holdRepository.findByHoldId(holdId)
+                .orElseThrow(() -> AccountException.of(ErrorCode.HOLD_NOT_FOUND));
+        if (!hold.getAccount().getAccountNumber().equals(accountNumber)) {
+            throw AccountException.of(ErrorCode.HOLD_ACCOUNT_UN_MATCH);
+        }
+        // 만료 처리가 아직 돌지 않았어도 만료 시각이 지났으면 닫힌 것으로 본다.
+        if (hold.getHoldStatus() != HoldStatus.HELD || !hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw AccountException.of(ErrorCode.HOLD_NOT_ACTIVE);
+        }
+        return hold;
+    }
+
+    private void close(Hold hold, HoldStatus holdStatus, String transactionId, LocalDateTime now) {
+        if (holdRepository.close(hold.getId(), holdStatus, transactionId, now) == 0) {
+            throw AccountException.of(ErrorCode.HOLD_NOT_ACTIVE);
+        }
+        applicationEventPublisher.publishEvent(HoldChangedEvent.of(hold, holdStatus));
+    }
+
+    private void releaseHeldAmount(Hold hold) {
+        if (accountRepository.releaseHold(hold.getAccount().getId(), hold.getAmount()) == 0) {
+            throw new IllegalStateException("held amount of account " + hold.getAccount().getId()
+                    + " is less than hold " + hold.getId());
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.ledger.LedgerEngine;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.example.accountservicezerobase.service.TransactionService.CANCELABLE_PERIOD;
+import static com.example.accountservicezerobase.type.TransactionResultType.S;
+import static com.example.accountservicezerobase.type.TransactionType.CANCEL;
+import static com.example.accountservicezerobase.type.TransactionType.USE;
+
+/**
+ * 메모리 원장 엔진을 쓰는 잔액 사용/취소
+ * 잔액 변경은 엔진(WAL)에만 기록하고 응답하며, JPA 테이블(거래, 계좌 잔액)은
+ * projector 가 WAL 순서대로 비동기 반영한다.
+ * ledger.engine.enabled=true 일 때만 등록되고, 그 때는 TransactionController 가 이 서비스로 보낸다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "ledger.engine", name = "enabled", havingValue = "true")
+public class LedgerTransactionService {
+    private record Mutation(long seq, byte op, int slot, long amount, long balance,
+                            long transactionIdHigh, long transactionIdLow, long time, boolean replayed) {
+    }
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int initialCapacity;
+    private final int walBufferBytes;
+    private final long walSyncIntervalMicros;
+    private final int projectionBatchSize;
+
+    private final LinkedBlockingQueue<Mutation> projectionQueue = new LinkedBlockingQueue<>();
+    // projection 이 끝나지 않은 거래 (조회/취소용)
+    private final ConcurrentHashMap<String, TransactionDto> pending = new ConcurrentHashMap<>();
+    private final List<Mutation> inFlight = new ArrayList<>();
+    private final ThreadLocal<LedgerEngine.Receipt> receipts = ThreadLocal.withInitial(LedgerEngine.Receipt::new);
+    private volatile long projectedSeq;
+    private LedgerEngine engine;
+
+    public LedgerTransactionService(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            ApplicationEventPublisher applicationEventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${ledger.engine.directory:./ledger}") Path directory,
+            @Value("${ledger.engine.initial-capacity:1024}") int initialCapacity,
+            @Value("${ledger.engine.wal-buffer-bytes:1048576}") int walBufferBytes,
+            @Value("${ledger.engine.wal-sync-interval-micros:1000}") long walSyncIntervalMicros,
+            @Value("${ledger.engine.projection-batch-size:1000}") int projectionBatchSize) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.directory = directory;
+        this.initialCapacity = initialCapacity;
+        this.walBufferBytes = walBufferBytes;
+        this.walSyncIntervalMicros = walSyncIntervalMicros;
+        this.projectionBatchSize = projectionBatchSize;
+    }
+
+    /**
+     * 스냅샷 + WAL 로 엔진을 복구한다.
+     * 보존된 WAL 레코드는 DB 에 이미 반영됐을 수 있으므로 거래 ID 로 걸러서 다시 projection 한다.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        List<Mutation> recovered = new ArrayList<>();
+        engine = LedgerEngine.open(directory, initialCapacity, walBufferBytes, walSyncIntervalMicros,
+                (seq, op, slot, amount, balance, x, y, time) -> recovered.add(
+                        new Mutation(seq, op, slot, amount, balance, x, y, time, true)));
+        // 보존된 WAL 은 모두 다시 반영 대상이므로, 그 앞까지만 반영된 것으로 본다.
+        projectedSeq = recovered.isEmpty() ? engine.lastSeq() : recovered.get(0).seq() - 1;
+        projectionQueue.addAll(recovered);
+        engine.setListener((seq, op, slot, amount, balance, x, y, time) -> projectionQueue.add(
+                new Mutation(seq, op, slot, amount, balance, x, y, time, false)));
+
+        if (engine.size() == 0) {
+            LedgerEngine.Receipt receipt = new LedgerEngine.Receipt();
+            transactionTemplate.executeWithoutResult(status ->
+                    accountRepository.findAll().forEach(account -> register(account, receipt)));
+        }
+        log.info("Ledger engine started with {} accounts at seq {} ({} WAL records to re-project)",
+                engine.size(), engine.lastSeq(), recovered.size());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        engine.close();
+        project();
+    }
+
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        LedgerEngine.Receipt receipt = receipts.get();
+        int slot = slotOf(accountNumber, receipt);
+        UUID transactionId = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        int result = engine.debit(slot, userId, amount, transactionId.getMostSignificantBits(),
+                transactionId.getLeastSignificantBits(), now, receipt);
+        if (result != LedgerEngine.OK) {
+            throw AccountException.of(toErrorCode(result));
+        }
+        return complete(USE, accountNumber, amount, transactionId, now, receipt);
+    }
+
+    public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        TransactionDto original = Optional.ofNullable(pending.get(transactionId))
+                .or(() -> transactionRepository.findByTransactionId(transactionId)
+                        .map(TransactionDto::fromEntity))
+                .orElseThrow(() -> AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND));
+        if (original.getLinkedTransactionId() != null) {
+            throw AccountException.of(ErrorCode.TRANSFER_CANNOT_BE_CANCELED);
+        }
+        if (!Objects.equals(original.getAccountNumber(), accountNumber)) {
+            throw AccountException.of(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
+        }
+        if (!Objects.equals(original.getAmount(), amount)) {
+            throw AccountException.of(ErrorCode.CANCEL_MUST_FULLY);
+        }
+        if (original.getTransactedAt().isBefore(LocalDateTime.now().minus(CANCELABLE_PERIOD))) {
+            throw AccountException.of(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        }
+
+        LedgerEngine.Receipt receipt = receipts.get();
+        int slot = slotOf(accountNumber, receipt);
+        UUID cancelId = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        int result = engine.credit(slot, amount, cancelId.getMostSignificantBits(),
+                cancelId.getLeastSignificantBits(), now, receipt);
+        if (result != LedgerEngine.OK) {
+            throw AccountException.of(toErrorCode(result));
+        }
+        return complete(CANCEL, accountNumber, amount, cancelId, now, receipt);
+    }
+
+    /**
+     * 아직 DB 에 반영되지 않은 거래
+     */
+    public Optional<TransactionDto> findPending(String transactionId) {
+        return Optional.ofNullable(pending.get(transactionId));
+    }
+
+    /**
+     * 엔진 기준으로 해지 가능 여부를 확인하고 해지를 기록한다. (DB 잔액은 늦게 반영될 수 있다)
+     */
+    public void unregister(Long userId, String accountNumber) {
+        LedgerEngine.Receipt receipt = receipts.get();
+        int slot = slotOf(accountNumber, receipt);
+        synchronized (engine) {
+            if (engine.ownerUserId(slot) != userId) {
+                throw AccountException.of(ErrorCode.USER_ACCOUNT_UN_MATCH);
+            }
+            if (!engine.isActive(slot)) {
+                throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            }
+            if (engine.balance(slot) > 0) {
+                throw AccountException.of(ErrorCode.BALANCE_NOT_EMPTY);
+            }
+            engine.unregister(slot, receipt);
+        }
+        engine.awaitDurable(receipt.seq);
+    }
+
+    private TransactionDto complete(TransactionType transactionType, String accountNumber, Long amount,
+                                    UUID transactionId, long time, LedgerEngine.Receipt receipt) {
+        long seq = receipt.seq;
+        TransactionDto transactionDto = TransactionDto.builder()
+                .accountNumber(accountNumber)
+                .transactionType(transactionType)
+                .transactionResultType(S)
+                .amount(amount)
+                .balanceSnapshot(receipt.balance)
+                .transactionId(toTransactionId(transactionId.getMostSignificantBits(),
+                        transactionId.getLeastSignificantBits()))
+                .transactedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZONE))
+                .build();
+
+        // projector 는 projectedSeq 를 먼저 올리고 pending 을 지우므로, 늦게 넣은 항목은 여기서 지운다.
+        pending.put(transactionDto.getTransactionId(), transactionDto);
+        if (seq <= projectedSeq) {
+            pending.remove(transactionDto.getTransactionId());
+        }
+
+        engine.awaitDurable(seq);
+        return transactionDto;
+    }
+
+    /**
+     * 엔진에 없는 계좌(엔진 기동 이후 개설)는 처음 쓰일 때 DB 에서 읽어 등록한다.
+     */
+    private int slotOf(String accountNumber, LedgerEngine.Receipt receipt) {
+        long number;
+        try {
+            number = Long.parseLong(accountNumber);
+        } catch (NumberFormatException e) {
+            throw AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND);
+        }
+        int slot = engine.slotOf(number);
+        if (slot >= 0) {
+            return slot;
+        }
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+        return register(account, receipt);
+    }
+
+    private int register(Account account, LedgerEngine.Receipt receipt) {
+        return engine.register(Long.parseLong(account.getAccountNumber()), account.getId(),
+                account.getAccountUser().getId(), account.getBalance(),
+                account.getAccountStatus() == AccountStatus.IN_USE, receipt);
+    }
+
+    /**
+     * WAL 에 내구화된 변경을 순서대로 DB 에 반영한다.
+     * 실패하면 같은 묶음을 다음 주기에 다시 시도한다.
+     * 거래 저장 이벤트는 반영 트랜잭션 안에서 발행해서 outbox 행이 거래와 함께 커밋되게 한다.
+     */
+    @Scheduled(fixedDelayString = "${ledger.engine.projection-interval-ms:100}")
+    public synchronized void project() {
+        if (inFlight.isEmpty()) {
+            projectionQueue.drainTo(inFlight, projectionBatchSize);
+        }
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        Mutation last = inFlight.get(inFlight.size() - 1);
+        engine.awaitDurable(last.seq());
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    writeProjection(inFlight).forEach(applicationEventPublisher::publishEvent));
+        } catch (RuntimeException e) {
+            log.warn("Failed to project {} ledger mutations (seq {}..{})",
+                    inFlight.size(), inFlight.get(0).seq(), last.seq(), e);
+            return;
+        }
+
+        projectedSeq = last.seq();
+        for (Mutation mutation : inFlight) {
+            pending.remove(toTransactionId(mutation.transactionIdHigh(), mutation.transactionIdLow()));
+        }
+        inFlight.clear();
+    }
+
+    private List<TransactionSavedEvent> writeProjection(List<Mutation> mutations) {
+        List<Transaction> transactions = new ArrayList<>();
+        List<Integer> transactionSlots = new ArrayList<>();
+        // 슬롯별 마지막 잔액만 반영하면 된다.
+        Map<Integer, Long> balances = new HashMap<>();
+        Map<Integer, Account> accounts = new HashMap<>();
+
+        for (Mutation mutation : mutations) {
+            if (mutation.op() != LedgerEngine.OP_DEBIT && mutation.op() != LedgerEngine.OP_CREDIT) {
+                if (mutation.op() == LedgerEngine.OP_UNREGISTER) {
+                    balances.put(mutation.slot(), mutation.balance());
+                }
+                continue;
+            }
+            balances.put(mutation.slot(), mutation.balance());
+
+            String transactionId = toTransactionId(mutation.transactionIdHigh(), mutation.transactionIdLow());
+            if (mutation.replayed() && transactionRepository.findByTransactionId(transactionId).isPresent()) {
+                continue;
+            }
+            Account account = accounts.computeIfAbsent(mutation.slot(),
+                    slot -> accountRepository.getReferenceById(engine.accountId(slot)));
+            transactions.add(Transaction.builder()
+                    .transactionType(mutation.op() == LedgerEngine.OP_DEBIT ? USE : CANCEL)
+                    .transactionResultType(S)
+                    .account(account)
+                    .amount(mutation.amount())
+                    .balanceSnapshot(mutation.balance())
+                    .transactionId(transactionId)
+                    .transactedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(mutation.time()), ZONE))
+                    .build());
+            transactionSlots.add(mutation.slot());
+        }
+
+        transactionRepository.saveAll(transactions);
+        balances.forEach((slot, balance) -> accountRepository.updateBalance(engine.accountId(slot), balance));
+
+        List<TransactionSavedEvent> events = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            int slot = transactionSlots.get(i);
+            events.add(TransactionSavedEvent.builder()
+                    .id(transaction.getId())
+                    .accountId(engine.accountId(slot))
+                    .accountNumber(String.valueOf(engine.accountNumber(slot)))
+                    .transactionId(transaction.getTransactionId())
+                    .transactionType(transaction.getTransactionType())
+                    .transactionResultType(transaction.getTransactionResultType())
+                    .amount(transaction.getAmount())
+                    .balanceSnapshot(transaction.getBalanceSnapshot())
+                    .transactedAt(transaction.getTransactedAt())
+                    .build());
+        }
+        return events;
+    }
+
+    /**
+     * 스냅샷을 남기고, DB 반영까지 끝난 WAL 파일을 지운다.
+     */
+    @Scheduled(fixedDelayString = "${ledger.engine.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        try {
+            engine.snapshot(projectedSeq);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write ledger snapshot", e);
+        }
+    }
+
+    private static String toTransactionId(long high, long low) {
+        return String.format("%016x%016x", high, low);
+    }
+
+    private static ErrorCode toErrorCode(int result) {
+        return switch (result) {
+            case LedgerEngine.ACCOUNT_NOT_FOUND -> ErrorCode.ACCOUNT_NOT_FOUND;
+            case LedgerEngine.USER_ACCOUNT_UN_MATCH -> ErrorCode.USER_ACCOUNT_UN_MATCH;
+            case LedgerEngine.ACCOUNT_ALREADY_UNREGISTERED -> ErrorCode.ACCOUNT_ALREADY_UNREGISTERED;
+            case LedgerEngine.AMOUNT_EXCEED_BALANCE -> ErrorCode.AMOUNT_EXCEED_BALANCE;
+            default -> ErrorCode.INVALID_REQUEST;
+        };
+    }
+}
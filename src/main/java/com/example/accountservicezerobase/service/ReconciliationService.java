@@ -0,0 +1,294 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.ReconciliationMismatch;
+import com.example.accountservicezerobase.dto.LedgerEntry;
+import com.example.accountservicezerobase.dto.ReconciliationReport;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.ReconciliationMismatchRepository;
+import com.example.accountservicezerobase.type.ReconciliationMismatchType;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 원장 대사
+ * 계좌 id 공간을 구간으로 나누어 fork-join pool 에서 병렬로 검사한다.
+ * 1. 성공 거래의 잔액 스냅샷이 (직전 스냅샷 +/- 거래금액) 과 같은지
+ * 2. 계좌 잔액이 마지막 성공 거래의 스냅샷과 같은지
+ * 계좌 개설 시 초기 잔액은 거래로 남지 않으므로 첫 성공 거래의 스냅샷을 기준점으로 삼는다.
+ * 대사 중에 들어온 거래 때문에 BALANCE 불일치가 잘못 보고될 수 있으므로 한산한 시간에 실행한다.
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+    // 메모리 예산 계산용 추정치 (projection 객체 + 드라이버 버퍼)
+    private static final long BYTES_PER_ENTRY = 256;
+    private static final long BYTES_PER_ACCOUNT = 128;
+
+    private final AccountRepository accountRepository;
+    private final ReconciliationMismatchRepository reconciliationMismatchRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final long rangeSize;
+    private final int fetchSize;
+    private final int maxMismatchesPerRange;
+
+    public ReconciliationService(
+            AccountRepository accountRepository,
+            ReconciliationMismatchRepository reconciliationMismatchRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${reconciliation.parallelism:4}") int parallelism,
+            @Value("${reconciliation.range-size:10000}") long rangeSize,
+            @Value("${reconciliation.memory-budget-mb:256}") long memoryBudgetMb,
+            @Value("${reconciliation.max-mismatches-per-range:1000}") int maxMismatchesPerRange) {
+        this.accountRepository = accountRepository;
+        this.reconciliationMismatchRepository = reconciliationMismatchRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.parallelism = parallelism;
+        this.maxMismatchesPerRange = maxMismatchesPerRange;
+
+        // 워커 하나가 쓸 수 있는 메모리의 절반은 fetch 버퍼, 절반은 구간의 계좌 잔액에 쓴다.
+        long budgetPerWorker = memoryBudgetMb * 1024 * 1024 / parallelism;
+        this.fetchSize = (int) Math.max(100, Math.min(10_000, budgetPerWorker / 2 / BYTES_PER_ENTRY));
+        this.rangeSize = Math.max(1, Math.min(rangeSize, budgetPerWorker / 2 / BYTES_PER_ACCOUNT));
+    }
+
+    @Scheduled(cron = "${reconciliation.cron:0 0 2 * * *}")
+    public void scheduledReconciliation() {
+        reconcile();
+    }
+
+    public ReconciliationReport reconcile() {
+        Run run = new Run(UUID.randomUUID().toString().replace("-", ""));
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        Long minId = accountRepository.findMinId();
+        Long maxId = accountRepository.findMaxId();
+        if (minId != null) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new RangeTask(run, minId, maxId));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        ReconciliationReport report = ReconciliationReport.builder()
+                .runId(run.id)
+                .startedAt(startedAt)
+                .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                .accounts(run.accounts.get())
+                .transactions(run.transactions.get())
+                .mismatches(run.mismatches.get())
+                .workers(run.workers.entrySet().stream()
+                        .map(entry -> entry.getValue().toThroughput(entry.getKey()))
+                        .sorted(Comparator.comparing(ReconciliationReport.WorkerThroughput::getWorker))
+                        .collect(Collectors.toList()))
+                .build();
+
+        log.info("Reconciliation {} finished in {}ms: {} accounts, {} transactions, {} mismatches",
+                report.getRunId(), report.getElapsedMillis(), report.getAccounts(),
+                report.getTransactions(), report.getMismatches());
+        report.getWorkers().forEach(worker -> log.info("  {}: {} ranges, {} transactions, {} tx/s",
+                worker.getWorker(), worker.getRanges(), worker.getTransactions(),
+                String.format("%.0f", worker.getTransactionsPerSecond())));
+        return report;
+    }
+
+    private void reconcileRange(Run run, long fromId, long toId) {
+        long start = System.nanoTime();
+        List<ReconciliationMismatch> mismatches = new ArrayList<>();
+        RangeResult result = readOnlyTransactionTemplate.execute(status ->
+                scanRange(run.id, fromId, toId, mismatches));
+
+        if (!mismatches.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    reconciliationMismatchRepository.saveAll(mismatches));
+        }
+
+        run.accounts.addAndGet(result.accounts);
+        run.transactions.addAndGet(result.transactions);
+        run.mismatches.addAndGet(result.mismatches);
+        run.workers.computeIfAbsent(Thread.currentThread().getName(), name -> new WorkerStats())
+                .add(result.transactions, System.nanoTime() - start);
+    }
+
+    private RangeResult scanRange(String runId, long fromId, long toId, List<ReconciliationMismatch> mismatches) {
+        Map<Long, Object[]> accounts = new HashMap<>();
+        entityManager.createQuery(
+                        "select a.id, a.accountNumber, a.balance from Account a " +
+                                "where a.id between :fromId and :toId", Object[].class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .getResultList()
+                .forEach(row -> accounts.put((Long) row[0], row));
+
+        RangeResult result = new RangeResult();
+        result.accounts = accounts.size();
+        if (accounts.isEmpty()) {
+            return result;
+        }
+
+        try (Stream<LedgerEntry> entries = entityManager.createQuery(
+                        "select new com.example.accountservicezerobase.dto.LedgerEntry(" +
+                                "t.account.id, t.transactionType, t.transactionResultType, " +
+                                "t.amount, t.balanceSnapshot, t.transactionId, t.transactedAt) " +
+                                "from Transaction t " +
+                                "where t.account.id between :fromId and :toId " +
+                                "and t.transactionResultType = :resultType " +
+                                "order by t.account.id, t.id", LedgerEntry.class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setParameter("resultType", TransactionResultType.S)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+
+            Long currentAccountId = null;
+            Long previousSnapshot = null;
+            for (Iterator<LedgerEntry> iterator = entries.iterator(); iterator.hasNext(); ) {
+                LedgerEntry entry = iterator.next();
+                result.transactions++;
+
+                if (!entry.getAccountId().equals(currentAccountId)) {
+                    if (currentAccountId != null) {
+                        checkBalance(runId, accounts.get(currentAccountId), previousSnapshot, result, mismatches);
+                    }
+                    currentAccountId = entry.getAccountId();
+                    previousSnapshot = null;
+                }
+
+                if (previousSnapshot != null) {
+                    long expected = previousSnapshot
+                            + entry.getTransactionType().getBalanceSign() * entry.getAmount();
+                    if (expected != entry.getBalanceSnapshot()) {
+                        Object[] account = accounts.get(currentAccountId);
+                        addMismatch(result, mismatches, ReconciliationMismatch.builder()
+                                .runId(runId)
+                                .accountId(currentAccountId)
+                                .accountNumber(account == null ? null : (String) account[1])
+                                .mismatchType(ReconciliationMismatchType.SNAPSHOT_SEQUENCE)
+                                .transactionId(entry.getTransactionId())
+                                .expected(expected)
+                                .actual(entry.getBalanceSnapshot())
+                                .build());
+                    }
+                }
+                previousSnapshot = entry.getBalanceSnapshot();
+            }
+
+            if (currentAccountId != null) {
+                checkBalance(runId, accounts.get(currentAccountId), previousSnapshot, result, mismatches);
+            }
+        }
+        return result;
+    }
+
+    private void checkBalance(String runId, Object[] account, Long lastSnapshot,
+                              RangeResult result, List<ReconciliationMismatch> mismatches) {
+        if (account == null || lastSnapshot == null || lastSnapshot.equals(account[2])) {
+            return;
+        }
+        addMismatch(result, mismatches, ReconciliationMismatch.builder()
+                .runId(runId)
+                .accountId((Long) account[0])
+                .accountNumber((String) account[1])
+                .mismatchType(ReconciliationMismatchType.BALANCE)
+                .expected(lastSnapshot)
+                .actual((Long) account[2])
+                .build());
+    }
+
+    private void addMismatch(RangeResult result, List<ReconciliationMismatch> mismatches,
+                             ReconciliationMismatch mismatch) {
+        result.mismatches++;
+        // 리포트 테이블에는 구간당 상한까지만 남긴다. (건수는 모두 센다)
+        if (mismatches.size() < maxMismatchesPerRange) {
+            mismatches.add(mismatch);
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private final Run run;
+        private final long fromId;
+        private final long toId;
+
+        RangeTask(Run run, long fromId, long toId) {
+            this.run = run;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId < rangeSize) {
+                reconcileRange(run, fromId, toId);
+                return;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            invokeAll(new RangeTask(run, fromId, middle), new RangeTask(run, middle + 1, toId));
+        }
+    }
+
+    private static class Run {
+        private final String id;
+        private final AtomicLong accounts = new AtomicLong();
+        private final AtomicLong transactions = new AtomicLong();
+        private final AtomicLong mismatches = new AtomicLong();
+        private final Map<String, WorkerStats> workers = new ConcurrentHashMap<>();
+
+        Run(String id) {
+            this.id = id;
+        }
+    }
+
+    private static class RangeResult {
+        private long accounts;
+        private long transactions;
+        private long mismatches;
+    }
+
+    private static class WorkerStats {
+        private final AtomicLong ranges = new AtomicLong();
+        private final AtomicLong transactions = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+
+        void add(long transactionCount, long nanos) {
+            ranges.incrementAndGet();
+            transactions.addAndGet(transactionCount);
+            busyNanos.addAndGet(nanos);
+        }
+
+        ReconciliationReport.WorkerThroughput toThroughput(String worker) {
+            long nanos = busyNanos.get();
+            return ReconciliationReport.WorkerThroughput.builder()
+                    .worker(worker)
+                    .ranges(ranges.get())
+                    .transactions(transactions.get())
+                    .busyMillis(nanos / 1_000_000)
+                    .transactionsPerSecond(nanos == 0 ? 0.0 : transactions.get() * 1_000_000_000.0 / nanos)
+                    .build();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.accountservicezerobase.service;
 
+import com.example.accountservicezerobase.profiling.LockProfiler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.TimeUnit;
@@ -12,13 +14,23 @@ import java.util.concurrent.TimeUnit;
 @Service
 @RequiredArgsConstructor
 public class RedisTestService {
-    private final RedissonClient redissonClient;
+    private final ObjectProvider<RedissonClient> redissonClient;
+    private final LockProfiler lockProfiler;
 
     public String getLock() {
-        RLock lock = redissonClient.getLock("sampleLock");
+        RedissonClient client = redissonClient.getIfAvailable();
+        if (client == null) {
+            log.error("Redis is disabled");
+            return "Lock failed";
+        }
+
+        RLock lock = client.getLock("sampleLock");
 
         try {
+            long lockStartedAt = System.nanoTime();
             boolean isLock = lock.tryLock(1, 5, TimeUnit.SECONDS);
+            // lease 만료로 풀리는 락이라 점유 시간은 남기지 않는다.
+            lockProfiler.record("redis-lock", "sampleLock", System.nanoTime() - lockStartedAt, 0L);
             if(!isLock) {
                 log.error("======Lock acquisition failed=====");
                 return "Lock failed";
@@ -30,4 +42,3 @@ public class RedisTestService {
         return "Lock success";
     }
 }
-
@@ -0,0 +1,282 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.sequencer.BalanceCommand;
+import com.example.accountservicezerobase.sequencer.PartitionedSequencer;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.accountservicezerobase.service.TransactionService.CANCELABLE_PERIOD;
+import static com.example.accountservicezerobase.type.TransactionResultType.F;
+import static com.example.accountservicezerobase.type.TransactionResultType.S;
+import static com.example.accountservicezerobase.type.TransactionType.CANCEL;
+import static com.example.accountservicezerobase.type.TransactionType.USE;
+
+/**
+ * 파티션 단일 writer 방식의 잔액 사용/취소
+ * 파티션 writer 가 자기 계좌의 잔액을 메모리에 들고 순서대로 적용하고,
+ * 한 묶음의 거래/잔액 변경을 하나의 DB 트랜잭션으로 기록한 뒤 future 를 완료한다.
+ * 이 모드를 켜면 잔액 변경은 모두 sequencer 를 거쳐야 한다. (writer 캐시가 DB 를 다시 읽지 않는다)
+ * 그래서 /transaction/use, cancel, transfer, 승인(hold), 바이너리 리스너는 이 모드에서 받지 않는다.
+ * 잔액은 읽었던 version 을 조건으로 증분만 반영하므로, 그래도 다른 경로(승인 만료 등)가 계좌를 바꿨으면
+ * 덮어쓰지 않고 묶음을 실패시킨 뒤 캐시를 버린다. (다음 요청은 DB 에서 다시 읽는다)
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "sequencer", name = "enabled", havingValue = "true")
+public class SequencedTransactionService implements PartitionedSequencer.BatchHandler {
+    /**
+     * writer 스레드 전용 계좌 상태
+     */
+    private static class AccountState {
+        private final Long id;
+        private final Long ownerUserId;
+        private final String accountNumber;
+        private final AccountStatus accountStatus;
+        private final long heldAmount;
+        private long balance;
+        private long version;
+
+        private AccountState(Account account) {
+            this.id = account.getId();
+            this.ownerUserId = account.getAccountUser().getId();
+            this.accountNumber = account.getAccountNumber();
+            this.accountStatus = account.getAccountStatus();
+            this.heldAmount = account.getHeldAmount();
+            this.balance = account.getBalance();
+            this.version = account.getVersion();
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionedSequencer sequencer;
+    private final List<Map<String, AccountState>> accountCaches = new ArrayList<>();
+
+    public SequencedTransactionService(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            ApplicationEventPublisher applicationEventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${sequencer.partitions:4}") int partitions,
+            @Value("${sequencer.ring-size:4096}") int ringSize,
+            @Value("${sequencer.max-batch:256}") int maxBatch,
+            @Value("${sequencer.publish-timeout:50ms}") Duration publishTimeout,
+            @Value("${sequencer.account-cache-size:100000}") int accountCacheSize) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        int cachePerPartition = Math.max(1, accountCacheSize / partitions);
+        for (int i = 0; i < partitions; i++) {
+            accountCaches.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AccountState> eldest) {
+                    return size() > cachePerPartition;
+                }
+            });
+        }
+        this.sequencer = new PartitionedSequencer(partitions, ringSize, maxBatch,
+                publishTimeout.toNanos(), this);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sequencer.close();
+    }
+
+    public CompletableFuture<TransactionDto> useBalance(Long userId, String accountNumber, Long amount) {
+        return sequencer.submit(USE, userId, accountNumber, null, amount);
+    }
+
+    public CompletableFuture<TransactionDto> cancelBalance(String transactionId, String accountNumber, Long amount) {
+        return sequencer.submit(CANCEL, 0L, accountNumber, transactionId, amount);
+    }
+
+    /**
+     * 묶음을 순서대로 메모리 상태에 적용하고, 거래(성공/실패)와 바뀐 잔액을 한 번에 기록한다.
+     * 기록에 실패하면 묶음 전체를 실패시키고 관련 계좌 캐시를 버린다.
+     * 잔액은 묶음 시작 때와의 차이만큼 version 조건부 update 로 더한다.
+     */
+    @Override
+    public void handle(int partition, BalanceCommand[] batch, int count) {
+        Map<String, AccountState> cache = accountCaches.get(partition);
+        Transaction[] results = new Transaction[count];
+        AccountException[] failures = new AccountException[count];
+        // 바뀐 계좌 -> 묶음 시작 때의 잔액
+        Map<AccountState, Long> dirty = new IdentityHashMap<>();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // 같은 묶음 안에서 만들어진 거래도 바로 취소할 수 있어야 한다.
+                Map<String, Transaction> created = new HashMap<>();
+                List<Transaction> transactions = new ArrayList<>(count);
+                List<AccountState> transactionStates = new ArrayList<>(count);
+
+                for (int i = 0; i < count; i++) {
+                    BalanceCommand command = batch[i];
+                    AccountState state = null;
+                    try {
+                        state = load(cache, command.accountNumber);
+                        long balanceBefore = state.balance;
+                        if (command.transactionType == USE) {
+                            validateUseBalance(state, command);
+                            state.balance -= command.amount;
+                        } else {
+                            validateCancelBalance(findTransaction(created, command.transactionId), state, command);
+                            state.balance += command.amount;
+                        }
+                        dirty.putIfAbsent(state, balanceBefore);
+                        results[i] = newTransaction(command.transactionType, S, null, state, command.amount);
+                        created.put(results[i].getTransactionId(), results[i]);
+                        transactions.add(results[i]);
+                        transactionStates.add(state);
+                    } catch (AccountException e) {
+                        failures[i] = e;
+                        if (state != null) {
+                            transactions.add(newTransaction(command.transactionType, F, e.getErrorCode(),
+                                    state, command.amount));
+                            transactionStates.add(state);
+                        }
+                    }
+                }
+
+                transactionRepository.saveAll(transactions);
+                dirty.forEach((state, balanceBefore) -> {
+                    if (accountRepository.addBalance(state.id, state.balance - balanceBefore, state.version) == 0) {
+                        throw new ObjectOptimisticLockingFailureException(Account.class, state.id);
+                    }
+                    state.version++;
+                });
+                for (int i = 0; i < transactions.size(); i++) {
+                    applicationEventPublisher.publishEvent(
+                            toEvent(transactions.get(i), transactionStates.get(i).accountNumber));
+                }
+            });
+        } catch (RuntimeException e) {
+            dirty.keySet().forEach(state -> cache.remove(state.accountNumber));
+            throw e;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (failures[i] != null) {
+                batch[i].future.completeExceptionally(failures[i]);
+            } else {
+                batch[i].future.complete(toDto(results[i], batch[i].accountNumber));
+            }
+        }
+    }
+
+    private AccountState load(Map<String, AccountState> cache, String accountNumber) {
+        AccountState state = cache.get(accountNumber);
+        if (state == null) {
+            state = new AccountState(accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND)));
+            cache.put(accountNumber, state);
+        }
+        return state;
+    }
+
+    private Transaction findTransaction(Map<String, Transaction> created, String transactionId) {
+        Transaction transaction = created.get(transactionId);
+        if (transaction != null) {
+            return transaction;
+        }
+        return transactionRepository.findByTransactionId(transactionId)
+                .orElseThrow(() -> AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND));
+    }
+
+    private void validateUseBalance(AccountState state, BalanceCommand command) {
+        if (!Objects.equals(state.ownerUserId, command.userId)) {
+            throw AccountException.of(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+        if (state.accountStatus != AccountStatus.IN_USE) {
+            throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        if (state.balance - state.heldAmount < command.amount) {
+            throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+    }
+
+    private void validateCancelBalance(Transaction transaction, AccountState state, BalanceCommand command) {
+        if (transaction.getLinkedTransactionId() != null) {
+            throw AccountException.of(ErrorCode.TRANSFER_CANNOT_BE_CANCELED);
+        }
+        if (!Objects.equals(transaction.getAccount().getId(), state.id)) {
+            throw AccountException.of(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
+        }
+        if (!Objects.equals(transaction.getAmount(), command.amount)) {
+            throw AccountException.of(ErrorCode.CANCEL_MUST_FULLY);
+        }
+        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minus(CANCELABLE_PERIOD))) {
+            throw AccountException.of(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        }
+    }
+
+    // 계좌 프록시를 초기화하지 않도록 계좌번호는 writer 상태에서 가져온다.
+    private static TransactionDto toDto(Transaction transaction, String accountNumber) {
+        return TransactionDto.builder()
+                .accountNumber(accountNumber)
+                .transactionType(transaction.getTransactionType())
+                .transactionResultType(transaction.getTransactionResultType())
+                .amount(transaction.getAmount())
+                .balanceSnapshot(transaction.getBalanceSnapshot())
+                .transactionId(transaction.getTransactionId())
+                .transactedAt(transaction.getTransactedAt())
+                .build();
+    }
+
+    private static TransactionSavedEvent toEvent(Transaction transaction, String accountNumber) {
+        return TransactionSavedEvent.builder()
+                .id(transaction.getId())
+                .accountId(transaction.getAccount().getId())
+                .accountNumber(accountNumber)
+                .transactionId(transaction.getTransactionId())
+                .transactionType(transaction.getTransactionType())
+                .transactionResultType(transaction.getTransactionResultType())
+                .errorCode(transaction.getErrorCode())
+                .amount(transaction.getAmount())
+                .balanceSnapshot(transaction.getBalanceSnapshot())
+                .transactedAt(transaction.getTransactedAt())
+                .build();
+    }
+
+    private Transaction newTransaction(TransactionType transactionType, TransactionResultType transactionResultType,
+                                       ErrorCode errorCode, AccountState state, long amount) {
+        Account account = accountRepository.getReferenceById(state.id);
+        return Transaction.builder()
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .errorCode(errorCode)
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(state.balance)
+                .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.archive.TransactionArchiveStore;
+import com.example.accountservicezerobase.domain.FailedTransactionAggregate;
+import com.example.accountservicezerobase.dto.LedgerEntry;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.FailedTransactionAggregateRepository;
+import com.example.accountservicezerobase.service.SpendRollupService.Delta;
+import com.example.accountservicezerobase.service.SpendRollupService.RollupKey;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * rollup 재계산
+ * 1. 운영 테이블 : 계좌 id 구간별로 fork-join pool 에서 병렬 집계
+ * 2. 보관 세그먼트 : 블록 단위로 순차 집계
+ * 3. 실패 거래 집계 : 시간 단위 집계를 일 단위로 합산
+ * 집계 결과는 flushThreshold 개의 키마다 sink 로 넘겨 메모리 사용량을 제한한다.
+ * 세 단계를 읽는 동안 보관/압축이 거래를 옮기지 못하도록 TransactionMaintenanceLock 을 쥔다.
+ */
+@Component
+public class SpendRollupRebuilder {
+    private static final int FLUSH_THRESHOLD = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final FailedTransactionAggregateRepository failedTransactionAggregateRepository;
+    private final TransactionArchiveStore transactionArchiveStore;
+    private final TransactionMaintenanceLock maintenanceLock;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int parallelism;
+    private final long rangeSize;
+    private final int fetchSize;
+
+    public SpendRollupRebuilder(
+            AccountRepository accountRepository,
+            FailedTransactionAggregateRepository failedTransactionAggregateRepository,
+            TransactionArchiveStore transactionArchiveStore,
+            TransactionMaintenanceLock maintenanceLock,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${rollup.rebuild.parallelism:4}") int parallelism,
+            @Value("${rollup.rebuild.range-size:10000}") long rangeSize,
+            @Value("${rollup.rebuild.fetch-size:1000}") int fetchSize) {
+        this.accountRepository = accountRepository;
+        this.failedTransactionAggregateRepository = failedTransactionAggregateRepository;
+        this.transactionArchiveStore = transactionArchiveStore;
+        this.maintenanceLock = maintenanceLock;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.fetchSize = fetchSize;
+    }
+
+    public long rebuild(long cutoffId, Consumer<Map<RollupKey, Delta>> sink) {
+        AtomicLong replayed = new AtomicLong();
+
+        maintenanceLock.lock();
+        try {
+            Long minId = accountRepository.findMinId();
+            Long maxId = accountRepository.findMaxId();
+            if (minId != null) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    pool.invoke(new RangeTask(minId, maxId, cutoffId, sink, replayed));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            replayed.addAndGet(rebuildFromArchive(sink));
+            replayed.addAndGet(rebuildFromFailedAggregates(sink));
+        } finally {
+            maintenanceLock.unlock();
+        }
+        return replayed.get();
+    }
+
+    private long rebuildRange(long fromId, long toId, long cutoffId, Consumer<Map<RollupKey, Delta>> sink) {
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        long count = readOnlyTransactionTemplate.execute(status -> {
+            long rows = 0;
+            try (Stream<LedgerEntry> entries = entityManager.createQuery(
+                            "select new com.example.accountservicezerobase.dto.LedgerEntry(" +
+                                    "t.account.id, t.transactionType, t.transactionResultType, " +
+                                    "t.amount, t.balanceSnapshot, t.transactionId, t.transactedAt) " +
+                                    "from Transaction t " +
+                                    "where t.account.id between :fromId and :toId and t.id <= :cutoffId",
+                            LedgerEntry.class)
+                    .setParameter("fromId", fromId)
+                    .setParameter("toId", toId)
+                    .setParameter("cutoffId", cutoffId)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .getResultStream()) {
+                for (LedgerEntry entry : (Iterable<LedgerEntry>) entries::iterator) {
+                    rows++;
+                    add(deltas, new RollupKey(entry.getAccountId(), entry.getTransactedAt().toLocalDate(),
+                            entry.getTransactionType(), entry.getTransactionResultType()), entry.getAmount(), 1, sink);
+                }
+            }
+            return rows;
+        });
+
+        if (!deltas.isEmpty()) {
+            sink.accept(deltas);
+        }
+        return count;
+    }
+
+    private long rebuildFromArchive(Consumer<Map<RollupKey, Delta>> sink) {
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        Map<String, Long> accountIds = new HashMap<>();
+        AtomicLong rows = new AtomicLong();
+
+        transactionArchiveStore.forEach(row -> {
+            Long accountId = accountIds.computeIfAbsent(row.getAccountNumber(), accountNumber ->
+                    accountRepository.findByAccountNumber(accountNumber).map(account -> account.getId()).orElse(null));
+            if (accountId == null) {
+                return;
+            }
+            rows.incrementAndGet();
+            add(deltas, new RollupKey(accountId, row.getTransactedAt().toLocalDate(),
+                    row.getTransactionType(), row.getTransactionResultType()), row.getAmount(), 1, sink);
+        });
+
+        if (!deltas.isEmpty()) {
+            sink.accept(deltas);
+        }
+        return rows.get();
+    }
+
+    private long rebuildFromFailedAggregates(Consumer<Map<RollupKey, Delta>> sink) {
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        long rows = 0;
+
+        Slice<FailedTransactionAggregate> page;
+        int pageNumber = 0;
+        do {
+            page = failedTransactionAggregateRepository.findAll(PageRequest.of(pageNumber++, 1000, Sort.by("id")));
+            for (FailedTransactionAggregate aggregate : page) {
+                rows += aggregate.getFailedCount();
+                add(deltas, new RollupKey(aggregate.getAccount().getId(), aggregate.getHourBucket().toLocalDate(),
+                                aggregate.getTransactionType(), TransactionResultType.F),
+                        aggregate.getTotalAmount(), aggregate.getFailedCount(), sink);
+            }
+        } while (page.hasNext());
+
+        if (!deltas.isEmpty()) {
+            sink.accept(deltas);
+        }
+        return rows;
+    }
+
+    private void add(Map<RollupKey, Delta> deltas, RollupKey key, long amount, long count,
+                     Consumer<Map<RollupKey, Delta>> sink) {
+        deltas.merge(key, new Delta(amount, count), Delta::plus);
+        if (deltas.size() >= FLUSH_THRESHOLD) {
+            sink.accept(new HashMap<>(deltas));
+            deltas.clear();
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private final long fromId;
+        private final long toId;
+        private final long cutoffId;
+        private final Consumer<Map<RollupKey, Delta>> sink;
+        private final AtomicLong replayed;
+
+        RangeTask(long fromId, long toId, long cutoffId, Consumer<Map<RollupKey, Delta>> sink, AtomicLong replayed) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.cutoffId = cutoffId;
+            this.sink = sink;
+            this.replayed = replayed;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId < rangeSize) {
+                replayed.addAndGet(rebuildRange(fromId, toId, cutoffId, sink));
+                return;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            invokeAll(new RangeTask(fromId, middle, cutoffId, sink, replayed),
+                    new RangeTask(middle + 1, toId, cutoffId, sink, replayed));
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.DailySpendRollup;
+import com.example.accountservicezerobase.domain.MonthlySpendRollup;
+import com.example.accountservicezerobase.dto.SpendRollupDto;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.DailySpendRollupRepository;
+import com.example.accountservicezerobase.repository.MonthlySpendRollupRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.shard.ShardContext;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 계좌별 일/월 거래 합계 (rollup)
+ * 커밋된 거래를 메모리에 모아 두었다가 주기적으로 한 번에 반영한다.
+ * 반영 전에 프로세스가 죽으면 그만큼 누락되므로, 필요하면 rebuild 로 원본에서 다시 계산한다.
+ */
+@Slf4j
+@Service
+public class SpendRollupService {
+    public record RollupKey(
+            Long accountId,
+            LocalDate day,
+            TransactionType transactionType,
+            TransactionResultType transactionResultType) {
+    }
+
+    public record Delta(long amount, long count) {
+        Delta plus(Delta other) {
+            return new Delta(amount + other.amount, count + other.count);
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final DailySpendRollupRepository dailySpendRollupRepository;
+    private final MonthlySpendRollupRepository monthlySpendRollupRepository;
+    private final SpendRollupRebuilder spendRollupRebuilder;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    /**
+     * 버퍼 키. 샤딩 시 계좌가 있는 샤드에 반영하도록 계좌번호를 함께 담는다. (flush 시점의 샤드 범위로 고른다)
+     * 버퍼와 함께 비워지므로 계좌 수만큼 쌓이지 않는다.
+     */
+    private record BufferedKey(String accountNumber, RollupKey rollupKey) {
+    }
+
+    private final ConcurrentHashMap<BufferedKey, Delta> buffer = new ConcurrentHashMap<>();
+    // 저장됐지만 아직 커밋/롤백되지 않은 거래 id. rebuild 는 cutoff 이하가 모두 끝난 뒤 원본을 읽는다.
+    private final Set<Long> inFlightTransactionIds = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // rebuild 가 원본에서 다시 센 거래는 버퍼에 넣지 않는다.
+    private volatile long ignoreUpToTransactionId = 0L;
+    private final Duration rebuildDrainTimeout;
+
+    public SpendRollupService(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            DailySpendRollupRepository dailySpendRollupRepository,
+            MonthlySpendRollupRepository monthlySpendRollupRepository,
+            SpendRollupRebuilder spendRollupRebuilder,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<ShardRouter> shardRouter,
+            @Value("${rollup.rebuild.drain-timeout:10s}") Duration rebuildDrainTimeout) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.dailySpendRollupRepository = dailySpendRollupRepository;
+        this.monthlySpendRollupRepository = monthlySpendRollupRepository;
+        this.spendRollupRebuilder = spendRollupRebuilder;
+        // rebuild 중에는 읽기 전용 트랜잭션 안에서 호출되므로 항상 새 트랜잭션으로 반영한다.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter.getIfAvailable();
+        this.rebuildDrainTimeout = rebuildDrainTimeout;
+    }
+
+    /**
+     * 거래를 저장한 트랜잭션 안에서 불린다. 끝날 때(커밋 / 롤백)까지 진행 중으로 기록한다.
+     * 커밋 후 onTransactionSaved 가 버퍼에 넣은 다음 afterCompletion 에서 지워진다.
+     */
+    @EventListener
+    public void onTransactionSaving(TransactionSavedEvent event) {
+        Long id = event.getId();
+        if (id == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !inFlightTransactionIds.add(id)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                inFlightTransactionIds.remove(id);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionSaved(TransactionSavedEvent event) {
+        if (event.getId() != null && event.getId() <= ignoreUpToTransactionId) {
+            return;
+        }
+        buffer.merge(new BufferedKey(
+                        shardRouter != null ? event.getAccountNumber() : null,
+                        new RollupKey(
+                                event.getAccountId(),
+                                event.getTransactedAt().toLocalDate(),
+                                event.getTransactionType(),
+                                event.getTransactionResultType())),
+                new Delta(event.getAmount(), 1), Delta::plus);
+    }
+
+    @Scheduled(fixedDelayString = "${rollup.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushBuffered();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBuffered() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+
+        Map<BufferedKey, Delta> drained = new HashMap<>();
+        for (BufferedKey key : buffer.keySet()) {
+            Delta delta = buffer.remove(key);
+            if (delta != null) {
+                drained.put(key, delta);
+            }
+        }
+
+        if (shardRouter == null) {
+            applyOrRequeue(drained);
+            return;
+        }
+        Map<String, Map<BufferedKey, Delta>> byShard = new HashMap<>();
+        drained.forEach((key, delta) -> byShard
+                .computeIfAbsent(shardRouter.shardOfAccount(key.accountNumber()), shard -> new HashMap<>())
+                .put(key, delta));
+        byShard.forEach((shard, deltas) -> ShardContext.run(shard, () -> applyOrRequeue(deltas)));
+    }
+
+    private void applyOrRequeue(Map<BufferedKey, Delta> deltas) {
+        try {
+            Map<RollupKey, Delta> dailyDeltas = new HashMap<>();
+            deltas.forEach((key, delta) -> dailyDeltas.merge(key.rollupKey(), delta, Delta::plus));
+            apply(dailyDeltas);
+        } catch (RuntimeException e) {
+            // 다음 주기에 다시 시도한다.
+            log.warn("Failed to flush {} rollup deltas", deltas.size(), e);
+            deltas.forEach((key, delta) -> buffer.merge(key, delta, Delta::plus));
+        }
+    }
+
+    /**
+     * 일별 증분을 일/월 rollup 에 더한다. 없는 행은 새로 만든다.
+     */
+    public void apply(Map<RollupKey, Delta> dailyDeltas) {
+        Map<RollupKey, Delta> monthlyDeltas = new HashMap<>();
+        dailyDeltas.forEach((key, delta) -> monthlyDeltas.merge(new RollupKey(
+                        key.accountId(),
+                        key.day().withDayOfMonth(1),
+                        key.transactionType(),
+                        key.transactionResultType()),
+                delta, Delta::plus));
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyDeltas.forEach((key, delta) -> {
+                if (dailySpendRollupRepository.addTo(key.accountId(), key.day(), key.transactionType(),
+                        key.transactionResultType(), delta.amount(), delta.count(), now) == 0) {
+                    dailySpendRollupRepository.save(DailySpendRollup.builder()
+                            .account(accountRepository.getReferenceById(key.accountId()))
+                            .rollupDate(key.day())
+                            .transactionType(key.transactionType())
+                            .transactionResultType(key.transactionResultType())
+                            .totalAmount(delta.amount())
+                            .transactionCount(delta.count())
+                            .build());
+                }
+            });
+            monthlyDeltas.forEach((key, delta) -> {
+                if (monthlySpendRollupRepository.addTo(key.accountId(), key.day(), key.transactionType(),
+                        key.transactionResultType(), delta.amount(), delta.count(), now) == 0) {
+                    monthlySpendRollupRepository.save(MonthlySpendRollup.builder()
+                            .account(accountRepository.getReferenceById(key.accountId()))
+                            .rollupMonth(key.day())
+                            .transactionType(key.transactionType())
+                            .transactionResultType(key.transactionResultType())
+                            .totalAmount(delta.amount())
+                            .transactionCount(delta.count())
+                            .build());
+                }
+            });
+        });
+    }
+
+    /**
+     * rollup 을 비우고 원본(운영 테이블, 보관 세그먼트, 실패 집계)에서 다시 계산한다.
+     * 재계산 기준점(cutoff) 이후의 거래는 평소처럼 버퍼를 통해 반영된다.
+     * cutoff 이하 id 를 받고 아직 커밋되지 않은 거래가 끝날 때까지 기다린 뒤 원본을 읽는다.
+     * (기다리지 않으면 원본 읽기 뒤에 커밋된 거래가 양쪽 모두에서 빠진다)
+     */
+    public long rebuild() {
+        flushLock.lock();
+        try {
+            long cutoffId = Optional.ofNullable(transactionRepository.findMaxId()).orElse(0L);
+            ignoreUpToTransactionId = Math.max(ignoreUpToTransactionId, cutoffId);
+            awaitInFlightUpTo(cutoffId);
+            buffer.clear();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                dailySpendRollupRepository.deleteAllInBatch();
+                monthlySpendRollupRepository.deleteAllInBatch();
+            });
+
+            long replayed = spendRollupRebuilder.rebuild(cutoffId, this::apply);
+            log.info("Rebuilt spend rollups from {} transactions (cutoff id {})", replayed, cutoffId);
+            return replayed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void awaitInFlightUpTo(long cutoffId) {
+        long deadline = System.nanoTime() + rebuildDrainTimeout.toNanos();
+        while (inFlightTransactionIds.stream().anyMatch(id -> id <= cutoffId)) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("transactions up to id " + cutoffId
+                        + " are still in flight after " + rebuildDrainTimeout + ", rollup rebuild aborted");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("rollup rebuild interrupted", e);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpendRollupDto> getDailyRollups(String accountNumber, LocalDate from, LocalDate to) {
+        return dailySpendRollupRepository
+                .findByAccountAndRollupDateBetweenOrderByRollupDateAsc(getAccount(accountNumber), from, to)
+                .stream()
+                .map(SpendRollupDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpendRollupDto> getMonthlyRollups(String accountNumber, YearMonth from, YearMonth to) {
+        return monthlySpendRollupRepository
+                .findByAccountAndRollupMonthBetweenOrderByRollupMonthAsc(
+                        getAccount(accountNumber), from.atDay(1), to.atDay(1))
+                .stream()
+                .map(SpendRollupDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    private Account getAccount(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+    }
+}
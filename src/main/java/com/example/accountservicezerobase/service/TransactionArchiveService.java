@@ -0,0 +1,118 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.archive.ArchiveSegment;
+import com.example.accountservicezerobase.archive.TransactionArchiveStore;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 취소 가능 기간이 지난 거래를 보관 세그먼트로 옮긴다.
+ * 1. id 순서로 chunk 단위 조회
+ * 2. segmentRows 만큼 모이면 세그먼트 파일로 기록 (fsync 후 rename)
+ * 3. 세그먼트가 기록된 뒤에만 원본 거래를 chunk 단위로 삭제
+ * 2 와 3 사이에 중단되면 원본이 남는다. 세그먼트를 쓰면 그 원본을 지운 뒤에야 다음 세그먼트를 쓰므로,
+ * 남을 수 있는 것은 마지막 세그먼트의 거래뿐이다. 다음 실행은 그 세그먼트에 이미 들어간 거래를 다시 보관하지 않고 삭제만 한다.
+ * rollup 재계산과 겹치지 않도록 실행 내내 TransactionMaintenanceLock 을 쥔다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionArchiveService {
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveStore transactionArchiveStore;
+    private final TransactionMaintenanceLock maintenanceLock;
+
+    @Value("${archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${archive.segment-rows:100000}")
+    private int segmentRows;
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        try {
+            archiveExpiredTransactions();
+        } catch (IOException e) {
+            log.error("Failed to archive transactions", e);
+        }
+    }
+
+    public long archiveExpiredTransactions() throws IOException {
+        maintenanceLock.lock();
+        try {
+            return archive();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private long archive() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(TransactionService.CANCELABLE_PERIOD);
+        List<TransactionDto> rows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        // 지난 실행이 세그먼트를 쓰고 지우기 전에 중단되어 남은 원본
+        List<Long> alreadyArchivedIds = new ArrayList<>();
+        ArchiveSegment lastSegment = transactionArchiveStore.getLastSegment();
+        long lastId = 0L;
+        long archived = 0L;
+
+        while (true) {
+            List<Transaction> chunk = transactionRepository
+                    .findByTransactedAtBeforeAndIdGreaterThanOrderByIdAsc(
+                            cutoff, lastId, PageRequest.of(0, chunkSize));
+
+            for (Transaction transaction : chunk) {
+                lastId = transaction.getId();
+                if (lastSegment != null
+                        && lastSegment.containsSource(transaction.getId(), transaction.getTransactionId())) {
+                    alreadyArchivedIds.add(transaction.getId());
+                    continue;
+                }
+                rows.add(TransactionDto.fromEntity(transaction));
+                ids.add(transaction.getId());
+            }
+            if (!alreadyArchivedIds.isEmpty()) {
+                transactionRepository.deleteAllByIdInBatch(new ArrayList<>(alreadyArchivedIds));
+                log.info("Deleted {} transactions already in the last archive segment", alreadyArchivedIds.size());
+                alreadyArchivedIds.clear();
+            }
+
+            boolean lastChunk = chunk.size() < chunkSize;
+            if (rows.size() >= segmentRows || (lastChunk && !rows.isEmpty())) {
+                archived += flushSegment(rows, ids);
+            }
+            if (lastChunk) {
+                break;
+            }
+        }
+
+        log.info("Archived {} transactions older than {}", archived, cutoff);
+        return archived;
+    }
+
+    private int flushSegment(List<TransactionDto> rows, List<Long> ids) throws IOException {
+        transactionArchiveStore.append(rows, ids.get(ids.size() - 1));
+
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            transactionRepository.deleteAllByIdInBatch(
+                    new ArrayList<>(ids.subList(start, Math.min(start + chunkSize, ids.size()))));
+        }
+
+        int flushed = rows.size();
+        rows.clear();
+        ids.clear();
+        return flushed;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.accountservicezerobase.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 운영 거래를 다른 곳으로 옮기는 작업(보관, 실패 거래 압축)과 rollup 재계산이 겹치지 않게 한다.
+ * 재계산은 운영 테이블, 보관 세그먼트, 실패 집계를 차례로 읽으므로, 그 사이에 거래가 옮겨지면 두 번 세거나 빠뜨린다.
+ * 세 작업 모두 이 인스턴스 안에서 도는 배치이므로 프로세스 안의 락으로 충분하다.
+ */
+@Component
+public class TransactionMaintenanceLock {
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public void lock() {
+        lock.lock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+}
@@ -1,132 +1,376 @@
 package com.example.accountservicezerobase.service;
 
+import com.example.accountservicezerobase.archive.TransactionArchiveStore;
+import com.example.accountservicezerobase.cluster.OwnerAccountCache;
 import com.example.accountservicezerobase.domain.Account;
 import com.example.accountservicezerobase.domain.AccountUser;
 import com.example.accountservicezerobase.domain.Transaction;
 import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.dto.TransferBatch;
+import com.example.accountservicezerobase.dto.TransferDto;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
 import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.RowLockTimer;
+import com.example.accountservicezerobase.profiling.TransactionPhaseRecorder;
 import com.example.accountservicezerobase.repository.AccountRepository;
 import com.example.accountservicezerobase.repository.AccountUserRepository;
 import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.retry.RetryOnConflict;
+import com.example.accountservicezerobase.shard.ShardRouted;
+import com.example.accountservicezerobase.shard.ShardRouter;
 import com.example.accountservicezerobase.type.AccountStatus;
 import com.example.accountservicezerobase.type.ErrorCode;
 import com.example.accountservicezerobase.type.TransactionResultType;
 import com.example.accountservicezerobase.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Objects;
-import java.util.UUID;
+import java.time.Period;
+import java.util.*;
 
+import static com.example.accountservicezerobase.profiling.TransactionPhase.*;
 import static com.example.accountservicezerobase.type.TransactionResultType.F;
 import static com.example.accountservicezerobase.type.TransactionResultType.S;
-import static com.example.accountservicezerobase.type.TransactionType.CANCEL;
-import static com.example.accountservicezerobase.type.TransactionType.USE;
+import static com.example.accountservicezerobase.type.TransactionType.*;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+    /**
+     * 이 기간이 지난 거래는 취소할 수 없고, 보관 세그먼트로 옮겨진다.
+     */
+    public static final Period CANCELABLE_PERIOD = Period.ofYears(1);
+
     private final TransactionRepository transactionRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountRepository accountRepository;
+    private final TransactionArchiveStore transactionArchiveStore;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final ObjectProvider<OwnerAccountCache> ownerAccountCache;
 
+    @RetryOnConflict(value = "useBalance", accountArg = 1)
+    @ShardRouted(accountArg = 1)
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
-        AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+        TransactionPhaseRecorder phases = TransactionPhaseRecorder.start(USE, accountNumber, USER_LOOKUP);
+        try {
+            OwnerAccountCache cache = ownerAccountCache.getIfAvailable();
+            if (cache != null) {
+                Transaction transaction = useCachedBalance(cache, phases, userId, accountNumber, amount);
+                if (transaction != null) {
+                    return TransactionDto.fromEntity(transaction);
+                }
+            }
 
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+            AccountUser accountUser = accountUserRepository.findById(userId)
+                    .orElseThrow(() -> AccountException.of(ErrorCode.USER_NOT_FOUND));
 
-        validateUseBalance(accountUser, account, amount);
+            phases.next(ACCOUNT_LOOKUP);
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        account.useBalance(amount);
+            phases.next(VALIDATION);
+            validateUseBalance(accountUser, account, amount);
+
+            phases.next(BALANCE_MUTATION);
+            account.useBalance(amount);
+
+            phases.next(LOCK_ACQUISITION);
+            flushAccountUpdate();
+            if (cache != null) {
+                cache.putAfterCommit(account);
+            }
+
+            phases.next(TRANSACTION_INSERT);
+            Transaction transaction = saveAndGetTransaction(USE, S, account, amount, null);
 
-        Transaction transaction = saveAndGetTransaction(USE, S, account, amount);
+            return TransactionDto.fromEntity(transaction);
+        } catch (RuntimeException e) {
+            phases.failed(e);
+            throw e;
+        } finally {
+            phases.end();
+        }
+    }
+
+    /**
+     * 클러스터 소유 노드에서는 캐시한 계좌 상태로 검증하고 그 version 일 때만 잔액을 뺀다. 사용자/계좌 조회를 건너뛴다.
+     * 캐시가 없거나, 캐시로는 거절해야 하거나, 그 사이 다른 경로가 계좌를 바꿨으면 null 을 돌려주고 DB 에서 다시 읽어 처리한다.
+     */
+    private Transaction useCachedBalance(OwnerAccountCache cache, TransactionPhaseRecorder phases,
+                                         Long userId, String accountNumber, Long amount) {
+        OwnerAccountCache.Entry cached = cache.get(accountNumber);
+        if (cached == null || !cached.userId().equals(userId)
+                || cached.accountStatus() != AccountStatus.IN_USE || cached.availableBalance() < amount) {
+            return null;
+        }
+
+        phases.next(LOCK_ACQUISITION);
+        if (RowLockTimer.lock(() -> accountRepository.addBalance(cached.id(), -amount, cached.version())) == 0) {
+            cache.evict(accountNumber);
+            phases.next(USER_LOOKUP);
+            return null;
+        }
+        Account account = cached.toAccount();
+        account.useBalance(amount);
+        account.setVersion(cached.version() + 1);
+        cache.putAfterCommit(account);
 
-        return TransactionDto.fromEntity(transaction);
+        phases.next(TRANSACTION_INSERT);
+        return saveAndGetTransaction(USE, S, account, amount, null);
     }
 
     private void validateUseBalance(AccountUser accountUser, Account account, Long amount) {
         if (accountUser.getId() != account.getAccountUser().getId()) {
-            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+            throw AccountException.of(ErrorCode.USER_ACCOUNT_UN_MATCH);
         }
         if (account.getAccountStatus() != AccountStatus.IN_USE) {
-            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
-        if (account.getBalance() < amount) {
-            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        if (account.getAvailableBalance() < amount) {
+            throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
     }
 
+    /**
+     * 계좌 UPDATE(버전 확인, 행 잠금)를 거래 insert 보다 먼저 보낸다.
+     * JFR 녹화 여부와 상관없이 항상 같은 순서로 보내므로 잠금 구간과 행 잠금 점유 시간이 녹화 때문에 달라지지 않는다.
+     * 거래 insert 는 커밋할 때 보낸다. (COMMIT 구간)
+     * UPDATE 가 다른 트랜잭션의 행 잠금에 막힌 시간은 db-row 락 대기로 잡힌다.
+     */
+    private void flushAccountUpdate() {
+        RowLockTimer.flush(accountRepository);
+    }
+
+    @ShardRouted(accountArg = 0)
     @Transactional
-    public void saveFailedUseTransaction(String accountNumber, Long amount) {
+    public void saveFailedUseTransaction(String accountNumber, Long amount, ErrorCode errorCode) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        saveAndGetTransaction(USE, F, account, amount);
+        saveAndGetTransaction(USE, F, account, amount, errorCode);
     }
 
     private Transaction saveAndGetTransaction(
             TransactionType transactionType,
             TransactionResultType transactionResultType,
             Account account,
-            Long amount) {
-        return transactionRepository.save(
+            Long amount,
+            ErrorCode errorCode) {
+        return saveAndGetTransaction(transactionType, transactionResultType, account, amount, errorCode,
+                newTransactionId(), null);
+    }
+
+    private Transaction saveAndGetTransaction(
+            TransactionType transactionType,
+            TransactionResultType transactionResultType,
+            Account account,
+            Long amount,
+            ErrorCode errorCode,
+            String transactionId,
+            String linkedTransactionId) {
+        Transaction transaction = transactionRepository.save(
                 Transaction.builder()
                         .transactionType(transactionType)
                         .transactionResultType(transactionResultType)
+                        .errorCode(errorCode)
                         .account(account)
                         .amount(amount)
                         .balanceSnapshot(account.getBalance())
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                        .transactionId(transactionId)
+                        .linkedTransactionId(linkedTransactionId)
                         .transactedAt(LocalDateTime.now())
                         .build()
         );
+        applicationEventPublisher.publishEvent(TransactionSavedEvent.from(transaction));
+
+        return transaction;
+    }
+
+    private static String newTransactionId() {
+        return UUID.randomUUID().toString().replace("-", "");
     }
 
+    @RetryOnConflict(value = "cancelBalance", accountArg = 1)
+    @ShardRouted(accountArg = 1)
     @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        TransactionPhaseRecorder phases = TransactionPhaseRecorder.start(CANCEL, accountNumber, TRANSACTION_LOOKUP);
+        try {
+            Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+                    .orElseThrow(() -> transactionArchiveStore.findByTransactionId(transactionId).isPresent()
+                            ? AccountException.of(ErrorCode.TOO_OLD_ORDER_TO_CANCEL)
+                            : AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND));
 
-        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+            phases.next(ACCOUNT_LOOKUP);
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+
+            phases.next(VALIDATION);
+            validateCancelBalance(transaction, account, amount);
 
-        validateCancelBalance(transaction, account, amount);
+            phases.next(BALANCE_MUTATION);
+            account.cancelBalance(amount);
 
-        account.cancelBalance(amount);
+            phases.next(LOCK_ACQUISITION);
+            flushAccountUpdate();
 
-        return TransactionDto.fromEntity(saveAndGetTransaction(CANCEL, S, account, amount));
+            phases.next(TRANSACTION_INSERT);
+            Transaction canceled = saveAndGetTransaction(CANCEL, S, account, amount, null);
+
+            return TransactionDto.fromEntity(canceled);
+        } catch (RuntimeException e) {
+            phases.failed(e);
+            throw e;
+        } finally {
+            phases.end();
+        }
     }
 
     private void validateCancelBalance(Transaction transaction, Account account, Long amount) {
+        if (transaction.getLinkedTransactionId() != null) {
+            throw AccountException.of(ErrorCode.TRANSFER_CANNOT_BE_CANCELED);
+        }
         if (!Objects.equals(transaction.getAccount().getId(), account.getId())) {
-            throw new AccountException(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
+            throw AccountException.of(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
         }
         if (!Objects.equals(transaction.getAmount(), amount)) {
-            throw new AccountException(ErrorCode.CANCEL_MUST_FULLY);
+            throw AccountException.of(ErrorCode.CANCEL_MUST_FULLY);
         }
-        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
-            throw new AccountException(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minus(CANCELABLE_PERIOD))) {
+            throw AccountException.of(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
         }
     }
 
+    @ShardRouted(accountArg = 0)
     @Transactional
-    public void saveFailedCancelTransaction(String accountNumber, Long amount) {
+    public void saveFailedCancelTransaction(String accountNumber, Long amount, ErrorCode errorCode) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        saveAndGetTransaction(CANCEL, F, account, amount);
+        saveAndGetTransaction(CANCEL, F, account, amount, errorCode);
     }
 
+    /**
+     * 한 트랜잭션에서 보내는 계좌를 출금하고 받는 계좌에 입금한다.
+     */
+    @RetryOnConflict(value = "transfer", accountArg = 1)
+    @ShardRouted(accountArg = 1)
     @Transactional
+    public TransferDto transfer(Long userId, String fromAccountNumber, String toAccountNumber, Long amount) {
+        return transferAll(userId, fromAccountNumber,
+                List.of(new TransferBatch.Item(toAccountNumber, amount))).get(0);
+    }
+
+    /**
+     * 한 계좌에서 여러 계좌로 보낸다. 하나라도 실패하면 전부 롤백한다.
+     * 같은 계좌로 여러 번 보내도 된다.
+     */
+    @RetryOnConflict(value = "transferBatch", accountArg = 1)
+    @ShardRouted(accountArg = 1)
+    @Transactional
+    public List<TransferDto> transferBatch(Long userId, String fromAccountNumber, List<TransferBatch.Item> items) {
+        return transferAll(userId, fromAccountNumber, items);
+    }
+
+    private List<TransferDto> transferAll(Long userId, String fromAccountNumber, List<TransferBatch.Item> items) {
+        AccountUser accountUser = accountUserRepository.findById(userId)
+                .orElseThrow(() -> AccountException.of(ErrorCode.USER_NOT_FOUND));
+
+        validateTransferTargets(fromAccountNumber, items);
+        Map<String, Account> accounts = lockInAccountNumberOrder(fromAccountNumber, items);
+        Account from = accounts.get(fromAccountNumber);
+        validateUseBalance(accountUser, from, items.stream().mapToLong(TransferBatch.Item::getAmount).sum());
+        for (Account to : accounts.values()) {
+            if (to.getAccountStatus() != AccountStatus.IN_USE) {
+                throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            }
+        }
+
+        List<TransferDto> transfers = new ArrayList<>(items.size());
+        for (TransferBatch.Item item : items) {
+            Account to = accounts.get(item.getToAccountNumber());
+            from.useBalance(item.getAmount());
+            to.cancelBalance(item.getAmount());
+
+            String debitId = newTransactionId();
+            String creditId = newTransactionId();
+            Transaction debit = saveAndGetTransaction(TRANSFER_OUT, S, from, item.getAmount(), null,
+                    debitId, creditId);
+            Transaction credit = saveAndGetTransaction(TRANSFER_IN, S, to, item.getAmount(), null,
+                    creditId, debitId);
+            transfers.add(TransferDto.builder()
+                    .debit(TransactionDto.fromEntity(debit))
+                    .credit(TransactionDto.fromEntity(credit))
+                    .build());
+        }
+        return transfers;
+    }
+
+    // 보내는 계좌와 받는 계좌는 같은 샤드에 있어야 한다. (샤드를 넘는 이체는 아직 지원하지 않는다)
+    private void validateTransferTargets(String fromAccountNumber, List<TransferBatch.Item> items) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        for (TransferBatch.Item item : items) {
+            String toAccountNumber = item.getToAccountNumber();
+            if (fromAccountNumber.equals(toAccountNumber)) {
+                throw AccountException.of(ErrorCode.INVALID_REQUEST);
+            }
+            if (router != null) {
+                if (router.getDirectory().isFrozen(toAccountNumber)) {
+                    throw AccountException.of(ErrorCode.ACCOUNT_MOVING);
+                }
+                if (!router.isOwnedByCurrentShard(toAccountNumber)) {
+                    throw AccountException.of(ErrorCode.INVALID_REQUEST);
+                }
+            }
+        }
+    }
+
+    /**
+     * 관련 계좌를 모두 계좌번호 오름차순으로 비관적 락을 건다.
+     * 모든 이체가 같은 순서로 잠그므로 A→B 와 B→A 가 동시에 와도 서로를 기다리며 멈추지 않는다.
+     * 받는 계좌를 기다린 시간도 보내는 계좌의 db-row 락 대기로 합쳐 잡힌다.
+     */
+    private Map<String, Account> lockInAccountNumberOrder(String fromAccountNumber, List<TransferBatch.Item> items) {
+        SortedSet<String> accountNumbers = new TreeSet<>();
+        accountNumbers.add(fromAccountNumber);
+        items.forEach(item -> accountNumbers.add(item.getToAccountNumber()));
+
+        Map<String, Account> accounts = new HashMap<>();
+        for (String accountNumber : accountNumbers) {
+            accounts.put(accountNumber, RowLockTimer.lock(
+                            () -> accountRepository.findByAccountNumberForUpdate(accountNumber))
+                    .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND)));
+        }
+        return accounts;
+    }
+
+    @ShardRouted(accountArg = 0)
+    @Transactional
+    public void saveFailedTransferTransaction(String fromAccountNumber, Long amount, ErrorCode errorCode) {
+        Account account = accountRepository.findByAccountNumber(fromAccountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        saveAndGetTransaction(TRANSFER_OUT, F, account, amount, errorCode);
+    }
+
+    /**
+     * 운영 테이블에 없으면 보관 세그먼트에서 찾는다.
+     * 거래 id 로는 샤드를 알 수 없으므로 샤딩 시에는 모든 샤드에서 찾는다.
+     */
+    @ShardRouted
+    @Transactional(readOnly = true)
     public TransactionDto queryTransaction(String transactionId) {
-        return TransactionDto.fromEntity(transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)));
+        return transactionRepository.findByTransactionId(transactionId)
+                .map(TransactionDto::fromEntity)
+                .or(() -> transactionArchiveStore.findByTransactionId(transactionId))
+                .orElseThrow(() -> AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND));
     }
 }
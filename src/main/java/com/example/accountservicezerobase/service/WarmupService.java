@@ -0,0 +1,220 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.AccountUser;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.dto.WarmupReport;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.AccountUserRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import com.example.accountservicezerobase.type.AccountStatus;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 기동 직후 readiness 가 열리기 전에 잔액 사용/취소/조회 경로를 예열한다.
+ * ApplicationRunner 는 ApplicationReadyEvent(ACCEPTING_TRAFFIC) 전에 실행되므로 끝날 때까지 readiness 는 닫혀 있다.
+ * - 최근 거래가 있었던 계좌와 사용자를 읽어 쿼리 플랜과 DB 캐시를 채운다. (읽기만 하므로 행을 잠그지 않는다)
+ * - 롤백할 트랜잭션 안에서 만든 합성 사용자/계좌로 거래를 돌린다. (flush 까지 해서 UPDATE/INSERT 경로도 탄다)
+ *   합성 계좌는 커밋되지 않아 다른 트랜잭션에 보이지 않으므로, 다른 인스턴스가 처리 중인 실제 계좌의 행을 잠그지 않는다.
+ * - 샤딩 모드에서는 거래가 계좌번호로 샤드를 고르므로 합성 거래를 건너뛰고 읽기 예열만 한다.
+ * - 처음/마지막 구간 p99 를 비교해 보고서로 남긴다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "warmup", name = "enabled", havingValue = "true")
+public class WarmupService implements ApplicationRunner {
+    private static final long SYNTHETIC_AMOUNT = 1L;
+    private static final long SYNTHETIC_BALANCE = 1000L;
+    // 합성 사용자 이름 / 계좌번호. 실제 계좌번호(10자리 숫자)와 겹치지 않는다.
+    static final String SYNTHETIC = "warmup";
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final EntityManager entityManager;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final LockProfiler lockProfiler;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration budget;
+    private final int maxIterations;
+    private final int accountLimit;
+    private final Duration lookback;
+    private final int reportWindow;
+
+    private volatile WarmupReport lastReport;
+
+    public WarmupService(
+            TransactionService transactionService,
+            TransactionRepository transactionRepository,
+            AccountRepository accountRepository,
+            AccountUserRepository accountUserRepository,
+            EntityManager entityManager,
+            ObjectProvider<ShardRouter> shardRouter,
+            LockProfiler lockProfiler,
+            ApplicationEventPublisher applicationEventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${warmup.budget:20s}") Duration budget,
+            @Value("${warmup.max-iterations:20000}") int maxIterations,
+            @Value("${warmup.accounts:200}") int accountLimit,
+            @Value("${warmup.lookback:7d}") Duration lookback,
+            @Value("${warmup.report-window:200}") int reportWindow) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.accountUserRepository = accountUserRepository;
+        this.entityManager = entityManager;
+        this.shardRouter = shardRouter;
+        this.lockProfiler = lockProfiler;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.budget = budget;
+        this.maxIterations = maxIterations;
+        this.accountLimit = accountLimit;
+        this.lookback = lookback;
+        this.reportWindow = reportWindow;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(applicationEventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        WarmupReport report = warmup();
+        log.info("Warm-up finished: {} iterations in {} ms, p99 {} -> {} us",
+                report.getIterations(), report.getElapsedMillis(),
+                report.getFirstWindowP99Micros(), report.getLastWindowP99Micros());
+    }
+
+    public Optional<WarmupReport> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+
+    public WarmupReport warmup() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+
+        List<Account> accounts = preloadAccounts();
+        int preloadedUsers = preloadUsers(accounts);
+
+        long[] samples = new long[shardRouter.getIfAvailable() != null ? 0 : maxIterations];
+        int iterations = 0;
+        int failures = 0;
+        while (iterations < samples.length && System.nanoTime() < deadline) {
+            long iterationStart = System.nanoTime();
+            if (!syntheticTransaction()) {
+                failures++;
+            }
+            samples[iterations++] = System.nanoTime() - iterationStart;
+        }
+        // 합성 거래의 대기/점유 기록은 운영 분석에 섞이지 않게 비운다.
+        lockProfiler.reset();
+
+        int window = Math.min(reportWindow, iterations / 2);
+        long firstP99 = p99(Arrays.copyOfRange(samples, 0, window));
+        long lastP99 = p99(Arrays.copyOfRange(samples, iterations - window, iterations));
+        WarmupReport report = WarmupReport.builder()
+                .startedAt(startedAt)
+                .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                .budgetMillis(budget.toMillis())
+                .preloadedAccounts(accounts.size())
+                .preloadedUsers(preloadedUsers)
+                .iterations(iterations)
+                .failures(failures)
+                .window(window)
+                .firstWindowP99Micros(firstP99 / 1000)
+                .lastWindowP99Micros(lastP99 / 1000)
+                .p99Improvement(lastP99 == 0 ? null : (double) firstP99 / lastP99)
+                .build();
+        lastReport = report;
+        return report;
+    }
+
+    private List<Account> preloadAccounts() {
+        List<String> accountNumbers = transactionRepository.findRecentlyActiveAccountNumbers(
+                LocalDateTime.now().minus(lookback), PageRequest.of(0, accountLimit));
+        if (accountNumbers.isEmpty()) {
+            return accountRepository.findAll(PageRequest.of(0, accountLimit, Sort.by(Sort.Direction.DESC, "id")))
+                    .getContent();
+        }
+        return accountNumbers.stream()
+                .map(accountRepository::findByAccountNumber)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private int preloadUsers(List<Account> accounts) {
+        Set<Long> userIds = accounts.stream()
+                .map(account -> account.getAccountUser().getId())
+                .collect(Collectors.toSet());
+        return accountUserRepository.findAllById(userIds).size();
+    }
+
+    /**
+     * 합성 사용자/계좌 생성 -> 사용 -> 조회 -> 취소 -> flush 후 롤백. 실패 경로도 그대로 예열로 친다.
+     */
+    private boolean syntheticTransaction() {
+        Boolean succeeded = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            try {
+                AccountUser accountUser = accountUserRepository.save(AccountUser.builder()
+                        .name(SYNTHETIC)
+                        .build());
+                accountRepository.save(Account.builder()
+                        .accountUser(accountUser)
+                        .accountNumber(SYNTHETIC)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .balance(SYNTHETIC_BALANCE)
+                        .registeredAt(LocalDateTime.now())
+                        .build());
+                TransactionDto used = transactionService.useBalance(
+                        accountUser.getId(), SYNTHETIC, SYNTHETIC_AMOUNT);
+                transactionService.queryTransaction(used.getTransactionId());
+                transactionService.cancelBalance(
+                        used.getTransactionId(), SYNTHETIC, SYNTHETIC_AMOUNT);
+                entityManager.flush();
+                return true;
+            } catch (AccountException e) {
+                return false;
+            } catch (RuntimeException e) {
+                // 예열 실패로 기동을 막지 않는다.
+                log.debug("Synthetic transaction failed", e);
+                return false;
+            }
+        });
+        return Boolean.TRUE.equals(succeeded);
+    }
+
+    private static long p99(long[] samples) {
+        if (samples.length == 0) {
+            return 0L;
+        }
+        Arrays.sort(samples);
+        return samples[(int) Math.ceil(samples.length * 0.99) - 1];
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.accountservicezerobase.shard;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 현재 스레드가 쓰는 샤드 이름. 비어 있으면 첫 번째(기본) 샤드로 간다.
+ * 트랜잭션이 시작되기 전에 정해야 한다. (커넥션은 트랜잭션 시작 시점의 샤드에서 가져온다)
+ */
+public final class ShardContext {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T call(String shard, Callable<T> task) throws Exception {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(String shard, Runnable task) {
+        try {
+            call(shard, () -> {
+                task.run();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
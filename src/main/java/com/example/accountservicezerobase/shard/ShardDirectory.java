@@ -0,0 +1,245 @@
+package com.example.accountservicezerobase.shard;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 계좌번호 범위 → 샤드 목록.
+ * 처음에는 샤드 i 가 [first + i * blockSize, first + (i + 1) * blockSize - 1] 를 가지고, 그 블록에서 새 계좌번호를 발급한다.
+ * 재샤딩(ShardMover)으로 옮긴 범위는 첫 번째 샤드의 shard_range 테이블에 저장해 두고 기동 시 다시 읽는다.
+ *
+ * 라우팅된 호출은 끝날 때까지 읽기 락을 잡고, 범위를 얼리거나(freeze) 주인을 바꿀 때(reassign)는 쓰기 락으로
+ * 진행 중인 호출이 모두 끝나기를 기다린다.
+ */
+@Slf4j
+public class ShardDirectory {
+    private static final String CREATE_TABLE = "create table if not exists shard_range (" +
+            "range_from bigint primary key, range_to bigint not null, shard varchar(64) not null)";
+
+    private final DataSource directoryDataSource;
+    private final List<String> shards;
+    private final long firstAccountNumber;
+    private final long blockSize;
+    private final ReentrantReadWriteLock routingLock = new ReentrantReadWriteLock();
+    private final Set<ShardRange> frozen = ConcurrentHashMap.newKeySet();
+
+    // 바꿀 때마다 새 map 으로 교체한다.
+    private volatile NavigableMap<Long, ShardRange> ranges;
+
+    public ShardDirectory(DataSource directoryDataSource, List<String> shards,
+                          long firstAccountNumber, long blockSize) {
+        this.directoryDataSource = directoryDataSource;
+        this.shards = List.copyOf(shards);
+        this.firstAccountNumber = firstAccountNumber;
+        this.blockSize = blockSize;
+        this.ranges = load();
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public String getDefaultShard() {
+        return shards.get(0);
+    }
+
+    public List<ShardRange> getRanges() {
+        return new ArrayList<>(ranges.values());
+    }
+
+    public List<ShardRange> getFrozen() {
+        return new ArrayList<>(frozen);
+    }
+
+    /**
+     * 범위 밖이거나 숫자가 아닌 계좌번호는 기본 샤드로 보낸다. (거기서 ACCOUNT_NOT_FOUND 가 난다)
+     */
+    public String shardOf(String accountNumber) {
+        ShardRange range = rangeOf(accountNumber);
+        return range != null ? range.shard() : getDefaultShard();
+    }
+
+    public String homeShardOf(long userId) {
+        return shards.get(Math.floorMod(userId, shards.size()));
+    }
+
+    /**
+     * 샤드가 새 계좌번호를 발급하는 블록
+     */
+    public ShardRange allocationBlock(String shard) {
+        int index = shards.indexOf(shard);
+        if (index < 0) {
+            throw new IllegalArgumentException("unknown shard " + shard);
+        }
+        long from = firstAccountNumber + index * blockSize;
+        return new ShardRange(from, from + blockSize - 1, shard);
+    }
+
+    public boolean isFrozen(String accountNumber) {
+        if (frozen.isEmpty()) {
+            return false;
+        }
+        Long number = parse(accountNumber);
+        return number != null && frozen.stream().anyMatch(range -> range.contains(number));
+    }
+
+    public void acquireRouting() {
+        routingLock.readLock().lock();
+    }
+
+    public void releaseRouting() {
+        routingLock.readLock().unlock();
+    }
+
+    /**
+     * 이 범위의 쓰기를 막는다. 돌아올 때는 이미 시작된 호출도 모두 끝나 있다.
+     */
+    public void freeze(ShardRange range) {
+        routingLock.writeLock().lock();
+        try {
+            frozen.add(range);
+        } finally {
+            routingLock.writeLock().unlock();
+        }
+    }
+
+    public void unfreeze(ShardRange range) {
+        frozen.remove(range);
+    }
+
+    /**
+     * [from, to] 를 target 샤드로 넘긴다. 겹치는 기존 범위는 잘라낸다.
+     */
+    public void reassign(long from, long to, String target) {
+        if (!shards.contains(target)) {
+            throw new IllegalArgumentException("unknown shard " + target);
+        }
+        routingLock.writeLock().lock();
+        try {
+            NavigableMap<Long, ShardRange> updated = new TreeMap<>();
+            for (ShardRange range : ranges.values()) {
+                if (!range.overlaps(from, to)) {
+                    updated.put(range.from(), range);
+                    continue;
+                }
+                if (range.from() < from) {
+                    updated.put(range.from(), new ShardRange(range.from(), from - 1, range.shard()));
+                }
+                if (range.to() > to) {
+                    updated.put(to + 1, new ShardRange(to + 1, range.to(), range.shard()));
+                }
+            }
+            updated.put(from, new ShardRange(from, to, target));
+            save(updated.values());
+            ranges = merge(updated);
+            log.info("Account numbers {}..{} now belong to {}", from, to, target);
+        } finally {
+            routingLock.writeLock().unlock();
+        }
+    }
+
+    ShardRange rangeOf(String accountNumber) {
+        Long number = parse(accountNumber);
+        if (number == null) {
+            return null;
+        }
+        var entry = ranges.floorEntry(number);
+        return entry != null && entry.getValue().contains(number) ? entry.getValue() : null;
+    }
+
+    private static Long parse(String accountNumber) {
+        try {
+            return Long.parseLong(accountNumber);
+        } catch (NumberFormatException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    // 같은 샤드의 붙어 있는 범위를 합친다.
+    private static NavigableMap<Long, ShardRange> merge(NavigableMap<Long, ShardRange> ranges) {
+        NavigableMap<Long, ShardRange> merged = new TreeMap<>();
+        ShardRange current = null;
+        for (ShardRange range : ranges.values()) {
+            if (current != null && current.shard().equals(range.shard()) && current.to() + 1 == range.from()) {
+                current = new ShardRange(current.from(), range.to(), current.shard());
+                continue;
+            }
+            if (current != null) {
+                merged.put(current.from(), current);
+            }
+            current = range;
+        }
+        if (current != null) {
+            merged.put(current.from(), current);
+        }
+        return Collections.unmodifiableNavigableMap(merged);
+    }
+
+    private NavigableMap<Long, ShardRange> load() {
+        NavigableMap<Long, ShardRange> loaded = new TreeMap<>();
+        try (Connection connection = directoryDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            try (ResultSet resultSet = statement.executeQuery(
+                    "select range_from, range_to, shard from shard_range order by range_from")) {
+                while (resultSet.next()) {
+                    ShardRange range = new ShardRange(resultSet.getLong(1), resultSet.getLong(2),
+                            resultSet.getString(3));
+                    if (!shards.contains(range.shard())) {
+                        throw new IllegalStateException("shard_range refers to unknown shard " + range.shard());
+                    }
+                    loaded.put(range.from(), range);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load shard ranges", e);
+        }
+        if (loaded.isEmpty()) {
+            for (String shard : shards) {
+                ShardRange block = allocationBlock(shard);
+                loaded.put(block.from(), block);
+            }
+            save(loaded.values());
+        }
+        log.info("Shard ranges: {}", loaded.values());
+        return merge(loaded);
+    }
+
+    private void save(Iterable<ShardRange> ranges) {
+        try (Connection connection = directoryDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement delete = connection.createStatement();
+                 PreparedStatement insert = connection.prepareStatement(
+                         "insert into shard_range (range_from, range_to, shard) values (?, ?, ?)")) {
+                delete.executeUpdate("delete from shard_range");
+                for (ShardRange range : ranges) {
+                    insert.setLong(1, range.from());
+                    insert.setLong(2, range.to());
+                    insert.setString(3, range.shard());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to save shard ranges", e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.accountservicezerobase.shard;
+
+import com.example.accountservicezerobase.dto.ShardMoveReport;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 온라인 재샤딩: 계좌번호 범위를 다른 샤드로 옮긴다.
+ * batch-size 개 계좌번호씩 나눠서
+ * 1. 그 구간의 쓰기를 막고 (읽기는 원래 샤드에서 계속된다)
+ * 2. account 와 계좌를 참조하는 테이블(child-tables) 행을 같은 id 로 대상 샤드에 복사한 뒤
+ * 3. 라우팅을 대상 샤드로 바꾸고 원래 샤드의 행을 지운다.
+ * 샤드마다 id 구간이 달라서(sharding.id-stride) 복사한 행의 id 가 겹치지 않는다.
+ * 원래 샤드가 계좌번호를 발급 중인 블록의 끝(가장 최근 계좌)은 옮길 수 없다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardMover {
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardDirectory shardDirectory;
+    private final int batchSize;
+    private final List<String> childTables;
+    private final ReentrantLock moveLock = new ReentrantLock();
+
+    public ShardMover(
+            ShardRoutingDataSource shardRoutingDataSource,
+            ShardDirectory shardDirectory,
+            @Value("${sharding.move.batch-size:100}") int batchSize,
+            @Value("${sharding.move.child-tables}") List<String> childTables) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.shardDirectory = shardDirectory;
+        this.batchSize = batchSize;
+        this.childTables = childTables.stream().map(String::trim).toList();
+    }
+
+    public ShardMoveReport move(long from, long to, String target) {
+        if (!moveLock.tryLock()) {
+            throw new IllegalStateException("Another shard move is running");
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            String source = validate(from, to, target);
+            log.info("Moving account numbers {}..{} from {} to {}", from, to, source, target);
+
+            int chunks = 0;
+            long accounts = 0;
+            long rows = 0;
+            for (long chunkFrom = from; chunkFrom <= to; chunkFrom += batchSize) {
+                long chunkTo = Math.min(to, chunkFrom + batchSize - 1);
+                long[] moved = moveChunk(new ShardRange(chunkFrom, chunkTo, source), target);
+                chunks++;
+                accounts += moved[0];
+                rows += moved[1];
+            }
+
+            log.info("Moved {} accounts ({} rows) from {} to {}", accounts, rows, source, target);
+            return ShardMoveReport.builder()
+                    .from(from)
+                    .to(to)
+                    .source(source)
+                    .target(target)
+                    .chunks(chunks)
+                    .accounts(accounts)
+                    .childRows(rows)
+                    .elapsedMillis(System.currentTimeMillis() - startedAt)
+                    .build();
+        } finally {
+            moveLock.unlock();
+        }
+    }
+
+    private String validate(long from, long to, String target) {
+        if (from > to || !shardDirectory.getShards().contains(target)) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+        ShardRange range = shardDirectory.rangeOf(String.valueOf(from));
+        if (range == null || !range.contains(to) || range.shard().equals(target)) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+        String source = range.shard();
+        ShardRange block = shardDirectory.allocationBlock(source);
+        if (block.overlaps(from, to)) {
+            Long maxAllocated = maxAccountNumber(shardRoutingDataSource.getShard(source), block);
+            if (maxAllocated == null || to >= maxAllocated) {
+                throw AccountException.of(ErrorCode.INVALID_REQUEST);
+            }
+        }
+        return source;
+    }
+
+    /**
+     * @return {계좌 수, 함께 옮긴 child 행 수}
+     */
+    private long[] moveChunk(ShardRange chunk, String target) {
+        DataSource source = shardRoutingDataSource.getShard(chunk.shard());
+        DataSource destination = shardRoutingDataSource.getShard(target);
+
+        shardDirectory.freeze(chunk);
+        try {
+            List<Long> accountIds;
+            long rows = 0;
+            try (Connection from = source.getConnection();
+                 Connection to = destination.getConnection()) {
+                to.setAutoCommit(false);
+                try {
+                    accountIds = copy(from, to, "account",
+                            "account_number between ? and ?",
+                            List.of(String.valueOf(chunk.from()), String.valueOf(chunk.to())));
+                    if (!accountIds.isEmpty()) {
+                        for (String table : childTables) {
+                            rows += copy(from, to, table, "account_id in (" + placeholders(accountIds) + ")",
+                                    accountIds).size();
+                        }
+                    }
+                    to.commit();
+                } catch (SQLException | RuntimeException e) {
+                    to.rollback();
+                    throw e;
+                }
+            }
+
+            shardDirectory.reassign(chunk.from(), chunk.to(), target);
+
+            if (!accountIds.isEmpty()) {
+                delete(source, accountIds);
+            }
+            return new long[]{accountIds.size(), rows};
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to move " + chunk + " to " + target, e);
+        } finally {
+            shardDirectory.unfreeze(chunk);
+        }
+    }
+
+    /**
+     * 조건에 맞는 행을 그대로 복사하고 id 목록을 돌려준다.
+     */
+    private static List<Long> copy(Connection from, Connection to, String table, String where,
+                                   List<?> parameters) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement select = from.prepareStatement("select * from " + table + " where " + where)) {
+            bind(select, parameters);
+            try (ResultSet resultSet = select.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                int columns = metaData.getColumnCount();
+                List<String> names = new ArrayList<>();
+                int idColumn = -1;
+                for (int i = 1; i <= columns; i++) {
+                    names.add(metaData.getColumnName(i));
+                    if ("id".equalsIgnoreCase(metaData.getColumnName(i))) {
+                        idColumn = i;
+                    }
+                }
+                String insertSql = "insert into " + table + " (" + String.join(", ", names) + ") values ("
+                        + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+                try (PreparedStatement insert = to.prepareStatement(insertSql)) {
+                    while (resultSet.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            insert.setObject(i, resultSet.getObject(i));
+                        }
+                        insert.addBatch();
+                        ids.add(resultSet.getLong(idColumn));
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void delete(DataSource source, List<Long> accountIds) throws SQLException {
+        String in = "(" + placeholders(accountIds) + ")";
+        try (Connection connection = source.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (String table : childTables) {
+                    execute(connection, "delete from " + table + " where account_id in " + in, accountIds);
+                }
+                execute(connection, "delete from account where id in " + in, accountIds);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                log.error("Moved accounts {} are still left on the source shard", accountIds, e);
+                throw e;
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql, List<?> parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, parameters);
+            statement.executeUpdate();
+        }
+    }
+
+    private static Long maxAccountNumber(DataSource dataSource, ShardRange block) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "select max(account_number) from account where account_number between ? and ?")) {
+            bind(statement, List.of(String.valueOf(block.from()), String.valueOf(block.to())));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                String max = resultSet.getString(1);
+                return max != null ? Long.parseLong(max) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<?> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    private static String placeholders(List<?> values) {
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.accountservicezerobase.shard;
+
+/**
+ * 계좌번호 [from, to] (양 끝 포함) 가 있는 샤드
+ */
+public record ShardRange(long from, long to, String shard) {
+    public boolean contains(long accountNumber) {
+        return from <= accountNumber && accountNumber <= to;
+    }
+
+    public boolean overlaps(long otherFrom, long otherTo) {
+        return from <= otherTo && otherFrom <= to;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.accountservicezerobase.shard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * sharding.enabled 일 때 메서드를 어느 샤드에서 실행할 지 정한다.
+ * - accountArg : 해당 인자(계좌번호)가 속한 샤드
+ * - userArg    : 해당 인자(사용자 id)의 home 샤드 (새 계좌가 만들어지는 샤드)
+ * - 둘 다 없으면 모든 샤드에서 병렬로 실행하고 결과를 합친다. (List 는 이어 붙이고, 그 외에는 먼저 성공한 샤드의 값)
+ * 트랜잭션 advisor 보다 바깥에서 돌기 때문에 메서드 안의 repository 호출은 모두 고른 샤드로 간다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardRouted {
+    int accountArg() default -1;
+
+    int userArg() default -1;
+}
@@ -0,0 +1,89 @@
+package com.example.accountservicezerobase.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 서비스 코드에서 쓰는 샤드 정보와 모든 샤드에 대한 병렬 실행(fan-out)
+ */
+public class ShardRouter implements AutoCloseable {
+    private final ShardDirectory directory;
+    private final ExecutorService executor;
+
+    public ShardRouter(ShardDirectory directory, int fanOutThreads) {
+        this.directory = directory;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(fanOutThreads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ShardDirectory getDirectory() {
+        return directory;
+    }
+
+    public String shardOfAccount(String accountNumber) {
+        return directory.shardOf(accountNumber);
+    }
+
+    /**
+     * 현재 샤드가 새 계좌번호를 발급하는 블록
+     */
+    public ShardRange currentAllocationBlock() {
+        String shard = ShardContext.get();
+        return directory.allocationBlock(shard != null ? shard : directory.getDefaultShard());
+    }
+
+    /**
+     * 옮기는 도중에는 두 샤드에 같은 계좌가 있을 수 있으므로, fan-out 결과는 이 값으로 거른다.
+     */
+    public boolean isOwnedByCurrentShard(String accountNumber) {
+        String shard = ShardContext.get();
+        return directory.shardOf(accountNumber).equals(shard != null ? shard : directory.getDefaultShard());
+    }
+
+    /**
+     * 샤드마다 task 를 병렬로 실행한다. 결과는 샤드 순서.
+     */
+    public <T> List<Future<T>> submitToAllShards(Callable<T> task) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (String shard : directory.getShards()) {
+            futures.add(executor.submit(() -> ShardContext.call(shard, task)));
+        }
+        return futures;
+    }
+
+    /**
+     * submitToAllShards 후 모두 기다린다. 한 샤드라도 실패하면 그 예외를 던진다.
+     */
+    public <T> List<T> onAllShards(Callable<T> task) {
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : submitToAllShards(task)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
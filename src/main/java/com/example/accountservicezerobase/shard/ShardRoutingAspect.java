@@ -0,0 +1,127 @@
+package com.example.accountservicezerobase.shard;
+
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * @ShardRouted 메서드의 샤드를 정해 ShardContext 에 넣고 실행한다.
+ * 트랜잭션보다 바깥, RetryOnConflict 바로 안쪽에서 돈다. (재시도마다 같은 샤드)
+ * 이미 샤드가 정해진 스레드(fan-out 작업, 중첩 호출)에서는 그대로 진행한다.
+ * 옮기는 중인 범위의 계좌에 대한 쓰기는 ACCOUNT_MOVING 으로 거절한다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardRoutingAspect {
+    private final ShardRouter shardRouter;
+
+    public ShardRoutingAspect(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Around("@annotation(shardRouted)")
+    public Object route(ProceedingJoinPoint joinPoint, ShardRouted shardRouted) throws Throwable {
+        if (ShardContext.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        ShardDirectory directory = shardRouter.getDirectory();
+        Object[] args = joinPoint.getArgs();
+        directory.acquireRouting();
+        try {
+            if (shardRouted.accountArg() >= 0) {
+                String accountNumber = String.valueOf(args[shardRouted.accountArg()]);
+                if (isWrite(joinPoint) && directory.isFrozen(accountNumber)) {
+                    throw AccountException.of(ErrorCode.ACCOUNT_MOVING);
+                }
+                return proceedOn(directory.shardOf(accountNumber), joinPoint);
+            }
+            if (shardRouted.userArg() >= 0) {
+                return proceedOn(directory.homeShardOf((Long) args[shardRouted.userArg()]), joinPoint);
+            }
+            return fanOut(joinPoint, args);
+        } finally {
+            directory.releaseRouting();
+        }
+    }
+
+    private static Object proceedOn(String shard, ProceedingJoinPoint joinPoint) throws Throwable {
+        ShardContext.set(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    private Object fanOut(ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        List<Future<Object>> futures = shardRouter.submitToAllShards(() -> {
+            try {
+                return joinPoint.proceed(args);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        });
+
+        List<Object> results = new ArrayList<>();
+        Throwable failure = null;
+        for (Future<Object> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                failure = preferred(failure, e.getCause());
+            }
+        }
+
+        boolean listResult = List.class.isAssignableFrom(((MethodSignature) joinPoint.getSignature()).getReturnType());
+        if (listResult) {
+            if (failure != null) {
+                throw failure;
+            }
+            List<Object> merged = new ArrayList<>();
+            results.forEach(result -> merged.addAll((List<?>) result));
+            return merged;
+        }
+        for (Object result : results) {
+            if (result != null) {
+                return result;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    // 업무 예외(없음 등)보다 장애를 먼저 알린다.
+    private static Throwable preferred(Throwable current, Throwable candidate) {
+        if (current == null || (current instanceof AccountException && !(candidate instanceof AccountException))) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static boolean isWrite(ProceedingJoinPoint joinPoint) {
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), Transactional.class);
+        return transactional == null || !transactional.readOnly();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.accountservicezerobase.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ShardContext 의 샤드로 커넥션을 보낸다. 샤드가 정해지지 않은 호출(스케줄러, 기동 시 스키마 생성 등)은 첫 번째 샤드로 간다.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private final Map<String, DataSource> shards;
+
+    public ShardRoutingDataSource(Map<String, DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        this.shards = new LinkedHashMap<>(shards);
+
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.values().iterator().next());
+        // 모르는 샤드 이름은 기본 샤드로 보내지 않고 실패시킨다.
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.get();
+    }
+
+    public List<String> getShardNames() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    public DataSource getShard(String name) {
+        DataSource dataSource = shards.get(name);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("unknown shard " + name);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : shards.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.accountservicezerobase.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 첫 번째 샤드는 hibernate(ddl-auto)와 data.sql 로 초기화된다.
+ * 나머지 샤드에는 hibernate 가 만든 DDL 스크립트와 모든 샤드에 복제하는 스크립트(사용자 등)를 실행한다.
+ * 샤드 i 의 시퀀스는 i * idStride + 1 부터 시작해서 샤드 사이에 id 가 겹치지 않는다.
+ */
+@Slf4j
+public class ShardSchemaInitializer {
+    private static final Pattern SEQUENCE_START =
+            Pattern.compile("(?i)(create\\s+sequence\\s+\\S+\\s+start\\s+with\\s+)1\\b");
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final Resource schemaScript;
+    private final List<Resource> broadcastScripts;
+    private final long idStride;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource shardRoutingDataSource, Resource schemaScript,
+                                  List<Resource> broadcastScripts, long idStride) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.schemaScript = schemaScript;
+        this.broadcastScripts = broadcastScripts;
+        this.idStride = idStride;
+    }
+
+    public void initialize() throws IOException, SQLException {
+        String schema = schemaScript.getContentAsString(StandardCharsets.UTF_8);
+        List<String> shards = shardRoutingDataSource.getShardNames();
+        for (int i = 1; i < shards.size(); i++) {
+            DataSource dataSource = shardRoutingDataSource.getShard(shards.get(i));
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                for (String sql : withSequenceStart(schema, i * idStride + 1).split(";")) {
+                    if (!sql.isBlank()) {
+                        statement.execute(sql);
+                    }
+                }
+            }
+            if (!broadcastScripts.isEmpty()) {
+                new ResourceDatabasePopulator(broadcastScripts.toArray(Resource[]::new)).execute(dataSource);
+            }
+            log.info("Initialized shard {}", shards.get(i));
+        }
+    }
+
+    static String withSequenceStart(String schema, long start) {
+        return SEQUENCE_START.matcher(schema).replaceAll("$1" + Matcher.quoteReplacement(String.valueOf(start)));
+    }
+}
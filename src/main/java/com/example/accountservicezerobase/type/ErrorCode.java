@@ -17,7 +17,16 @@ public enum ErrorCode {
     TRANSACTION_ACCOUNT_UN_MATCH("이 계좌의 거래가 아닙니다."),
     ACCOUNT_ALREADY_UNREGISTERED("계좌가 이미 해지되었습니다."),
     BALANCE_NOT_EMPTY("잔액이 있는 계좌는 해지할 수 없습니다."),
-    MAX_ACCOUNT_PER_USER_10("사용자 최대 계좌는 10개 입니다.");
+    MAX_ACCOUNT_PER_USER_10("사용자 최대 계좌는 10개 입니다."),
+    SEQUENCER_BUSY("요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해 주세요."),
+    CONCURRENT_UPDATE_RETRY_EXHAUSTED("같은 계좌에 동시 요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해 주세요."),
+    CONCURRENCY_LIMIT_EXCEEDED("서버가 처리할 수 있는 동시 요청 수를 넘었습니다. 잠시 후 다시 시도해 주세요."),
+    ACCOUNT_MOVING("계좌를 다른 샤드로 옮기는 중입니다. 잠시 후 다시 시도해 주세요."),
+    TRANSFER_CANNOT_BE_CANCELED("이체 거래는 취소할 수 없습니다."),
+    HOLD_NOT_FOUND("승인 내역이 없습니다."),
+    HOLD_ACCOUNT_UN_MATCH("이 계좌의 승인이 아닙니다."),
+    HOLD_NOT_ACTIVE("이미 매입, 해제되었거나 만료된 승인입니다."),
+    AMOUNT_EXCEED_HOLD("매입 금액이 승인 금액보다 큽니다.");
 
     private final String description;
 }
@@ -0,0 +1,5 @@
+package com.example.accountservicezerobase.type;
+
+public enum HoldStatus {
+    HELD, CAPTURED, RELEASED, EXPIRED
+}
@@ -0,0 +1,8 @@
+package com.example.accountservicezerobase.type;
+
+public enum ReconciliationMismatchType {
+    // 계좌 잔액이 마지막 성공 거래의 잔액 스냅샷과 다름
+    BALANCE,
+    // 직전 스냅샷 +/- 거래금액이 이 거래의 스냅샷과 다름
+    SNAPSHOT_SEQUENCE
+}
@@ -1,5 +1,7 @@
 package com.example.accountservicezerobase.type;
 
 public enum TransactionResultType {
-    S, F
+    S, F,
+    // 접수만 되고 아직 저장되지 않음 (비동기 사용 모드, 테이블에는 저장되지 않는다)
+    P
 }
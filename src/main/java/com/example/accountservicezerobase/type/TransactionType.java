@@ -1,6 +1,13 @@
 package com.example.accountservicezerobase.type;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
 public enum TransactionType {
-    USE, CANCEL
-}
+    USE(-1), CANCEL(1), TRANSFER_OUT(-1), TRANSFER_IN(1);
 
+    // 성공한 거래가 잔액에 반영되는 방향
+    private final int balanceSign;
+}
@@ -3,4 +3,6 @@ values (1, 'a', now(), now());
 insert into account_user(id, name ,created_at, updated_at)
 values (2, 'b', now(), now());
 insert into account_user(id, name ,created_at, updated_at)
-values (3, 'c', now(), now());
\ No newline at end of file
+values (3, 'c', now(), now());
+insert into replication_position(id, position)
+values (1, 0);
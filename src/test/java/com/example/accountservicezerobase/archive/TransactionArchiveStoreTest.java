@@ -0,0 +1,158 @@
+package com.example.accountservicezerobase.archive;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionArchiveStoreTest {
+    @TempDir
+    Path directory;
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0, 0, 123456789);
+
+    private List<TransactionDto> rows(int count) {
+        List<TransactionDto> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(TransactionDto.builder()
+                    .accountNumber(i % 2 == 0 ? "1000000000" : "1000000001")
+                    .transactionType(TransactionType.USE)
+                    .transactionResultType(TransactionResultType.S)
+                    .transactionId("transactionId" + i)
+                    .amount(1000L + i)
+                    .balanceSnapshot(100000L - i)
+                    .transactedAt(BASE.plusHours(i))
+                    .build());
+        }
+        return rows;
+    }
+
+    @Test
+    void findArchivedTransaction() throws Exception {
+        // given
+        TransactionArchiveStore store = new TransactionArchiveStore(directory.toString(), 16);
+        store.append(rows(100), 100L);
+
+        // when
+        Optional<TransactionDto> found = store.findByTransactionId("transactionId37");
+        Optional<TransactionDto> notFound = store.findByTransactionId("unknown");
+
+        // then
+        assertTrue(found.isPresent());
+        assertEquals("1000000001", found.get().getAccountNumber());
+        assertEquals(1037L, found.get().getAmount());
+        assertEquals(99963L, found.get().getBalanceSnapshot());
+        assertEquals(BASE.plusHours(37), found.get().getTransactedAt());
+        assertFalse(notFound.isPresent());
+    }
+
+    @Test
+    void scanByAccountAndRange() throws Exception {
+        // given
+        TransactionArchiveStore store = new TransactionArchiveStore(directory.toString(), 16);
+        store.append(rows(100), 100L);
+
+        // when
+        List<TransactionDto> result = store.scan("1000000000", BASE.plusHours(10), BASE.plusHours(19), 1000);
+
+        // then
+        assertEquals(5, result.size());
+        assertEquals("transactionId10", result.get(0).getTransactionId());
+        assertEquals("transactionId18", result.get(4).getTransactionId());
+    }
+
+    @Test
+    void reloadSegmentsFromDisk() throws Exception {
+        // given
+        new TransactionArchiveStore(directory.toString(), 16).append(rows(40), 40L);
+
+        // when
+        TransactionArchiveStore reopened = new TransactionArchiveStore(directory.toString(), 16);
+        reopened.loadSegments();
+
+        // then
+        assertEquals(1, reopened.getSegments().size());
+        assertEquals(40L, reopened.getSegments().get(0).getRowCount());
+        assertTrue(reopened.findByTransactionId("transactionId39").isPresent());
+    }
+
+    @Test
+    void keepLinkedTransactionIdAndErrorCode() throws Exception {
+        // given
+        List<TransactionDto> rows = rows(3);
+        rows.get(0).setTransactionType(TransactionType.TRANSFER_OUT);
+        rows.get(0).setLinkedTransactionId("transactionId1");
+        rows.get(1).setTransactionType(TransactionType.TRANSFER_IN);
+        rows.get(1).setLinkedTransactionId("transactionId0");
+        rows.get(2).setTransactionResultType(TransactionResultType.F);
+        rows.get(2).setErrorCode(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        new TransactionArchiveStore(directory.toString(), 16).append(rows, 3L);
+
+        // when
+        TransactionArchiveStore reopened = new TransactionArchiveStore(directory.toString(), 16);
+        reopened.loadSegments();
+        TransactionDto debit = reopened.findByTransactionId("transactionId0").orElseThrow();
+        TransactionDto credit = reopened.findByTransactionId("transactionId1").orElseThrow();
+        TransactionDto failed = reopened.findByTransactionId("transactionId2").orElseThrow();
+
+        // then
+        assertEquals(3, reopened.getSegments().get(0).getFormatVersion());
+        assertEquals("transactionId1", debit.getLinkedTransactionId());
+        assertNull(debit.getErrorCode());
+        assertEquals("transactionId0", credit.getLinkedTransactionId());
+        assertNull(failed.getLinkedTransactionId());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, failed.getErrorCode());
+    }
+
+    @Test
+    void recognizeSourceRowsOfLastSegment() throws Exception {
+        // given
+        // 원본 거래 행 id 101 ~ 140 을 보관했다.
+        new TransactionArchiveStore(directory.toString(), 16).append(rows(40), 140L);
+        TransactionArchiveStore reopened = new TransactionArchiveStore(directory.toString(), 16);
+        reopened.loadSegments();
+
+        // when
+        ArchiveSegment last = reopened.getLastSegment();
+
+        // then
+        assertEquals(140L, last.getMaxSourceId());
+        assertTrue(last.containsSource(120L, "transactionId19"));
+        assertFalse(last.containsSource(141L, "transactionId19"));
+        assertFalse(last.containsSource(120L, "unknown"));
+    }
+
+    @Test
+    void narrowLookupToBlocksByBlockFilter() throws Exception {
+        // given
+        new TransactionArchiveStore(directory.toString(), 16).append(rows(100), 100L);
+        TransactionArchiveStore reopened = new TransactionArchiveStore(directory.toString(), 16);
+        reopened.loadSegments();
+        List<ArchiveSegment.Block> blocks = reopened.getLastSegment().getBlocks();
+
+        // when
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            if (blocks.get(i).mightContain("transactionId37")) {
+                candidates.add(i);
+            }
+        }
+
+        // then
+        // 16 건씩 7 블록, transactionId37 은 세 번째 블록에 있다.
+        assertEquals(7, blocks.size());
+        assertTrue(candidates.contains(2));
+        assertTrue(candidates.size() < blocks.size());
+        assertTrue(reopened.findByTransactionId("transactionId37").isPresent());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.accountservicezerobase.binary;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+    @Test
+    void decodePipelinedRequests() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        BinaryProtocol.writeUse(buffer, 1L, 12L, "1000000012", 1000L);
+        BinaryProtocol.writeCancel(buffer, 2L, "transactionId", "1000000012", 1000L);
+        buffer.flip();
+
+        // when
+        BinaryProtocol.Request use = BinaryProtocol.readRequest(buffer);
+        BinaryProtocol.Request cancel = BinaryProtocol.readRequest(buffer);
+
+        // then
+        assertEquals(BinaryProtocol.OP_USE, use.op());
+        assertEquals(1L, use.correlationId());
+        assertEquals(12L, use.userId());
+        assertEquals("1000000012", use.accountNumber());
+        assertEquals(1000L, use.amount());
+        assertEquals(BinaryProtocol.OP_CANCEL, cancel.op());
+        assertEquals(2L, cancel.correlationId());
+        assertEquals("transactionId", cancel.transactionId());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void waitForCompleteFrame() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        BinaryProtocol.writeUse(buffer, 1L, 12L, "1000000012", 1000L);
+        int frameBytes = buffer.position();
+        buffer.flip();
+
+        // when
+        buffer.limit(frameBytes - 1);
+        int partial = BinaryProtocol.completeFrameLength(buffer);
+        buffer.limit(frameBytes);
+        int complete = BinaryProtocol.completeFrameLength(buffer);
+
+        // then
+        assertEquals(-1, partial);
+        assertEquals(frameBytes - BinaryProtocol.LENGTH_BYTES, complete);
+    }
+
+    @Test
+    void rejectOversizedFrame() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putInt(BinaryProtocol.MAX_FRAME_BYTES + 1).flip();
+
+        // when
+        // then
+        assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.completeFrameLength(buffer));
+    }
+
+    @Test
+    void encodeResponses() {
+        // given
+        LocalDateTime transactedAt = LocalDateTime.now().withNano(0);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        BinaryProtocol.writeResponse(buffer, 3L, TransactionDto.builder()
+                .accountNumber("1000000012")
+                .transactionResultType(TransactionResultType.S)
+                .transactionId("transactionId")
+                .amount(1000L)
+                .transactedAt(transactedAt)
+                .build());
+        BinaryProtocol.writeError(buffer, 4L, "AMOUNT_EXCEED_BALANCE");
+        buffer.flip();
+
+        // when
+        BinaryProtocol.Response ok = BinaryProtocol.readResponse(buffer);
+        BinaryProtocol.Response error = BinaryProtocol.readResponse(buffer);
+
+        // then
+        assertTrue(ok.isOk());
+        assertEquals(3L, ok.correlationId());
+        assertEquals(TransactionResultType.S, ok.transactionResult());
+        assertEquals("transactionId", ok.transactionId());
+        assertEquals(transactedAt, ok.transactedAt());
+        assertFalse(error.isOk());
+        assertEquals(4L, error.correlationId());
+        assertEquals("AMOUNT_EXCEED_BALANCE", error.errorCode());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.accountservicezerobase.binary;
+
+import com.example.accountservicezerobase.cluster.ClusterRouter;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.service.AsyncUseService;
+import com.example.accountservicezerobase.service.LedgerTransactionService;
+import com.example.accountservicezerobase.service.SequencedTransactionService;
+import com.example.accountservicezerobase.service.TransactionService;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryTransactionServerTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private ObjectProvider<LedgerTransactionService> ledgerTransactionService;
+
+    @Mock
+    private ObjectProvider<AsyncUseService> asyncUseService;
+
+    @Mock
+    private ObjectProvider<SequencedTransactionService> sequencedTransactionService;
+
+    @Mock
+    private ObjectProvider<ClusterRouter> clusterRouter;
+
+    private BinaryTransactionServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // in-flight 한도(16)보다 많이 이어 보내도 읽기를 멈췄다가 다시 받아야 한다.
+        server = new BinaryTransactionServer(transactionService, ledgerTransactionService, asyncUseService,
+                sequencedTransactionService, clusterRouter, 0, 4, 16, 4096, 64);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.stop();
+    }
+
+    private static TransactionDto transaction(long amount) {
+        return TransactionDto.builder()
+                .accountNumber("1000000012")
+                .transactionResultType(TransactionResultType.S)
+                .transactionId("transactionId")
+                .amount(amount)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void answerPipelinedRequests() throws Exception {
+        // given
+        given(transactionService.useBalance(eq(12L), eq("1000000012"), anyLong()))
+                .willAnswer(invocation -> transaction(invocation.getArgument(2)));
+
+        try (BinaryTransactionClient client = new BinaryTransactionClient("127.0.0.1", server.getPort())) {
+            // when
+            Set<Long> correlationIds = new HashSet<>();
+            for (int i = 0; i < 200; i++) {
+                correlationIds.add(client.sendUse(12L, "1000000012", 1000L + i));
+            }
+            client.flush();
+
+            // then
+            for (int i = 0; i < 200; i++) {
+                BinaryProtocol.Response response = client.receive();
+                assertTrue(response.isOk());
+                assertTrue(correlationIds.remove(response.correlationId()));
+                assertEquals(1000L + response.correlationId(), response.amount());
+            }
+            assertTrue(correlationIds.isEmpty());
+        }
+        verify(transactionService, times(200)).useBalance(eq(12L), eq("1000000012"), anyLong());
+    }
+
+    @Test
+    void saveFailedUseTransaction() throws Exception {
+        // given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        try (BinaryTransactionClient client = new BinaryTransactionClient("127.0.0.1", server.getPort())) {
+            // when
+            BinaryProtocol.Response response = client.use(12L, "1000000012", 1000L);
+
+            // then
+            assertFalse(response.isOk());
+            assertEquals("AMOUNT_EXCEED_BALANCE", response.errorCode());
+        }
+        verify(transactionService, times(1))
+                .saveFailedUseTransaction("1000000012", 1000L, ErrorCode.AMOUNT_EXCEED_BALANCE);
+    }
+
+    @Test
+    void rejectInvalidRequestWithoutSaving() throws Exception {
+        try (BinaryTransactionClient client = new BinaryTransactionClient("127.0.0.1", server.getPort())) {
+            // when
+            BinaryProtocol.Response response = client.cancel("transactionId", "1000000012", 1L);
+
+            // then
+            assertEquals("INVALID_REQUEST", response.errorCode());
+        }
+        verifyNoInteractions(transactionService);
+    }
+}
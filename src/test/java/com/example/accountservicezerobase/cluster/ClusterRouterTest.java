@@ -0,0 +1,296 @@
+package com.example.accountservicezerobase.cluster;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.AccountUser;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.beans.factory.ObjectProvider;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 내장 레디스 하나를 같이 쓰는 노드 여러 개를 한 프로세스에 띄워 소유권 / 전달 / 재분배를 확인한다.
+ */
+class ClusterRouterTest {
+    private static final int ACCOUNTS = 10000;
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private final List<HttpServer> nodeServers = new ArrayList<>();
+    // 노드별로 전달받은 요청의 X-Cluster-Forwarded-By
+    private final Map<String, List<String>> forwardedBy = new HashMap<>();
+    private final Map<String, HttpServer> servers = new HashMap<>();
+    private final Map<String, OwnerAccountCache> caches = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://localhost:" + port);
+        redissonClient = Redisson.create(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeServers.forEach(server -> server.stop(0));
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    private static String accountNumber(int i) {
+        return String.valueOf(1000000000L + i);
+    }
+
+    /**
+     * 노드 하나를 띄운다. /transaction/use 는 처리한 노드 id 를, /fail 은 업무 오류를 돌려준다.
+     */
+    private ClusterRouter node(String nodeId) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        forwardedBy.put(nodeId, received);
+        server.createContext("/transaction/use", exchange -> {
+            received.add(exchange.getRequestHeaders().getFirst(ClusterRouter.FORWARDED_HEADER));
+            respond(exchange, 200, "{\"servedBy\":\"" + nodeId + "\"}");
+        });
+        server.createContext("/fail", exchange ->
+                respond(exchange, 400, "{\"errorCode\":\"AMOUNT_EXCEED_BALANCE\",\"errorMessage\":\"\"}"));
+        server.start();
+        nodeServers.add(server);
+        servers.put(nodeId, server);
+        OwnerAccountCache cache = new OwnerAccountCache(ACCOUNTS);
+        caches.put(nodeId, cache);
+
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RedissonClient> redisson = mock(ObjectProvider.class);
+        given(redisson.getObject()).willReturn(redissonClient);
+        ClusterRouter router = new ClusterRouter(redisson, new LockProfiler(256, Duration.ofMillis(1)),
+                cache, new ObjectMapper(), nodeId, "http://localhost:" + server.getAddress().getPort(),
+                128, Duration.ofSeconds(30), Duration.ofSeconds(2));
+        router.join();
+        return router;
+    }
+
+    // 노드를 멈춘다. 레디스의 노드 목록에는 TTL 이 지날 때까지 남아 있다.
+    private void kill(String nodeId) {
+        HttpServer server = servers.remove(nodeId);
+        nodeServers.remove(server);
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> owners(ClusterRouter router) {
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            owners.put(accountNumber(i), router.ownerOf(accountNumber(i)));
+        }
+        return owners;
+    }
+
+    private static String ownedBy(ClusterRouter router, String nodeId) {
+        for (int i = 0; ; i++) {
+            if (nodeId.equals(router.ownerOf(accountNumber(i)))) {
+                return accountNumber(i);
+            }
+        }
+    }
+
+    @Test
+    void nodesAgreeOnSingleOwner() throws IOException {
+        // given
+        ClusterRouter nodeA = node("node-a");
+        ClusterRouter nodeB = node("node-b");
+
+        // when
+        nodeA.heartbeat();
+
+        // then
+        assertEquals(Set.of("node-a", "node-b"), nodeA.getMembers().keySet());
+        assertEquals(owners(nodeA), owners(nodeB));
+        for (int i = 0; i < ACCOUNTS; i++) {
+            assertNotEquals(nodeA.isOwner(accountNumber(i)), nodeB.isOwner(accountNumber(i)));
+        }
+    }
+
+    @Test
+    void forwardToOwner() throws IOException {
+        // given
+        ClusterRouter nodeA = node("node-a");
+        node("node-b");
+        nodeA.heartbeat();
+        String accountNumber = ownedBy(nodeA, "node-b");
+
+        // when
+        @SuppressWarnings("unchecked")
+        Map<String, String> response = nodeA.forward("/transaction/use",
+                Map.of("accountNumber", accountNumber), Map.class, accountNumber, () -> fail("handled locally"));
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> nodeA.forward("/fail", Map.of(), Map.class, accountNumber, () -> fail("handled locally")));
+
+        // then
+        assertFalse(nodeA.isOwner(accountNumber));
+        assertEquals("node-b", response.get("servedBy"));
+        assertEquals(List.of("node-a"), forwardedBy.get("node-b"));
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, accountException.getErrorCode());
+    }
+
+    @Test
+    void rebalanceOnJoinAndLeave() throws IOException {
+        // given
+        ClusterRouter nodeA = node("node-a");
+        ClusterRouter nodeB = node("node-b");
+        nodeA.heartbeat();
+        Map<String, String> before = owners(nodeA);
+
+        // when
+        ClusterRouter nodeC = node("node-c");
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        Map<String, String> joined = owners(nodeA);
+
+        // then
+        // 새 노드는 자기 몫만 가져가고 나머지 계좌의 소유 노드는 그대로다.
+        assertEquals(joined, owners(nodeB));
+        assertEquals(joined, owners(nodeC));
+        long moved = 0;
+        for (Map.Entry<String, String> entry : joined.entrySet()) {
+            if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                assertEquals("node-c", entry.getValue());
+                moved++;
+            }
+        }
+        assertTrue(moved > ACCOUNTS / 3 * 0.7 && moved < ACCOUNTS / 3 * 1.3, "moved " + moved);
+
+        // when
+        nodeC.leave();
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+
+        // then
+        assertEquals(Set.of("node-a", "node-b"), nodeB.getMembers().keySet());
+        assertEquals(before, owners(nodeA));
+        assertEquals(before, owners(nodeB));
+        String left = ownedBy(nodeC, "node-c");
+        assertTrue(nodeA.isOwner(left) ^ nodeB.isOwner(left));
+    }
+
+    @Test
+    void handleLocallyWhenOwnerIsDown() throws IOException {
+        // given
+        ClusterRouter nodeA = node("node-a");
+        node("node-b");
+        nodeA.heartbeat();
+        String accountNumber = ownedBy(nodeA, "node-b");
+        kill("node-b");
+
+        // when
+        @SuppressWarnings("unchecked")
+        Map<String, String> response = nodeA.forward("/transaction/use",
+                Map.of("accountNumber", accountNumber), Map.class, accountNumber,
+                () -> Map.of("servedBy", "local"));
+
+        // then
+        // 연결하지 못한 노드는 목록에서 빠지고 남은 노드가 소유한다.
+        assertEquals("local", response.get("servedBy"));
+        assertEquals(Set.of("node-a"), nodeA.getMembers().keySet());
+        assertTrue(nodeA.isOwner(accountNumber));
+    }
+
+    @Test
+    void forwardToNextOwnerWhenOwnerIsDown() throws IOException {
+        // given
+        ClusterRouter nodeA = node("node-a");
+        node("node-b");
+        node("node-c");
+        nodeA.heartbeat();
+        ConsistentHashRing withoutB = new ConsistentHashRing(List.of("node-a", "node-c"), 128);
+        String accountNumber = null;
+        for (int i = 0; accountNumber == null; i++) {
+            if ("node-b".equals(nodeA.ownerOf(accountNumber(i)))
+                    && "node-c".equals(withoutB.ownerOf(accountNumber(i)))) {
+                accountNumber = accountNumber(i);
+            }
+        }
+        kill("node-b");
+
+        // when
+        @SuppressWarnings("unchecked")
+        Map<String, String> response = nodeA.forward("/transaction/use",
+                Map.of("accountNumber", accountNumber), Map.class, accountNumber, () -> fail("handled locally"));
+
+        // then
+        assertEquals("node-c", response.get("servedBy"));
+        assertEquals(List.of("node-a"), forwardedBy.get("node-c"));
+        assertEquals(Set.of("node-a", "node-c"), nodeA.getMembers().keySet());
+    }
+
+    @Test
+    void dropCachedAccountsNoLongerOwned() throws IOException {
+        // given
+        ClusterRouter nodeA = node("node-a");
+        OwnerAccountCache cache = caches.get("node-a");
+        for (int i = 0; i < ACCOUNTS; i++) {
+            cache.putAfterCommit(Account.builder()
+                    .id((long) i)
+                    .accountUser(AccountUser.builder().id(1L).build())
+                    .accountNumber(accountNumber(i))
+                    .accountStatus(AccountStatus.IN_USE)
+                    .balance(10000L)
+                    .version(0L)
+                    .build());
+        }
+
+        // when
+        node("node-b");
+        nodeA.heartbeat();
+
+        // then
+        // 새 노드로 넘어간 계좌만 버리고 계속 소유하는 계좌는 남긴다.
+        int owned = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            if (nodeA.isOwner(accountNumber(i))) {
+                owned++;
+                assertNotNull(cache.get(accountNumber(i)));
+            } else {
+                assertNull(cache.get(accountNumber(i)));
+            }
+        }
+        assertEquals(owned, cache.size());
+        assertTrue(owned > 0 && owned < ACCOUNTS);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.accountservicezerobase.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+    private static final int ACCOUNTS = 100000;
+
+    private static String accountNumber(int i) {
+        return String.valueOf(1000000000L + i);
+    }
+
+    @Test
+    void spreadAccountsEvenly() {
+        // given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 128);
+
+        // when
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            owned.merge(ring.ownerOf(accountNumber(i)), 1, Integer::sum);
+        }
+
+        // then
+        assertEquals(3, owned.size());
+        owned.values().forEach(count -> assertTrue(
+                Math.abs(count - ACCOUNTS / 3) < ACCOUNTS / 3 * 0.2, "owned " + count));
+    }
+
+    @Test
+    void joiningNodeTakesOnlyItsShare() {
+        // given
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-1", "node-2", "node-3", "node-4"), 128);
+
+        // when
+        int moved = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String oldOwner = before.ownerOf(accountNumber(i));
+            String newOwner = after.ownerOf(accountNumber(i));
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("node-4", newOwner);
+                moved++;
+            }
+        }
+
+        // then
+        assertTrue(Math.abs(moved - ACCOUNTS / 4) < ACCOUNTS / 4 * 0.2, "moved " + moved);
+    }
+
+    @Test
+    void noOwnerWithoutNodes() {
+        assertNull(new ConsistentHashRing(List.of(), 128).ownerOf("1000000000"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.accountservicezerobase.config;
+
+import com.example.accountservicezerobase.service.HoldService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AotModeGuardTest {
+    @Test
+    void flagsMatchingBuiltBeans() {
+        // given
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("hold.enabled", "true");
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("redisRepositoryConfig", new RootBeanDefinition(RedisRepositoryConfig.class));
+        beanFactory.registerBeanDefinition("holdService", new RootBeanDefinition(HoldService.class));
+
+        // when
+        List<String> mismatches = AotModeGuard.mismatches(environment, beanFactory);
+
+        // then
+        assertEquals(List.of(), mismatches);
+    }
+
+    @Test
+    void flagsChangedAfterBuild() {
+        // given
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.redis.enabled", "false")
+                .withProperty("sequencer.enabled", "true");
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("redisRepositoryConfig", new RootBeanDefinition(RedisRepositoryConfig.class));
+
+        // when
+        List<String> mismatches = AotModeGuard.mismatches(environment, beanFactory);
+
+        // then
+        assertEquals(List.of(
+                "sequencer.enabled=true (built with false)",
+                "spring.redis.enabled=false (built with true)"
+        ), mismatches);
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.domain.AccountUser;
+import com.example.accountservicezerobase.dto.AccountDto;
+import com.example.accountservicezerobase.dto.CancelBalance;
+import com.example.accountservicezerobase.dto.CreateAccount;
+import com.example.accountservicezerobase.dto.DeleteAccount;
+import com.example.accountservicezerobase.dto.Transfer;
+import com.example.accountservicezerobase.dto.TransferBatch;
+import com.example.accountservicezerobase.dto.UseBalance;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.AccountUserRepository;
+import com.example.accountservicezerobase.service.AccountService;
+import com.example.accountservicezerobase.service.TransactionService;
+import com.example.accountservicezerobase.support.SqlBudget;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 엔드포인트마다 SQL 문 수, 읽어 온 행 수, flush 수의 상한을 둔다.
+ * N+1 이나 불필요한 조회가 끼어들면 실행된 SQL 목록과 함께 실패한다.
+ * 상한을 올려야 한다면 늘어난 쿼리가 꼭 필요한지 먼저 확인한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-budget",
+        "spring.redis.enabled=false",
+        "rollup.flush-interval-ms=3600000",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.accountservicezerobase.support.SqlStatementRecorder"
+})
+@AutoConfigureMockMvc
+class EndpointSqlBudgetTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountUserRepository accountUserRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SqlBudget sqlBudget;
+    private Long userId;
+    private String accountNumber;
+    private String transactionId;
+
+    @BeforeEach
+    void setUp() {
+        // 측정하지 않는 준비 단계 (시퀀스 pool 도 여기서 채워진다)
+        sqlBudget = new SqlBudget(entityManagerFactory);
+        userId = accountUserRepository.save(AccountUser.builder().name("budget").build()).getId();
+        accountNumber = accountService.createAccount(userId, 10000L).getAccountNumber();
+        transactionId = transactionService.useBalance(userId, accountNumber, 1000L).getTransactionId();
+    }
+
+    @Test
+    void createAccount() throws Exception {
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(post("/account")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateAccount.Request(userId, 100L))))
+                .andExpect(status().isOk()));
+
+        // then
+        // 사용자, 사용자 계좌 수, 마지막 계좌번호, 계좌 insert
+        usage.assertWithin("POST /account", 4, 2, 1);
+    }
+
+    @Test
+    void getAccountByUserId() throws Exception {
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(get("/account")
+                        .param("user_id", String.valueOf(userId)))
+                .andExpect(status().isOk()));
+
+        // then
+        // 사용자, 사용자의 계좌 목록 (읽기 전용이라 flush 없음)
+        usage.assertWithin("GET /account", 2, 2, 0);
+    }
+
+    @Test
+    void deleteAccount() throws Exception {
+        // given
+        AccountDto empty = accountService.createAccount(userId, 0L);
+
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(delete("/account")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new DeleteAccount.Request(userId, empty.getAccountNumber()))))
+                .andExpect(status().isOk()));
+
+        // then
+        // 사용자, 계좌, 계좌 update (계좌 update 를 먼저 flush 하므로 flush 2)
+        usage.assertWithin("DELETE /account", 3, 2, 2);
+    }
+
+    @Test
+    void getLock() throws Exception {
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(get("/get-lock"))
+                .andExpect(status().isOk()));
+
+        // then
+        usage.assertWithin("GET /get-lock", 0, 0, 0);
+    }
+
+    @Test
+    void getAccount() throws Exception {
+        // given
+        Long accountId = accountRepository.findByAccountNumber(accountNumber).get().getId();
+
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(get("/account/" + accountId))
+                .andExpect(status().isOk()));
+
+        // then
+        // 계좌 (사용자는 join 으로 함께)
+        usage.assertWithin("GET /account/{id}", 1, 2, 1);
+    }
+
+    @Test
+    void useBalance() throws Exception {
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(userId, accountNumber, 1000L))))
+                .andExpect(status().isOk()));
+
+        // then
+        // 사용자, 계좌, 계좌 update, 거래 insert (계좌 update 를 먼저 flush 하므로 flush 2)
+        usage.assertWithin("POST /transaction/use", 4, 2, 2);
+    }
+
+    @Test
+    void useBalanceFailed() throws Exception {
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(userId, accountNumber, 100000L))))
+                .andExpect(status().isBadRequest()));
+
+        // then
+        // 사용자, 계좌 (롤백) + 실패 거래 저장: 계좌, 계좌 사용자, 거래 insert
+        usage.assertWithin("POST /transaction/use (failed)", 5, 4, 1);
+    }
+
+    @Test
+    void cancelBalance() throws Exception {
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(post("/transaction/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CancelBalance.Request(transactionId, accountNumber, 1000L))))
+                .andExpect(status().isOk()));
+
+        // then
+        // 거래, 거래의 계좌(사용자 join), 계좌번호로 계좌, 계좌 update, 거래 insert (계좌 update 를 먼저 flush 하므로 flush 2)
+        usage.assertWithin("POST /transaction/cancel", 5, 3, 2);
+    }
+
+    @Test
+    void transfer() throws Exception {
+        // given
+        String toAccountNumber = accountService.createAccount(userId, 0L).getAccountNumber();
+
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(post("/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new Transfer.Request(userId, accountNumber, toAccountNumber, 1000L))))
+                .andExpect(status().isOk()));
+
+        // then
+        // 사용자, 두 계좌 select for update, 거래 insert 2, 계좌 update 2
+        usage.assertWithin("POST /transaction/transfer", 7, 3, 1);
+    }
+
+    private SqlBudget.Usage transferBatch(int targets) throws Exception {
+        List<TransferBatch.Item> items = new ArrayList<>();
+        for (int i = 0; i < targets; i++) {
+            items.add(new TransferBatch.Item(accountService.createAccount(userId, 0L).getAccountNumber(), 100L));
+        }
+        return sqlBudget.measure(() -> mockMvc.perform(post("/transaction/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferBatch.Request(userId, accountNumber, items))))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void transferBatch() throws Exception {
+        // when
+        SqlBudget.Usage single = transferBatch(1);
+        SqlBudget.Usage batch = transferBatch(5);
+
+        // then
+        // 사용자, 계좌 (n + 1) select for update, 거래 insert 2n, 계좌 update (n + 1)
+        single.assertWithin("POST /transaction/transfer/batch (1 item)", 7, 3, 1);
+        batch.assertWithin("POST /transaction/transfer/batch (5 items)", 4 * 5 + 3, 5 + 2, 1);
+        // 항목 하나가 늘 때마다 받는 계좌 select / update, 거래 insert 2 만 늘어난다.
+        assertEquals(4 * (5 - 1), batch.statements().size() - single.statements().size());
+    }
+
+    @Test
+    void queryTransaction() throws Exception {
+        // when
+        SqlBudget.Usage usage = sqlBudget.measure(() -> mockMvc.perform(get("/transaction/" + transactionId))
+                .andExpect(status().isOk()));
+
+        // then
+        // 거래, 거래의 계좌(사용자 join)
+        usage.assertWithin("GET /transaction/{transactionId}", 2, 3, 0);
+    }
+}
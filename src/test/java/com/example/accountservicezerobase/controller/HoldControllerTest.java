@@ -0,0 +1,159 @@
+package com.example.accountservicezerobase.controller;
+
+import com.example.accountservicezerobase.cluster.ClusterRouter;
+import com.example.accountservicezerobase.dto.CaptureHold;
+import com.example.accountservicezerobase.dto.HoldDto;
+import com.example.accountservicezerobase.dto.PlaceHold;
+import com.example.accountservicezerobase.dto.ReleaseHold;
+import com.example.accountservicezerobase.service.HoldService;
+import com.example.accountservicezerobase.type.HoldStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 클러스터 모드에서 승인 요청도 잔액 사용/취소처럼 소유 노드로 전달되고, 소유 노드에서는 로컬 락 안에서 처리되는지 본다.
+ */
+@WebMvcTest(controllers = HoldController.class, properties = "hold.enabled=true")
+class HoldControllerTest {
+    @MockBean
+    private HoldService holdService;
+
+    @MockBean
+    private ClusterRouter clusterRouter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void forwardHoldToOwner() throws Exception {
+        // given
+        given(clusterRouter.isOwner("1000000000"))
+                .willReturn(false);
+        given(clusterRouter.forward(eq("/hold"), any(), eq(PlaceHold.Response.class), eq("1000000000"), any()))
+                .willReturn(PlaceHold.Response.builder()
+                        .accountNumber("1000000000")
+                        .holdId("holdId")
+                        .holdStatus(HoldStatus.HELD)
+                        .amount(3000L)
+                        .build());
+
+        // when
+        // then
+        mockMvc.perform(post("/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new PlaceHold.Request(1L, "1000000000", 3000L, null)
+                        ))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdId").value("holdId"));
+        verify(holdService, never()).hold(anyLong(), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void forwardCaptureAndReleaseToOwner() throws Exception {
+        // given
+        given(clusterRouter.isOwner("1000000000"))
+                .willReturn(false);
+        given(clusterRouter.forward(eq("/hold/capture"), any(), eq(CaptureHold.Response.class), eq("1000000000"), any()))
+                .willReturn(CaptureHold.Response.builder().holdId("holdId").build());
+        given(clusterRouter.forward(eq("/hold/release"), any(), eq(ReleaseHold.Response.class), eq("1000000000"), any()))
+                .willReturn(ReleaseHold.Response.builder().holdId("holdId").build());
+
+        // when
+        // then
+        mockMvc.perform(post("/hold/capture")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CaptureHold.Request("holdId", "1000000000", 1000L)
+                        ))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdId").value("holdId"));
+        mockMvc.perform(post("/hold/release")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ReleaseHold.Request("holdId", "1000000000")
+                        ))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdId").value("holdId"));
+        verify(holdService, never()).capture(anyString(), anyString(), anyLong());
+        verify(holdService, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void holdOnOwnerUnderLocalLock() throws Exception {
+        // given
+        given(clusterRouter.isOwner("1000000000"))
+                .willReturn(true);
+        given(clusterRouter.executeLocally(eq("1000000000"), any()))
+                .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        given(holdService.hold(1L, "1000000000", 3000L, null))
+                .willReturn(HoldDto.builder()
+                        .accountNumber("1000000000")
+                        .holdId("holdId")
+                        .holdStatus(HoldStatus.HELD)
+                        .amount(3000L)
+                        .build());
+
+        // when
+        // then
+        mockMvc.perform(post("/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new PlaceHold.Request(1L, "1000000000", 3000L, null)
+                        ))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdId").value("holdId"));
+        verify(clusterRouter).executeLocally(eq("1000000000"), any());
+        verify(clusterRouter, never()).forward(anyString(), any(), any(), anyString(), any());
+    }
+
+    @Test
+    void holdHereWhenOwnerIsUnreachable() throws Exception {
+        // given
+        // 소유 노드에 연결하지 못해 이 노드가 새 소유 노드가 되면 router 가 넘겨준 로컬 처리를 부른다.
+        given(clusterRouter.isOwner("1000000000"))
+                .willReturn(false);
+        given(clusterRouter.getNodeId())
+                .willReturn("node-a");
+        given(clusterRouter.forward(eq("/hold"), any(), eq(PlaceHold.Response.class), eq("1000000000"), any()))
+                .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+        given(clusterRouter.executeLocally(eq("1000000000"), any()))
+                .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        given(holdService.hold(1L, "1000000000", 3000L, null))
+                .willReturn(HoldDto.builder()
+                        .accountNumber("1000000000")
+                        .holdId("holdId")
+                        .holdStatus(HoldStatus.HELD)
+                        .amount(3000L)
+                        .build());
+
+        // when
+        // then
+        mockMvc.perform(post("/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new PlaceHold.Request(1L, "1000000000", 3000L, null)
+                        ))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdId").value("holdId"));
+        verify(clusterRouter).executeLocally(eq("1000000000"), any());
+    }
+}
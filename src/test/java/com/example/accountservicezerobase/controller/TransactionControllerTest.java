@@ -3,11 +3,17 @@ package com.example.accountservicezerobase.controller;
 import com.example.accountservicezerobase.dto.AccountDto;
 import com.example.accountservicezerobase.dto.CancelBalance;
 import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.dto.Transfer;
+import com.example.accountservicezerobase.dto.TransferDto;
 import com.example.accountservicezerobase.dto.UseBalance;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.service.SequencedTransactionService;
 import com.example.accountservicezerobase.service.TransactionService;
+import com.example.accountservicezerobase.type.ErrorCode;
 import com.example.accountservicezerobase.type.TransactionResultType;
 import com.example.accountservicezerobase.type.TransactionType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -22,6 +28,8 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -114,4 +122,139 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.transactionId").value("transactionIdForCancel"))
                 .andExpect(jsonPath("$.amount").value(54322));
     }
+
+    @Test
+    void failUseBalance() throws Exception {
+        // given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willThrow(AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        // when
+        // then
+        mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(1L, "2000000000", 3000L)
+                        ))
+                ).andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("AMOUNT_EXCEED_BALANCE"))
+                .andExpect(jsonPath("$.errorMessage").value(ErrorCode.AMOUNT_EXCEED_BALANCE.getDescription()));
+        verify(transactionService).saveFailedUseTransaction("2000000000", 3000L, ErrorCode.AMOUNT_EXCEED_BALANCE);
+    }
+
+    @Test
+    void failInvalidRequest() throws Exception {
+        // given
+        // when
+        // then
+        mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(1L, "2000000000", 1L)
+                        ))
+                ).andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"));
+    }
+
+    @Test
+    void successTransfer() throws Exception {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        given(transactionService.transfer(anyLong(), anyString(), anyString(), anyLong()))
+                .willReturn(TransferDto.builder()
+                        .debit(TransactionDto.builder()
+                                .accountNumber("1000000000")
+                                .transactionType(TransactionType.TRANSFER_OUT)
+                                .transactionResultType(TransactionResultType.S)
+                                .transactionId("debitId")
+                                .linkedTransactionId("creditId")
+                                .amount(3000L)
+                                .transactedAt(now)
+                                .build())
+                        .credit(TransactionDto.builder()
+                                .accountNumber("1000000001")
+                                .transactionType(TransactionType.TRANSFER_IN)
+                                .transactionResultType(TransactionResultType.S)
+                                .transactionId("creditId")
+                                .linkedTransactionId("debitId")
+                                .amount(3000L)
+                                .transactedAt(now)
+                                .build())
+                        .build());
+        // when
+        // then
+        mockMvc.perform(post("/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new Transfer.Request(1L, "1000000000", "1000000001", 3000L)
+                        ))
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromAccountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.toAccountNumber").value("1000000001"))
+                .andExpect(jsonPath("$.transactionResult").value("S"))
+                .andExpect(jsonPath("$.transactionId").value("debitId"))
+                .andExpect(jsonPath("$.linkedTransactionId").value("creditId"))
+                .andExpect(jsonPath("$.amount").value(3000L));
+    }
+
+    @Test
+    void failedTransferIsRecorded() throws Exception {
+        // given
+        given(transactionService.transfer(anyLong(), anyString(), anyString(), anyLong()))
+                .willThrow(AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE));
+        // when
+        // then
+        mockMvc.perform(post("/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new Transfer.Request(1L, "1000000000", "1000000001", 3000L)
+                        ))
+                ).andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("AMOUNT_EXCEED_BALANCE"));
+        verify(transactionService).saveFailedTransferTransaction(
+                "1000000000", 3000L, ErrorCode.AMOUNT_EXCEED_BALANCE);
+    }
+
+    @Nested
+    class SequencerMode {
+        @MockBean
+        private SequencedTransactionService sequencedTransactionService;
+
+        // 이 클래스는 별도 컨텍스트로 뜨므로 필요한 빈을 다시 주입받는다.
+        @Autowired
+        private TransactionService transactionService;
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        void rejectDirectBalanceChanges() throws Exception {
+            // given
+            // when
+            // then
+            mockMvc.perform(post("/transaction/use")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new UseBalance.Request(1L, "1000000000", 3000L)
+                            ))
+                    ).andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"));
+            mockMvc.perform(post("/transaction/transfer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new Transfer.Request(1L, "1000000000", "1000000001", 3000L)
+                            ))
+                    ).andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"));
+            verify(transactionService, never()).useBalance(anyLong(), anyString(), anyLong());
+            verify(transactionService, never()).transfer(anyLong(), anyString(), anyString(), anyLong());
+        }
+    }
 }
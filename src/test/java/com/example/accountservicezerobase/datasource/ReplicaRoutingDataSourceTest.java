@@ -0,0 +1,134 @@
+package com.example.accountservicezerobase.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 서로 다른 메모리 H2 를 primary / replica 로 두고, 각 DB 의 marker 로 어디서 읽었는지 확인한다.
+ */
+class ReplicaRoutingDataSourceTest {
+    private static final String POSITION_QUERY = "select position from replication_position";
+    private static final String ADVANCE_STATEMENT = "update replication_position set position = position + 1";
+
+    private final Map<String, DataSource> databases = new LinkedHashMap<>();
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    private DataSource database(String name, long position) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table marker(name varchar(20))");
+        template.update("insert into marker values (?)", name);
+        template.execute("create table replication_position(position bigint)");
+        template.update("insert into replication_position values (?)", position);
+        databases.put(name, dataSource);
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary", 10L);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", database("replica-0", 3L));
+        replicas.put("replica-1", database("replica-1", 7L));
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, ReplicaSelection.ROUND_ROBIN,
+                null, POSITION_QUERY, POSITION_QUERY, 1);
+        routingDataSource.checkHealth();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicationContext.clear();
+        databases.values().forEach(dataSource -> new JdbcTemplate(dataSource).execute("drop all objects"));
+    }
+
+    private String readMarker(TransactionTemplate template) {
+        return template.execute(status -> jdbcTemplate.queryForObject("select name from marker", String.class));
+    }
+
+    @Test
+    void routeReadOnlyTransactionsRoundRobin() {
+        // given
+        // when
+        List<String> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(readMarker(readOnlyTransactionTemplate));
+        }
+
+        // then
+        assertEquals(List.of("replica-0", "replica-1", "replica-0", "replica-1"), readers);
+        assertEquals("primary", readMarker(transactionTemplate));
+        assertEquals(10L, routingDataSource.primaryPosition());
+    }
+
+    @Test
+    void skipUnhealthyReplica() {
+        // given
+        new JdbcTemplate(databases.get("replica-0")).execute("drop table replication_position");
+
+        // when
+        routingDataSource.checkHealth();
+
+        // then
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-1", readMarker(readOnlyTransactionTemplate));
+        }
+        assertFalse(routingDataSource.getReplicas().get(0).isHealthy());
+    }
+
+    @Test
+    void readYourWritesWithPositionToken() {
+        // given
+        // when
+        // then
+        ReplicationContext.setMinPosition(5L);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-1", readMarker(readOnlyTransactionTemplate));
+        }
+        ReplicationContext.setMinPosition(10L);
+        assertEquals("primary", readMarker(readOnlyTransactionTemplate));
+    }
+
+    @Test
+    void advancePositionOnEveryWriteResponse() throws Exception {
+        // given
+        ReplicaRoutingDataSource advancing = new ReplicaRoutingDataSource(databases.get("primary"),
+                Map.of("replica-1", databases.get("replica-1")), ReplicaSelection.ROUND_ROBIN,
+                ADVANCE_STATEMENT, POSITION_QUERY, POSITION_QUERY, 1);
+
+        // when
+        // 거래를 남기지 않는 쓰기(계좌 해지 등)도 응답마다 위치가 움직인다.
+        long first = advancing.primaryPosition();
+        long second = advancing.primaryPosition();
+
+        // then
+        assertEquals(11L, first);
+        assertEquals(12L, second);
+        assertEquals(12L, new JdbcTemplate(databases.get("primary"))
+                .queryForObject(POSITION_QUERY, Long.class));
+    }
+}
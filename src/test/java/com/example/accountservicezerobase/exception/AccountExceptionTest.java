@@ -0,0 +1,31 @@
+package com.example.accountservicezerobase.exception;
+
+import com.example.accountservicezerobase.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountExceptionTest {
+    @Test
+    void reusePreallocatedStacklessInstance() {
+        // given
+        // when
+        AccountException first = AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        AccountException second = AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        first.addSuppressed(new IllegalStateException());
+
+        // then
+        assertSame(first, second);
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, first.getErrorCode());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE.getDescription(), first.getErrorMessage());
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals(0, first.getSuppressed().length);
+    }
+
+    @Test
+    void preallocateEveryErrorCode() {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            assertEquals(errorCode, AccountException.of(errorCode).getErrorCode());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.accountservicezerobase.hold;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+    @Test
+    void expireAtDeadlineNotBefore() {
+        // given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 3, 0);
+        wheel.schedule("a", 55);
+        wheel.schedule("b", 1000);
+
+        // when
+        // then
+        assertEquals(List.of(), wheel.advance(49));
+        assertEquals(List.of("a"), wheel.advance(50));
+        assertEquals(List.of(), wheel.advance(999));
+        assertEquals(List.of("b"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextAdvance() {
+        // given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 2, 1000);
+
+        // when
+        wheel.schedule("late", 10);
+
+        // then
+        assertEquals(List.of("late"), wheel.advance(1000));
+    }
+
+    @Test
+    void canceledAndRescheduledKeys() {
+        // given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 2, 0);
+        wheel.schedule("canceled", 100);
+        wheel.schedule("moved", 100);
+
+        // when
+        assertTrue(wheel.cancel("canceled"));
+        wheel.schedule("moved", 300);
+
+        // then
+        assertFalse(wheel.cancel("canceled"));
+        assertEquals(List.of(), wheel.advance(200));
+        assertEquals(List.of("moved"), wheel.advance(300));
+    }
+
+    @Test
+    void beyondTopLevelRangeWaitsInFarthestSlot() {
+        // given
+        // 10ms * 4^2 = 160ms 까지만 나눠 담는다.
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 2, 0);
+        wheel.schedule("far", 10_000);
+
+        // when
+        // then
+        for (long now = 0; now < 10_000; now += 70) {
+            assertEquals(List.of(), wheel.advance(now), "at " + now);
+        }
+        assertEquals(List.of("far"), wheel.advance(10_000));
+    }
+
+    @Test
+    void matchesSortedDeadlinesUnderRandomOperations() {
+        // given
+        Random random = new Random(7);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(5, 16, 3, 0);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        long now = 0;
+
+        // when
+        // then
+        for (int i = 0; i < 20_000; i++) {
+            int op = random.nextInt(10);
+            if (op < 5) {
+                long deadline = now + random.nextInt(op == 0 ? 200_000 : 2_000);
+                wheel.schedule(i, deadline);
+                deadlines.put(i, deadline);
+            } else if (op < 6 && !deadlines.isEmpty()) {
+                Integer key = deadlines.keySet().iterator().next();
+                assertTrue(wheel.cancel(key));
+                deadlines.remove(key);
+            } else {
+                now += random.nextInt(op == 9 ? 20_000 : 50);
+                long currentTick = now / 5;
+                for (Integer key : wheel.advance(now)) {
+                    assertTrue(deadlines.remove(key) / 5 <= currentTick, "early " + key);
+                }
+                deadlines.values().forEach(deadline -> assertTrue(deadline / 5 > currentTick, "late " + deadline));
+                assertEquals(deadlines.size(), wheel.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.accountservicezerobase.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerEngineTest {
+    @TempDir
+    Path directory;
+
+    private final LedgerEngine.Receipt receipt = new LedgerEngine.Receipt();
+
+    private LedgerEngine open(List<Long> replayedSeqs) throws Exception {
+        return LedgerEngine.open(directory, 4, 4096, 1000,
+                (seq, op, slot, amount, balance, x, y, time) -> replayedSeqs.add(seq));
+    }
+
+    @Test
+    void debitAndCredit() throws Exception {
+        // given
+        LedgerEngine engine = open(new ArrayList<>());
+        int slot = engine.register(1000000000L, 1L, 12L, 10000L, true, receipt);
+
+        // when
+        int used = engine.debit(slot, 12L, 3000L, 0L, 1L, 0L, receipt);
+        int exceeded = engine.debit(slot, 12L, 8000L, 0L, 2L, 0L, receipt);
+        int unMatched = engine.debit(slot, 13L, 1000L, 0L, 3L, 0L, receipt);
+        int canceled = engine.credit(slot, 3000L, 0L, 4L, 0L, receipt);
+        int negativeDebit = engine.debit(slot, 12L, -1000L, 0L, 5L, 0L, receipt);
+        int negativeCredit = engine.credit(slot, -1000L, 0L, 6L, 0L, receipt);
+        engine.close();
+
+        // then
+        assertEquals(LedgerEngine.OK, used);
+        assertEquals(LedgerEngine.AMOUNT_EXCEED_BALANCE, exceeded);
+        assertEquals(LedgerEngine.USER_ACCOUNT_UN_MATCH, unMatched);
+        assertEquals(LedgerEngine.OK, canceled);
+        assertEquals(LedgerEngine.INVALID_REQUEST, negativeDebit);
+        assertEquals(LedgerEngine.INVALID_REQUEST, negativeCredit);
+        assertEquals(10000L, engine.balance(slot));
+    }
+
+    @Test
+    void recoverFromWal() throws Exception {
+        // given
+        LedgerEngine engine = open(new ArrayList<>());
+        int slot = engine.register(1000000000L, 1L, 12L, 10000L, true, receipt);
+        engine.debit(slot, 12L, 1000L, 0L, 1L, 0L, receipt);
+        engine.debit(slot, 12L, 2000L, 0L, 2L, 0L, receipt);
+        engine.close();
+
+        // when
+        List<Long> replayed = new ArrayList<>();
+        LedgerEngine recovered = open(replayed);
+        recovered.close();
+
+        // then
+        assertEquals(List.of(1L, 2L, 3L), replayed);
+        assertEquals(3L, recovered.lastSeq());
+        assertEquals(slot, recovered.slotOf(1000000000L));
+        assertEquals(7000L, recovered.balance(slot));
+        assertEquals(1L, recovered.accountId(slot));
+    }
+
+    @Test
+    void recoverFromSnapshotAndWal() throws Exception {
+        // given
+        LedgerEngine engine = open(new ArrayList<>());
+        int first = engine.register(1000000000L, 1L, 12L, 10000L, true, receipt);
+        int second = engine.register(1000000001L, 2L, 12L, 500L, false, receipt);
+        engine.debit(first, 12L, 1000L, 0L, 1L, 0L, receipt);
+        engine.snapshot(engine.lastSeq());
+        engine.debit(first, 12L, 2000L, 0L, 2L, 0L, receipt);
+        engine.close();
+
+        // when
+        List<Long> replayed = new ArrayList<>();
+        LedgerEngine recovered = open(replayed);
+        recovered.close();
+
+        // then
+        assertEquals(List.of(4L), replayed);
+        assertEquals(3L, recovered.snapshotSeq());
+        assertEquals(7000L, recovered.balance(first));
+        assertEquals(500L, recovered.balance(second));
+        assertFalse(recovered.isActive(second));
+        assertEquals(LedgerEngine.ACCOUNT_ALREADY_UNREGISTERED,
+                recovered.debit(second, 12L, 100L, 0L, 3L, 0L, receipt));
+    }
+}
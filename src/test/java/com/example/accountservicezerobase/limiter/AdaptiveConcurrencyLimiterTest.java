@@ -0,0 +1,122 @@
+package com.example.accountservicezerobase.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final int CAPACITY = 50;
+    private static final double WORK_MS = 10.0;
+    private static final double TIMEOUT_MS = 50.0;
+    private static final double STEP_MS = 0.1;
+    private static final double PEAK_PER_MS = CAPACITY / WORK_MS;
+
+    private static AdaptiveConcurrencyLimiter newLimiter() {
+        return new AdaptiveConcurrencyLimiter("test", new GradientLimit(20, 4, 500, 1.5, 0.5, 50));
+    }
+
+    /**
+     * 동시에 CAPACITY 개까지는 WORK_MS 안에 끝나고, 그보다 많으면 나눠서 처리해 느려지는 서버(processor sharing).
+     * TIMEOUT_MS 안에 끝난 요청만 성공으로 보고, 앞쪽 1/4 구간을 뺀 성공 처리량을 최대 처리량 대비 비율로 돌려준다.
+     */
+    private static double goodput(AdaptiveConcurrencyLimiter limiter, double overload, int steps) {
+        double arrivalsPerStep = PEAK_PER_MS * overload * STEP_MS;
+        List<double[]> inFlight = new ArrayList<>();
+        Random random = new Random(1);
+        double arrivals = 0;
+        long good = 0;
+        for (int step = 0; step < steps; step++) {
+            double now = step * STEP_MS;
+            arrivals += arrivalsPerStep;
+            while (arrivals >= 1) {
+                arrivals -= 1;
+                if (limiter == null || limiter.tryAcquire()) {
+                    inFlight.add(new double[]{WORK_MS * (0.5 + random.nextDouble()), now});
+                }
+            }
+            int n = inFlight.size();
+            double progress = n <= CAPACITY ? STEP_MS : STEP_MS * CAPACITY / n;
+            Iterator<double[]> iterator = inFlight.iterator();
+            while (iterator.hasNext()) {
+                double[] request = iterator.next();
+                request[0] -= progress;
+                if (request[0] <= 0) {
+                    iterator.remove();
+                    double rtt = now + STEP_MS - request[1];
+                    if (limiter != null) {
+                        limiter.release((long) (rtt * 1_000_000));
+                    }
+                    if (step > steps / 4 && rtt <= TIMEOUT_MS) {
+                        good++;
+                    }
+                }
+            }
+        }
+        return good / ((steps - steps / 4) * STEP_MS) / PEAK_PER_MS;
+    }
+
+    @Test
+    void collapseWithoutLimiterUnderOverload() {
+        // when
+        double goodput = goodput(null, 5, 5000);
+
+        // then
+        assertTrue(goodput < 0.1, "goodput " + goodput);
+    }
+
+    @Test
+    void keepGoodputNearPeakUnderFiveTimesOverload() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = newLimiter();
+
+        // when
+        double goodput = goodput(limiter, 5, 20000);
+
+        // then
+        assertTrue(goodput > 0.9, "goodput " + goodput);
+        assertTrue(limiter.getShed() > 0);
+        assertTrue(limiter.getLimit() >= CAPACITY, "limit " + limiter.getLimit());
+        assertTrue(limiter.getLimit() < 2 * CAPACITY, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void notShedUnderLightLoad() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = newLimiter();
+
+        // when
+        double goodput = goodput(limiter, 0.5, 20000);
+
+        // then
+        assertEquals(0.5, goodput, 0.01);
+        assertTrue(limiter.getShed() < limiter.getAccepted() / 50);
+    }
+
+    @Test
+    void rejectWhenLimitReached() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test",
+                new GradientLimit(2, 1, 10, 1.5, 0.5, 50));
+
+        // when
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+        limiter.release(0);
+        boolean fourth = limiter.tryAcquire();
+
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(fourth);
+        assertEquals(3, limiter.getAccepted());
+        assertEquals(1, limiter.getShed());
+        assertEquals(2, limiter.getInFlight());
+    }
+}
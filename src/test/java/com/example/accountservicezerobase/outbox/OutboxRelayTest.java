@@ -0,0 +1,173 @@
+package com.example.accountservicezerobase.outbox;
+
+import com.example.accountservicezerobase.domain.OutboxEvent;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import com.example.accountservicezerobase.repository.OutboxEventRepository;
+import com.example.accountservicezerobase.shard.ShardContext;
+import com.example.accountservicezerobase.shard.ShardDirectory;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBatch;
+import org.redisson.api.RLock;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ObjectProvider<RedissonClient> redissonClientProvider;
+
+    @Mock
+    private ObjectProvider<ShardRouter> shardRouterProvider;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock lock;
+
+    @Mock
+    private RBatch batch;
+
+    @Mock
+    private RStreamAsync<Object, Object> stream;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, redissonClientProvider, shardRouterProvider,
+                new LockProfiler(16, Duration.ofMillis(1)), meterRegistry,
+                "account-transactions", 2, 10);
+        given(redissonClientProvider.getIfAvailable()).willReturn(redissonClient);
+        given(redissonClient.getLock(anyString())).willReturn(lock);
+    }
+
+    private OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .transactionId("transactionId" + id)
+                .accountNumber("1000000000")
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactedAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void publishThenDelete() {
+        // given
+        given(lock.tryLock()).willReturn(true);
+        given(redissonClient.createBatch(any())).willReturn(batch);
+        given(batch.getStream(anyString(), any())).willReturn(stream);
+        given(outboxEventRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .willReturn(List.of(event(1L), event(2L)))
+                .willReturn(List.of(event(3L)));
+
+        // when
+        long published = outboxRelay.relay();
+
+        // then
+        assertEquals(3L, published);
+        verify(stream, times(3)).addAsync(any());
+        verify(batch, times(2)).execute();
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(outboxEventRepository).findByIdGreaterThanOrderByIdAsc(eq(2L), any());
+        verify(lock).unlock();
+        assertEquals(3.0, meterRegistry.get("outbox.relay.published").counter().count());
+        assertEquals(0.0, meterRegistry.get("outbox.relay.lag").gauge().value());
+    }
+
+    @Test
+    void keepRowsWhenPublishFails() {
+        // given
+        given(lock.tryLock()).willReturn(true);
+        given(redissonClient.createBatch(any())).willReturn(batch);
+        given(batch.getStream(anyString(), any())).willReturn(stream);
+        given(batch.execute()).willThrow(new IllegalStateException("redis down"));
+        given(outboxEventRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .willReturn(List.of(event(1L), event(2L)));
+
+        // when
+        long published = outboxRelay.relay();
+
+        // then
+        assertEquals(0L, published);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        verify(lock).unlock();
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failures").counter().count());
+    }
+
+    @Test
+    void relayEveryShard() {
+        // given
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        ShardDirectory shardDirectory = mock(ShardDirectory.class);
+        given(shardRouterProvider.getIfAvailable()).willReturn(shardRouter);
+        given(shardRouter.getDirectory()).willReturn(shardDirectory);
+        given(shardDirectory.getShards()).willReturn(List.of("shard-0", "shard-1"));
+        given(lock.tryLock()).willReturn(true);
+        given(redissonClient.createBatch(any())).willReturn(batch);
+        given(batch.getStream(anyString(), any())).willReturn(stream);
+        List<String> readShards = new ArrayList<>();
+        given(outboxEventRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .willAnswer(invocation -> {
+                    readShards.add(ShardContext.get());
+                    return "shard-0".equals(ShardContext.get())
+                            ? List.of(event(1L))
+                            : List.of(event(1000000000001L));
+                });
+
+        // when
+        long published = outboxRelay.relay();
+
+        // then
+        assertEquals(2L, published);
+        assertEquals(List.of("shard-0", "shard-1"), readShards);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1000000000001L));
+        verify(lock).unlock();
+        assertNull(ShardContext.get());
+    }
+
+    @Test
+    void skipWhenAnotherRelayHoldsTheLock() {
+        // given
+        given(lock.tryLock()).willReturn(false);
+
+        // when
+        long published = outboxRelay.relay();
+
+        // then
+        assertEquals(0L, published);
+        verify(outboxEventRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+}
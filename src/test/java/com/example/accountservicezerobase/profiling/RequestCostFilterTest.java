@@ -0,0 +1,109 @@
+package com.example.accountservicezerobase.profiling;
+
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.type.TransactionType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCostFilterTest {
+    private static final int ALLOCATION = 4 * 1024 * 1024;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static MockHttpServletRequest useRequest() {
+        return new MockHttpServletRequest("POST", "/transaction/use");
+    }
+
+    // 핸들러 매핑과 서비스가 하는 일을 흉내낸다.
+    private static FilterChain useChain(RequestCostFilter filter, byte[][] sink) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/transaction/use");
+            sink[0] = new byte[ALLOCATION];
+            filter.onTransactionSaved(TransactionSavedEvent.builder()
+                    .transactionType(TransactionType.USE)
+                    .build());
+            response.getWriter().write("ok");
+        };
+    }
+
+    @Test
+    void recordAllocationAndCpuPerEndpointAndTransactionType() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, 1.0, false);
+        byte[][] sink = new byte[1][];
+
+        // when
+        filter.doFilter(useRequest(), new MockHttpServletResponse(), useChain(filter, sink));
+
+        // then
+        DistributionSummary allocation = meterRegistry.get("request.allocation")
+                .tag("endpoint", "POST /transaction/use")
+                .tag("transactionType", "USE")
+                .summary();
+        assertEquals(1L, allocation.count());
+        assertTrue(allocation.totalAmount() >= ALLOCATION);
+        assertEquals(1L, meterRegistry.get("request.cpu")
+                .tag("endpoint", "POST /transaction/use")
+                .tag("transactionType", "USE")
+                .timer().count());
+        assertEquals(ALLOCATION, sink[0].length);
+    }
+
+    @Test
+    void notSampled() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, 0.0, false);
+
+        // when
+        filter.doFilter(useRequest(), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        // then
+        assertNull(meterRegistry.find("request.allocation").summary());
+        assertNull(meterRegistry.find("request.cpu").timer());
+    }
+
+    @Test
+    void untaggedRequestIsNone() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, 1.0, false);
+
+        // when
+        filter.doFilter(new MockHttpServletRequest("GET", "/nowhere"), new MockHttpServletResponse(),
+                (request, response) -> {
+                });
+
+        // then
+        assertEquals(1L, meterRegistry.get("request.allocation")
+                .tag("endpoint", "GET UNMAPPED")
+                .tag("transactionType", "NONE")
+                .summary().count());
+    }
+
+    @Test
+    void debugHeadersForcedEvenWhenNotSampled() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, 0.0, true);
+        MockHttpServletRequest request = useRequest();
+        request.addHeader(RequestCostFilter.DEBUG_HEADER, "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, useChain(filter, new byte[1][]));
+
+        // then
+        assertTrue(Long.parseLong(response.getHeader(RequestCostFilter.ALLOCATED_BYTES_HEADER)) >= ALLOCATION);
+        assertNotNull(response.getHeader(RequestCostFilter.CPU_MICROS_HEADER));
+        assertEquals("ok", response.getContentAsString());
+        assertTrue(meterRegistry.get("request.cpu").timer().totalTime(TimeUnit.NANOSECONDS) >= 0);
+    }
+}
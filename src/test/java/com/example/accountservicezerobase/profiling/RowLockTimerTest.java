@@ -0,0 +1,75 @@
+package com.example.accountservicezerobase.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowLockTimerTest {
+    private static String blockFor(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "locked";
+    }
+
+    @Test
+    void measureWaitAroundLockCallOnly() {
+        // given
+        RowLockTimer timer = RowLockTimer.start();
+
+        // when
+        // 잠금 전 작업은 대기로 잡히지 않는다.
+        blockFor(20);
+        String result = RowLockTimer.lock(() -> blockFor(30));
+        RowLockTimer.lock(() -> blockFor(10));
+        long holdNanos = timer.holdNanos(System.nanoTime());
+        timer.end();
+
+        // then
+        assertEquals("locked", result);
+        assertTrue(timer.isRequested());
+        assertTrue(timer.getWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertTrue(timer.getWaitNanos() < TimeUnit.MILLISECONDS.toNanos(50 + 20));
+        // 점유는 첫 잠금을 얻은 뒤부터다.
+        assertTrue(holdNanos >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    void failedLockCallIsWaitWithoutHold() {
+        // given
+        RowLockTimer timer = RowLockTimer.start();
+
+        // when
+        assertThrows(IllegalStateException.class, () -> RowLockTimer.lock(() -> {
+            throw new IllegalStateException();
+        }));
+        timer.end();
+
+        // then
+        assertTrue(timer.isRequested());
+        assertEquals(0L, timer.holdNanos(System.nanoTime()));
+    }
+
+    @Test
+    void nestedTimerRestoresOuter() {
+        // given
+        RowLockTimer outer = RowLockTimer.start();
+        RowLockTimer inner = RowLockTimer.start();
+
+        // when
+        RowLockTimer.lock(() -> "inner");
+        inner.end();
+        RowLockTimer.lock(() -> "outer");
+        outer.end();
+        String withoutTimer = RowLockTimer.lock(() -> "none");
+
+        // then
+        assertTrue(inner.isRequested());
+        assertTrue(outer.isRequested());
+        assertEquals("none", withoutTimer);
+    }
+}
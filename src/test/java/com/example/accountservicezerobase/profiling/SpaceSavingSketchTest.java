@@ -0,0 +1,112 @@
+package com.example.accountservicezerobase.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+    private static String accountNumber(int i) {
+        return String.valueOf(1000000000L + i);
+    }
+
+    @Test
+    void keepHeavyHittersWithinCapacity() {
+        // given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(32);
+        Random random = new Random(42);
+
+        // when
+        // 계좌 3개가 요청의 절반, 나머지는 10만 개 계좌에 흩어진다.
+        for (int i = 0; i < 200000; i++) {
+            if (i % 2 == 0) {
+                sketch.add(accountNumber(i % 6 / 2), 1);
+            } else {
+                sketch.add(accountNumber(1000 + random.nextInt(100000)), 1);
+            }
+        }
+
+        // then
+        List<SpaceSavingSketch.Entry> top = sketch.top(100);
+        assertEquals(32, top.size());
+        for (int i = 0; i < 3; i++) {
+            SpaceSavingSketch.Entry entry = top.get(i);
+            assertTrue(entry.key().compareTo(accountNumber(3)) < 0, "unexpected " + entry.key());
+            assertTrue(entry.estimate() >= 100000 / 3);
+            assertTrue(entry.estimate() - entry.error() <= 100000 / 3 + 1);
+        }
+    }
+
+    @Test
+    void weightByWaitTime() {
+        // given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+
+        // when
+        sketch.add("a", 5);
+        sketch.add("b", 1_000_000);
+        sketch.add("c", 10);
+
+        // then
+        List<SpaceSavingSketch.Entry> top = sketch.top(2);
+        assertEquals("b", top.get(0).key());
+        assertEquals(1_000_000, top.get(0).estimate());
+        assertEquals("c", top.get(1).key());
+        assertEquals(15, top.get(1).estimate());
+        assertEquals(5, top.get(1).error());
+    }
+
+    @Test
+    void evictCurrentMinimumAfterCountersGrow() {
+        // given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        sketch.add("a", 1);
+        sketch.add("b", 2);
+        sketch.add("c", 3);
+        sketch.add("a", 10);
+
+        // when
+        // a 가 커졌으므로 이제 가장 작은 카운터는 b 다.
+        sketch.add("d", 1);
+
+        // then
+        List<SpaceSavingSketch.Entry> top = sketch.top(3);
+        assertEquals(new SpaceSavingSketch.Entry("a", 11, 0), top.get(0));
+        assertEquals(new SpaceSavingSketch.Entry("c", 3, 0), top.get(1));
+        assertEquals(new SpaceSavingSketch.Entry("d", 3, 2), top.get(2));
+    }
+
+    @Test
+    void mergeKeepsBoundsAcrossSketches() {
+        // given
+        SpaceSavingSketch first = new SpaceSavingSketch(2);
+        SpaceSavingSketch second = new SpaceSavingSketch(2);
+        first.add("a", 100);
+        first.add("b", 3);
+        second.add("a", 50);
+        second.add("c", 40);
+        second.add("d", 7);
+
+        // when
+        List<SpaceSavingSketch.Entry> top = SpaceSavingSketch.mergeTop(List.of(first, second), 10);
+
+        // then
+        // second 는 가득 차서 c(40) 를 빼고 d 에 40 + 7 을 물려줬다. 한쪽에 없는 키에는 그쪽 최소 카운터(3, 47)를 더한다.
+        assertEquals(new SpaceSavingSketch.Entry("a", 150, 0), top.get(0));
+        Map<String, SpaceSavingSketch.Entry> merged = new HashMap<>();
+        top.forEach(entry -> merged.put(entry.key(), entry));
+        assertEquals(Set.of("a", "b", "d"), merged.keySet());
+        assertEquals(new SpaceSavingSketch.Entry("b", 50, 47), merged.get("b"));
+        assertEquals(new SpaceSavingSketch.Entry("d", 50, 43), merged.get("d"));
+        Map<String, Long> actual = Map.of("a", 150L, "b", 3L, "d", 7L);
+        for (SpaceSavingSketch.Entry entry : top) {
+            long count = actual.get(entry.key());
+            assertTrue(entry.estimate() - entry.error() <= count && count <= entry.estimate());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.accountservicezerobase.profiling;
+
+import com.example.accountservicezerobase.dto.SqlProfileReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlProfilerTest {
+    private JdbcTemplate jdbcTemplate;
+
+    private SqlProfiler profiler(double sampleRate, Duration slowThreshold) {
+        SqlProfiler sqlProfiler = new SqlProfiler(sampleRate, slowThreshold, 100, 100);
+        jdbcTemplate = new JdbcTemplate(sqlProfiler.wrap(
+                new DriverManagerDataSource("jdbc:h2:mem:sql-profile;DB_CLOSE_DELAY=-1", "sa", "")));
+        return sqlProfiler;
+    }
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:sql-profile;DB_CLOSE_DELAY=-1", "sa", ""))
+                .execute("create table account(id bigint primary key, account_number varchar(20))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlProfiler.exitEndpoint();
+        new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:sql-profile;DB_CLOSE_DELAY=-1", "sa", ""))
+                .execute("drop all objects");
+    }
+
+    @Test
+    void normalizeLiteralsAndLists() {
+        // when
+        // then
+        assertEquals("select a1_0.id from account a1_0 where a1_0.account_number=? and a1_0.id in (?)",
+                SqlFingerprint.normalize("select a1_0.id\n    from Account a1_0\n" +
+                        "    where a1_0.account_number='1000000001' and a1_0.id in (1, 2, 3)"));
+        assertEquals("insert into account values (?, ?)",
+                SqlFingerprint.normalize("insert into account values (1, 'a'), (2, 'b''c')"));
+        assertEquals(SqlFingerprint.normalize("select * from account where id = 10 /* hint */"),
+                SqlFingerprint.normalize("SELECT *  FROM account WHERE id = 20"));
+    }
+
+    @Test
+    void attributeSampledStatementsToEndpointAndCaller() {
+        // given
+        SqlProfiler sqlProfiler = profiler(1.0, Duration.ofHours(1));
+        SqlProfiler.enterEndpoint("GET /account");
+
+        // when
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("insert into account values (?, ?)", id, "100000000" + id);
+        }
+        jdbcTemplate.queryForObject("select count(*) from account where account_number = '1000000001'", Long.class);
+        SqlProfiler.exitEndpoint();
+        jdbcTemplate.queryForObject("select count(*) from account where account_number = '1000000002'", Long.class);
+
+        // then
+        SqlProfileReport report = sqlProfiler.report(10);
+        assertEquals(5L, report.getExecuted());
+        assertEquals(3, report.getStatements().size());
+
+        SqlProfileReport.Statement insert = find(report, "GET /account", "insert into account values (?, ?)");
+        assertEquals(3L, insert.getSampled());
+        assertEquals("SqlProfilerTest.attributeSampledStatementsToEndpointAndCaller", insert.getCaller());
+        assertEquals(0L, insert.getSlow());
+
+        String count = "select count(*) from account where account_number = ?";
+        assertEquals(1L, find(report, "GET /account", count).getSampled());
+        assertEquals(1L, find(report, "-", count).getSampled());
+    }
+
+    @Test
+    void recordSlowStatementsEvenWhenNotSampled() {
+        // given
+        SqlProfiler sqlProfiler = profiler(0.0, Duration.ZERO);
+
+        // when
+        jdbcTemplate.queryForObject("select count(*) from account", Long.class);
+
+        // then
+        SqlProfileReport.Statement statement = sqlProfiler.report(10).getStatements().get(0);
+        assertEquals(0L, statement.getSampled());
+        assertEquals(1L, statement.getSlow());
+    }
+
+    @Test
+    void changeSampleRateAtRuntime() {
+        // given
+        SqlProfiler sqlProfiler = profiler(0.0, Duration.ofHours(1));
+        jdbcTemplate.queryForObject("select count(*) from account", Long.class);
+        assertTrue(sqlProfiler.report(10).getStatements().isEmpty());
+
+        // when
+        sqlProfiler.setSampleRate(1.0);
+        jdbcTemplate.queryForObject("select count(*) from account", Long.class);
+
+        // then
+        assertEquals(1L, sqlProfiler.report(10).getStatements().get(0).getSampled());
+        assertEquals(2L, sqlProfiler.report(10).getExecuted());
+        assertThrows(IllegalArgumentException.class, () -> sqlProfiler.setSampleRate(1.5));
+    }
+
+    private static SqlProfileReport.Statement find(SqlProfileReport report, String endpoint, String fingerprint) {
+        return report.getStatements().stream()
+                .filter(statement -> statement.getEndpoint().equals(endpoint)
+                        && statement.getFingerprint().equals(fingerprint))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(endpoint + " " + fingerprint));
+    }
+}
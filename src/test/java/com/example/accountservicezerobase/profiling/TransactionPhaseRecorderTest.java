@@ -0,0 +1,121 @@
+package com.example.accountservicezerobase.profiling;
+
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionType;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.accountservicezerobase.profiling.TransactionPhase.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionPhaseRecorderTest {
+    @TempDir
+    Path tempDir;
+
+    private static void use(boolean fail) {
+        TransactionPhaseRecorder phases = TransactionPhaseRecorder.start(TransactionType.USE, "1000000000", USER_LOOKUP);
+        try {
+            phases.next(ACCOUNT_LOOKUP);
+            phases.next(VALIDATION);
+            if (fail) {
+                throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
+            }
+            phases.next(BALANCE_MUTATION);
+            phases.next(LOCK_ACQUISITION);
+            phases.next(TRANSACTION_INSERT);
+        } catch (RuntimeException e) {
+            phases.failed(e);
+        } finally {
+            phases.end();
+        }
+    }
+
+    private Path record(Runnable workload) throws Exception {
+        Path file = tempDir.resolve("phases.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TransactionPhaseEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return file;
+    }
+
+    @Test
+    void disabledWithoutRecording() {
+        // when
+        TransactionPhaseRecorder phases = TransactionPhaseRecorder.start(TransactionType.USE, "1000000000", USER_LOOKUP);
+
+        // then
+        assertFalse(phases.isRecording());
+    }
+
+    @Test
+    void summarizePhasesAndResults() throws Exception {
+        // given
+        Path file = record(() -> {
+            use(false);
+            use(false);
+            use(true);
+        });
+
+        // when
+        TransactionPhaseAnalyzer.Summary summary = TransactionPhaseAnalyzer.analyze(file);
+
+        // then
+        Map<TransactionPhase, Long> counts = new EnumMap<>(TransactionPhase.class);
+        summary.phases().forEach(phase -> counts.put(phase.phase(), phase.count()));
+        assertEquals(Map.of(
+                USER_LOOKUP, 3L,
+                ACCOUNT_LOOKUP, 3L,
+                VALIDATION, 3L,
+                BALANCE_MUTATION, 2L,
+                LOCK_ACQUISITION, 2L,
+                TRANSACTION_INSERT, 2L), counts);
+        assertEquals(Map.of("USE", Map.of("S", 2L, "AMOUNT_EXCEED_BALANCE", 1L)), summary.results());
+        assertEquals(1.0, summary.phases().stream().mapToDouble(TransactionPhaseAnalyzer.PhaseSummary::share).sum(),
+                1e-9);
+        assertTrue(TransactionPhaseAnalyzer.format(summary).contains("TRANSACTION_INSERT"));
+    }
+
+    @Test
+    void commitPhaseAndRollbackFromTransactionSynchronization() throws Exception {
+        // given
+        Path file = record(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                TransactionPhaseRecorder phases = TransactionPhaseRecorder.start(
+                        TransactionType.CANCEL, "1000000000", TRANSACTION_LOOKUP);
+                phases.next(TRANSACTION_INSERT);
+                phases.end();
+
+                List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+                synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+                synchronizations.forEach(synchronization ->
+                        synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        // when
+        TransactionPhaseAnalyzer.Summary summary = TransactionPhaseAnalyzer.analyze(file);
+
+        // then
+        assertEquals(List.of(TRANSACTION_LOOKUP, TRANSACTION_INSERT, COMMIT), summary.phases().stream()
+                .map(TransactionPhaseAnalyzer.PhaseSummary::phase)
+                .toList());
+        assertEquals(Map.of("CANCEL", Map.of("ROLLED_BACK", 1L)), summary.results());
+    }
+}
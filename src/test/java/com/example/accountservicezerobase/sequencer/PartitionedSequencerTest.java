@@ -0,0 +1,84 @@
+package com.example.accountservicezerobase.sequencer;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.accountservicezerobase.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedSequencerTest {
+    @Test
+    void sameAccountIsAppliedInSubmitOrder() {
+        // given
+        Map<String, List<Long>> applied = new ConcurrentHashMap<>();
+        PartitionedSequencer sequencer = new PartitionedSequencer(4, 64, 8, TimeUnit.SECONDS.toNanos(1),
+                (partition, batch, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        applied.computeIfAbsent(batch[i].accountNumber, key -> new CopyOnWriteArrayList<>())
+                                .add(batch[i].amount);
+                        batch[i].future.complete(TransactionDto.builder()
+                                .accountNumber(batch[i].accountNumber)
+                                .amount(batch[i].amount)
+                                .build());
+                    }
+                });
+
+        // when
+        List<CompletableFuture<TransactionDto>> futures = new ArrayList<>();
+        for (long amount = 1; amount <= 1000; amount++) {
+            futures.add(sequencer.submit(USE, 1L, "100000000" + (amount % 3), null, amount));
+        }
+        futures.forEach(CompletableFuture::join);
+        sequencer.close();
+
+        // then
+        assertEquals(3, applied.size());
+        applied.values().forEach(amounts -> {
+            for (int i = 1; i < amounts.size(); i++) {
+                assertTrue(amounts.get(i - 1) < amounts.get(i));
+            }
+        });
+        assertEquals(1000L, futures.get(999).join().getAmount());
+    }
+
+    @Test
+    void rejectWhenRingIsFull() throws Exception {
+        // given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PartitionedSequencer sequencer = new PartitionedSequencer(1, 2, 1, TimeUnit.MILLISECONDS.toNanos(10),
+                (partition, batch, count) -> {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    batch[0].future.complete(new TransactionDto());
+                });
+        sequencer.submit(USE, 1L, "1000000000", null, 100L);
+        blocked.await();
+        // 처리 중인 1건 + 대기 1건으로 링(2칸)이 가득 찬다.
+        sequencer.submit(USE, 1L, "1000000000", null, 100L);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> sequencer.submit(USE, 1L, "1000000000", null, 100L));
+        release.countDown();
+        sequencer.close();
+
+        // then
+        assertEquals(ErrorCode.SEQUENCER_BUSY, exception.getErrorCode());
+    }
+}
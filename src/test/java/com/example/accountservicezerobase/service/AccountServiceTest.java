@@ -7,6 +7,7 @@ import com.example.accountservicezerobase.dto.AccountDto;
 import com.example.accountservicezerobase.exception.AccountException;
 import com.example.accountservicezerobase.repository.AccountRepository;
 import com.example.accountservicezerobase.repository.AccountUserRepository;
+import com.example.accountservicezerobase.shard.ShardRouter;
 import com.example.accountservicezerobase.type.AccountStatus;
 import com.example.accountservicezerobase.type.ErrorCode;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 
 import java.util.Arrays;
 import java.util.List;
@@ -36,6 +38,9 @@ class AccountServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private ObjectProvider<ShardRouter> shardRouter;
+
     @InjectMocks
     private AccountService accountService;
 
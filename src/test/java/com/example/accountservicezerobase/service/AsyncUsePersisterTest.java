@@ -0,0 +1,175 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.AccountUser;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RMap;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncUsePersisterTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private AsyncUseService asyncUseService;
+
+    @Mock
+    private ObjectProvider<RedissonClient> redissonClientProvider;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RStream<Object, Object> stream;
+
+    @Mock
+    private RMap<Object, Object> statuses;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AsyncUsePersister persister;
+
+    @BeforeEach
+    void setUp() {
+        given(redissonClientProvider.getObject()).willReturn(redissonClient);
+        given(redissonClient.getStream(anyString(), any())).willReturn(stream);
+        given(redissonClient.getMap(anyString(), any())).willReturn(statuses);
+        persister = new AsyncUsePersister(accountRepository, transactionRepository, applicationEventPublisher,
+                asyncUseService, redissonClientProvider, transactionManager,
+                0, 100, Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofSeconds(10));
+        persister.start();
+    }
+
+    private Map<String, String> entry(String transactionId, long amount) {
+        return Map.of(
+                "transactionId", transactionId,
+                "userId", "12",
+                "accountNumber", "1000000012",
+                "amount", String.valueOf(amount),
+                "requestedAt", "1700000000000");
+    }
+
+    @Test
+    void persistAndAcknowledge() {
+        // given
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(AccountUser.builder().id(12L).build())
+                .accountNumber("1000000012")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .build();
+        given(transactionRepository.findByTransactionId(anyString())).willReturn(Optional.empty());
+        given(accountRepository.findByAccountNumber(anyString())).willReturn(Optional.of(account));
+        given(transactionRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        Map<StreamMessageId, Map<String, String>> entries = new LinkedHashMap<>();
+        entries.put(new StreamMessageId(1, 0), entry("transactionId1", 3000L));
+        entries.put(new StreamMessageId(2, 0), entry("transactionId2", 9000L));
+
+        // when
+        persister.persist(entries);
+
+        // then
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository, times(2)).save(captor.capture());
+        assertEquals(TransactionResultType.S, captor.getAllValues().get(0).getTransactionResultType());
+        assertEquals(7000L, captor.getAllValues().get(0).getBalanceSnapshot());
+        assertNull(captor.getAllValues().get(0).getErrorCode());
+        assertEquals(TransactionResultType.F, captor.getAllValues().get(1).getTransactionResultType());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, captor.getAllValues().get(1).getErrorCode());
+        assertEquals(7000L, account.getBalance());
+        verify(asyncUseService).refund("transactionId2", "1000000012", 9000L);
+        verify(asyncUseService, never()).refund(eq("transactionId1"), anyString(), anyLong());
+        verify(stream).ack(eq("persisters"), any(StreamMessageId[].class));
+        verify(statuses).fastRemove(any(Object[].class));
+    }
+
+    @Test
+    void skipAlreadyPersistedRequest() {
+        // given
+        given(transactionRepository.findByTransactionId("transactionId1"))
+                .willReturn(Optional.of(Transaction.builder().build()));
+        Map<StreamMessageId, Map<String, String>> entries = Map.of(
+                new StreamMessageId(1, 0), entry("transactionId1", 3000L));
+
+        // when
+        persister.persist(entries);
+
+        // then
+        verify(transactionRepository, never()).save(any());
+        verify(asyncUseService, never()).refund(anyString(), anyString(), anyLong());
+        verify(stream).ack(eq("persisters"), any(StreamMessageId[].class));
+    }
+
+    @Test
+    void refundAgainWhenFailedRequestWasPersistedButNotAcknowledged() {
+        // given
+        // 실패 거래를 커밋한 뒤 환불/ack 전에 죽었다.
+        given(transactionRepository.findByTransactionId("transactionId1"))
+                .willReturn(Optional.of(Transaction.builder()
+                        .transactionResultType(TransactionResultType.F)
+                        .build()));
+        Map<StreamMessageId, Map<String, String>> entries = Map.of(
+                new StreamMessageId(1, 0), entry("transactionId1", 3000L));
+
+        // when
+        persister.persist(entries);
+
+        // then
+        verify(transactionRepository, never()).save(any());
+        verify(asyncUseService).refund("transactionId1", "1000000012", 3000L);
+        verify(stream).ack(eq("persisters"), any(StreamMessageId[].class));
+    }
+
+    @Test
+    void refundRequestForMissingAccount() {
+        // given
+        given(transactionRepository.findByTransactionId("transactionId1")).willReturn(Optional.empty());
+        given(accountRepository.findByAccountNumber("1000000012")).willReturn(Optional.empty());
+        Map<StreamMessageId, Map<String, String>> entries = Map.of(
+                new StreamMessageId(1, 0), entry("transactionId1", 3000L));
+
+        // when
+        persister.persist(entries);
+
+        // then
+        verify(transactionRepository, never()).save(any());
+        verify(asyncUseService).refund("transactionId1", "1000000012", 3000L);
+        verify(stream).ack(eq("persisters"), any(StreamMessageId[].class));
+    }
+}
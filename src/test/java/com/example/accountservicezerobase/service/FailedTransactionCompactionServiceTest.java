@@ -0,0 +1,109 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.FailedTransactionAggregate;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.FailedTransactionAggregateRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FailedTransactionCompactionServiceTest {
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private FailedTransactionAggregateRepository failedTransactionAggregateRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FailedTransactionCompactionService compactionService;
+
+    @BeforeEach
+    void setUp() {
+        compactionService = new FailedTransactionCompactionService(
+                transactionRepository,
+                accountRepository,
+                failedTransactionAggregateRepository,
+                new TransactionMaintenanceLock(),
+                transactionManager,
+                Duration.ofDays(21),
+                10);
+    }
+
+    private Transaction failedTransaction(Account account, LocalDateTime transactedAt, long amount) {
+        return Transaction.builder()
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.F)
+                .errorCode(ErrorCode.AMOUNT_EXCEED_BALANCE)
+                .amount(amount)
+                .transactedAt(transactedAt)
+                .build();
+    }
+
+    @Test
+    void compactIntoHourlyAggregate() {
+        // given
+        Account account = Account.builder()
+                .id(1L)
+                .accountNumber("1000000000")
+                .build();
+        LocalDateTime hour = LocalDateTime.of(2024, 1, 1, 10, 0);
+        List<Transaction> failedTransactions = Arrays.asList(
+                failedTransaction(account, hour.plusMinutes(5), 1000L),
+                failedTransaction(account, hour.plusMinutes(50), 2000L));
+
+        given(transactionRepository.findByTransactionResultTypeAndTransactedAtBeforeOrderByIdAsc(
+                eq(TransactionResultType.F), any(), any()))
+                .willReturn(failedTransactions);
+        given(failedTransactionAggregateRepository.findByAccountAndTransactionTypeAndErrorCodeAndHourBucket(
+                account, TransactionType.USE, ErrorCode.AMOUNT_EXCEED_BALANCE, hour))
+                .willReturn(Optional.of(FailedTransactionAggregate.builder()
+                        .account(account)
+                        .transactionType(TransactionType.USE)
+                        .errorCode(ErrorCode.AMOUNT_EXCEED_BALANCE)
+                        .hourBucket(hour)
+                        .failedCount(3L)
+                        .totalAmount(500L)
+                        .build()));
+        ArgumentCaptor<FailedTransactionAggregate> captor
+                = ArgumentCaptor.forClass(FailedTransactionAggregate.class);
+
+        // when
+        long compacted = compactionService.compactFailedTransactions();
+
+        // then
+        assertEquals(2L, compacted);
+        verify(failedTransactionAggregateRepository, times(1)).save(captor.capture());
+        assertEquals(5L, captor.getValue().getFailedCount());
+        assertEquals(3500L, captor.getValue().getTotalAmount());
+        verify(transactionRepository, times(1)).deleteAllInBatch(failedTransactions);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.dto.AccountDto;
+import com.example.accountservicezerobase.dto.HoldDto;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.HoldRepository;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.HoldStatus;
+import com.example.accountservicezerobase.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hold",
+        "hold.wheel.tick-ms=50"
+})
+class HoldServiceTest {
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    private Account account(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber).get();
+    }
+
+    @Test
+    void holdReducesAvailableBalance() {
+        // given
+        AccountDto accountDto = accountService.createAccount(1L, 10000L);
+        String accountNumber = accountDto.getAccountNumber();
+
+        // when
+        HoldDto holdDto = holdService.hold(1L, accountNumber, 7000L, null);
+
+        // then
+        assertEquals(HoldStatus.HELD, holdDto.getHoldStatus());
+        assertEquals(10000L, account(accountNumber).getBalance());
+        assertEquals(3000L, account(accountNumber).getAvailableBalance());
+        AccountException useException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, accountNumber, 5000L));
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, useException.getErrorCode());
+        AccountException holdException = assertThrows(AccountException.class,
+                () -> holdService.hold(1L, accountNumber, 5000L, null));
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, holdException.getErrorCode());
+    }
+
+    @Test
+    void holdFailureReasons() {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+
+        // when
+        AccountException notFound = assertThrows(AccountException.class,
+                () -> holdService.hold(1L, "9999999999", 1000L, null));
+        AccountException unMatch = assertThrows(AccountException.class,
+                () -> holdService.hold(2L, accountNumber, 1000L, null));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, notFound.getErrorCode());
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, unMatch.getErrorCode());
+        assertEquals(0L, account(accountNumber).getHeldAmount());
+    }
+
+    @Test
+    void partialCaptureReleasesTheRest() {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        HoldDto holdDto = holdService.hold(1L, accountNumber, 7000L, null);
+
+        // when
+        TransactionDto transactionDto = holdService.capture(holdDto.getHoldId(), accountNumber, 4000L);
+
+        // then
+        assertEquals(TransactionType.USE, transactionDto.getTransactionType());
+        assertEquals(6000L, transactionDto.getBalanceSnapshot());
+        assertEquals(6000L, account(accountNumber).getAvailableBalance());
+        assertEquals(0L, account(accountNumber).getHeldAmount());
+        HoldDto captured = holdService.queryHold(holdDto.getHoldId());
+        assertEquals(HoldStatus.CAPTURED, captured.getHoldStatus());
+        assertEquals(transactionDto.getTransactionId(), captured.getTransactionId());
+        AccountException releaseException = assertThrows(AccountException.class,
+                () -> holdService.release(holdDto.getHoldId(), accountNumber));
+        assertEquals(ErrorCode.HOLD_NOT_ACTIVE, releaseException.getErrorCode());
+    }
+
+    @Test
+    void captureOverHoldAmount() {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        HoldDto holdDto = holdService.hold(1L, accountNumber, 1000L, null);
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> holdService.capture(holdDto.getHoldId(), accountNumber, 1001L));
+
+        // then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_HOLD, accountException.getErrorCode());
+        assertEquals(HoldStatus.HELD, holdService.queryHold(holdDto.getHoldId()).getHoldStatus());
+    }
+
+    @Test
+    void release() {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        HoldDto holdDto = holdService.hold(1L, accountNumber, 1000L, null);
+
+        // when
+        HoldDto released = holdService.release(holdDto.getHoldId(), accountNumber);
+
+        // then
+        assertEquals(HoldStatus.RELEASED, released.getHoldStatus());
+        assertEquals(10000L, account(accountNumber).getAvailableBalance());
+        assertEquals(HoldStatus.RELEASED, holdService.queryHold(holdDto.getHoldId()).getHoldStatus());
+    }
+
+    @Test
+    void concurrentHoldsNeverExceedBalance() throws Exception {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        AtomicInteger held = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    holdService.hold(1L, accountNumber, 1000L, null);
+                    held.incrementAndGet();
+                } catch (AccountException e) {
+                    assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, e.getErrorCode());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(10, held.get());
+        assertEquals(10000L, account(accountNumber).getHeldAmount());
+        assertEquals(0L, account(accountNumber).getAvailableBalance());
+    }
+
+    @Test
+    void expiredHoldIsReleasedByTimingWheel() throws Exception {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+
+        // when
+        HoldDto holdDto = holdService.hold(1L, accountNumber, 2500L, Duration.ofSeconds(1));
+
+        // then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (holdService.queryHold(holdDto.getHoldId()).getHoldStatus() == HoldStatus.HELD
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(HoldStatus.EXPIRED, holdService.queryHold(holdDto.getHoldId()).getHoldStatus());
+        assertEquals(10000L, account(accountNumber).getAvailableBalance());
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> holdService.capture(holdDto.getHoldId(), accountNumber, 2500L));
+        assertEquals(ErrorCode.HOLD_NOT_ACTIVE, accountException.getErrorCode());
+    }
+
+    @Test
+    void recoverPendingHoldsAfterRestart() {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        holdService.hold(1L, accountNumber, 100L, null);
+        holdService.hold(1L, accountNumber, 200L, null);
+        long held = holdRepository.findAll().stream()
+                .filter(hold -> hold.getHoldStatus() == HoldStatus.HELD)
+                .count();
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ShardRouter> noShards = mock(ObjectProvider.class);
+        // 재기동한 것처럼 빈 timing wheel 에서 시작한다. (한 번에 1 개씩 읽어서 나눠 읽기도 확인)
+        HoldExpiryService restarted = new HoldExpiryService(holdService, holdRepository, noShards,
+                new SimpleMeterRegistry(), 50, 512, 3, 1, Duration.ofSeconds(1));
+
+        // when
+        restarted.recover();
+
+        // then
+        assertEquals(held, restarted.pending());
+    }
+}
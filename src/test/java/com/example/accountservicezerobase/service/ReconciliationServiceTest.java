@@ -0,0 +1,165 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.ReconciliationMismatch;
+import com.example.accountservicezerobase.domain.Transaction;
+import com.example.accountservicezerobase.dto.ReconciliationReport;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.ReconciliationMismatchRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.type.ReconciliationMismatchType;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:reconciliation")
+class ReconciliationServiceTest {
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ReconciliationMismatchRepository reconciliationMismatchRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Account account(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber).get();
+    }
+
+    private void saveUse(Account account, long amount, long balanceSnapshot) {
+        transactionRepository.save(Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                .transactedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private List<ReconciliationMismatch> mismatchesOf(ReconciliationReport report, String accountNumber) {
+        return reconciliationMismatchRepository.findByRunId(report.getRunId()).stream()
+                .filter(mismatch -> accountNumber.equals(mismatch.getAccountNumber()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void snapshotSequenceMismatch() {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        transactionService.useBalance(1L, accountNumber, 1000L);
+        // 9000 - 1000 = 8000 이어야 하는 스냅샷을 7000 으로 남긴다. (계좌 잔액은 스냅샷과 맞춘다)
+        Account account = account(accountNumber);
+        saveUse(account, 1000L, 7000L);
+        account.setBalance(7000L);
+        accountRepository.save(account);
+
+        // when
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        // then
+        List<ReconciliationMismatch> mismatches = mismatchesOf(report, accountNumber);
+        assertEquals(1, mismatches.size());
+        assertEquals(ReconciliationMismatchType.SNAPSHOT_SEQUENCE, mismatches.get(0).getMismatchType());
+        assertEquals(8000L, mismatches.get(0).getExpected());
+        assertEquals(7000L, mismatches.get(0).getActual());
+    }
+
+    @Test
+    void balanceDiffersFromLastSnapshot() {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        transactionService.useBalance(1L, accountNumber, 1000L);
+        Account account = account(accountNumber);
+        account.setBalance(9500L);
+        accountRepository.save(account);
+
+        // when
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        // then
+        List<ReconciliationMismatch> mismatches = mismatchesOf(report, accountNumber);
+        assertEquals(1, mismatches.size());
+        assertEquals(ReconciliationMismatchType.BALANCE, mismatches.get(0).getMismatchType());
+        assertEquals(9000L, mismatches.get(0).getExpected());
+        assertEquals(9500L, mismatches.get(0).getActual());
+    }
+
+    @Test
+    void memoryBudgetSplitsIntoSingleAccountRanges() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            String accountNumber = accountService.createAccount(2L, 10000L).getAccountNumber();
+            transactionService.useBalance(2L, accountNumber, 1000L);
+        }
+        // 메모리 예산 0 이면 구간 크기가 1 로 줄어 계좌 id 하나씩 검사한다.
+        ReconciliationService smallBudget = new ReconciliationService(accountRepository,
+                reconciliationMismatchRepository, entityManager, transactionManager,
+                2, 10000L, 0L, 1000);
+        long idSpace = accountRepository.findMaxId() - accountRepository.findMinId() + 1;
+        long accounts = accountRepository.count();
+
+        // when
+        ReconciliationReport report = smallBudget.reconcile();
+
+        // then
+        assertEquals(idSpace, report.getWorkers().stream()
+                .mapToLong(ReconciliationReport.WorkerThroughput::getRanges).sum());
+        assertEquals(accounts, report.getAccounts());
+        assertEquals(transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getTransactionResultType() == TransactionResultType.S)
+                .count(), report.getTransactions());
+    }
+
+    @Test
+    void mismatchesPerRangeAreCappedButCounted() {
+        // given
+        String accountNumber = accountService.createAccount(3L, 10000L).getAccountNumber();
+        transactionService.useBalance(3L, accountNumber, 1000L);
+        Account account = account(accountNumber);
+        saveUse(account, 1000L, 1L);
+        saveUse(account, 1000L, 2L);
+        account.setBalance(2L);
+        accountRepository.save(account);
+        ReconciliationService capped = new ReconciliationService(accountRepository,
+                reconciliationMismatchRepository, entityManager, transactionManager,
+                1, 1_000_000L, 256L, 1);
+        long mismatchesBefore = reconciliationService.reconcile().getMismatches();
+
+        // when
+        ReconciliationReport report = capped.reconcile();
+
+        // then
+        // 구간이 하나뿐이므로 첫 불일치만 저장되고 건수는 모두 센다.
+        assertEquals(mismatchesBefore, report.getMismatches());
+        assertEquals(1, reconciliationMismatchRepository.findByRunId(report.getRunId()).size());
+    }
+}
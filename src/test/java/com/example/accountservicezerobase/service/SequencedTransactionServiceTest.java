@@ -0,0 +1,93 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sequencer",
+        "sequencer.enabled=true"
+})
+class SequencedTransactionServiceTest {
+    @Autowired
+    private SequencedTransactionService sequencedTransactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private long balance(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber).get().getBalance();
+    }
+
+    @Test
+    void heldAmountIsNotSpendable() throws Exception {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        holdService.hold(1L, accountNumber, 7000L, null);
+
+        // when
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> sequencedTransactionService
+                .useBalance(1L, accountNumber, 5000L).get(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, ((AccountException) exception.getCause()).getErrorCode());
+        assertEquals(10000L, balance(accountNumber));
+    }
+
+    @Test
+    void outOfBandChangeIsNotOverwritten() throws Exception {
+        // given
+        String accountNumber = accountService.createAccount(1L, 10000L).getAccountNumber();
+        sequencedTransactionService.useBalance(1L, accountNumber, 1000L).get(10, TimeUnit.SECONDS);
+        // writer 캐시를 거치지 않고 잔액을 바꾼다.
+        transactionService.useBalance(1L, accountNumber, 2000L);
+
+        // when
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> sequencedTransactionService
+                .useBalance(1L, accountNumber, 500L).get(10, TimeUnit.SECONDS));
+        TransactionDto retried = sequencedTransactionService.useBalance(1L, accountNumber, 500L)
+                .get(10, TimeUnit.SECONDS);
+
+        // then
+        // 충돌한 묶음은 실패하고 캐시를 버리므로, 다시 보내면 DB 잔액에서 이어서 뺀다.
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class, exception.getCause());
+        assertEquals(6500L, retried.getBalanceSnapshot());
+        assertEquals(6500L, balance(accountNumber));
+    }
+
+    @Test
+    void transferCannotBeCanceled() {
+        // given
+        String from = accountService.createAccount(1L, 10000L).getAccountNumber();
+        String to = accountService.createAccount(1L, 0L).getAccountNumber();
+        String debitId = transactionService.transfer(1L, from, to, 3000L).getDebit().getTransactionId();
+
+        // when
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> sequencedTransactionService
+                .cancelBalance(debitId, from, 3000L).get(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(ErrorCode.TRANSFER_CANNOT_BE_CANCELED, ((AccountException) exception.getCause()).getErrorCode());
+        assertEquals(7000L, balance(from));
+        assertEquals(3000L, balance(to));
+    }
+}
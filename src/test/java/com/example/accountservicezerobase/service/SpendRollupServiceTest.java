@@ -0,0 +1,141 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.DailySpendRollup;
+import com.example.accountservicezerobase.event.TransactionSavedEvent;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.DailySpendRollupRepository;
+import com.example.accountservicezerobase.repository.MonthlySpendRollupRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import com.example.accountservicezerobase.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendRollupServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private DailySpendRollupRepository dailySpendRollupRepository;
+
+    @Mock
+    private MonthlySpendRollupRepository monthlySpendRollupRepository;
+
+    @Mock
+    private SpendRollupRebuilder spendRollupRebuilder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    private SpendRollupService spendRollupService;
+
+    @BeforeEach
+    void setUp() {
+        spendRollupService = new SpendRollupService(
+                accountRepository,
+                transactionRepository,
+                dailySpendRollupRepository,
+                monthlySpendRollupRepository,
+                spendRollupRebuilder,
+                transactionManager,
+                shardRouter,
+                Duration.ofMillis(100));
+    }
+
+    private TransactionSavedEvent event(long id, long amount, LocalDateTime transactedAt) {
+        return TransactionSavedEvent.builder()
+                .id(id)
+                .accountId(1L)
+                .accountNumber("1000000000")
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(amount)
+                .transactedAt(transactedAt)
+                .build();
+    }
+
+    @Test
+    void flushBufferedDeltas() {
+        // given
+        LocalDate day = LocalDate.of(2024, 3, 15);
+        spendRollupService.onTransactionSaved(event(1L, 1000L, day.atTime(9, 0)));
+        spendRollupService.onTransactionSaved(event(2L, 2000L, day.atTime(18, 0)));
+
+        given(dailySpendRollupRepository.addTo(eq(1L), eq(day), eq(TransactionType.USE),
+                eq(TransactionResultType.S), eq(3000L), eq(2L), any()))
+                .willReturn(0);
+        given(monthlySpendRollupRepository.addTo(eq(1L), eq(LocalDate.of(2024, 3, 1)), eq(TransactionType.USE),
+                eq(TransactionResultType.S), eq(3000L), eq(2L), any()))
+                .willReturn(1);
+        given(accountRepository.getReferenceById(1L))
+                .willReturn(Account.builder().id(1L).build());
+        ArgumentCaptor<DailySpendRollup> captor = ArgumentCaptor.forClass(DailySpendRollup.class);
+
+        // when
+        spendRollupService.flush();
+        spendRollupService.flush();
+
+        // then
+        verify(dailySpendRollupRepository, times(1)).save(captor.capture());
+        assertEquals(day, captor.getValue().getRollupDate());
+        assertEquals(3000L, captor.getValue().getTotalAmount());
+        assertEquals(2L, captor.getValue().getTransactionCount());
+        verify(monthlySpendRollupRepository, never()).save(any());
+    }
+
+    @Test
+    void rebuildWaitsForInFlightTransactionsUpToCutoff() {
+        // given
+        // id 5 는 저장됐지만 아직 커밋되지 않았다.
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            spendRollupService.onTransactionSaving(event(5L, 1000L, LocalDateTime.now()));
+            given(transactionRepository.findMaxId()).willReturn(7L);
+
+            // when
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    () -> spendRollupService.rebuild());
+
+            // then
+            assertEquals("transactions up to id 7 are still in flight after PT0.1S, rollup rebuild aborted",
+                    exception.getMessage());
+            verify(dailySpendRollupRepository, never()).deleteAllInBatch();
+            verify(spendRollupRebuilder, never()).rebuild(anyLong(), any());
+
+            // 커밋되면 다시 rebuild 할 수 있다.
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            given(spendRollupRebuilder.rebuild(eq(7L), any())).willReturn(3L);
+            assertEquals(3L, spendRollupService.rebuild());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.dto.AccountDto;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.type.ErrorCode;
+import com.example.accountservicezerobase.type.TransactionResultType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 한 계좌에 동시 사용 요청을 몰아서 잃어버린 갱신이 없는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "retry.optimistic.max-attempts=30",
+        "retry.optimistic.initial-backoff=1ms",
+        "retry.optimistic.max-backoff=20ms"
+})
+class TransactionServiceContentionTest {
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 25;
+    private static final long AMOUNT = 100L;
+    private static final long INITIAL_BALANCE = 1_000_000L;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void noLostUpdateUnderHighConflict() throws Exception {
+        // given
+        AccountDto account = accountService.createAccount(1L, INITIAL_BALANCE);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger exhausted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        // 같은 컨텍스트의 다른 테스트도 같은 카운터를 올리므로 차이로 비교한다.
+        double callsBefore = counter("account.optimistic.calls");
+        double conflictsBefore = counter("account.optimistic.conflicts");
+        double retriesBefore = counter("account.optimistic.retries");
+        double exhaustedBefore = counter("account.optimistic.exhausted");
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    try {
+                        transactionService.useBalance(1L, account.getAccountNumber(), AMOUNT);
+                        succeeded.incrementAndGet();
+                    } catch (AccountException e) {
+                        assertEquals(ErrorCode.CONCURRENT_UPDATE_RETRY_EXHAUSTED, e.getErrorCode());
+                        exhausted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // then
+        Account saved = accountRepository.findByAccountNumber(account.getAccountNumber()).get();
+        long persisted = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getAccount().getId().equals(saved.getId()))
+                .filter(transaction -> transaction.getTransactionResultType() == TransactionResultType.S)
+                .count();
+        assertEquals(THREADS * REQUESTS_PER_THREAD, succeeded.get() + exhausted.get());
+        assertEquals(INITIAL_BALANCE - succeeded.get() * AMOUNT, saved.getBalance());
+        assertEquals(succeeded.get(), persisted);
+        assertTrue(succeeded.get() > 0);
+
+        // 충돌할 때마다 다시 시도하거나(retries), 한도에 닿으면 포기한다(exhausted).
+        double conflicts = counter("account.optimistic.conflicts") - conflictsBefore;
+        assertEquals(THREADS * REQUESTS_PER_THREAD, counter("account.optimistic.calls") - callsBefore);
+        assertEquals(exhausted.get(), counter("account.optimistic.exhausted") - exhaustedBefore);
+        assertEquals(conflicts, counter("account.optimistic.retries") - retriesBefore + exhausted.get());
+        assertTrue(conflicts > 0);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name, "operation", "useBalance").count();
+    }
+}
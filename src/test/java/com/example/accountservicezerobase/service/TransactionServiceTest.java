@@ -1,26 +1,35 @@
 package com.example.accountservicezerobase.service;
 
 
+import com.example.accountservicezerobase.archive.TransactionArchiveStore;
+import com.example.accountservicezerobase.cluster.OwnerAccountCache;
 import com.example.accountservicezerobase.domain.Account;
 import com.example.accountservicezerobase.domain.AccountUser;
 import com.example.accountservicezerobase.domain.Transaction;
 import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.dto.TransferBatch;
+import com.example.accountservicezerobase.dto.TransferDto;
 import com.example.accountservicezerobase.exception.AccountException;
 import com.example.accountservicezerobase.repository.AccountRepository;
 import com.example.accountservicezerobase.repository.AccountUserRepository;
 import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.shard.ShardRouter;
 import com.example.accountservicezerobase.type.AccountStatus;
 import com.example.accountservicezerobase.type.ErrorCode;
 import com.example.accountservicezerobase.type.TransactionResultType;
 import com.example.accountservicezerobase.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -28,6 +37,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -42,9 +53,26 @@ class TransactionServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
-    @InjectMocks
+    @Mock
+    private TransactionArchiveStore transactionArchiveStore;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    @Mock
+    private ObjectProvider<OwnerAccountCache> ownerAccountCache;
+
     private TransactionService transactionService;
 
+    @BeforeEach
+    void setUp() {
+        transactionService = new TransactionService(transactionRepository, accountUserRepository, accountRepository,
+                transactionArchiveStore, applicationEventPublisher, shardRouter, ownerAccountCache);
+    }
+
     @Test
     void successUseBalance() {
         // given
@@ -91,6 +119,79 @@ class TransactionServiceTest {
         assertEquals(1000L, transactionDto.getAmount());
     }
 
+    @Test
+    void useBalanceFromOwnerCache() {
+        // given
+        OwnerAccountCache cache = new OwnerAccountCache(16);
+        cache.putAfterCommit(Account.builder()
+                .id(7L)
+                .accountUser(AccountUser.builder().id(12L).build())
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000121")
+                .version(3L)
+                .build());
+        given(ownerAccountCache.getIfAvailable())
+                .willReturn(cache);
+        given(accountRepository.addBalance(7L, -1000L, 3L))
+                .willReturn(1);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        TransactionDto transactionDto = transactionService.useBalance(12L, "1000000121", 1000L);
+
+        // then
+        // 사용자/계좌를 읽지 않고 캐시한 version 조건으로만 뺀다.
+        verify(accountUserRepository, never()).findById(anyLong());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        assertEquals(9000L, transactionDto.getBalanceSnapshot());
+        assertEquals("1000000121", transactionDto.getAccountNumber());
+        assertEquals(9000L, cache.get("1000000121").balance());
+        assertEquals(4L, cache.get("1000000121").version());
+    }
+
+    @Test
+    void useBalanceReloadsWhenCachedAccountChanged() {
+        // given
+        OwnerAccountCache cache = new OwnerAccountCache(16);
+        AccountUser accountUser = AccountUser.builder().id(12L).build();
+        cache.putAfterCommit(Account.builder()
+                .id(7L)
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000121")
+                .version(3L)
+                .build());
+        Account account = Account.builder()
+                .id(7L)
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(5000L)
+                .accountNumber("1000000121")
+                .version(4L)
+                .build();
+        given(ownerAccountCache.getIfAvailable())
+                .willReturn(cache);
+        given(accountRepository.addBalance(7L, -1000L, 3L))
+                .willReturn(0);
+        given(accountUserRepository.findById(12L))
+                .willReturn(Optional.of(accountUser));
+        given(accountRepository.findByAccountNumber("1000000121"))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        TransactionDto transactionDto = transactionService.useBalance(12L, "1000000121", 1000L);
+
+        // then
+        // 캐시 뒤에 다른 경로가 바꾼 계좌는 DB 에서 다시 읽은 잔액으로 처리하고 캐시를 새로 채운다.
+        assertEquals(4000L, transactionDto.getBalanceSnapshot());
+        assertEquals(4000L, cache.get("1000000121").balance());
+    }
+
     @Test
     void createBalance_UserNotFound() {
         // given
@@ -232,13 +333,14 @@ class TransactionServiceTest {
                 = ArgumentCaptor.forClass(Transaction.class);
 
         // when
-        transactionService.saveFailedUseTransaction("1000000121", 1L);
+        transactionService.saveFailedUseTransaction("1000000121", 1L, ErrorCode.AMOUNT_EXCEED_BALANCE);
 
         // then
         verify(transactionRepository, times(1)).save(captor.capture());
         assertEquals(1L, captor.getValue().getAmount());
         assertEquals(10000L, captor.getValue().getBalanceSnapshot());
         assertEquals(TransactionResultType.F, captor.getValue().getTransactionResultType());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, captor.getValue().getErrorCode());
     }
 
     @Test
@@ -487,4 +589,165 @@ class TransactionServiceTest {
         // then
         assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, accountException.getErrorCode());
     }
+
+    @Test
+    void queryTransaction_FromArchive() {
+        // given
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.empty());
+        given(transactionArchiveStore.findByTransactionId(anyString()))
+                .willReturn(Optional.of(TransactionDto.builder()
+                        .accountNumber("1000000121")
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.S)
+                        .transactionId("archivedTransactionId")
+                        .transactedAt(LocalDateTime.now().minusYears(2))
+                        .amount(1000L)
+                        .balanceSnapshot(9000L)
+                        .build()));
+        // when
+        TransactionDto transactionDto = transactionService.queryTransaction("archivedTransactionId");
+        // then
+        assertEquals("archivedTransactionId", transactionDto.getTransactionId());
+        assertEquals(TransactionType.USE, transactionDto.getTransactionType());
+    }
+
+    @Test
+    void cancelTransaction_ArchivedTransactionIsTooOld() {
+        // given
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.empty());
+        given(transactionArchiveStore.findByTransactionId(anyString()))
+                .willReturn(Optional.of(TransactionDto.builder()
+                        .transactionId("archivedTransactionId")
+                        .build()));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("archivedTransactionId", "1000000000", 1000L));
+        // then
+        assertEquals(ErrorCode.TOO_OLD_ORDER_TO_CANCEL, accountException.getErrorCode());
+    }
+
+    private static Account inUseAccount(AccountUser accountUser, String accountNumber, Long balance) {
+        return Account.builder()
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(balance)
+                .accountNumber(accountNumber)
+                .build();
+    }
+
+    @Test
+    void successTransfer() {
+        // given
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .name("a")
+                .build();
+        Account from = inUseAccount(accountUser, "1000000012", 10000L);
+        Account to = inUseAccount(AccountUser.builder().id(13L).name("b").build(), "1000000001", 500L);
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(accountUser));
+        given(accountRepository.findByAccountNumberForUpdate("1000000012"))
+                .willReturn(Optional.of(from));
+        given(accountRepository.findByAccountNumberForUpdate("1000000001"))
+                .willReturn(Optional.of(to));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        TransferDto transferDto = transactionService.transfer(12L, "1000000012", "1000000001", 3000L);
+
+        // then
+        assertEquals(7000L, from.getBalance());
+        assertEquals(3500L, to.getBalance());
+        assertEquals(TransactionType.TRANSFER_OUT, transferDto.getDebit().getTransactionType());
+        assertEquals(7000L, transferDto.getDebit().getBalanceSnapshot());
+        assertEquals(TransactionType.TRANSFER_IN, transferDto.getCredit().getTransactionType());
+        assertEquals(3500L, transferDto.getCredit().getBalanceSnapshot());
+        assertEquals(transferDto.getCredit().getTransactionId(), transferDto.getDebit().getLinkedTransactionId());
+        assertEquals(transferDto.getDebit().getTransactionId(), transferDto.getCredit().getLinkedTransactionId());
+        // 보내는 계좌가 뒤 번호여도 앞 번호부터 잠근다.
+        InOrder lockOrder = inOrder(accountRepository);
+        lockOrder.verify(accountRepository).findByAccountNumberForUpdate("1000000001");
+        lockOrder.verify(accountRepository).findByAccountNumberForUpdate("1000000012");
+    }
+
+    @Test
+    void transferBatch_ExceedBalanceRejectsAll() {
+        // given
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .name("a")
+                .build();
+        Account from = inUseAccount(accountUser, "1000000000", 1000L);
+        Account to1 = inUseAccount(accountUser, "1000000001", 0L);
+        Account to2 = inUseAccount(accountUser, "1000000002", 0L);
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(accountUser));
+        given(accountRepository.findByAccountNumberForUpdate("1000000000"))
+                .willReturn(Optional.of(from));
+        given(accountRepository.findByAccountNumberForUpdate("1000000001"))
+                .willReturn(Optional.of(to1));
+        given(accountRepository.findByAccountNumberForUpdate("1000000002"))
+                .willReturn(Optional.of(to2));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.transferBatch(12L, "1000000000", List.of(
+                        new TransferBatch.Item("1000000001", 600L),
+                        new TransferBatch.Item("1000000002", 600L))));
+
+        // then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, accountException.getErrorCode());
+        assertEquals(1000L, from.getBalance());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void transfer_SameAccount() {
+        // given
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(AccountUser.builder().id(12L).name("a").build()));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.transfer(12L, "1000000000", "1000000000", 1000L));
+
+        // then
+        assertEquals(ErrorCode.INVALID_REQUEST, accountException.getErrorCode());
+        verify(accountRepository, never()).findByAccountNumberForUpdate(anyString());
+    }
+
+    @Test
+    void cancelBalance_TransferCannotBeCanceled() {
+        // given
+        Account account = Account.builder()
+                .id(1L)
+                .accountNumber("1000000000")
+                .balance(1000L)
+                .build();
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .transactionType(TransactionType.TRANSFER_OUT)
+                        .transactionResultType(TransactionResultType.S)
+                        .transactionId("transactionId")
+                        .linkedTransactionId("linkedTransactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(1000L)
+                        .build()));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000000", 1000L));
+
+        // then
+        assertEquals(ErrorCode.TRANSFER_CANNOT_BE_CANCELED, accountException.getErrorCode());
+    }
 }
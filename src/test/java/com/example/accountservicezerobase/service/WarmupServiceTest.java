@@ -0,0 +1,175 @@
+package com.example.accountservicezerobase.service;
+
+import com.example.accountservicezerobase.domain.Account;
+import com.example.accountservicezerobase.domain.AccountUser;
+import com.example.accountservicezerobase.dto.TransactionDto;
+import com.example.accountservicezerobase.dto.WarmupReport;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.profiling.LockProfiler;
+import com.example.accountservicezerobase.repository.AccountRepository;
+import com.example.accountservicezerobase.repository.AccountUserRepository;
+import com.example.accountservicezerobase.repository.TransactionRepository;
+import com.example.accountservicezerobase.shard.ShardRouter;
+import com.example.accountservicezerobase.type.AccountStatus;
+import com.example.accountservicezerobase.type.ErrorCode;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmupServiceTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    private WarmupService warmupService;
+
+    @BeforeEach
+    void setUp() {
+        warmupService = new WarmupService(
+                transactionService,
+                transactionRepository,
+                accountRepository,
+                accountUserRepository,
+                entityManager,
+                shardRouter,
+                new LockProfiler(16, Duration.ofMillis(1)),
+                applicationEventPublisher,
+                transactionManager,
+                Duration.ofSeconds(10),
+                6,
+                10,
+                Duration.ofDays(7),
+                2);
+    }
+
+    @Test
+    void runSyntheticTransactionsOnRolledBackAccountAndRollBack() {
+        // given
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .name("a")
+                .build();
+        Account account = Account.builder()
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(transactionRepository.findRecentlyActiveAccountNumbers(any(), any()))
+                .willReturn(List.of("1000000012"));
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account));
+        given(accountUserRepository.findAllById(any()))
+                .willReturn(List.of(accountUser));
+        given(accountUserRepository.save(any()))
+                .willAnswer(invocation -> {
+                    AccountUser synthetic = invocation.getArgument(0);
+                    synthetic.setId(99L);
+                    return synthetic;
+                });
+        given(transactionManager.getTransaction(any()))
+                .willAnswer(invocation -> new SimpleTransactionStatus());
+        given(transactionService.useBalance(99L, WarmupService.SYNTHETIC, 1L))
+                .willReturn(TransactionDto.builder().transactionId("transactionId").build())
+                .willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        // when
+        WarmupReport report = warmupService.warmup();
+
+        // then
+        assertEquals(1, report.getPreloadedAccounts());
+        assertEquals(1, report.getPreloadedUsers());
+        assertEquals(6, report.getIterations());
+        assertEquals(5, report.getFailures());
+        assertEquals(2, report.getWindow());
+        // 실제 계좌로는 거래하지 않는다.
+        verify(transactionService, never()).useBalance(anyLong(), eq("1000000012"), anyLong());
+        verify(accountRepository, times(6)).save(argThat((Account synthetic) ->
+                WarmupService.SYNTHETIC.equals(synthetic.getAccountNumber())));
+        verify(transactionService, times(1)).cancelBalance("transactionId", WarmupService.SYNTHETIC, 1L);
+        verify(entityManager, times(1)).flush();
+        verify(transactionManager, times(6)).commit(argThat(TransactionStatus::isRollbackOnly));
+        assertSame(report, warmupService.getLastReport().orElseThrow());
+    }
+
+    @Test
+    void runSyntheticTransactionsWithoutRecentAccounts() {
+        // given
+        given(transactionRepository.findRecentlyActiveAccountNumbers(any(), any()))
+                .willReturn(List.of());
+        given(accountRepository.findAll(any(Pageable.class)))
+                .willReturn(Page.empty());
+        given(accountUserRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(transactionManager.getTransaction(any()))
+                .willAnswer(invocation -> new SimpleTransactionStatus());
+        given(transactionService.useBalance(any(), eq(WarmupService.SYNTHETIC), eq(1L)))
+                .willReturn(TransactionDto.builder().transactionId("transactionId").build());
+
+        // when
+        WarmupReport report = warmupService.warmup();
+
+        // then
+        assertEquals(0, report.getPreloadedAccounts());
+        assertEquals(6, report.getIterations());
+        assertEquals(0, report.getFailures());
+    }
+
+    @Test
+    void skipSyntheticTransactionsWhenSharded() {
+        // given
+        given(shardRouter.getIfAvailable()).willReturn(mock(ShardRouter.class));
+        given(transactionRepository.findRecentlyActiveAccountNumbers(any(), any()))
+                .willReturn(List.of());
+        given(accountRepository.findAll(any(Pageable.class)))
+                .willReturn(Page.empty());
+
+        // when
+        WarmupReport report = warmupService.warmup();
+
+        // then
+        assertEquals(0, report.getIterations());
+        assertNull(report.getP99Improvement());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+}
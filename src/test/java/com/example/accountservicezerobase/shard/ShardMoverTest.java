@@ -0,0 +1,210 @@
+package com.example.accountservicezerobase.shard;
+
+import com.example.accountservicezerobase.dto.ShardMoveReport;
+import com.example.accountservicezerobase.exception.AccountException;
+import com.example.accountservicezerobase.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 서로 다른 메모리 H2 두 개를 샤드로 두고 범위 라우팅과 재샤딩을 확인한다.
+ */
+class ShardMoverTest {
+    private static final long FIRST = 1000000000L;
+    private static final long BLOCK = 1000L;
+
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+    private ShardRoutingDataSource routingDataSource;
+    private ShardDirectory directory;
+
+    private DataSource shard(String name, long idStart) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:sharding-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table marker(name varchar(20))");
+        template.update("insert into marker values (?)", name);
+        template.execute("create table account(id bigint primary key, account_number varchar(20), balance bigint)");
+        template.execute("create table transaction(id bigint primary key, " +
+                "account_id bigint references account(id), amount bigint)");
+        template.execute("create sequence id_seq start with " + idStart);
+        shards.put(name, dataSource);
+        return dataSource;
+    }
+
+    private void insertAccounts(String shard, long from, long count) {
+        JdbcTemplate template = new JdbcTemplate(shards.get(shard));
+        for (long number = from; number < from + count; number++) {
+            long accountId = template.queryForObject("select next value for id_seq", Long.class);
+            template.update("insert into account values (?, ?, ?)", accountId, String.valueOf(number), 1000L);
+            for (int i = 0; i < 3; i++) {
+                template.update("insert into transaction values (next value for id_seq, ?, ?)", accountId, 10L);
+            }
+        }
+    }
+
+    private long count(String shard, String sql) {
+        return new JdbcTemplate(shards.get(shard)).queryForObject(sql, Long.class);
+    }
+
+    private ShardMover mover() {
+        return new ShardMover(routingDataSource, directory, 4, List.of("transaction"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        shard("shard-0", 1L);
+        shard("shard-1", 1_000_000_000_001L);
+        routingDataSource = new ShardRoutingDataSource(shards);
+        directory = new ShardDirectory(shards.get("shard-0"), List.of("shard-0", "shard-1"), FIRST, BLOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ShardContext.clear();
+        shards.values().forEach(dataSource -> new JdbcTemplate(dataSource).execute("drop all objects"));
+    }
+
+    @Test
+    void routeByAccountNumberRangeAndUserHomeShard() {
+        // when
+        // then
+        assertEquals("shard-0", directory.shardOf("1000000000"));
+        assertEquals("shard-0", directory.shardOf("1000000999"));
+        assertEquals("shard-1", directory.shardOf("1000001000"));
+        assertEquals("shard-0", directory.shardOf("not-a-number"));
+        assertEquals("shard-0", directory.homeShardOf(2L));
+        assertEquals("shard-1", directory.homeShardOf(3L));
+        assertEquals(new ShardRange(1000001000L, 1000001999L, "shard-1"), directory.allocationBlock("shard-1"));
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource);
+        assertEquals("shard-0", jdbcTemplate.queryForObject("select name from marker", String.class));
+        ShardContext.run("shard-1", () ->
+                assertEquals("shard-1", jdbcTemplate.queryForObject("select name from marker", String.class)));
+    }
+
+    @Test
+    void fanOutToAllShards() {
+        // given
+        ShardRouter router = new ShardRouter(directory, 2);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        // when
+        List<String> markers = router.onAllShards(() ->
+                jdbcTemplate.queryForObject("select name from marker", String.class));
+        router.close();
+
+        // then
+        assertEquals(List.of("shard-0", "shard-1"), markers);
+    }
+
+    @Test
+    void moveRangeWithTransactions() {
+        // given
+        insertAccounts("shard-0", FIRST, 20);
+
+        // when
+        ShardMoveReport report = mover().move(FIRST + 5, FIRST + 14, "shard-1");
+
+        // then
+        assertEquals("shard-0", report.getSource());
+        assertEquals(3, report.getChunks());
+        assertEquals(10L, report.getAccounts());
+        assertEquals(30L, report.getChildRows());
+        assertEquals(10L, count("shard-0", "select count(*) from account"));
+        assertEquals(10L, count("shard-1", "select count(*) from account"));
+        assertEquals(30L, count("shard-1", "select count(*) from transaction"));
+        assertEquals(0L, count("shard-0",
+                "select count(*) from account where account_number between '1000000005' and '1000000014'"));
+
+        assertEquals("shard-0", directory.shardOf("1000000004"));
+        assertEquals("shard-1", directory.shardOf("1000000005"));
+        assertEquals("shard-1", directory.shardOf("1000000014"));
+        assertEquals("shard-0", directory.shardOf("1000000015"));
+        assertTrue(directory.getFrozen().isEmpty());
+        assertEquals(List.of(
+                new ShardRange(FIRST, FIRST + 4, "shard-0"),
+                new ShardRange(FIRST + 5, FIRST + 14, "shard-1"),
+                new ShardRange(FIRST + 15, FIRST + BLOCK - 1, "shard-0"),
+                new ShardRange(FIRST + BLOCK, FIRST + 2 * BLOCK - 1, "shard-1")), directory.getRanges());
+    }
+
+    @Test
+    void reloadMovedRangesAfterRestart() {
+        // given
+        insertAccounts("shard-0", FIRST, 20);
+        mover().move(FIRST, FIRST + 9, "shard-1");
+
+        // when
+        ShardDirectory reloaded = new ShardDirectory(shards.get("shard-0"), List.of("shard-0", "shard-1"),
+                FIRST, BLOCK);
+
+        // then
+        assertEquals(directory.getRanges(), reloaded.getRanges());
+        assertEquals("shard-1", reloaded.shardOf("1000000009"));
+    }
+
+    @Test
+    void moveBackMergesRanges() {
+        // given
+        insertAccounts("shard-0", FIRST, 20);
+        mover().move(FIRST + 5, FIRST + 9, "shard-1");
+
+        // when
+        mover().move(FIRST + 5, FIRST + 9, "shard-0");
+
+        // then
+        assertEquals(20L, count("shard-0", "select count(*) from account"));
+        assertEquals(0L, count("shard-1", "select count(*) from account"));
+        assertEquals(List.of(
+                new ShardRange(FIRST, FIRST + BLOCK - 1, "shard-0"),
+                new ShardRange(FIRST + BLOCK, FIRST + 2 * BLOCK - 1, "shard-1")), directory.getRanges());
+    }
+
+    @Test
+    void cannotMoveNewestAccountOfAllocationBlock() {
+        // given
+        insertAccounts("shard-0", FIRST, 20);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> mover().move(FIRST + 10, FIRST + 19, "shard-1"));
+
+        // then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+        assertEquals(20L, count("shard-0", "select count(*) from account"));
+    }
+
+    @Test
+    void cannotMoveAcrossRanges() {
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> mover().move(FIRST + BLOCK - 1, FIRST + BLOCK, "shard-1"));
+
+        // then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+
+    @Test
+    void offsetSequenceStartPerShard() {
+        // given
+        String schema = "create sequence account_seq start with 1 increment by 50;\n" +
+                "create table account (id bigint not null, primary key (id));";
+
+        // when
+        String shifted = ShardSchemaInitializer.withSequenceStart(schema, 2_000_000_000_001L);
+
+        // then
+        assertTrue(shifted.contains("create sequence account_seq start with 2000000000001 increment by 50"));
+        assertTrue(shifted.contains("create table account"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.accountservicezerobase.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 한 요청(action)이 실행한 SQL 문 수, 읽어 온 행(엔티티 로드) 수, flush 수를 재서 예산과 비교한다.
+ * hibernate.generate_statistics 와 SqlStatementRecorder 가 켜져 있어야 한다.
+ * id 시퀀스 조회는 pool 이 언제 비는지에 따라 달라지므로 세지 않는다.
+ * 행/flush 수는 SessionFactory 전체 통계라서, 재는 동안 다른 스레드가 DB 를 쓰지 않게 해야 한다.
+ */
+public class SqlBudget {
+    private static final Pattern SEQUENCE_CALL = Pattern.compile("(?i)next\\s+value\\s+for|nextval\\(");
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    public record Usage(List<String> statements, long rowsFetched, long flushes) {
+        public void assertWithin(String name, int maxStatements, long maxRowsFetched, long maxFlushes) {
+            if (statements.size() <= maxStatements && rowsFetched <= maxRowsFetched && flushes <= maxFlushes) {
+                return;
+            }
+            StringBuilder message = new StringBuilder()
+                    .append(name).append(" is over its SQL budget: ")
+                    .append(statements.size()).append(" statements (max ").append(maxStatements).append("), ")
+                    .append(rowsFetched).append(" rows fetched (max ").append(maxRowsFetched).append("), ")
+                    .append(flushes).append(" flushes (max ").append(maxFlushes).append(")");
+            for (int i = 0; i < statements.size(); i++) {
+                message.append(System.lineSeparator())
+                        .append(String.format("%3d. ", i + 1))
+                        .append(statements.get(i).replaceAll("\\s+", " ").trim());
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    private final Statistics statistics;
+
+    public SqlBudget(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public Usage measure(Action action) throws Exception {
+        statistics.clear();
+        SqlStatementRecorder.start();
+        List<String> recorded;
+        try {
+            action.run();
+        } finally {
+            recorded = SqlStatementRecorder.stop();
+        }
+        List<String> statements = recorded.stream()
+                .filter(sql -> !SEQUENCE_CALL.matcher(sql).find())
+                .toList();
+        return new Usage(statements, statistics.getEntityLoadCount(), statistics.getFlushCount());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.accountservicezerobase.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * hibernate 가 준비하는 SQL 을 기록을 켠 스레드에서만 모은다. (스케줄러 등 다른 스레드의 SQL 은 섞이지 않는다)
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector 로 등록한다.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    public static void start() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> recorded = RECORDED.get();
+        RECORDED.remove();
+        return recorded != null ? recorded : List.of();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        return sql;
+    }
+}